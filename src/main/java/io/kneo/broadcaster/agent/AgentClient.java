@@ -5,6 +5,7 @@ import io.kneo.broadcaster.dto.agentrest.AgentRespDTO;
 import io.kneo.broadcaster.dto.cnst.TranslationType;
 import io.kneo.broadcaster.model.aiagent.LlmType;
 import io.kneo.broadcaster.model.cnst.LanguageTag;
+import io.kneo.broadcaster.service.exceptions.RateLimitedException;
 import io.kneo.officeframe.cnst.CountryCode;
 import io.smallrye.mutiny.Uni;
 import io.vertx.core.json.JsonObject;
@@ -14,6 +15,7 @@ import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -101,6 +103,9 @@ public class AgentClient {
                             throw new RuntimeException("Empty response body");
                         }
                         return body.mapTo(AgentRespDTO.class);
+                    } else if (response.statusCode() == 429) {
+                        throw new RateLimitedException("HTTP 429: " + response.bodyAsString(),
+                                retryAfter(response.getHeader("Retry-After")));
                     } else {
                         throw new RuntimeException("HTTP " + response.statusCode() + ": " + response.bodyAsString());
                     }
@@ -117,4 +122,15 @@ public class AgentClient {
                 .map(response -> response.statusCode() == 200)
                 .onFailure().recoverWithItem(false);
     }
-}
\ No newline at end of file
+
+    private static Duration retryAfter(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
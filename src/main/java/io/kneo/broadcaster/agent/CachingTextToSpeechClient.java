@@ -0,0 +1,23 @@
+package io.kneo.broadcaster.agent;
+
+import io.kneo.broadcaster.model.aiagent.TTSEngineType;
+import io.kneo.broadcaster.model.cnst.LanguageTag;
+import io.smallrye.mutiny.Uni;
+
+public class CachingTextToSpeechClient implements TextToSpeechClient {
+    private final TTSEngineType engineType;
+    private final TextToSpeechClient delegate;
+    private final TtsAudioCache cache;
+
+    CachingTextToSpeechClient(TTSEngineType engineType, TextToSpeechClient delegate, TtsAudioCache cache) {
+        this.engineType = engineType;
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Uni<byte[]> textToSpeech(String text, String voiceId, String modelId, LanguageTag languageTag) {
+        return cache.getOrSynthesize(engineType, text, voiceId, modelId, languageTag,
+                () -> delegate.textToSpeech(text, voiceId, modelId, languageTag));
+    }
+}
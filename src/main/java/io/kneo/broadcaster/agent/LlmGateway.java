@@ -0,0 +1,247 @@
+package io.kneo.broadcaster.agent;
+
+import com.anthropic.client.AnthropicClient;
+import com.anthropic.client.okhttp.AnthropicOkHttpClient;
+import com.anthropic.core.http.AsyncStreamResponse;
+import com.anthropic.models.messages.Message;
+import com.anthropic.models.messages.MessageCreateParams;
+import com.anthropic.models.messages.RawMessageStreamEvent;
+import com.anthropic.models.messages.Usage;
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.dto.dashboard.LlmStatsDTO;
+import io.kneo.broadcaster.util.AsyncSemaphore;
+import io.kneo.broadcaster.util.LatencyHistogram;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single entry point for Anthropic calls. One client (and so one OkHttp connection pool and
+ * dispatcher) is shared by generated content, chat and summaries. Calls are limited globally and
+ * per brand without parking threads, identical prompts within the coalescing window share one
+ * request, and token usage (including prompt-cache reads and writes) and latency are recorded for
+ * the dashboard.
+ */
+@ApplicationScoped
+public class LlmGateway {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LlmGateway.class);
+    private static final String NO_BRAND = "_system";
+
+    private final AnthropicClient client;
+    private final int perBrandLimit;
+    private final Duration coalesceWindow;
+    private final AsyncSemaphore globalPermits;
+    private final ConcurrentHashMap<String, AsyncSemaphore> brandPermits = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CoalescedCall> recentCalls = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentHashMap<String, BrandUsage> usageByBrand = new ConcurrentHashMap<>();
+
+    @Inject
+    public LlmGateway(BroadcasterConfig config) {
+        this(
+                AnthropicOkHttpClient.builder()
+                        .apiKey(config.getAnthropicApiKey())
+                        .baseUrl(config.getAnthropicBaseUrl())
+                        .timeout(Duration.ofSeconds(config.getLlmTimeoutSeconds()))
+                        .build(),
+                config.getLlmMaxConcurrency(),
+                config.getLlmMaxConcurrencyPerBrand(),
+                Duration.ofSeconds(config.getLlmCoalesceWindowSeconds())
+        );
+    }
+
+    public LlmGateway(AnthropicClient client, int globalLimit, int perBrandLimit, Duration coalesceWindow) {
+        this.client = client;
+        this.perBrandLimit = perBrandLimit;
+        this.coalesceWindow = coalesceWindow;
+        this.globalPermits = new AsyncSemaphore(globalLimit);
+    }
+
+    public Uni<Message> createMessage(String brand, MessageCreateParams params) {
+        String brandKey = brand != null ? brand : NO_BRAND;
+        if (coalesceWindow.isZero()) {
+            return limited(brandKey, () -> send(brandKey, params));
+        }
+
+        String key = brandKey + ":" + hash(params.toString());
+        long now = System.currentTimeMillis();
+        boolean[] leader = {false};
+        CoalescedCall call = recentCalls.compute(key, (k, existing) -> {
+            if (existing != null && now - existing.createdAt() < coalesceWindow.toMillis()) {
+                return existing;
+            }
+            leader[0] = true;
+            CoalescedCall[] self = new CoalescedCall[1];
+            // a late failure must not evict a newer call that replaced this one under the same key
+            Uni<Message> shared = limited(brandKey, () -> send(brandKey, params))
+                    .onFailure().invoke(() -> recentCalls.remove(k, self[0]))
+                    .memoize().indefinitely();
+            self[0] = new CoalescedCall(shared, now);
+            return self[0];
+        });
+        if (!leader[0]) {
+            coalesced.incrementAndGet();
+            LOGGER.debug("Coalesced identical LLM request for brand '{}'", brandKey);
+        }
+        return call.response();
+    }
+
+    public Uni<Void> stream(String brand, MessageCreateParams params, AsyncStreamResponse.Handler<RawMessageStreamEvent> handler) {
+        String brandKey = brand != null ? brand : NO_BRAND;
+        return limited(brandKey, () -> {
+            long start = System.nanoTime();
+            long[] tokens = new long[4];
+            return Uni.createFrom().completionStage(() -> client.async().messages().createStreaming(params)
+                            .subscribe(new AsyncStreamResponse.Handler<>() {
+                                @Override
+                                public void onNext(RawMessageStreamEvent event) {
+                                    event.messageStart().ifPresent(s -> {
+                                        Usage usage = s.message().usage();
+                                        tokens[0] = usage.inputTokens();
+                                        tokens[2] = usage.cacheReadInputTokens().orElse(0L);
+                                        tokens[3] = usage.cacheCreationInputTokens().orElse(0L);
+                                    });
+                                    event.messageDelta().ifPresent(d -> tokens[1] = d.usage().outputTokens());
+                                    handler.onNext(event);
+                                }
+
+                                @Override
+                                public void onComplete(Optional<Throwable> error) {
+                                    handler.onComplete(error);
+                                }
+                            })
+                            .onCompleteFuture())
+                    .onItemOrFailure().invoke((ignored, failure) ->
+                            record(brandKey, start, tokens[0], tokens[1], tokens[2], tokens[3], failure))
+                    .replaceWithVoid();
+        });
+    }
+
+    @Scheduled(every = "1m", identity = "llm-coalesce-purge")
+    void purgeCoalescedCalls() {
+        long cutoff = System.currentTimeMillis() - coalesceWindow.toMillis();
+        recentCalls.entrySet().removeIf(e -> e.getValue().createdAt() < cutoff);
+    }
+
+    public LlmStatsDTO getStats() {
+        LlmStatsDTO dto = new LlmStatsDTO();
+        dto.setRequests(requests.get());
+        dto.setCoalesced(coalesced.get());
+        dto.setFailures(failures.get());
+        dto.setInFlight(inFlight.get());
+        dto.setQueued(globalPermits.getQueued() + brandPermits.values().stream().mapToInt(AsyncSemaphore::getQueued).sum());
+        dto.setAvgLatencyMs(latency.getAverageMs());
+        dto.setP95LatencyMs(latency.getPercentileMs(0.95));
+        dto.setMaxLatencyMs(latency.getMaxMs());
+        dto.setLatencyHistogram(latency.getBuckets());
+
+        long input = 0, output = 0, cacheRead = 0, cacheWrite = 0;
+        Map<String, LlmStatsDTO.TokenUsage> byBrand = new LinkedHashMap<>();
+        for (Map.Entry<String, BrandUsage> e : usageByBrand.entrySet()) {
+            LlmStatsDTO.TokenUsage usage = new LlmStatsDTO.TokenUsage();
+            usage.setRequests(e.getValue().requests.get());
+            usage.setInputTokens(e.getValue().inputTokens.get());
+            usage.setOutputTokens(e.getValue().outputTokens.get());
+            usage.setCacheReadTokens(e.getValue().cacheReadTokens.get());
+            usage.setCacheWriteTokens(e.getValue().cacheWriteTokens.get());
+            byBrand.put(e.getKey(), usage);
+            input += usage.getInputTokens();
+            output += usage.getOutputTokens();
+            cacheRead += usage.getCacheReadTokens();
+            cacheWrite += usage.getCacheWriteTokens();
+        }
+        dto.setInputTokens(input);
+        dto.setOutputTokens(output);
+        dto.setCacheReadTokens(cacheRead);
+        dto.setCacheWriteTokens(cacheWrite);
+        dto.setTokensByBrand(byBrand);
+        return dto;
+    }
+
+    @PreDestroy
+    void close() {
+        client.close();
+    }
+
+    private <T> Uni<T> limited(String brandKey, Supplier<Uni<T>> call) {
+        AsyncSemaphore brandLimit = brandPermits.computeIfAbsent(brandKey, b -> new AsyncSemaphore(perBrandLimit));
+        return brandLimit.withPermit(() -> globalPermits.withPermit(() -> {
+            inFlight.incrementAndGet();
+            return call.get().onTermination().invoke(inFlight::decrementAndGet);
+        }));
+    }
+
+    private Uni<Message> send(String brandKey, MessageCreateParams params) {
+        long start = System.nanoTime();
+        return Uni.createFrom().completionStage(() -> client.async().messages().create(params))
+                .onItemOrFailure().invoke((message, failure) -> {
+                    Usage usage = message != null ? message.usage() : null;
+                    record(brandKey, start,
+                            usage != null ? usage.inputTokens() : 0,
+                            usage != null ? usage.outputTokens() : 0,
+                            usage != null ? usage.cacheReadInputTokens().orElse(0L) : 0,
+                            usage != null ? usage.cacheCreationInputTokens().orElse(0L) : 0,
+                            failure);
+                });
+    }
+
+    private void record(String brandKey, long startNanos, long inputTokens, long outputTokens,
+                        long cacheReadTokens, long cacheWriteTokens, Throwable failure) {
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        requests.incrementAndGet();
+        latency.record(elapsedMs);
+        if (failure != null) {
+            failures.incrementAndGet();
+            LOGGER.warn("LLM call for brand '{}' failed after {}ms: {}", brandKey, elapsedMs, failure.getMessage());
+            return;
+        }
+        BrandUsage usage = usageByBrand.computeIfAbsent(brandKey, b -> new BrandUsage());
+        usage.requests.incrementAndGet();
+        usage.inputTokens.addAndGet(inputTokens);
+        usage.outputTokens.addAndGet(outputTokens);
+        usage.cacheReadTokens.addAndGet(cacheReadTokens);
+        usage.cacheWriteTokens.addAndGet(cacheWriteTokens);
+    }
+
+    private static String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CoalescedCall(Uni<Message> response, long createdAt) {
+    }
+
+    private static class BrandUsage {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong inputTokens = new AtomicLong();
+        private final AtomicLong outputTokens = new AtomicLong();
+        private final AtomicLong cacheReadTokens = new AtomicLong();
+        private final AtomicLong cacheWriteTokens = new AtomicLong();
+    }
+}
@@ -0,0 +1,190 @@
+package io.kneo.broadcaster.agent;
+
+import com.anthropic.models.messages.CacheControlEphemeral;
+import com.anthropic.models.messages.ContentBlockParam;
+import com.anthropic.models.messages.MessageCreateParams;
+import com.anthropic.models.messages.MessageParam;
+import com.anthropic.models.messages.TextBlockParam;
+import com.anthropic.models.messages.Tool;
+import com.anthropic.models.messages.ToolUnion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Places prompt-cache breakpoints on a request. The API caches the prefix tools, system,
+ * messages up to each {@code cache_control} marker, so the planner marks the end of the tools,
+ * the end of the stable leading system block and the end of the whole system prompt, and in a
+ * conversation the latest message, whose prefix the next turn repeats. Text that changes on every
+ * call must come after the stable parts: callers split it into its own block, and
+ * {@link #stable(String)} marks a block inside a message that later calls will repeat. At most
+ * {@value #MAX_BREAKPOINTS} markers are allowed per request; markers already on the request count
+ * against that and are kept.
+ */
+public final class PromptCachePlanner {
+    public static final int MAX_BREAKPOINTS = 4;
+    private static final CacheControlEphemeral EPHEMERAL = CacheControlEphemeral.builder().build();
+
+    public enum Mode {
+        /**
+         * The next call continues this conversation, so the message history is worth caching.
+         */
+        CONVERSATION,
+        /**
+         * A single call: only the tools, the system prompt and blocks marked stable are cached.
+         */
+        ONE_SHOT
+    }
+
+    private PromptCachePlanner() {
+    }
+
+    /**
+     * System prompt as a stable block followed by the part that varies per call.
+     */
+    public static List<TextBlockParam> system(String stable, String variable) {
+        List<TextBlockParam> blocks = new ArrayList<>(2);
+        if (stable != null && !stable.isEmpty()) {
+            blocks.add(TextBlockParam.builder().text(stable).build());
+        }
+        if (variable != null && !variable.isEmpty()) {
+            blocks.add(TextBlockParam.builder().text(variable).build());
+        }
+        return blocks;
+    }
+
+    /**
+     * A message block that later calls will repeat verbatim, already carrying its breakpoint.
+     */
+    public static ContentBlockParam stable(String text) {
+        return ContentBlockParam.ofText(TextBlockParam.builder().text(text).cacheControl(EPHEMERAL).build());
+    }
+
+    public static MessageCreateParams plan(MessageCreateParams params, Mode mode) {
+        int budget = MAX_BREAKPOINTS - countBreakpoints(params);
+        MessageCreateParams.Builder builder = params.toBuilder();
+
+        List<ToolUnion> tools = params.tools().orElse(List.of());
+        if (budget > 0 && !tools.isEmpty()) {
+            ToolUnion last = tools.get(tools.size() - 1);
+            if (last.isTool() && last.asTool().cacheControl().isEmpty()) {
+                List<ToolUnion> planned = new ArrayList<>(tools);
+                Tool tool = last.asTool().toBuilder().cacheControl(EPHEMERAL).build();
+                planned.set(planned.size() - 1, ToolUnion.ofTool(tool));
+                builder.tools(planned);
+                budget--;
+            }
+        }
+
+        List<TextBlockParam> system = systemBlocks(params);
+        if (budget > 0 && !system.isEmpty()) {
+            List<TextBlockParam> planned = new ArrayList<>(system);
+            int last = planned.size() - 1;
+            if (mark(planned, last)) {
+                budget--;
+            }
+            if (budget > 0 && last > 0 && mark(planned, 0)) {
+                budget--;
+            }
+            builder.systemOfTextBlockParams(planned);
+        }
+
+        List<MessageParam> messages = params.messages();
+        if (budget > 0 && mode == Mode.CONVERSATION && !messages.isEmpty()) {
+            MessageParam latest = messages.get(messages.size() - 1);
+            Optional<MessageParam> marked = markLastBlock(latest);
+            if (marked.isPresent()) {
+                List<MessageParam> planned = new ArrayList<>(messages);
+                planned.set(planned.size() - 1, marked.get());
+                builder.messages(planned);
+            }
+        }
+
+        return builder.build();
+    }
+
+    public static int countBreakpoints(MessageCreateParams params) {
+        int count = 0;
+        for (ToolUnion tool : params.tools().orElse(List.of())) {
+            if (tool.isTool() && tool.asTool().cacheControl().isPresent()) {
+                count++;
+            }
+        }
+        for (TextBlockParam block : systemBlocks(params)) {
+            if (block.cacheControl().isPresent()) {
+                count++;
+            }
+        }
+        for (MessageParam message : params.messages()) {
+            if (message.content().isBlockParams()) {
+                for (ContentBlockParam block : message.content().asBlockParams()) {
+                    if (hasBreakpoint(block)) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private static List<TextBlockParam> systemBlocks(MessageCreateParams params) {
+        if (params.system().isEmpty()) {
+            return List.of();
+        }
+        MessageCreateParams.System system = params.system().get();
+        if (system.isString()) {
+            return system.asString().isEmpty() ? List.of() : List.of(TextBlockParam.builder().text(system.asString()).build());
+        }
+        return system.asTextBlockParams();
+    }
+
+    private static boolean mark(List<TextBlockParam> blocks, int index) {
+        TextBlockParam block = blocks.get(index);
+        if (block.cacheControl().isPresent()) {
+            return false;
+        }
+        blocks.set(index, block.toBuilder().cacheControl(EPHEMERAL).build());
+        return true;
+    }
+
+    private static Optional<MessageParam> markLastBlock(MessageParam message) {
+        MessageParam.Content content = message.content();
+        if (content.isString()) {
+            ContentBlockParam block = ContentBlockParam.ofText(
+                    TextBlockParam.builder().text(content.asString()).cacheControl(EPHEMERAL).build());
+            return Optional.of(message.toBuilder().content(MessageParam.Content.ofBlockParams(List.of(block))).build());
+        }
+        List<ContentBlockParam> blocks = content.asBlockParams();
+        if (blocks.isEmpty() || hasBreakpoint(blocks.get(blocks.size() - 1))) {
+            return Optional.empty();
+        }
+        ContentBlockParam last = blocks.get(blocks.size() - 1);
+        ContentBlockParam marked;
+        if (last.isText()) {
+            marked = ContentBlockParam.ofText(last.asText().toBuilder().cacheControl(EPHEMERAL).build());
+        } else if (last.isToolResult()) {
+            marked = ContentBlockParam.ofToolResult(last.asToolResult().toBuilder().cacheControl(EPHEMERAL).build());
+        } else if (last.isToolUse()) {
+            marked = ContentBlockParam.ofToolUse(last.asToolUse().toBuilder().cacheControl(EPHEMERAL).build());
+        } else {
+            return Optional.empty();
+        }
+        List<ContentBlockParam> planned = new ArrayList<>(blocks);
+        planned.set(planned.size() - 1, marked);
+        return Optional.of(message.toBuilder().content(MessageParam.Content.ofBlockParams(planned)).build());
+    }
+
+    private static boolean hasBreakpoint(ContentBlockParam block) {
+        if (block.isText()) {
+            return block.asText().cacheControl().isPresent();
+        }
+        if (block.isToolResult()) {
+            return block.asToolResult().cacheControl().isPresent();
+        }
+        if (block.isToolUse()) {
+            return block.asToolUse().cacheControl().isPresent();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,360 @@
+package io.kneo.broadcaster.agent;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.dto.dashboard.TtsCacheStatsDTO;
+import io.kneo.broadcaster.model.aiagent.TTSEngineType;
+import io.kneo.broadcaster.model.cnst.LanguageTag;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static io.smallrye.mutiny.infrastructure.Infrastructure.getDefaultWorkerPool;
+
+/**
+ * Content-addressed cache for synthesized speech. The key is a hash of engine, voice, model,
+ * language and normalized text; audio lives in a bounded in-memory tier backed by a disk tier
+ * with TTL and size eviction. Concurrent identical requests share a single engine call.
+ */
+@ApplicationScoped
+public class TtsAudioCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TtsAudioCache.class);
+    private static final String FILE_SUFFIX = ".mp3";
+
+    private final Path cacheDir;
+    private final long memoryMaxBytes;
+    private final long diskMaxBytes;
+    private final Duration ttl;
+    private final Map<TTSEngineType, Double> costPer1kChars;
+
+    private final LinkedHashMap<String, byte[]> hotTier = new LinkedHashMap<>(64, 0.75f, true);
+    private long hotTierBytes;
+    private final ConcurrentHashMap<String, DiskEntry> diskIndex = new ConcurrentHashMap<>();
+    private final AtomicLong diskTierBytes = new AtomicLong();
+    private final ConcurrentHashMap<String, Uni<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TTSEngineType, TextToSpeechClient> decorators = new ConcurrentHashMap<>();
+    private final Map<TTSEngineType, EngineCounters> counters = new EnumMap<>(TTSEngineType.class);
+
+    @Inject
+    public TtsAudioCache(BroadcasterConfig config) {
+        this(
+                Paths.get(config.getTtsCachePath()),
+                config.getTtsCacheMemoryMaxMb() * 1024L * 1024L,
+                config.getTtsCacheDiskMaxMb() * 1024L * 1024L,
+                Duration.ofDays(config.getTtsCacheTtlDays()),
+                Map.of(
+                        TTSEngineType.ELEVENLABS, config.getElevenLabsCostPer1kChars(),
+                        TTSEngineType.GOOGLE, config.getGoogleTtsCostPer1kChars(),
+                        TTSEngineType.MODELSLAB, config.getModelslabCostPer1kChars()
+                )
+        );
+    }
+
+    public TtsAudioCache(Path cacheDir, long memoryMaxBytes, long diskMaxBytes, Duration ttl,
+                         Map<TTSEngineType, Double> costPer1kChars) {
+        this.cacheDir = cacheDir;
+        this.memoryMaxBytes = memoryMaxBytes;
+        this.diskMaxBytes = diskMaxBytes;
+        this.ttl = ttl;
+        this.costPer1kChars = costPer1kChars;
+        for (TTSEngineType type : TTSEngineType.values()) {
+            counters.put(type, new EngineCounters());
+        }
+        loadDiskIndex();
+    }
+
+    public TextToSpeechClient decorate(TTSEngineType engineType, TextToSpeechClient delegate) {
+        return decorators.computeIfAbsent(engineType, type -> new CachingTextToSpeechClient(type, delegate, this));
+    }
+
+    Uni<byte[]> getOrSynthesize(TTSEngineType engineType, String text, String voiceId, String modelId,
+                                LanguageTag languageTag, Supplier<Uni<byte[]>> synthesizer) {
+        if (text == null || text.isBlank()) {
+            return synthesizer.get();
+        }
+        String normalized = normalize(text);
+        String key = buildKey(engineType, voiceId, modelId, languageTag, normalized);
+        EngineCounters engineCounters = counters.get(engineType);
+        engineCounters.requests.incrementAndGet();
+
+        byte[] hot = getFromHotTier(key);
+        if (hot != null) {
+            DiskEntry diskEntry = diskIndex.get(key);
+            if (diskEntry != null) {
+                diskEntry.lastAccess = System.currentTimeMillis();
+            }
+            engineCounters.memoryHits.incrementAndGet();
+            engineCounters.charsServed.addAndGet(normalized.length());
+            return Uni.createFrom().item(hot.clone());
+        }
+
+        boolean[] leader = {false};
+        Uni<byte[]> shared = inFlight.computeIfAbsent(key, k -> {
+            leader[0] = true;
+            return loadThroughDisk(engineType, k, normalized.length(), synthesizer)
+                    .onTermination().invoke(() -> inFlight.remove(k))
+                    .memoize().indefinitely();
+        });
+        if (!leader[0]) {
+            engineCounters.coalesced.incrementAndGet();
+        }
+        return shared.map(byte[]::clone);
+    }
+
+    private Uni<byte[]> loadThroughDisk(TTSEngineType engineType, String key, int chars,
+                                        Supplier<Uni<byte[]>> synthesizer) {
+        EngineCounters engineCounters = counters.get(engineType);
+        return Uni.createFrom().item(() -> readFromDisk(key))
+                .runSubscriptionOn(getDefaultWorkerPool())
+                .chain(fromDisk -> {
+                    if (fromDisk != null) {
+                        engineCounters.diskHits.incrementAndGet();
+                        engineCounters.charsServed.addAndGet(chars);
+                        putInHotTier(key, fromDisk);
+                        return Uni.createFrom().item(fromDisk);
+                    }
+                    engineCounters.misses.incrementAndGet();
+                    long start = System.nanoTime();
+                    return synthesizer.get()
+                            .onItem().invoke(() ->
+                                    engineCounters.missLatencyMillis.addAndGet((System.nanoTime() - start) / 1_000_000))
+                            .call(audio -> Uni.createFrom().item(() -> {
+                                        putInHotTier(key, audio);
+                                        writeToDisk(key, audio);
+                                        return audio;
+                                    })
+                                    .runSubscriptionOn(getDefaultWorkerPool()));
+                });
+    }
+
+    @Scheduled(every = "10m", identity = "tts-cache-eviction")
+    void evict() {
+        long expireBefore = System.currentTimeMillis() - ttl.toMillis();
+        diskIndex.forEach((key, entry) -> {
+            if (entry.lastAccess < expireBefore) {
+                removeEntry(key);
+            }
+        });
+
+        if (diskTierBytes.get() > diskMaxBytes) {
+            List<Map.Entry<String, DiskEntry>> byAge = diskIndex.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                    .toList();
+            for (Map.Entry<String, DiskEntry> entry : byAge) {
+                if (diskTierBytes.get() <= diskMaxBytes) {
+                    break;
+                }
+                removeEntry(entry.getKey());
+            }
+        }
+    }
+
+    public TtsCacheStatsDTO getStats() {
+        TtsCacheStatsDTO dto = new TtsCacheStatsDTO();
+        long requests = 0, hits = 0, latencySaved = 0;
+        double spendAvoided = 0;
+        Map<String, TtsCacheStatsDTO.EngineStats> engines = new LinkedHashMap<>();
+        for (Map.Entry<TTSEngineType, EngineCounters> e : counters.entrySet()) {
+            EngineCounters c = e.getValue();
+            long engineHits = c.memoryHits.get() + c.diskHits.get();
+            long misses = c.misses.get();
+            long avgMissLatency = misses == 0 ? 0 : c.missLatencyMillis.get() / misses;
+
+            TtsCacheStatsDTO.EngineStats engineStats = new TtsCacheStatsDTO.EngineStats();
+            engineStats.setRequests(c.requests.get());
+            engineStats.setMemoryHits(c.memoryHits.get());
+            engineStats.setDiskHits(c.diskHits.get());
+            engineStats.setMisses(misses);
+            engineStats.setCoalesced(c.coalesced.get());
+            engineStats.setAvgEngineLatencyMs(avgMissLatency);
+            engineStats.setLatencySavedMs((engineHits + c.coalesced.get()) * avgMissLatency);
+            engineStats.setSpendAvoided(c.charsServed.get() / 1000.0 * costPer1kChars.getOrDefault(e.getKey(), 0.0));
+            engines.put(e.getKey().getValue(), engineStats);
+
+            requests += engineStats.getRequests();
+            hits += engineHits;
+            latencySaved += engineStats.getLatencySavedMs();
+            spendAvoided += engineStats.getSpendAvoided();
+        }
+        dto.setEngines(engines);
+        dto.setHitRatio(requests == 0 ? 0.0 : (double) hits / requests);
+        dto.setLatencySavedMs(latencySaved);
+        dto.setSpendAvoided(spendAvoided);
+        dto.setDiskEntries(diskIndex.size());
+        dto.setDiskBytes(diskTierBytes.get());
+        synchronized (hotTier) {
+            dto.setMemoryEntries(hotTier.size());
+            dto.setMemoryBytes(hotTierBytes);
+        }
+        return dto;
+    }
+
+    static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFC).strip().replaceAll("\\s+", " ");
+    }
+
+    private static String buildKey(TTSEngineType engineType, String voiceId, String modelId,
+                                   LanguageTag languageTag, String normalizedText) {
+        String material = String.join("\u0000",
+                engineType.getValue(),
+                String.valueOf(voiceId),
+                String.valueOf(modelId),
+                languageTag == null ? "" : languageTag.name(),
+                normalizedText);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private byte[] getFromHotTier(String key) {
+        synchronized (hotTier) {
+            return hotTier.get(key);
+        }
+    }
+
+    private void putInHotTier(String key, byte[] audio) {
+        if (audio.length > memoryMaxBytes) {
+            return;
+        }
+        synchronized (hotTier) {
+            byte[] previous = hotTier.put(key, audio);
+            if (previous != null) {
+                hotTierBytes -= previous.length;
+            }
+            hotTierBytes += audio.length;
+            Iterator<byte[]> it = hotTier.values().iterator();
+            while (hotTierBytes > memoryMaxBytes && it.hasNext()) {
+                hotTierBytes -= it.next().length;
+                it.remove();
+            }
+        }
+    }
+
+    private byte[] readFromDisk(String key) {
+        DiskEntry entry = diskIndex.get(key);
+        if (entry == null) {
+            return null;
+        }
+        Path file = cacheDir.resolve(key + FILE_SUFFIX);
+        try {
+            byte[] audio = Files.readAllBytes(file);
+            long now = System.currentTimeMillis();
+            entry.lastAccess = now;
+            Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+            return audio;
+        } catch (IOException e) {
+            LOGGER.warn("TTS cache entry {} unreadable, dropping it: {}", key, e.getMessage());
+            removeEntry(key);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, byte[] audio) {
+        Path target = cacheDir.resolve(key + FILE_SUFFIX);
+        Path tmp = cacheDir.resolve(key + ".tmp");
+        try {
+            Files.createDirectories(cacheDir);
+            Files.write(tmp, audio);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            DiskEntry previous = diskIndex.put(key, new DiskEntry(audio.length, System.currentTimeMillis()));
+            diskTierBytes.addAndGet(audio.length - (previous != null ? previous.size : 0));
+            if (diskTierBytes.get() > diskMaxBytes) {
+                evict();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to persist TTS cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void removeEntry(String key) {
+        DiskEntry removed = diskIndex.remove(key);
+        if (removed != null) {
+            diskTierBytes.addAndGet(-removed.size);
+        }
+        synchronized (hotTier) {
+            byte[] hot = hotTier.remove(key);
+            if (hot != null) {
+                hotTierBytes -= hot.length;
+            }
+        }
+        try {
+            Files.deleteIfExists(cacheDir.resolve(key + FILE_SUFFIX));
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete TTS cache file {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void loadDiskIndex() {
+        if (!Files.isDirectory(cacheDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                try {
+                    if (name.endsWith(FILE_SUFFIX)) {
+                        long size = Files.size(file);
+                        String key = name.substring(0, name.length() - FILE_SUFFIX.length());
+                        diskIndex.put(key, new DiskEntry(size, Files.getLastModifiedTime(file).toMillis()));
+                        diskTierBytes.addAndGet(size);
+                    } else if (name.endsWith(".tmp")) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException e) {
+                    LOGGER.warn("Skipping TTS cache file {}: {}", name, e.getMessage());
+                }
+            });
+            LOGGER.info("TTS cache loaded {} entries ({} bytes) from {}", diskIndex.size(), diskTierBytes.get(), cacheDir);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to index TTS cache directory {}", cacheDir, e);
+        }
+    }
+
+    private static class DiskEntry {
+        private final long size;
+        private volatile long lastAccess;
+
+        DiskEntry(long size, long lastAccess) {
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static class EngineCounters {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong memoryHits = new AtomicLong();
+        private final AtomicLong diskHits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+        private final AtomicLong missLatencyMillis = new AtomicLong();
+        private final AtomicLong charsServed = new AtomicLong();
+    }
+}
@@ -5,6 +5,7 @@ import io.smallrye.config.WithDefault;
 import io.smallrye.config.WithName;
 
 import java.util.List;
+import java.util.Optional;
 
 @ConfigMapping(prefix = "broadcaster")
 public interface BroadcasterConfig {
@@ -70,6 +71,26 @@ public interface BroadcasterConfig {
     @WithName("anthropic.api-key")
     String getAnthropicApiKey();
 
+    @WithName("anthropic.base-url")
+    @WithDefault("https://api.anthropic.com")
+    String getAnthropicBaseUrl();
+
+    @WithName("llm.timeout-seconds")
+    @WithDefault("60")
+    int getLlmTimeoutSeconds();
+
+    @WithName("llm.max-concurrency")
+    @WithDefault("16")
+    int getLlmMaxConcurrency();
+
+    @WithName("llm.max-concurrency-per-brand")
+    @WithDefault("4")
+    int getLlmMaxConcurrencyPerBrand();
+
+    @WithName("llm.coalesce-window-seconds")
+    @WithDefault("10")
+    int getLlmCoalesceWindowSeconds();
+
     @WithName("elevenlabs.api-key")
     String getElevenLabsApiKey();
 
@@ -90,4 +111,193 @@ public interface BroadcasterConfig {
 
     @WithName("google.credential-path")
     String getGcpCredentialsPath();
-}
\ No newline at end of file
+
+    @WithName("tts.cache.path")
+    @WithDefault("tts-cache")
+    String getTtsCachePath();
+
+    @WithName("tts.cache.memory-max-mb")
+    @WithDefault("64")
+    int getTtsCacheMemoryMaxMb();
+
+    @WithName("tts.cache.disk-max-mb")
+    @WithDefault("2048")
+    int getTtsCacheDiskMaxMb();
+
+    @WithName("tts.cache.ttl-days")
+    @WithDefault("30")
+    int getTtsCacheTtlDays();
+
+    @WithName("tts.cost-per-1k-chars.elevenlabs")
+    @WithDefault("0.30")
+    double getElevenLabsCostPer1kChars();
+
+    @WithName("tts.cost-per-1k-chars.google")
+    @WithDefault("0.016")
+    double getGoogleTtsCostPer1kChars();
+
+    @WithName("tts.cost-per-1k-chars.modelslab")
+    @WithDefault("0.01")
+    double getModelslabCostPer1kChars();
+
+    @WithName("checkpoint.path")
+    @WithDefault("station-checkpoints")
+    String getCheckpointPath();
+
+    @WithName("checkpoint.max-age-seconds")
+    @WithDefault("600")
+    int getCheckpointMaxAgeSeconds();
+
+    @WithName("analysis.target-lufs")
+    @WithDefault("-14.0")
+    double getAnalysisTargetLufs();
+
+    @WithName("analysis.true-peak-ceiling-db")
+    @WithDefault("-1.0")
+    double getAnalysisTruePeakCeilingDb();
+
+    @WithName("analysis.max-concurrency")
+    @WithDefault("2")
+    int getAnalysisMaxConcurrency();
+
+    @WithName("analysis.backfill-batch-size")
+    @WithDefault("20")
+    int getAnalysisBackfillBatchSize();
+
+    @WithName("analysis.failed-retry-minutes")
+    @WithDefault("360")
+    int getAnalysisFailedRetryMinutes();
+
+    @WithName("upload.bulk.probe-concurrency")
+    @WithDefault("4")
+    int getBulkUploadProbeConcurrency();
+
+    @WithName("upload.bulk.store-concurrency")
+    @WithDefault("4")
+    int getBulkUploadStoreConcurrency();
+
+    @WithName("upload.bulk.queue-capacity")
+    @WithDefault("500")
+    int getBulkUploadQueueCapacity();
+
+    @WithName("upload.progress.max-batches")
+    @WithDefault("200")
+    int getUploadProgressMaxBatches();
+
+    @WithName("upload.progress.ttl-minutes")
+    @WithDefault("30")
+    int getUploadProgressTtlMinutes();
+
+    @WithName("cluster.enabled")
+    @WithDefault("false")
+    boolean isClusterEnabled();
+
+    @WithName("cluster.node-id")
+    Optional<String> getClusterNodeId();
+
+    @WithName("cluster.advertised-url")
+    Optional<String> getClusterAdvertisedUrl();
+
+    @WithName("cluster.secret")
+    Optional<String> getClusterSecret();
+
+    @WithName("cluster.heartbeat-seconds")
+    @WithDefault("5")
+    int getClusterHeartbeatSeconds();
+
+    @WithName("cluster.node-timeout-seconds")
+    @WithDefault("20")
+    int getClusterNodeTimeoutSeconds();
+
+    @WithName("cluster.virtual-nodes")
+    @WithDefault("128")
+    int getClusterVirtualNodes();
+
+    @WithName("cluster.handover-grace-seconds")
+    @WithDefault("30")
+    int getClusterHandoverGraceSeconds();
+
+    @WithName("cluster.relay-cache-max-mb")
+    @WithDefault("256")
+    int getClusterRelayCacheMaxMb();
+
+    @WithName("blocking.ffmpeg-concurrency")
+    @WithDefault("4")
+    int getBlockingFfmpegConcurrency();
+
+    @WithName("blocking.probe-concurrency")
+    @WithDefault("8")
+    int getBlockingProbeConcurrency();
+
+    @WithName("blocking.storage-concurrency")
+    @WithDefault("32")
+    int getBlockingStorageConcurrency();
+
+    @WithName("blocking.file-concurrency")
+    @WithDefault("64")
+    int getBlockingFileConcurrency();
+
+    @WithName("blocking.script-concurrency")
+    @WithDefault("32")
+    int getBlockingScriptConcurrency();
+
+    @WithName("blocking.llm-concurrency")
+    @WithDefault("64")
+    int getBlockingLlmConcurrency();
+
+    @WithName("template.cache-size")
+    @WithDefault("256")
+    int getTemplateCacheSize();
+
+    @WithName("template.queue-capacity")
+    @WithDefault("512")
+    int getTemplateQueueCapacity();
+
+    @WithName("template.render-timeout-seconds")
+    @WithDefault("90")
+    int getTemplateRenderTimeoutSeconds();
+
+    @WithName("chat.history.max-conversations")
+    @WithDefault("5000")
+    int getChatHistoryMaxConversations();
+
+    @WithName("chat.history.token-budget")
+    @WithDefault("3000")
+    int getChatHistoryTokenBudget();
+
+    @WithName("chat.history.window-messages")
+    @WithDefault("10")
+    int getChatHistoryWindowMessages();
+
+    @WithName("chat.journal.capacity")
+    @WithDefault("10000")
+    int getChatJournalCapacity();
+
+    @WithName("chat.journal.batch-size")
+    @WithDefault("200")
+    int getChatJournalBatchSize();
+
+    @WithName("chat.room.queue-capacity")
+    @WithDefault("256")
+    int getChatRoomQueueCapacity();
+
+    @WithName("translation.concurrency")
+    @WithDefault("4")
+    int getTranslationConcurrency();
+
+    @WithName("translation.rate-per-second")
+    @WithDefault("2")
+    double getTranslationRatePerSecond();
+
+    @WithName("translation.burst")
+    @WithDefault("4")
+    int getTranslationBurst();
+
+    @WithName("translation.max-retries")
+    @WithDefault("5")
+    int getTranslationMaxRetries();
+
+    @WithName("translation.checkpoint-dir")
+    @WithDefault("translation_jobs")
+    String getTranslationCheckpointDir();
+}
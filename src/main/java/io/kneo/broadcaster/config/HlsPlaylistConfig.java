@@ -23,4 +23,12 @@ public interface HlsPlaylistConfig {
     @WithName("playmanager.warmup.fragments.quantity")
     @WithDefault("3")
     int getWarmUpFragmentQuantity();
+
+    @WithName("http.segment-max-age")
+    @WithDefault("31536000")
+    int getSegmentMaxAge();
+
+    @WithName("http.origin-shield")
+    @WithDefault("false")
+    boolean isOriginShield();
 }
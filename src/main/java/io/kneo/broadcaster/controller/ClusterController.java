@@ -0,0 +1,142 @@
+package io.kneo.broadcaster.controller;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.model.cnst.StreamStatus;
+import io.kneo.broadcaster.service.RadioService;
+import io.kneo.broadcaster.service.cluster.ClusterMembership;
+import io.kneo.broadcaster.service.cluster.StationRelay;
+import io.kneo.broadcaster.service.stream.StationCheckpointService;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static io.smallrye.mutiny.infrastructure.Infrastructure.getDefaultWorkerPool;
+
+/**
+ * Node-to-node endpoints of cluster mode. Only peers that present the shared cluster secret are
+ * let through.
+ */
+@ApplicationScoped
+public class ClusterController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterController.class);
+
+    private final BroadcasterConfig config;
+    private final ClusterMembership membership;
+    private final StationRelay relay;
+    private final RadioService radioService;
+    private final StationCheckpointService checkpointService;
+
+    @Inject
+    public ClusterController(BroadcasterConfig config, ClusterMembership membership, StationRelay relay,
+                             RadioService radioService, StationCheckpointService checkpointService) {
+        this.config = config;
+        this.membership = membership;
+        this.relay = relay;
+        this.radioService = radioService;
+        this.checkpointService = checkpointService;
+    }
+
+    public void setupRoutes(Router router) {
+        String path = "/cluster/stations/:brand";
+        router.route("/cluster/*").handler(this::authenticatePeer);
+        router.route(HttpMethod.POST, path + "/start").handler(this::start);
+        router.route(HttpMethod.POST, path + "/stop").handler(this::stop);
+        router.route(HttpMethod.POST, path + "/adopt").handler(this::adopt);
+        router.route(HttpMethod.GET, path + "/handover").handler(this::handover);
+    }
+
+    private void authenticatePeer(RoutingContext rc) {
+        String expected = config.getClusterSecret().orElse("");
+        String presented = rc.request().getHeader(StationRelay.SECRET_HEADER);
+        if (!membership.isEnabled() || expected.isEmpty() || presented == null
+                || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8))) {
+            rc.response().setStatusCode(403).end();
+            return;
+        }
+        rc.next();
+    }
+
+    private void start(RoutingContext rc) {
+        String brand = rc.pathParam("brand").toLowerCase();
+        radioService.initializeStation(brand)
+                .subscribe().with(
+                        station -> respondStatus(rc, station.getStatus()),
+                        throwable -> {
+                            LOGGER.error("Error starting radio station {} for a peer: {}", brand, throwable.getMessage());
+                            rc.response().setStatusCode(500).end(throwable.getMessage());
+                        }
+                );
+    }
+
+    private void stop(RoutingContext rc) {
+        String brand = rc.pathParam("brand").toLowerCase();
+        radioService.stopStation(brand)
+                .subscribe().with(
+                        station -> respondStatus(rc, StreamStatus.OFF_LINE),
+                        throwable -> rc.response().setStatusCode(500).end(throwable.getMessage())
+                );
+    }
+
+    private void adopt(RoutingContext rc) {
+        String brand = rc.pathParam("brand").toLowerCase();
+        String from = rc.request().getParam("from");
+        if (from == null || from.isBlank()) {
+            rc.response().setStatusCode(400).end("Missing 'from' node");
+            return;
+        }
+        LOGGER.info("Adopting station {} from {}", brand, from);
+        relay.fetchHandover(from, brand)
+                .chain(payload -> checkpointService.importHandover(brand, payload))
+                .onFailure().recoverWithUni(failure -> {
+                    LOGGER.warn("Handover of station {} from {} failed, starting it cold: {}", brand, from, failure.getMessage());
+                    return radioService.initializeStation(brand).map(station -> true);
+                })
+                .subscribe().with(
+                        adopted -> rc.response()
+                                .putHeader("Content-Type", MediaType.APPLICATION_JSON)
+                                .end(new JsonObject().put("adopted", adopted).encode()),
+                        throwable -> rc.response().setStatusCode(500).end(throwable.getMessage())
+                );
+    }
+
+    private void handover(RoutingContext rc) {
+        String brand = rc.pathParam("brand").toLowerCase();
+        Uni.createFrom().item(() -> {
+                    try {
+                        return checkpointService.exportHandover(brand);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .runSubscriptionOn(getDefaultWorkerPool())
+                .subscribe().with(
+                        payload -> {
+                            if (payload == null) {
+                                rc.response().setStatusCode(404).end("Station is not live here");
+                            } else {
+                                rc.response()
+                                        .putHeader("Content-Type", MediaType.APPLICATION_OCTET_STREAM)
+                                        .end(Buffer.buffer(payload));
+                            }
+                        },
+                        throwable -> rc.response().setStatusCode(500).end(throwable.getMessage())
+                );
+    }
+
+    private void respondStatus(RoutingContext rc, StreamStatus status) {
+        rc.response()
+                .putHeader("Content-Type", MediaType.APPLICATION_JSON)
+                .end(new JsonObject().put("status", status.name()).encode());
+    }
+}
@@ -1,6 +1,7 @@
 package io.kneo.broadcaster.controller;
 
 import io.kneo.broadcaster.dto.ChatMessageDTO;
+import io.kneo.broadcaster.service.chat.ChatRoomBus;
 import io.kneo.broadcaster.service.chat.PublicChatService;
 import io.kneo.broadcaster.service.chat.PublicChatSessionManager;
 import io.kneo.core.controller.AbstractSecuredController;
@@ -27,18 +28,20 @@ import static java.util.UUID.randomUUID;
 public class PublicChatController extends AbstractSecuredController<Object, Object> {
     private static final Logger LOG = LoggerFactory.getLogger(PublicChatController.class);
     private final PublicChatService publicChatService;
-    private final Map<String, ServerWebSocket> activeConnections = new ConcurrentHashMap<>();
+    private final ChatRoomBus chatRoomBus;
     private final Map<String, Set<String>> userStationRegistrations = new ConcurrentHashMap<>();
 
     public PublicChatController() {
         super(null);
         this.publicChatService = null;
+        this.chatRoomBus = null;
     }
 
     @Inject
-    public PublicChatController(UserService userService, PublicChatService publicChatService) {
+    public PublicChatController(UserService userService, PublicChatService publicChatService, ChatRoomBus chatRoomBus) {
         super(userService);
         this.publicChatService = publicChatService;
+        this.chatRoomBus = chatRoomBus;
     }
 
     public void setupRoutes(Router router) {
@@ -54,13 +57,14 @@ public class PublicChatController extends AbstractSecuredController<Object, Obje
         router.route("/api/ws/public-chat").handler(rc -> {
             if ("websocket".equalsIgnoreCase(rc.request().getHeader("Upgrade"))) {
                 String token = rc.request().getParam("token");
+                String brandSlug = rc.request().getParam("brandSlug");
                 LOG.info("WebSocket connection attempt with token: {}", token);
                 
                 authenticateUserFromToken(token)
                         .subscribe().with(
                                 user -> {
                                     LOG.info("User authenticated: {}", user.getUserName());
-                                    rc.request().toWebSocket().onSuccess(ws -> handlePublicChatWebSocket(ws, user))
+                                    rc.request().toWebSocket().onSuccess(ws -> handlePublicChatWebSocket(ws, user, brandSlug))
                                             .onFailure(err -> {
                                                 LOG.error("WebSocket connection failed", err);
                                                 rc.fail(500, err);
@@ -293,11 +297,13 @@ public class PublicChatController extends AbstractSecuredController<Object, Obje
         return publicChatService.authenticateUserFromToken(token);
     }
 
-    private void handlePublicChatWebSocket(ServerWebSocket webSocket, IUser user) {
+    private void handlePublicChatWebSocket(ServerWebSocket webSocket, IUser user, String initialBrandSlug) {
         webSocket.accept();
         
         String connectionId = randomUUID().toString();
-        activeConnections.put(connectionId, webSocket);
+        assert chatRoomBus != null;
+        ChatRoomBus.Member member = chatRoomBus.connect(connectionId, ChatRoomBus.Outlet.of(webSocket));
+        member.join(initialBrandSlug);
         LOG.info("Public chat WebSocket connected: {} for user: {}", connectionId, user.getUserName());
 
         webSocket.textMessageHandler(message -> {
@@ -305,43 +311,44 @@ public class PublicChatController extends AbstractSecuredController<Object, Obje
                 JsonObject msgJson = new JsonObject(message);
                 String action = msgJson.getString("action");
                 String brandSlug = msgJson.getString("brandSlug");
+                member.join(brandSlug);
                 
                 switch (action) {
                     case "sendMessage":
-                        handleUserMessage(webSocket, msgJson, connectionId, brandSlug, user);
+                        handleUserMessage(member, msgJson, connectionId, brandSlug, user);
                         break;
                     case "getHistory":
-                        handleGetHistory(webSocket, msgJson, user);
+                        handleGetHistory(member, msgJson, user);
                         break;
                     default:
-                        sendError(webSocket, "Unknown action: " + action);
+                        sendError(member, "Unknown action: " + action);
                 }
             } catch (Exception e) {
                 LOG.error("Error processing message", e);
-                sendError(webSocket, "Invalid message format: " + e.getMessage());
+                sendError(member, "Invalid message format: " + e.getMessage());
             }
         });
 
         webSocket.closeHandler(v -> {
-            activeConnections.remove(connectionId);
+            chatRoomBus.disconnect(connectionId);
             userStationRegistrations.remove(connectionId);
             LOG.info("Public chat WebSocket closed: {}", connectionId);
         });
 
         webSocket.exceptionHandler(err -> {
             LOG.error("WebSocket error for {}", connectionId, err);
-            activeConnections.remove(connectionId);
+            chatRoomBus.disconnect(connectionId);
             userStationRegistrations.remove(connectionId);
         });
     }
 
-    private void handleUserMessage(ServerWebSocket webSocket, JsonObject msgJson, String connectionId, 
+    private void handleUserMessage(ChatRoomBus.Member member, JsonObject msgJson, String connectionId,
                                   String brandSlug, IUser user) {
         String username = msgJson.getString("username", user.getUserName());
         String content = msgJson.getString("content");
 
         if (content == null || content.trim().isEmpty()) {
-            sendError(webSocket, "Message content cannot be empty");
+            sendError(member, "Message content cannot be empty");
             return;
         }
 
@@ -361,23 +368,23 @@ public class PublicChatController extends AbstractSecuredController<Object, Obje
                 .chain(() -> publicChatService.processUserMessage(username, content, connectionId, brandSlug, user))
                 .subscribe().with(
                         response -> {
-                            webSocket.writeTextMessage(response);
-                            sendBotResponse(webSocket, content, connectionId, brandSlug, user);
+                            shareWithRoom(member, brandSlug, response);
+                            sendBotResponse(member, content, connectionId, brandSlug, user);
                         },
                         err -> {
                             LOG.error("Error processing user message", err);
-                            sendError(webSocket, err);
+                            sendError(member, err);
                         }
                 );
     }
 
-    private void sendBotResponse(ServerWebSocket webSocket, String userMessage, String connectionId, 
+    private void sendBotResponse(ChatRoomBus.Member member, String userMessage, String connectionId,
                                 String brandSlug, IUser user) {
         assert publicChatService != null;
         publicChatService.generateBotResponse(
                 userMessage,
-                webSocket::writeTextMessage,
-                webSocket::writeTextMessage,
+                member::send,
+                message -> shareWithRoom(member, brandSlug, message),
                 connectionId,
                 brandSlug,
                 user
@@ -385,31 +392,44 @@ public class PublicChatController extends AbstractSecuredController<Object, Obje
                 v -> {},
                 e -> {
                     LOG.error("Bot response error", e);
-                    sendError(webSocket, "Bot response failed: " + e.getMessage());
+                    sendError(member, "Bot response failed: " + e.getMessage());
                 }
         );
     }
 
-    private void handleGetHistory(ServerWebSocket webSocket, JsonObject msgJson, IUser user) {
+    /**
+     * For finished user and DJ messages, which the whole station sees. Streaming chunks, status
+     * notes and errors go to {@link ChatRoomBus.Member#send} and stay with the listener who asked.
+     */
+    private void shareWithRoom(ChatRoomBus.Member member, String brandSlug, String message) {
+        assert chatRoomBus != null;
+        if (brandSlug != null && brandSlug.equals(member.getRoom())) {
+            chatRoomBus.publish(brandSlug, message);
+        } else {
+            member.send(message);
+        }
+    }
+
+    private void handleGetHistory(ChatRoomBus.Member member, JsonObject msgJson, IUser user) {
         String brandSlug = msgJson.getString("brandSlug");
         Integer limit = msgJson.getInteger("limit", 50);
 
         assert publicChatService != null;
         publicChatService.getChatHistory(brandSlug, limit, user)
                 .subscribe().with(
-                        webSocket::writeTextMessage,
+                        member::send,
                         err -> {
                             LOG.error("Error getting chat history", err);
-                            sendError(webSocket, err);
+                            sendError(member, err);
                         }
                 );
     }
 
-    private void sendError(ServerWebSocket webSocket, Throwable err) {
-        sendError(webSocket, err.getMessage());
+    private void sendError(ChatRoomBus.Member member, Throwable err) {
+        sendError(member, err.getMessage());
     }
 
-    private void sendError(ServerWebSocket webSocket, String message) {
-        webSocket.writeTextMessage(ChatMessageDTO.error(message, "system", "system").build().toJson());
+    private void sendError(ChatRoomBus.Member member, String message) {
+        member.send(ChatMessageDTO.error(message, "system", "system").build().toJson());
     }
 }
\ No newline at end of file
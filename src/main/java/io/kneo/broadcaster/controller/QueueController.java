@@ -109,13 +109,13 @@ public class QueueController {
         String action = jsonObject.getString("action");
         if ("start".equalsIgnoreCase(action)) {
             LOGGER.info("Starting radio station for brand: {}", brand);
-            radioService.initializeStation(brand)
+            radioService.startOnOwner(brand)
                     .subscribe().with(
-                            station -> {
+                            status -> {
                                 rc.response()
                                         .putHeader("Content-Type", MediaType.APPLICATION_JSON)
                                         .setStatusCode(200)
-                                        .end("{\"status\":\"" + station.getStatus() + "\"}");
+                                        .end("{\"status\":\"" + status + "\"}");
                             },
                             throwable -> {
                                 LOGGER.error("Error starting radio station: {}", throwable.getMessage());
@@ -127,9 +127,9 @@ public class QueueController {
                     );
         } else if ("stop".equalsIgnoreCase(action)) {
             LOGGER.info("Stopping radio station for brand: {}", brand);
-            radioService.stopStation(brand)
+            radioService.stopOnOwner(brand)
                     .subscribe().with(
-                            station -> {
+                            status -> {
                                 rc.response()
                                         .putHeader("Content-Type", MediaType.APPLICATION_JSON)
                                         .setStatusCode(200)
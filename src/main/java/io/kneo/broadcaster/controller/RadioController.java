@@ -8,9 +8,13 @@ import io.kneo.broadcaster.model.cnst.StreamStatus;
 import io.kneo.broadcaster.service.OneTimeStreamService;
 import io.kneo.broadcaster.service.RadioService;
 import io.kneo.broadcaster.service.ScriptService;
+import io.kneo.broadcaster.service.StationDirectoryService;
+import io.kneo.broadcaster.service.StationStatusSnapshotService;
 import io.kneo.broadcaster.service.chat.PublicChatService;
+import io.kneo.broadcaster.service.cluster.StationRelay;
 import io.kneo.broadcaster.service.exceptions.RadioStationException;
 import io.kneo.broadcaster.service.external.MailService;
+import io.kneo.broadcaster.service.stream.HlsCachePolicy;
 import io.kneo.broadcaster.service.stream.HlsSegment;
 import io.kneo.broadcaster.service.stream.IStreamManager;
 import io.kneo.broadcaster.service.stream.Mp3Streamer;
@@ -78,6 +82,14 @@ public class RadioController {
     MailService mailService;
     @Inject
     PublicChatService publicChatService;
+    @Inject
+    StationDirectoryService stationDirectory;
+    @Inject
+    StationStatusSnapshotService statusSnapshots;
+    @Inject
+    StationRelay stationRelay;
+    @Inject
+    HlsCachePolicy hlsCachePolicy;
 
     public void setupRoutes(Router router) {
         String path = "/:brand/radio";
@@ -86,6 +98,7 @@ public class RadioController {
                 .setHandleFileUploads(false)
                 .setBodyLimit(BODY_HANDLER_LIMIT);
         //online
+        router.route(HttpMethod.GET, path + "/*").handler(this::relayToOwner);
         router.route(HttpMethod.GET, path + "/master.m3u8").handler(this::getMasterPlaylist);
         router.route(HttpMethod.GET, path + "/stream.m3u8").handler(this::getPlaylist);
         router.route(HttpMethod.GET, path + "/segments/:segment").handler(this::getSegment);
@@ -111,6 +124,15 @@ public class RadioController {
         router.route(HttpMethod.OPTIONS, "/radio/:brand/submissions/files/:id").handler(rc -> rc.response().setStatusCode(204).end());
     }
 
+    private void relayToOwner(RoutingContext rc) {
+        String node = stationRelay.targetFor(rc.pathParam("brand").toLowerCase(), rc.request());
+        if (node == null) {
+            rc.next();
+        } else {
+            stationRelay.relay(rc, node);
+        }
+    }
+
     private void rateFragment(RoutingContext rc) {
         if (jsonBodyIsBad(rc)) return;
 
@@ -234,7 +256,7 @@ public class RadioController {
                 .subscribe().with(
                         content -> rc.response()
                                 .putHeader("Content-Type", "application/vnd.apple.mpegurl")
-                                .putHeader("Cache-Control", "no-cache")
+                                .putHeader("Cache-Control", hlsCachePolicy.masterCacheControl())
                                 .end(content),
                         throwable -> {
                             if (throwable instanceof RadioStationException) {
@@ -275,12 +297,22 @@ public class RadioController {
                                     });
                         })
                 )
-                .onItem().transform(manager -> manager.generatePlaylist(rc.request().getParam("bitrate")))
+                .chain(manager -> {
+                    String bitrate = rc.request().getParam("bitrate");
+                    return hlsCachePolicy.playlist(brand + ":" + bitrate, () -> manager.generatePlaylist(bitrate));
+                })
                 .subscribe().with(
                         playlistContent -> {
+                            if (hlsCachePolicy.isOriginShield()) {
+                                String etag = hlsCachePolicy.etag(playlistContent);
+                                if (hlsCachePolicy.notModified(rc.request(), rc.response(), etag)) {
+                                    return;
+                                }
+                                rc.response().putHeader("ETag", etag);
+                            }
                             rc.response()
                                     .putHeader("Content-Type", "application/vnd.apple.mpegurl")
-                                    .putHeader("Cache-Control", "no-cache")
+                                    .putHeader("Cache-Control", hlsCachePolicy.playlistCacheControl())
                                     .end(playlistContent);
                         },
                         throwable -> {
@@ -303,13 +335,17 @@ public class RadioController {
                     if (segment == null) {
                         throw new WebApplicationException(Response.Status.NOT_FOUND);
                     }
-                    return segment.getData();
+                    return segment;
                 })
                 .subscribe().with(
-                        data -> rc.response()
-                                .putHeader("Content-Type", "video/MP2T")
-                                .putHeader("Cache-Control", "no-cache")
-                                .end(Buffer.buffer(data)),
+                        segment -> {
+                            boolean immutable = hlsCachePolicy.isImmutable(segmentParam);
+                            if (immutable && hlsCachePolicy.notModified(rc.request(), rc.response(), hlsCachePolicy.etag(segment))) {
+                                return;
+                            }
+                            hlsCachePolicy.applySegmentHeaders(rc.response(), segment, immutable);
+                            rc.response().end(Buffer.buffer(segment.getData()));
+                        },
                         throwable -> {
                             if (throwable instanceof WebApplicationException e) {
                                 rc.response().setStatusCode(e.getResponse().getStatus()).end("Segment not found");
@@ -323,11 +359,21 @@ public class RadioController {
     private void getStatus(RoutingContext rc) {
         String brand = rc.pathParam("brand").toLowerCase();
 
-        service.getStatus(brand)
+        statusSnapshots.getStatus(brand)
                 .subscribe().with(
-                        statusDto -> rc.response()
-                                .putHeader("Content-Type", MediaType.APPLICATION_JSON)
-                                .end(Json.encode(statusDto)),
+                        view -> {
+                            // polled by every Mixpla client; a few seconds of staleness is fine
+                            rc.response()
+                                    .putHeader("ETag", view.etag())
+                                    .putHeader("Cache-Control", "public, max-age=5");
+                            if (view.etag().equals(rc.request().getHeader("If-None-Match"))) {
+                                rc.response().setStatusCode(304).end();
+                                return;
+                            }
+                            rc.response()
+                                    .putHeader("Content-Type", MediaType.APPLICATION_JSON)
+                                    .end(view.body());
+                        },
                         throwable -> {
                             if (throwable instanceof RadioStationException) {
                                 rc.response().setStatusCode(404).end(throwable.getMessage());
@@ -340,11 +386,9 @@ public class RadioController {
 
 
     private void getStations(RoutingContext rc) {
-        service.getStations()
+        stationDirectory.getStations()
                 .subscribe().with(
-                        stations -> rc.response()
-                                .putHeader("Content-Type", MediaType.APPLICATION_JSON)
-                                .end(Json.encode(stations)),
+                        view -> sendDirectoryView(rc, view),
                         throwable -> rc.response().setStatusCode(500).end("Failed to get stations list")
                 );
     }
@@ -352,15 +396,26 @@ public class RadioController {
     private void getAllStations(RoutingContext rc) {
         String onlineParam = rc.request().getParam("online");
         Boolean onlineOnly = onlineParam != null ? Boolean.parseBoolean(onlineParam) : null;
-        service.getAllStations(onlineOnly)
+        stationDirectory.getAllStations(onlineOnly)
                 .subscribe().with(
-                        stations -> rc.response()
-                                .putHeader("Content-Type", MediaType.APPLICATION_JSON)
-                                .end(Json.encode(stations)),
+                        view -> sendDirectoryView(rc, view),
                         throwable -> rc.response().setStatusCode(500).end("Failed to get all stations")
                 );
     }
 
+    private void sendDirectoryView(RoutingContext rc, StationDirectoryService.View view) {
+        rc.response()
+                .putHeader("ETag", view.etag())
+                .putHeader("Cache-Control", "no-cache");
+        if (view.etag().equals(rc.request().getHeader("If-None-Match"))) {
+            rc.response().setStatusCode(304).end();
+            return;
+        }
+        rc.response()
+                .putHeader("Content-Type", MediaType.APPLICATION_JSON)
+                .end(view.body());
+    }
+
     private void getStation(RoutingContext rc) {
         service.getStation(rc.pathParam("brand"))
                 .subscribe().with(
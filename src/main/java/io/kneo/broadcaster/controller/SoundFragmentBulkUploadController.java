@@ -3,6 +3,7 @@ package io.kneo.broadcaster.controller;
 import io.kneo.broadcaster.dto.SoundFragmentDTO;
 import io.kneo.broadcaster.dto.UploadFileDTO;
 import io.kneo.broadcaster.model.soundfragment.SoundFragment;
+import io.kneo.broadcaster.service.exceptions.IngestQueueFullException;
 import io.kneo.broadcaster.service.util.FileUploadService;
 import io.kneo.core.controller.AbstractSecuredController;
 import io.kneo.core.repository.exception.UserNotFoundException;
@@ -16,7 +17,7 @@ import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
 
 @ApplicationScoped
 public class SoundFragmentBulkUploadController extends AbstractSecuredController<SoundFragment, SoundFragmentDTO> {
@@ -70,6 +71,12 @@ public class SoundFragmentBulkUploadController extends AbstractSecuredController
                                     .end(io.vertx.core.json.Json.encode(dto));
                         },
                         err -> {
+                            if (err instanceof IngestQueueFullException e) {
+                                LOGGER.warn("Bulk upload rejected for batch {}: {}", batchId, e.getMessage());
+                                rc.response().putHeader("Retry-After", "30");
+                                rc.fail(503, e);
+                                return;
+                            }
                             LOGGER.error("Bulk upload failed: {}", batchId, err);
                             if (err instanceof IllegalArgumentException e) {
                                 int status;
@@ -96,16 +103,18 @@ public class SoundFragmentBulkUploadController extends AbstractSecuredController
                 .setChunked(true);
 
         long timerId = vertx.setPeriodic(500, id -> {
-            ConcurrentHashMap<String, UploadFileDTO> files = fileUploadService.getBulkUploadProgress(batchId);
+            Map<String, UploadFileDTO> files = fileUploadService.getBulkUploadProgress(batchId);
             if (!files.isEmpty()) {
                 rc.response().write("data: " + io.vertx.core.json.Json.encode(files) + "\n\n");
                 
                 // Check if all files are finished or errored
                 boolean allDone = files.values().stream().allMatch(f -> 
-                    "finished".equals(f.getStatus()) || "error".equals(f.getStatus())
+                    "finished".equals(f.getStatus()) || "error".equals(f.getStatus()) || "duplicate".equals(f.getStatus())
                 );
                 
                 if (allDone) {
+                    LOGGER.info("Bulk upload batch {} done: {} files, {} files/min", batchId, files.size(),
+                            String.format("%.1f", fileUploadService.getBatchFilesPerMinute(batchId)));
                     vertx.cancelTimer(id);
                     rc.response().end();
                 }
@@ -5,10 +5,12 @@ import io.kneo.broadcaster.dto.BulkBrandUpdateDTO;
 import io.kneo.broadcaster.dto.SoundFragmentDTO;
 import io.kneo.broadcaster.dto.actions.SoundFragmentActionsFactory;
 import io.kneo.broadcaster.dto.filter.SoundFragmentFilterDTO;
+import io.kneo.broadcaster.model.FileData;
 import io.kneo.broadcaster.model.cnst.PlaylistItemType;
 import io.kneo.broadcaster.model.cnst.RatingAction;
 import io.kneo.broadcaster.model.cnst.SourceType;
 import io.kneo.broadcaster.model.soundfragment.SoundFragment;
+import io.kneo.broadcaster.service.exceptions.RangeNotSatisfiableException;
 import io.kneo.broadcaster.service.soundfragment.BrandSoundFragmentService;
 import io.kneo.broadcaster.service.soundfragment.SoundFragmentService;
 import io.kneo.broadcaster.service.util.FileDownloadService;
@@ -16,6 +18,7 @@ import io.kneo.broadcaster.service.util.FileUploadService;
 import io.kneo.broadcaster.service.util.ValidationResult;
 import io.kneo.broadcaster.service.util.ValidationService;
 import io.kneo.broadcaster.util.FileSecurityUtils;
+import io.kneo.broadcaster.util.HttpRange;
 import io.kneo.broadcaster.util.InputStreamReadStream;
 import io.kneo.broadcaster.util.ProblemDetailsUtil;
 import io.kneo.core.controller.AbstractSecuredController;
@@ -31,7 +34,6 @@ import io.kneo.core.util.RuntimeUtil;
 import io.smallrye.mutiny.Uni;
 import io.smallrye.mutiny.tuples.Tuple2;
 import io.vertx.core.Vertx;
-import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonArray;
@@ -44,6 +46,11 @@ import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -248,14 +255,14 @@ public class SoundFragmentController extends AbstractSecuredController<SoundFrag
     private void getBySlugName(RoutingContext rc) {
         String id = rc.pathParam("id");
         String requestedFileName = rc.pathParam("slug");
+        HttpRange range = HttpRange.parse(rc.request().getHeader("Range"), rc.request().getHeader("If-Range"));
 
         getContextUser(rc, false, true)
-                .chain(user -> fileDownloadService.getFile(id, requestedFileName, user))
+                .chain(user -> fileDownloadService.getFile(id, requestedFileName, range, user))
                 .subscribe().with(
                         fileData -> {
-                            if (fileData == null ||
-                                    (fileData.getData() == null && fileData.getInputStream() == null) ||
-                                    (fileData.hasByteArray() && fileData.getData().length == 0)) {
+                            if (fileData == null || (!fileData.hasPath() && !fileData.hasInputStream())
+                                    || (fileData.hasPath() && fileData.getContentLength() == 0)) {
                                 rc.fail(404, new IllegalArgumentException("File content not available"));
                                 return;
                             }
@@ -264,29 +271,99 @@ public class SoundFragmentController extends AbstractSecuredController<SoundFrag
                                     .putHeader("Content-Disposition", "attachment; filename=\"" +
                                             FileSecurityUtils.sanitizeFilename(requestedFileName) + "\"")
                                     .putHeader("Content-Type", fileData.getMimeType())
-                                    .putHeader("Content-Length", String.valueOf(fileData.getContentLength()));
-
-                            if (fileData.hasByteArray()) {
-                                response.end(Buffer.buffer(fileData.getData()));
-                            } else if (fileData.hasInputStream()) {
-                                response.setChunked(true);
-
-                                InputStreamReadStream inputStreamReadStream = new InputStreamReadStream(vertx, fileData.getInputStream(), STREAM_BUFFER_SIZE);
-                                inputStreamReadStream.pipeTo(response)
-                                        .onComplete(ar -> {
-                                            if (ar.failed()) {
-                                                LOGGER.error("Stream failed", ar.cause());
-                                                if (!response.ended()) {
-                                                    response.setStatusCode(500).end();
-                                                }
-                                            }
-                                        });
+                                    .putHeader("Accept-Ranges", "bytes");
+                            if (fileData.getLastModified() > 0) {
+                                response.putHeader("Last-Modified", HttpRange.httpDate(fileData.getLastModified()));
+                                if (notModifiedSince(rc, fileData.getLastModified())) {
+                                    closeQuietly(fileData.getInputStream());
+                                    response.setStatusCode(304).end();
+                                    return;
+                                }
+                            }
+
+                            if (fileData.hasPath()) {
+                                sendLocalFile(rc, response, fileData, range);
+                            } else {
+                                streamFile(response, fileData);
                             }
                         },
-                        t -> handleFailure(rc, t)
+                        t -> {
+                            if (t instanceof RangeNotSatisfiableException e) {
+                                rc.response().setStatusCode(416)
+                                        .putHeader("Content-Range", "bytes */" + e.getSize())
+                                        .end();
+                            } else {
+                                handleFailure(rc, t);
+                            }
+                        }
                 );
     }
 
+    private void sendLocalFile(RoutingContext rc, HttpServerResponse response, FileData fileData, HttpRange range) {
+        long size = fileData.getContentLength();
+        if (range == null || !range.appliesTo(fileData.getLastModified())) {
+            response.sendFile(fileData.getPath().toString());
+            return;
+        }
+        if (!range.isSatisfiable(size)) {
+            response.setStatusCode(416)
+                    .putHeader("Content-Range", "bytes */" + size)
+                    .end();
+            return;
+        }
+        response.setStatusCode(206)
+                .putHeader("Content-Range", range.contentRange(size))
+                .sendFile(fileData.getPath().toString(), range.firstByte(size), range.length(size));
+    }
+
+    private void streamFile(HttpServerResponse response, FileData fileData) {
+        if (fileData.getContentRange() != null) {
+            response.setStatusCode(206).putHeader("Content-Range", fileData.getContentRange());
+        }
+        if (fileData.getContentLength() > 0) {
+            response.putHeader("Content-Length", String.valueOf(fileData.getContentLength()));
+        } else {
+            response.setChunked(true);
+        }
+
+        InputStreamReadStream inputStreamReadStream = new InputStreamReadStream(vertx, fileData.getInputStream(), STREAM_BUFFER_SIZE);
+        inputStreamReadStream.pipeTo(response)
+                .onComplete(ar -> {
+                    closeQuietly(fileData.getInputStream());
+                    if (ar.failed()) {
+                        LOGGER.error("Stream failed", ar.cause());
+                        if (!response.headWritten()) {
+                            response.setStatusCode(500).end();
+                        } else if (!response.ended()) {
+                            response.reset();
+                        }
+                    }
+                });
+    }
+
+    private static boolean notModifiedSince(RoutingContext rc, long lastModified) {
+        String header = rc.request().getHeader("If-Modified-Since");
+        if (header == null || rc.request().getHeader("Range") != null) {
+            return false;
+        }
+        try {
+            long since = ZonedDateTime.parse(header, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return lastModified / 1000 <= since / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        if (stream == null) {
+            return;
+        }
+        try {
+            stream.close();
+        } catch (IOException ignored) {
+        }
+    }
+
     private void bulkBrandUpdate(RoutingContext rc) {
         try {
             if (!validateJsonBody(rc)) {
@@ -0,0 +1,19 @@
+package io.kneo.broadcaster.dto.dashboard;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BulkIngestStatsDTO {
+    private int activeBatches;
+    private int pending;
+    private int queueCapacity;
+    private int probeInFlight;
+    private int probeQueued;
+    private int storeInFlight;
+    private int storeQueued;
+    private long duplicatesSkipped;
+    private long rejected;
+    private double filesPerMinute;
+}
@@ -0,0 +1,23 @@
+package io.kneo.broadcaster.dto.dashboard;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class EntityCacheStatsDTO {
+    private String name;
+    private int size;
+    private int maxEntries;
+    private long ttlSeconds;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long loads;
+    private long loadFailures;
+    private double avgLoadMs;
+    private long evictions;
+    private long invalidations;
+    private long weight;
+    private long maxWeight;
+}
@@ -0,0 +1,35 @@
+package io.kneo.broadcaster.dto.dashboard;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+public class LlmStatsDTO {
+    private long requests;
+    private long coalesced;
+    private long failures;
+    private int inFlight;
+    private int queued;
+    private long inputTokens;
+    private long outputTokens;
+    private long cacheReadTokens;
+    private long cacheWriteTokens;
+    private long avgLatencyMs;
+    private long p95LatencyMs;
+    private long maxLatencyMs;
+    private Map<String, Long> latencyHistogram;
+    private Map<String, TokenUsage> tokensByBrand;
+
+    @Getter
+    @Setter
+    public static class TokenUsage {
+        private long requests;
+        private long inputTokens;
+        private long outputTokens;
+        private long cacheReadTokens;
+        private long cacheWriteTokens;
+    }
+}
@@ -19,4 +19,9 @@ public class StatsDTO {
     private List<StationEntry> stations;
     private ConfigurationStats configurationStats;
     private SchedulerStatsDTO schedulerStats;
+    private TtsCacheStatsDTO ttsCacheStats;
+    private LlmStatsDTO llmStats;
+    private List<EntityCacheStatsDTO> entityCacheStats;
+    private BulkIngestStatsDTO bulkIngestStats;
+    private TemplateRenderStatsDTO templateRenderStats;
 }
\ No newline at end of file
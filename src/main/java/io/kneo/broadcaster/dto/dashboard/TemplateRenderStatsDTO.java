@@ -0,0 +1,21 @@
+package io.kneo.broadcaster.dto.dashboard;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class TemplateRenderStatsDTO {
+    private long renders;
+    private long cacheHits;
+    private long cacheMisses;
+    private double hitRate;
+    private long evictions;
+    private long timeouts;
+    private long rejections;
+    private int cachedScripts;
+    private int activeRenders;
+    private int queuedRenders;
+    private long cpuTimeMs;
+    private long renderTimeMs;
+}
@@ -0,0 +1,32 @@
+package io.kneo.broadcaster.dto.dashboard;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+public class TtsCacheStatsDTO {
+    private double hitRatio;
+    private long latencySavedMs;
+    private double spendAvoided;
+    private int memoryEntries;
+    private long memoryBytes;
+    private int diskEntries;
+    private long diskBytes;
+    private Map<String, EngineStats> engines;
+
+    @Getter
+    @Setter
+    public static class EngineStats {
+        private long requests;
+        private long memoryHits;
+        private long diskHits;
+        private long misses;
+        private long coalesced;
+        private long avgEngineLatencyMs;
+        private long latencySavedMs;
+        private double spendAvoided;
+    }
+}
@@ -3,35 +3,42 @@ package io.kneo.broadcaster.model;
 import lombok.Getter;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 
 @Getter
 public class FileData {
-    private final byte[] data;
+    private final Path path;
     private final InputStream inputStream;
     private final String mimeType;
     private final long contentLength;
+    private final String contentRange;
+    private final long lastModified;
 
-    // Constructor for byte[] data (existing usage)
-    public FileData(byte[] data, String mimeType) {
-        this.data = data;
+    // Local file, sent with sendfile
+    public FileData(Path path, String mimeType, long contentLength, long lastModified) {
+        this.path = path;
         this.inputStream = null;
         this.mimeType = mimeType;
-        this.contentLength = data != null ? data.length : 0;
+        this.contentLength = contentLength;
+        this.contentRange = null;
+        this.lastModified = lastModified;
     }
 
-    // Constructor for InputStream data (cloud storage)
-    public FileData(InputStream inputStream, String mimeType, long contentLength) {
-        this.data = null;
+    // Constructor for InputStream data (cloud storage); contentRange is set when the store served a byte range
+    public FileData(InputStream inputStream, String mimeType, long contentLength, String contentRange, long lastModified) {
+        this.path = null;
         this.inputStream = inputStream;
         this.mimeType = mimeType;
         this.contentLength = contentLength;
+        this.contentRange = contentRange;
+        this.lastModified = lastModified;
     }
 
     public boolean hasInputStream() {
         return inputStream != null;
     }
 
-    public boolean hasByteArray() {
-        return data != null;
+    public boolean hasPath() {
+        return path != null;
     }
 }
@@ -36,6 +36,7 @@ public class FileMetadata {
     private String slugName;
     private String fileKey;
     private String fileOriginalName;
+    private String contentHash;
     private FileStorageType fileStorageType;
     private byte[] fileBin;
     private AccessType accessType;
@@ -43,6 +44,7 @@ public class FileMetadata {
     private Path temporaryFilePath;
     private InputStream inputStream;
     private Long contentLength;
+    private String contentRange;
 
     public Uni<Path> materializeFileStream(String tempBaseDir) {
         return Uni.createFrom().item(() -> {
@@ -2,6 +2,7 @@ package io.kneo.broadcaster.model.live;
 
 import io.kneo.broadcaster.model.cnst.LiveSongSource;
 import io.kneo.broadcaster.model.cnst.PlaylistItemType;
+import io.kneo.broadcaster.model.soundfragment.AudioAnalysis;
 import io.kneo.broadcaster.service.manipulation.mixing.MergingType;
 import lombok.Getter;
 import lombok.Setter;
@@ -21,6 +22,7 @@ public class SongMetadata {
     private PlaylistItemType itemType;
     private String bitrate;
     private LiveSongSource source;
+    private AudioAnalysis analysis;
 
 
     public SongMetadata(String title, String artist) {
@@ -0,0 +1,41 @@
+package io.kneo.broadcaster.model.soundfragment;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Per-track measurements taken once at ingest so playback can apply a fixed gain and trim to the
+ * cue points instead of analysing the audio again on every play.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+public class AudioAnalysis {
+    public static final int CURRENT_VERSION = 1;
+
+    private int version;
+    private long analyzedAt;
+    private double integratedLufs;
+    private double truePeakDb;
+    private long cueInMs;
+    private long cueOutMs;
+    private long durationMs;
+    private Double bpm;
+    private List<Integer> waveform;
+
+    /**
+     * Gain that brings the track to {@code targetLufs} without pushing the true peak above
+     * {@code peakCeilingDb}.
+     */
+    public double gainDb(double targetLufs, double peakCeilingDb) {
+        double gain = targetLufs - integratedLufs;
+        return Math.min(gain, peakCeilingDb - truePeakDb);
+    }
+
+    public boolean hasCuePoints() {
+        return cueOutMs > cueInMs;
+    }
+}
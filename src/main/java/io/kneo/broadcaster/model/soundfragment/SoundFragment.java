@@ -34,6 +34,7 @@ public class SoundFragment extends SecureDataEntity<UUID> {
     private List<FileMetadata> fileMetadataList;
     private ContributionWorkflow contributionWorkflow;
     private Object addInfo;
+    private AudioAnalysis analysis;
 
     public String getMetadata() {
         return String.format("%s#%s", title, artist);
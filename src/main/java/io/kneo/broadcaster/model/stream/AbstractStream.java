@@ -11,6 +11,7 @@ import io.kneo.broadcaster.model.cnst.StreamStatus;
 import io.kneo.broadcaster.service.stream.IStreamManager;
 import io.kneo.core.localization.LanguageCode;
 import io.kneo.officeframe.cnst.CountryCode;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -24,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Setter
 @Getter
@@ -55,6 +57,8 @@ public abstract class AbstractStream implements IStream {
     protected LanguageTag broadcastingLanguage;
     protected LanguageTag streamLanguage;
     protected final Map<UUID, Set<UUID>> fetchedSongsByScene = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    protected Consumer<IStream> statusListener;
 
     @Override
     public void setStatus(StreamStatus newStatus) {
@@ -69,6 +73,21 @@ public abstract class AbstractStream implements IStream {
             }
             statusHistory.add(record);
             this.status = newStatus;
+            notifyStatusListener();
+        }
+    }
+
+    @Override
+    public void setAiAgentStatus(AiAgentStatus aiAgentStatus) {
+        if (this.aiAgentStatus != aiAgentStatus) {
+            this.aiAgentStatus = aiAgentStatus;
+            notifyStatusListener();
+        }
+    }
+
+    private void notifyStatusListener() {
+        if (statusListener != null) {
+            statusListener.accept(this);
         }
     }
 
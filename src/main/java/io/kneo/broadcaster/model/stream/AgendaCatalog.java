@@ -0,0 +1,123 @@
+package io.kneo.broadcaster.model.stream;
+
+import io.kneo.broadcaster.model.PlaylistRequest;
+import io.kneo.broadcaster.model.cnst.PlaylistItemType;
+import io.kneo.broadcaster.model.cnst.WayOfSourcing;
+import io.kneo.broadcaster.model.soundfragment.SoundFragment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Snapshot of everything an agenda build can pick from: the brand's active sound fragments and
+ * the fragments named by the script's static lists. Scenes draw their pools from it in memory
+ * with the same rules the per-scene catalog queries applied, so a whole agenda costs one query.
+ */
+public class AgendaCatalog {
+    private final List<SoundFragment> brandFragments;
+    private final Map<UUID, SoundFragment> fragmentsById;
+
+    public AgendaCatalog(List<SoundFragment> brandFragments, List<SoundFragment> listedFragments) {
+        this.brandFragments = List.copyOf(brandFragments);
+        this.fragmentsById = new HashMap<>();
+        brandFragments.forEach(f -> fragmentsById.put(f.getId(), f));
+        listedFragments.forEach(f -> fragmentsById.put(f.getId(), f));
+    }
+
+    public static AgendaCatalog empty() {
+        return new AgendaCatalog(List.of(), List.of());
+    }
+
+    public int size() {
+        return fragmentsById.size();
+    }
+
+    /**
+     * Up to {@code quantity} random fragments for a scene. Static lists take their listed
+     * fragments; queries take the brand's fragments matching genres, labels, types and sources;
+     * anything else takes the brand's songs.
+     */
+    public List<SoundFragment> select(PlaylistRequest request, int quantity, Random random) {
+        WayOfSourcing sourcing = request != null ? request.getSourcing() : null;
+        List<SoundFragment> matching;
+        if (sourcing == WayOfSourcing.STATIC_LIST) {
+            matching = listed(request.getSoundFragments());
+        } else if (sourcing == WayOfSourcing.QUERY) {
+            matching = new ArrayList<>();
+            for (SoundFragment fragment : brandFragments) {
+                if (matches(fragment, request)) {
+                    matching.add(fragment);
+                }
+            }
+        } else {
+            matching = new ArrayList<>();
+            for (SoundFragment fragment : brandFragments) {
+                if (fragment.getType() == PlaylistItemType.SONG) {
+                    matching.add(fragment);
+                }
+            }
+        }
+        return sample(matching, quantity, random);
+    }
+
+    private List<SoundFragment> listed(List<UUID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<SoundFragment> listed = new ArrayList<>(ids.size());
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            SoundFragment fragment = fragmentsById.get(id);
+            if (fragment != null) {
+                listed.add(fragment);
+            }
+        }
+        return listed;
+    }
+
+    private static boolean matches(SoundFragment fragment, PlaylistRequest request) {
+        if (hasValues(request.getGenres()) && !intersects(fragment.getGenres(), request.getGenres())) {
+            return false;
+        }
+        if (hasValues(request.getLabels()) && !intersects(fragment.getLabels(), request.getLabels())) {
+            return false;
+        }
+        if (hasValues(request.getType()) && !request.getType().contains(fragment.getType())) {
+            return false;
+        }
+        return !hasValues(request.getSource()) || request.getSource().contains(fragment.getSource());
+    }
+
+    /**
+     * Partial Fisher-Yates: shuffles only the {@code quantity} positions that are returned.
+     */
+    private static List<SoundFragment> sample(List<SoundFragment> matching, int quantity, Random random) {
+        int size = Math.min(quantity, matching.size());
+        for (int i = 0; i < size; i++) {
+            Collections.swap(matching, i, i + random.nextInt(matching.size() - i));
+        }
+        return new ArrayList<>(matching.subList(0, size));
+    }
+
+    private static boolean hasValues(Collection<?> values) {
+        return values != null && !values.isEmpty();
+    }
+
+    private static boolean intersects(List<UUID> values, List<UUID> wanted) {
+        if (values == null) {
+            return false;
+        }
+        for (UUID value : values) {
+            if (wanted.contains(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
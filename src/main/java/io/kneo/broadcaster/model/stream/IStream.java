@@ -17,6 +17,7 @@ import java.time.ZoneId;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface IStream {
 
@@ -97,4 +98,6 @@ public interface IStream {
     LanguageTag getStreamLanguage();
 
     void setStreamLanguage(LanguageTag streamLanguage);
+
+    void setStatusListener(Consumer<IStream> statusListener);
 }
@@ -32,8 +32,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static io.kneo.broadcaster.repository.table.KneoBroadcasterNameResolver.BRAND_STATS;
@@ -413,6 +416,27 @@ public class BrandRepository extends AsyncRepository {
                 });
     }
 
+    public Uni<Map<String, OffsetDateTime>> findLastAccessTimesByStationNames(Collection<String> stationNames) {
+        if (stationNames.isEmpty()) {
+            return Uni.createFrom().item(Map.of());
+        }
+        String sql = "SELECT station_name, MAX(last_access_time) AS last_access_time FROM " +
+                brandStats.getTableName() + " WHERE station_name = ANY($1) GROUP BY station_name";
+
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(stationNames.toArray(new String[0])))
+                .onItem().transform(rows -> {
+                    Map<String, OffsetDateTime> result = new HashMap<>();
+                    for (Row row : rows) {
+                        OffsetDateTime lastAccess = row.getOffsetDateTime("last_access_time");
+                        if (lastAccess != null) {
+                            result.put(row.getString("station_name"), lastAccess);
+                        }
+                    }
+                    return result;
+                });
+    }
+
     public Uni<List<DocumentAccessInfo>> getDocumentAccessInfo(UUID documentId, IUser user) {
         return getDocumentAccessInfo(documentId, entityData, user);
     }
@@ -0,0 +1,324 @@
+package io.kneo.broadcaster.repository;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.model.cnst.ChatType;
+import io.kneo.broadcaster.model.cnst.MessageType;
+import io.kneo.broadcaster.repository.table.KneoBroadcasterNameResolver;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.VertxException;
+import io.vertx.pgclient.PgException;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.kneo.broadcaster.repository.table.KneoBroadcasterNameResolver.CHAT_MESSAGE;
+
+/**
+ * Write-behind buffer for chat messages. Messages are queued and written in multi-row inserts
+ * once a batch fills up or the flush timer fires, so a busy chat does not cost one round trip
+ * per message. One batch is in flight at a time and a failed batch is retried before anything
+ * queued after it, which keeps rows in order; ids make the retry idempotent. A batch that cannot
+ * reach the database is retried until it can. A batch the database rejects is retried
+ * {@value #MAX_REJECTED_ATTEMPTS} times, then split into single rows, and a row that is still
+ * rejected is logged and set aside so it cannot stall every later message. When the queue is
+ * full the caller waits for one flush before giving up, and shutdown drains what is left.
+ */
+@ApplicationScoped
+public class ChatMessageJournal {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChatMessageJournal.class);
+    private static final Duration SHUTDOWN_DRAIN_TIMEOUT = Duration.ofSeconds(15);
+    static final int MAX_REJECTED_ATTEMPTS = 3;
+
+    private final BlockingQueue<Entry> queue;
+    private final int batchSize;
+    private final Sink sink;
+
+    private final Deque<List<Entry>> retries = new ArrayDeque<>();
+    private int rejectedAttempts;
+    private Uni<Void> inFlight;
+    private int inFlightSize;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Inject
+    public ChatMessageJournal(BroadcasterConfig config, PgPool client) {
+        this(config.getChatJournalCapacity(), config.getChatJournalBatchSize(), insertInto(client));
+    }
+
+    public ChatMessageJournal(int capacity, int batchSize, Sink sink) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.sink = sink;
+    }
+
+    public Uni<Void> append(Entry entry) {
+        if (offer(entry)) {
+            return Uni.createFrom().voidItem();
+        }
+        return flush()
+                .onFailure().recoverWithNull()
+                .chain(() -> {
+                    if (offer(entry)) {
+                        return Uni.createFrom().voidItem();
+                    }
+                    rejected.incrementAndGet();
+                    return Uni.createFrom().failure(new IllegalStateException("Chat journal is full"));
+                });
+    }
+
+    /**
+     * Writes the next batch, or joins the one already being written.
+     */
+    public Uni<Void> flush() {
+        return Uni.createFrom().deferred(() -> {
+            synchronized (this) {
+                if (inFlight != null) {
+                    return inFlight;
+                }
+                List<Entry> batch = !retries.isEmpty() ? retries.poll() : drain();
+                if (batch.isEmpty()) {
+                    return Uni.createFrom().voidItem();
+                }
+                inFlightSize = batch.size();
+                inFlight = Uni.createFrom().deferred(() -> sink.insert(batch))
+                        .onItemOrFailure().invoke((ignored, failure) -> completed(batch, failure))
+                        .memoize().indefinitely();
+                return inFlight;
+            }
+        });
+    }
+
+    /**
+     * Flushes until everything that was pending when it was called has been written. Used before
+     * reading history, so a read sees the messages appended before it. Stops at the first failed
+     * flush; the caller then reads without the rows that are still queued.
+     */
+    public Uni<Void> flushAll() {
+        return flushRounds(getPending() / Math.max(1, batchSize) + 2);
+    }
+
+    private Uni<Void> flushRounds(int rounds) {
+        if (rounds <= 0 || getPending() == 0) {
+            return Uni.createFrom().voidItem();
+        }
+        return flush().chain(() -> flushRounds(rounds - 1));
+    }
+
+    @Scheduled(every = "${broadcaster.chat.journal.flush-interval-seconds:1}s", identity = "chat-journal-flush")
+    Uni<Void> scheduledFlush() {
+        if (getPending() == 0) {
+            return Uni.createFrom().voidItem();
+        }
+        return flush().onFailure().recoverWithNull();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        drain(SHUTDOWN_DRAIN_TIMEOUT);
+    }
+
+    /**
+     * Flushes until nothing is pending or the timeout runs out.
+     */
+    public void drain(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (getPending() > 0 && System.nanoTime() < deadline) {
+            try {
+                flush().await().atMost(Duration.ofNanos(Math.max(1, deadline - System.nanoTime())));
+            } catch (Exception e) {
+                LOGGER.warn("Chat journal flush failed while draining: {}", e.getMessage());
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        int left = getPending();
+        if (left > 0) {
+            LOGGER.error("{} chat messages could not be written before shutdown", left);
+        }
+    }
+
+    public synchronized int getPending() {
+        int retrying = 0;
+        for (List<Entry> batch : retries) {
+            retrying += batch.size();
+        }
+        return queue.size() + retrying + (inFlight != null ? inFlightSize : 0);
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private boolean offer(Entry entry) {
+        if (!queue.offer(entry)) {
+            return false;
+        }
+        if (queue.size() >= batchSize) {
+            flushInBackground();
+        }
+        return true;
+    }
+
+    private void flushInBackground() {
+        flush().subscribe().with(ignored -> {}, failure -> {});
+    }
+
+    private List<Entry> drain() {
+        List<Entry> batch = new ArrayList<>(Math.min(batchSize, queue.size()));
+        queue.drainTo(batch, batchSize);
+        return batch;
+    }
+
+    private void completed(List<Entry> batch, Throwable failure) {
+        boolean more;
+        synchronized (this) {
+            inFlight = null;
+            inFlightSize = 0;
+            if (failure != null) {
+                failedFlushes.incrementAndGet();
+                failed(batch, failure);
+                return;
+            }
+            rejectedAttempts = 0;
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+            more = queue.size() >= batchSize || !retries.isEmpty();
+        }
+        if (more) {
+            flushInBackground();
+        }
+    }
+
+    private void failed(List<Entry> batch, Throwable failure) {
+        if (!isRejection(failure) || ++rejectedAttempts < MAX_REJECTED_ATTEMPTS) {
+            retries.addFirst(batch);
+            LOGGER.warn("Failed to write {} chat messages, will retry: {}", batch.size(), failure.getMessage());
+            return;
+        }
+        rejectedAttempts = 0;
+        if (batch.size() > 1) {
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                retries.addFirst(List.of(batch.get(i)));
+            }
+            LOGGER.warn("Batch of {} chat messages was rejected {} times, retrying row by row: {}",
+                    batch.size(), MAX_REJECTED_ATTEMPTS, failure.getMessage());
+            return;
+        }
+        Entry entry = batch.get(0);
+        dropped.incrementAndGet();
+        LOGGER.error("Dropping chat message {} of user {} in {} ({} chars), rejected by the database: {}",
+                entry.id(), entry.userId(), entry.brandName(),
+                entry.content() != null ? entry.content().length() : 0, failure.getMessage());
+    }
+
+    /**
+     * Whether the batch itself was refused, as opposed to the database being unreachable. Retrying
+     * an unreachable database is always worth it; retrying refused rows is not. The pool reports
+     * a busy or closing connection with a bare {@link Throwable}, neither exception nor error.
+     */
+    private static boolean isRejection(Throwable failure) {
+        if (failure instanceof PgException) {
+            return true;
+        }
+        return failure instanceof Exception
+                && !(failure instanceof IOException
+                || failure instanceof VertxException
+                || failure instanceof TimeoutException);
+    }
+
+    private static Sink insertInto(PgPool client) {
+        String sql = "INSERT INTO " + KneoBroadcasterNameResolver.create().getEntityNames(CHAT_MESSAGE).getTableName() +
+                " (id, user_id, brand_name, chat_type, message_type, username, content, connection_id, timestamp) " +
+                "SELECT * FROM unnest($1::uuid[], $2::bigint[], $3::text[], $4::text[], $5::text[], $6::text[], " +
+                "$7::text[], $8::text[], $9::timestamp[]) " +
+                "ON CONFLICT DO NOTHING";
+
+        return batch -> {
+            int size = batch.size();
+            UUID[] ids = new UUID[size];
+            Long[] userIds = new Long[size];
+            String[] brandNames = new String[size];
+            String[] chatTypes = new String[size];
+            String[] messageTypes = new String[size];
+            String[] usernames = new String[size];
+            String[] contents = new String[size];
+            String[] connectionIds = new String[size];
+            LocalDateTime[] timestamps = new LocalDateTime[size];
+            for (int i = 0; i < size; i++) {
+                Entry entry = batch.get(i);
+                ids[i] = entry.id();
+                userIds[i] = entry.userId();
+                brandNames[i] = entry.brandName();
+                chatTypes[i] = entry.chatType().name();
+                messageTypes[i] = entry.messageType().name();
+                usernames[i] = entry.username();
+                contents[i] = entry.content();
+                connectionIds[i] = entry.connectionId();
+                timestamps[i] = entry.timestamp();
+            }
+            return client.preparedQuery(sql)
+                    .execute(Tuple.tuple()
+                            .addArrayOfUUID(ids)
+                            .addArrayOfLong(userIds)
+                            .addArrayOfString(brandNames)
+                            .addArrayOfString(chatTypes)
+                            .addArrayOfString(messageTypes)
+                            .addArrayOfString(usernames)
+                            .addArrayOfString(contents)
+                            .addArrayOfString(connectionIds)
+                            .addArrayOfLocalDateTime(timestamps))
+                    .replaceWithVoid();
+        };
+    }
+
+    @FunctionalInterface
+    public interface Sink {
+        Uni<Void> insert(List<Entry> batch);
+    }
+
+    public record Entry(UUID id, long userId, String brandName, ChatType chatType, MessageType messageType,
+                        String username, String content, String connectionId, LocalDateTime timestamp) {
+    }
+}
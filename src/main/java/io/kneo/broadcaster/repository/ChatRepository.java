@@ -1,6 +1,5 @@
 package io.kneo.broadcaster.repository;
 
-import com.anthropic.models.messages.MessageParam;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.kneo.broadcaster.model.chat.ChatMessage;
 import io.kneo.broadcaster.model.cnst.ChatType;
@@ -24,7 +23,6 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static io.kneo.broadcaster.repository.table.KneoBroadcasterNameResolver.CHAT_MESSAGE;
 
@@ -33,11 +31,12 @@ public class ChatRepository extends AsyncRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(ChatRepository.class);
     private static final EntityData entityData = KneoBroadcasterNameResolver.create().getEntityNames(CHAT_MESSAGE);
 
-    private final ConcurrentHashMap<String, List<MessageParam>> conversationHistoryCache = new ConcurrentHashMap<>();
+    private final ChatMessageJournal journal;
 
     @Inject
-    public ChatRepository(PgPool client, ObjectMapper mapper, RLSRepository rlsRepository) {
+    public ChatRepository(PgPool client, ObjectMapper mapper, RLSRepository rlsRepository, ChatMessageJournal journal) {
         super(client, mapper, rlsRepository);
+        this.journal = journal;
     }
 
     public Uni<Void> saveChatMessage(long userId, String brandName, ChatType chatType, JsonObject message) {
@@ -46,11 +45,6 @@ public class ChatRepository extends AsyncRepository {
             data = message;
         }
 
-        String sql = "INSERT INTO " + entityData.getTableName() + 
-                " (id, user_id, brand_name, chat_type, message_type, username, content, connection_id, timestamp) " +
-                "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9)";
-
-        UUID id = UUID.randomUUID();
         String messageTypeStr = data.getString("type", MessageType.USER.name());
         MessageType messageType = MessageType.valueOf(messageTypeStr);
         String username = data.getString("username");
@@ -62,13 +56,9 @@ public class ChatRepository extends AsyncRepository {
                 java.time.ZoneOffset.UTC
         );
 
-        return client.preparedQuery(sql)
-                .execute(Tuple.of(id, userId, brandName, chatType.name(), messageType.name(), username)
-                        .addString(content)
-                        .addString(connectionId)
-                        .addLocalDateTime(timestamp))
-                .replaceWithVoid()
-                .onFailure().invoke(throwable -> 
+        return journal.append(new ChatMessageJournal.Entry(UUID.randomUUID(), userId, brandName, chatType, messageType,
+                        username, content, connectionId, timestamp))
+                .onFailure().invoke(throwable ->
                     LOGGER.error("Failed to save chat message for user {} and chatType {}", userId, chatType, throwable)
                 );
     }
@@ -78,8 +68,9 @@ public class ChatRepository extends AsyncRepository {
                 " WHERE user_id = $1 AND brand_name = $2 AND chat_type = $3 " +
                 "ORDER BY timestamp DESC LIMIT $4";
 
-        return client.preparedQuery(sql)
-                .execute(Tuple.of(userId, brandName, chatType.name(), limit))
+        return journal.flushAll()
+                .onFailure().recoverWithNull()
+                .chain(() -> client.preparedQuery(sql).execute(Tuple.of(userId, brandName, chatType.name(), limit)))
                 .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
                 .onItem().transform(this::rowToJsonObject)
                 .collect().asList()
@@ -90,21 +81,6 @@ public class ChatRepository extends AsyncRepository {
                 });
     }
 
-    public List<MessageParam> getConversationHistory(long userId, ChatType chatType) {
-        String cacheKey = userId + "_" + chatType.name();
-        return conversationHistoryCache.computeIfAbsent(cacheKey, k -> new ArrayList<>());
-    }
-
-    public void appendToConversation(long userId, ChatType chatType, MessageParam message) {
-        String cacheKey = userId + "_" + chatType.name();
-        conversationHistoryCache.computeIfAbsent(cacheKey, k -> new ArrayList<>()).add(message);
-    }
-
-    public void clearConversationHistory(long userId, ChatType chatType) {
-        String cacheKey = userId + "_" + chatType.name();
-        conversationHistoryCache.remove(cacheKey);
-    }
-
     private JsonObject rowToJsonObject(Row row) {
         return new JsonObject()
                 .put("type", "message")
@@ -3,8 +3,10 @@ package io.kneo.broadcaster.repository.file;
 import io.kneo.broadcaster.model.FileMetadata;
 import io.kneo.broadcaster.model.cnst.AccessType;
 import io.kneo.broadcaster.model.cnst.FileStorageType;
+import io.kneo.broadcaster.service.exceptions.RangeNotSatisfiableException;
 import io.kneo.broadcaster.service.external.hetzner.HetznerStorageService;
 import io.kneo.broadcaster.service.maintenance.LocalFileCleanupService;
+import io.kneo.broadcaster.util.HttpRange;
 import io.smallrye.mutiny.Uni;
 import io.vertx.mutiny.core.Vertx;
 import io.vertx.mutiny.core.file.FileSystem;
@@ -136,6 +138,11 @@ public class HetznerStorage implements IFileStorage {
 
     @Override
     public Uni<FileMetadata> retrieveFile(String key) {
+        return retrieveFile(key, null);
+    }
+
+    @Override
+    public Uni<FileMetadata> retrieveFile(String key, HttpRange range) {
         String metadataSql = "SELECT id, reg_date, last_mod_date, parent_table, parent_id, archived, archived_date, " +
                 "storage_type, mime_type, file_original_name, file_key FROM _files WHERE file_key = $1";
 
@@ -163,15 +170,21 @@ public class HetznerStorage implements IFileStorage {
                     metadata.setFileOriginalName(row.getString("file_original_name"));
                     metadata.setFileKey(row.getString("file_key"));
 
-                    return hetznerStorageService.getFileStream(key)
+                    boolean rangeApplies = range != null
+                            && range.appliesTo(metadata.getLastModifiedDate().toInstant().toEpochMilli());
+                    return hetznerStorageService.getFileStream(key, rangeApplies ? range : null)
                             .onItem().transform(streamMetadata -> {
                                 //LOGGER.info("Processing Hetzner stream for key: {}, contentLength: {}, hasInputStream: {}",key, streamMetadata.getContentLength(), streamMetadata.getInputStream() != null);
                                 metadata.setInputStream(streamMetadata.getInputStream());
                                 metadata.setContentLength(streamMetadata.getContentLength());
+                                metadata.setContentRange(streamMetadata.getContentRange());
                                 return metadata;
                             });
                 })
                 .onFailure().transform(ex -> {
+                    if (ex instanceof RangeNotSatisfiableException) {
+                        return ex;
+                    }
                     if (ex instanceof PgException) {
                         LOGGER.error("PostgreSQL error while retrieving file with key: {}. Message: {}, SQL: {}",
                                 key, ex.getMessage(), metadataSql);
@@ -2,6 +2,7 @@ package io.kneo.broadcaster.repository.file;
 
 import io.kneo.broadcaster.model.cnst.FileStorageType;
 import io.kneo.broadcaster.model.FileMetadata;
+import io.kneo.broadcaster.util.HttpRange;
 import io.smallrye.mutiny.Uni;
 
 import java.util.UUID;
@@ -14,6 +15,14 @@ public interface IFileStorage {
 
     Uni<FileMetadata> retrieveFile(String key);
 
+    /**
+     * Stores that can read a byte range set {@link FileMetadata#getContentRange()} on the result;
+     * the default ignores the range and returns the whole file.
+     */
+    default Uni<FileMetadata> retrieveFile(String key, HttpRange range) {
+        return retrieveFile(key);
+    }
+
     Uni<Void> deleteFile(String key);
 
     FileStorageType getStorageType();
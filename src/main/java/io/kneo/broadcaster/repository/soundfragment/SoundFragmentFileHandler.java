@@ -2,6 +2,8 @@ package io.kneo.broadcaster.repository.soundfragment;
 
 import io.kneo.broadcaster.model.FileMetadata;
 import io.kneo.broadcaster.repository.file.IFileStorage;
+import io.kneo.broadcaster.service.exceptions.RangeNotSatisfiableException;
+import io.kneo.broadcaster.util.HttpRange;
 import io.kneo.core.repository.exception.attachment.FileRetrievalFailureException;
 import io.kneo.core.repository.exception.attachment.MissingFileRecordException;
 import io.smallrye.mutiny.Uni;
@@ -35,11 +37,19 @@ public class SoundFragmentFileHandler {
     }
 
     public Uni<FileMetadata> getFileBySlugName(UUID id, String slugName) {
+        return getFileBySlugName(id, slugName, null);
+    }
+
+    public Uni<FileMetadata> getFileBySlugName(UUID id, String slugName, HttpRange range) {
         String sql = "SELECT f.file_key FROM _files f WHERE f.parent_id = $1 AND f.slug_name = $2";
-        return retrieveFileFromStorage(id, sql, Tuple.of(id, slugName));
+        return retrieveFileFromStorage(id, sql, Tuple.of(id, slugName), range);
     }
 
     private Uni<FileMetadata> retrieveFileFromStorage(UUID id, String sql, Tuple parameters) {
+        return retrieveFileFromStorage(id, sql, parameters, null);
+    }
+
+    private Uni<FileMetadata> retrieveFileFromStorage(UUID id, String sql, Tuple parameters, HttpRange range) {
         return client.preparedQuery(sql)
                 .execute(parameters)
                 .onFailure().invoke(failure -> LOGGER.error("Database query failed for ID: {}", id, failure))
@@ -52,9 +62,9 @@ public class SoundFragmentFileHandler {
                     String fileKey = rows.iterator().next().getString("file_key");
                     LOGGER.debug("Retrieving file with key: {} for ID: {}", fileKey, id);
 
-                    return fileStorage.retrieveFile(fileKey)
+                    return fileStorage.retrieveFile(fileKey, range)
                             .onItem().invoke(file -> LOGGER.debug("File retrieval successful for ID: {}", id))
-                            .onFailure().recoverWithUni(ex -> {
+                            .onFailure(ex -> !(ex instanceof RangeNotSatisfiableException)).recoverWithUni(ex -> {
                                 LOGGER.error("File retrieval failed - ID: {}, Key: {}, Error: {}", id, fileKey, ex.getMessage());
                                 String errorMsg = String.format("File retrieval failed - ID: %s, Key: %s, Error: %s",
                                         id, fileKey, ex.getClass().getSimpleName());
@@ -4,12 +4,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.kneo.broadcaster.model.FileMetadata;
 import io.kneo.broadcaster.model.cnst.FileStorageType;
 import io.kneo.broadcaster.model.cnst.PlaylistItemType;
+import io.kneo.broadcaster.model.soundfragment.AudioAnalysis;
 import io.kneo.broadcaster.model.soundfragment.BrandSoundFragment;
 import io.kneo.broadcaster.model.soundfragment.SoundFragment;
 import io.kneo.broadcaster.model.soundfragment.SoundFragmentFilter;
 import io.kneo.broadcaster.repository.file.HetznerStorage;
 import io.kneo.broadcaster.repository.file.IFileStorage;
 import io.kneo.broadcaster.repository.table.KneoBroadcasterNameResolver;
+import io.kneo.broadcaster.service.exceptions.RangeNotSatisfiableException;
+import io.kneo.broadcaster.util.HttpRange;
 import io.kneo.core.model.embedded.DocumentAccessInfo;
 import io.kneo.core.model.user.IUser;
 import io.kneo.core.repository.exception.DocumentHasNotFoundException;
@@ -20,6 +23,7 @@ import io.kneo.core.repository.table.EntityData;
 import io.kneo.core.util.WebHelper;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.json.JsonObject;
 import io.vertx.mutiny.pgclient.PgPool;
 import io.vertx.mutiny.sqlclient.Row;
 import io.vertx.mutiny.sqlclient.RowSet;
@@ -49,6 +53,9 @@ public class SoundFragmentRepository extends SoundFragmentRepositoryAbstract {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SoundFragmentRepository.class);
     private static final EntityData entityData = KneoBroadcasterNameResolver.create().getEntityNames(SOUND_FRAGMENT);
+    private static final String AGENDA_TAG_COLUMNS =
+            "ARRAY(SELECT sfg.genre_id FROM kneobroadcaster__sound_fragment_genres sfg WHERE sfg.sound_fragment_id = t.id) AS genre_ids, " +
+            "ARRAY(SELECT sfl.label_id FROM kneobroadcaster__sound_fragment_labels sfl WHERE sfl.id = t.id) AS label_ids ";
 
     private final IFileStorage fileStorage;
     private final SoundFragmentFileHandler fileHandler;
@@ -139,9 +146,13 @@ public class SoundFragmentRepository extends SoundFragmentRepositoryAbstract {
     }
 
     public Uni<FileMetadata> getFileBySlugName(UUID id, String slugName, IUser user, boolean includeArchived) {
+        return getFileBySlugName(id, slugName, null, user, includeArchived);
+    }
+
+    public Uni<FileMetadata> getFileBySlugName(UUID id, String slugName, HttpRange range, IUser user, boolean includeArchived) {
         assert fileHandler != null;
-        return fileHandler.getFileBySlugName(id, slugName)
-                .onFailure().recoverWithUni(ex -> {
+        return fileHandler.getFileBySlugName(id, slugName, range)
+                .onFailure(ex -> !(ex instanceof RangeNotSatisfiableException)).recoverWithUni(ex -> {
                     markAsCorrupted(id).subscribe().with(
                             result -> LOGGER.info("Marked file {} as corrupted", id),
                             failure -> LOGGER.error("Failed to mark file {} as corrupted", id, failure)
@@ -219,6 +230,44 @@ public class SoundFragmentRepository extends SoundFragmentRepositoryAbstract {
         return brandRepository.findByFilter(brandId, filter, limit);
     }
 
+    /**
+     * Every active fragment of the brand, with genres and labels, in one query. Agenda builds
+     * select from this snapshot instead of querying per scene.
+     */
+    public Uni<List<SoundFragment>> findAgendaFragments(UUID brandId) {
+        String sql = "SELECT t.*, " + AGENDA_TAG_COLUMNS +
+                "FROM kneobroadcaster__brand_sound_fragments bsf " +
+                "JOIN " + entityData.getTableName() + " t ON t.id = bsf.sound_fragment_id " +
+                "WHERE bsf.brand_id = $1 AND t.archived = 0";
+        return findAgendaFragments(sql, Tuple.of(brandId));
+    }
+
+    /**
+     * The listed active fragments, with genres and labels, for static-list scenes.
+     */
+    public Uni<List<SoundFragment>> findAgendaFragments(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Uni.createFrom().item(List.of());
+        }
+        String sql = "SELECT t.*, " + AGENDA_TAG_COLUMNS +
+                "FROM " + entityData.getTableName() + " t " +
+                "WHERE t.id = ANY($1) AND t.archived = 0";
+        return findAgendaFragments(sql, Tuple.of(ids.toArray(UUID[]::new)));
+    }
+
+    private Uni<List<SoundFragment>> findAgendaFragments(String sql, Tuple params) {
+        return client.preparedQuery(sql)
+                .execute(params)
+                .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
+                .onItem().transformToUni(row -> from(row, false, false, false)
+                        .invoke(doc -> {
+                            doc.setGenres(List.of(row.getArrayOfUUIDs("genre_ids")));
+                            doc.setLabels(List.of(row.getArrayOfUUIDs("label_ids")));
+                        }))
+                .concatenate()
+                .collect().asList();
+    }
+
     public Uni<List<UUID>> findExpiredFragments() {
         String sql = "SELECT id FROM " + entityData.getTableName() + " " +
                 "WHERE expires_at IS NOT NULL AND expires_at < NOW() AND archived = 0";
@@ -241,6 +290,33 @@ public class SoundFragmentRepository extends SoundFragmentRepositoryAbstract {
                 .collect().asList();
     }
 
+    public Uni<List<UUID>> findWithoutAnalysis(int limit) {
+        String sql = "SELECT id FROM " + entityData.getTableName() + " " +
+                "WHERE archived = 0 AND (audio_analysis IS NULL OR (audio_analysis->>'version')::int < $1) " +
+                "ORDER BY reg_date DESC LIMIT $2";
+
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(AudioAnalysis.CURRENT_VERSION, limit))
+                .onItem().transformToMulti(rows -> Multi.createFrom().iterable(rows))
+                .onItem().transform(row -> row.getUUID("id"))
+                .collect().asList();
+    }
+
+    public Uni<Integer> updateAnalysis(UUID id, AudioAnalysis analysis) {
+        String sql = "UPDATE " + entityData.getTableName() + " SET audio_analysis = $1 WHERE id = $2";
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(JsonObject.mapFrom(analysis), id))
+                .onItem().transform(RowSet::rowCount);
+    }
+
+    public Uni<UUID> findByContentHash(String contentHash) {
+        String sql = "SELECT f.parent_id FROM _files f JOIN " + entityData.getTableName() + " t ON t.id = f.parent_id " +
+                "WHERE f.content_hash = $1 AND f.parent_table = $2 AND f.archived = 0 AND t.archived = 0 LIMIT 1";
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(contentHash, entityData.getTableName()))
+                .onItem().transform(rows -> rows.iterator().hasNext() ? rows.iterator().next().getUUID("parent_id") : null);
+    }
+
     public Uni<SoundFragment> insert(SoundFragment doc, List<UUID> representedInBrands, IUser user) {
         LocalDateTime nowTime = ZonedDateTime.now(ZoneOffset.UTC).toLocalDateTime();
         final List<FileMetadata> originalFiles = doc.getFileMetadataList();
@@ -460,8 +536,8 @@ public class SoundFragmentRepository extends SoundFragmentRepositoryAbstract {
         }
 
         String filesSql = "INSERT INTO _files (parent_table, parent_id, storage_type, " +
-                "mime_type, file_original_name, file_key, file_bin, slug_name) " +
-                "VALUES ($1, $2, $3, $4, $5, $6, $7, $8)";
+                "mime_type, file_original_name, file_key, file_bin, slug_name, content_hash) " +
+                "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9)";
         List<Tuple> filesParams = doc.getFileMetadataList().stream()
                 .map(meta -> Tuple.of(
                                         entityData.getTableName(),
@@ -473,6 +549,7 @@ public class SoundFragmentRepository extends SoundFragmentRepositoryAbstract {
                                 )
                                 .addValue(meta.getFileBin())
                                 .addValue(meta.getSlugName())
+                                .addValue(meta.getContentHash())
                 ).collect(Collectors.toList());
 
         return tx.preparedQuery(filesSql).executeBatch(filesParams).onItem().ignore().andContinueWithNull();
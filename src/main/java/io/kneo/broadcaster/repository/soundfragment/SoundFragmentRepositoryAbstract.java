@@ -5,6 +5,7 @@ import io.kneo.broadcaster.model.FileMetadata;
 import io.kneo.broadcaster.model.cnst.FileStorageType;
 import io.kneo.broadcaster.model.cnst.PlaylistItemType;
 import io.kneo.broadcaster.model.cnst.SourceType;
+import io.kneo.broadcaster.model.soundfragment.AudioAnalysis;
 import io.kneo.broadcaster.model.soundfragment.SoundFragment;
 import io.kneo.broadcaster.model.soundfragment.SoundFragmentFilter;
 import io.kneo.broadcaster.repository.table.KneoBroadcasterNameResolver;
@@ -63,6 +64,9 @@ public abstract class SoundFragmentRepositoryAbstract extends AsyncRepository {
         doc.setSlugName(row.getString("slug_name"));
         doc.setDescription(row.getString("description"));
         doc.setExpiresAt(row.getLocalDateTime("expires_at"));
+        if (row.getColumnIndex("audio_analysis") >= 0 && row.getValue("audio_analysis") != null) {
+            doc.setAnalysis(row.getJsonObject("audio_analysis").mapTo(AudioAnalysis.class));
+        }
 
         Uni<SoundFragment> uni = Uni.createFrom().item(doc);
 
@@ -80,6 +80,9 @@ public class KneoBroadcasterApplicationInit extends AbstractApplicationInit {
     @Inject
     private StreamController streamController;
 
+    @Inject
+    ClusterController clusterController;
+
     @Inject
     public KneoBroadcasterApplicationInit(PgPool client) {
         super(client);
@@ -110,6 +113,7 @@ public class KneoBroadcasterApplicationInit extends AbstractApplicationInit {
         draftController.setupRoutes(router);
         chatController.setupRoutes(router);
         streamController.setupRoutes(router);
+        clusterController.setupRoutes(router);
 
         super.setupRoutes(router);
         logRegisteredRoutes(router);
@@ -33,14 +33,17 @@ public class AiAgentService extends AbstractService<AiAgent, AiAgentDTO> {
     private static final Logger LOGGER = LoggerFactory.getLogger(AiAgentService.class);
 
     private final AiAgentRepository repository;
+    private final EntityCaches caches;
 
     @Inject
     public AiAgentService(
             UserService userService,
-            AiAgentRepository repository
+            AiAgentRepository repository,
+            EntityCaches caches
     ) {
         super(userService);
         this.repository = repository;
+        this.caches = caches;
     }
 
     public Uni<List<AiAgentDTO>> getAll(final int limit, final int offset, final IUser user) {
@@ -63,12 +66,16 @@ public class AiAgentService extends AbstractService<AiAgent, AiAgentDTO> {
     }
 
     public Uni<AiAgent> getById(UUID id, IUser user, LanguageCode language) {
+        if (EntityCaches.isShareable(user)) {
+            return caches.aiAgents().get(id, key -> repository.findById(key, user, false));
+        }
         return repository.findById(id, user, false);
     }
 
     @Override
     public Uni<Integer> delete(String id, IUser user) {
-        return repository.delete(UUID.fromString(id), user);
+        return repository.delete(UUID.fromString(id), user)
+                .invoke(() -> caches.invalidate(caches.aiAgents(), UUID.fromString(id)));
     }
 
     @Override
@@ -81,7 +88,9 @@ public class AiAgentService extends AbstractService<AiAgent, AiAgentDTO> {
         if (id == null || id.isEmpty()) {
             return repository.insert(entity, user).chain(this::mapToDTO);
         } else {
-            return repository.update(UUID.fromString(id), entity, user).chain(this::mapToDTO);
+            return repository.update(UUID.fromString(id), entity, user)
+                    .invoke(() -> caches.invalidate(caches.aiAgents(), UUID.fromString(id)))
+                    .chain(this::mapToDTO);
         }
     }
 
@@ -32,7 +32,9 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -46,6 +48,10 @@ public class BrandService extends AbstractService<Brand, BrandDTO> {
 
     private final RadioStationPool radiostationPool;
 
+    private final StationDirectoryService stationDirectory;
+
+    private final EntityCaches caches;
+
     ScriptService scriptService;
 
     @Inject
@@ -54,13 +60,17 @@ public class BrandService extends AbstractService<Brand, BrandDTO> {
             ScriptService scriptService,
             BrandRepository repository,
             RadioStationPool radiostationPool,
-            BroadcasterConfig broadcasterConfig
+            BroadcasterConfig broadcasterConfig,
+            StationDirectoryService stationDirectory,
+            EntityCaches caches
     ) {
         super(userService);
         this.scriptService =scriptService;
         this.repository = repository;
         this.radiostationPool = radiostationPool;
         this.broadcasterConfig = broadcasterConfig;
+        this.stationDirectory = stationDirectory;
+        this.caches = caches;
     }
 
     public Uni<List<BrandDTO>> getAllDTO(final int limit, final int offset, final IUser user, final String country, final String query) {
@@ -96,6 +106,10 @@ public class BrandService extends AbstractService<Brand, BrandDTO> {
     }
 
     public Uni<Brand> getBySlugName(String name) {
+        return caches.brands().get(name, this::loadBySlugName);
+    }
+
+    private Uni<Brand> loadBySlugName(String name) {
         return repository.getBySlugName(name)
                 .chain(brand -> {
                     if (brand == null) {
@@ -123,7 +137,8 @@ public class BrandService extends AbstractService<Brand, BrandDTO> {
     @Override
     public Uni<Integer> delete(String id, IUser user) {
         assert repository != null;
-        return repository.delete(UUID.fromString(id), user);
+        return repository.delete(UUID.fromString(id), user)
+                .invoke(this::onBrandsChanged);
     }
 
     @Override
@@ -136,6 +151,10 @@ public class BrandService extends AbstractService<Brand, BrandDTO> {
         return repository.findLastAccessTimeByStationName(stationName);
     }
 
+    public Uni<Map<String, OffsetDateTime>> findLastAccessTimesByStationNames(Collection<String> stationNames) {
+        return repository.findLastAccessTimesByStationNames(stationNames);
+    }
+
     public Uni<BrandDTO> upsert(String id, BrandDTO dto, IUser user, LanguageCode code) {
         assert repository != null;
         LOGGER.info("Upserting radio station with DTO scripts: {}", dto.getScripts());
@@ -150,7 +169,9 @@ public class BrandService extends AbstractService<Brand, BrandDTO> {
             saveOperation = repository.update(UUID.fromString(id), entity, user);
         }
 
-        return saveOperation.chain(this::mapToDTO);
+        return saveOperation
+                .invoke(this::onBrandsChanged)
+                .chain(this::mapToDTO);
     }
 
     public Uni<Integer> archive(String id, IUser user) {
@@ -168,12 +189,19 @@ public class BrandService extends AbstractService<Brand, BrandDTO> {
                     } else {
                         return repository.archive(UUID.fromString(id), user);
                     }
-                });
+                })
+                .invoke(this::onBrandsChanged);
     }
 
     public Uni<Integer> archive(UUID id) {
         assert repository != null;
-        return repository.archive(id, SuperUser.build());
+        return repository.archive(id, SuperUser.build())
+                .invoke(this::onBrandsChanged);
+    }
+
+    private void onBrandsChanged() {
+        caches.invalidateAll(caches.brands());
+        stationDirectory.invalidate();
     }
 
     private Uni<BrandDTO> mapToDTO(Brand doc) {
@@ -0,0 +1,211 @@
+package io.kneo.broadcaster.service;
+
+import io.kneo.broadcaster.dto.BrandListenerDTO;
+import io.kneo.broadcaster.dto.dashboard.EntityCacheStatsDTO;
+import io.kneo.broadcaster.model.Profile;
+import io.kneo.broadcaster.model.Prompt;
+import io.kneo.broadcaster.model.Scene;
+import io.kneo.broadcaster.model.aiagent.AiAgent;
+import io.kneo.broadcaster.model.brand.Brand;
+import io.kneo.broadcaster.model.soundfragment.SoundFragment;
+import io.kneo.broadcaster.util.EntityCache;
+import io.kneo.core.model.user.IUser;
+import io.kneo.core.model.user.SuperUser;
+import io.kneo.officeframe.model.Genre;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.pgclient.pubsub.PgSubscriber;
+import io.vertx.mutiny.sqlclient.Tuple;
+import io.vertx.pgclient.PgConnectOptions;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Read-through caches for the rows the live pipeline looks up on every draft and song pick.
+ * Writers invalidate the local entry and broadcast the key over Postgres {@code NOTIFY}, so other
+ * nodes drop their copy too. TTLs bound staleness if a notification is missed.
+ */
+@ApplicationScoped
+public class EntityCaches {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EntityCaches.class);
+    private static final String CHANNEL = "entity_cache_invalidation";
+    private static final String ALL_KEYS = "*";
+
+    private final EntityCache<UUID, AiAgent> aiAgents = new EntityCache<>("aiAgents", 500, Duration.ofMinutes(10));
+    private final EntityCache<UUID, Prompt> prompts = new EntityCache<>("prompts", 5000, Duration.ofMinutes(10));
+    private final EntityCache<UUID, Scene> scenes = new EntityCache<>("scenes", 5000, Duration.ofMinutes(10));
+    private final EntityCache<UUID, Profile> profiles = new EntityCache<>("profiles", 500, Duration.ofMinutes(30));
+    private final EntityCache<String, Brand> brands = new EntityCache<>("brands", 1000, Duration.ofSeconds(60));
+    private final EntityCache<UUID, Genre> genres = new EntityCache<>("genres", 2000, Duration.ofHours(1));
+    private final EntityCache<String, List<BrandListenerDTO>> brandListeners =
+            new EntityCache<>("brandListeners", 1000, Duration.ofSeconds(60));
+    // weighed by fragment count, so a few huge catalogs cannot crowd out memory
+    private final EntityCache<UUID, List<SoundFragment>> agendaCatalogs =
+            new EntityCache<>("agendaCatalogs", 500, 200_000, Duration.ofMinutes(10), List::size);
+
+    private final Map<String, EntityCache<?, ?>> byName = Stream.of(
+                    aiAgents, prompts, scenes, profiles, brands, genres, brandListeners, agendaCatalogs)
+            .collect(Collectors.toMap(EntityCache::getName, Function.identity()));
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    PgPool client;
+
+    @ConfigProperty(name = "quarkus.datasource.reactive.url")
+    Optional<String> reactiveUrl;
+
+    @ConfigProperty(name = "quarkus.datasource.username")
+    Optional<String> username;
+
+    @ConfigProperty(name = "quarkus.datasource.password")
+    Optional<String> password;
+
+    private PgSubscriber subscriber;
+
+    void onStart(@Observes StartupEvent event) {
+        if (reactiveUrl.isEmpty()) {
+            LOGGER.warn("No reactive datasource URL, entity cache invalidation stays node-local");
+            return;
+        }
+        PgConnectOptions options = PgConnectOptions.fromUri(reactiveUrl.get().replaceFirst("^vertx-reactive:", ""));
+        username.ifPresent(options::setUser);
+        password.ifPresent(options::setPassword);
+
+        subscriber = PgSubscriber.subscriber(vertx, options)
+                .reconnectPolicy(retries -> 2000L);
+        subscriber.channel(CHANNEL).handler(this::onNotification);
+        subscriber.connect().subscribe().with(
+                ignored -> LOGGER.info("Listening for entity cache invalidations on {}", CHANNEL),
+                failure -> LOGGER.warn("Entity cache invalidation listener failed to connect: {}", failure.getMessage())
+        );
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (subscriber != null) {
+            subscriber.closeAndForget();
+        }
+    }
+
+    public EntityCache<UUID, AiAgent> aiAgents() {
+        return aiAgents;
+    }
+
+    public EntityCache<UUID, Prompt> prompts() {
+        return prompts;
+    }
+
+    public EntityCache<UUID, Scene> scenes() {
+        return scenes;
+    }
+
+    public EntityCache<UUID, Profile> profiles() {
+        return profiles;
+    }
+
+    public EntityCache<String, Brand> brands() {
+        return brands;
+    }
+
+    public EntityCache<UUID, Genre> genres() {
+        return genres;
+    }
+
+    public EntityCache<String, List<BrandListenerDTO>> brandListeners() {
+        return brandListeners;
+    }
+
+    /**
+     * Active sound fragments of each brand that agenda builds pick from, keyed by brand id. The
+     * fragments are shared between builds and must not be modified.
+     */
+    public EntityCache<UUID, List<SoundFragment>> agendaCatalogs() {
+        return agendaCatalogs;
+    }
+
+    /**
+     * Entity reads are row-level secured, so only lookups done on behalf of the system user share
+     * cached rows.
+     */
+    public static boolean isShareable(IUser user) {
+        return user != null && user.getId() == SuperUser.ID;
+    }
+
+    public <K> void invalidate(EntityCache<K, ?> cache, K key) {
+        cache.invalidate(key);
+        publish(cache.getName() + ":" + key);
+    }
+
+    public void invalidateAll(EntityCache<?, ?> cache) {
+        cache.invalidateAll();
+        publish(cache.getName() + ":" + ALL_KEYS);
+    }
+
+    public List<EntityCacheStatsDTO> getStats() {
+        return byName.values().stream()
+                .map(cache -> toDTO(cache.getStats()))
+                .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                .toList();
+    }
+
+    private void publish(String payload) {
+        client.preparedQuery("SELECT pg_notify($1, $2)")
+                .execute(Tuple.of(CHANNEL, payload))
+                .subscribe().with(
+                        ignored -> {},
+                        failure -> LOGGER.warn("Failed to publish cache invalidation {}: {}", payload, failure.getMessage())
+                );
+    }
+
+    private void onNotification(String payload) {
+        int separator = payload.indexOf(':');
+        if (separator < 0) {
+            return;
+        }
+        EntityCache<?, ?> cache = byName.get(payload.substring(0, separator));
+        if (cache == null) {
+            return;
+        }
+        String key = payload.substring(separator + 1);
+        if (ALL_KEYS.equals(key)) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidateIf(k -> key.equals(String.valueOf(k)));
+        }
+    }
+
+    private static EntityCacheStatsDTO toDTO(EntityCache.Stats stats) {
+        EntityCacheStatsDTO dto = new EntityCacheStatsDTO();
+        dto.setName(stats.name());
+        dto.setSize(stats.size());
+        dto.setMaxEntries(stats.maxEntries());
+        dto.setTtlSeconds(stats.ttlSeconds());
+        dto.setHits(stats.hits());
+        dto.setMisses(stats.misses());
+        dto.setHitRate(stats.getHitRate());
+        dto.setLoads(stats.loads());
+        dto.setLoadFailures(stats.loadFailures());
+        dto.setAvgLoadMs(stats.avgLoadMs());
+        dto.setEvictions(stats.evictions());
+        dto.setInvalidations(stats.invalidations());
+        dto.setWeight(stats.weight());
+        dto.setMaxWeight(stats.maxWeight());
+        return dto;
+    }
+}
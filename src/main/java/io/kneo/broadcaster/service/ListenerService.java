@@ -35,23 +35,27 @@ public class ListenerService extends AbstractService<Listener, ListenerDTO> {
     private static final Logger LOGGER = LoggerFactory.getLogger(ListenerService.class);
     private final ListenersRepository repository;
     private final Validator validator;
+    private final EntityCaches caches;
     private BrandService brandService;
 
     protected ListenerService() {
         super();
         this.repository = null;
         this.validator = null;
+        this.caches = null;
     }
 
     @Inject
     public ListenerService(UserService userService,
                            BrandService brandService,
                            Validator validator,
-                           ListenersRepository repository) {
+                           ListenersRepository repository,
+                           EntityCaches caches) {
         super(userService);
         this.brandService = brandService;
         this.validator = validator;
         this.repository = repository;
+        this.caches = caches;
     }
 
     public Uni<List<ListenerDTO>> getAllDTO(final int limit, final int offset, final IUser user, final ListenerFilterDTO filterDTO) {
@@ -107,10 +111,20 @@ public class ListenerService extends AbstractService<Listener, ListenerDTO> {
 
     public Uni<Void> addBrandToListener(UUID listenerId, UUID brandId) {
         assert repository != null;
-        return repository.addBrandToListener(listenerId, brandId);
+        return repository.addBrandToListener(listenerId, brandId)
+                .invoke(this::invalidateBrandListeners);
     }
 
     public Uni<List<BrandListenerDTO>> getBrandListeners(String brandName, int limit, final int offset, IUser user, ListenerFilterDTO filterDTO) {
+        assert caches != null;
+        if (filterDTO == null && EntityCaches.isShareable(user)) {
+            return caches.brandListeners().get(brandName + ":" + limit + ":" + offset,
+                    key -> loadBrandListeners(brandName, limit, offset, user, null));
+        }
+        return loadBrandListeners(brandName, limit, offset, user, filterDTO);
+    }
+
+    private Uni<List<BrandListenerDTO>> loadBrandListeners(String brandName, int limit, int offset, IUser user, ListenerFilterDTO filterDTO) {
         assert repository != null;
         assert brandService != null;
 
@@ -136,6 +150,11 @@ public class ListenerService extends AbstractService<Listener, ListenerDTO> {
     }
 
     public Uni<ListenerDTO> upsert(String id, ListenerDTO dto, String stationSlug, IUser user) {
+        return save(id, dto, stationSlug, user)
+                .invoke(this::invalidateBrandListeners);
+    }
+
+    private Uni<ListenerDTO> save(String id, ListenerDTO dto, String stationSlug, IUser user) {
         assert brandService != null;
         assert repository != null;
         
@@ -299,11 +318,18 @@ public class ListenerService extends AbstractService<Listener, ListenerDTO> {
     @Override
     public Uni<Integer> delete(String id, IUser user) {
         assert repository != null;
-        return repository.delete(UUID.fromString(id), user);
+        return repository.delete(UUID.fromString(id), user)
+                .invoke(this::invalidateBrandListeners);
     }
 
     public Uni<Integer> archive(String id, IUser user) {
         assert repository != null;
-        return repository.archive(UUID.fromString(id), user);
+        return repository.archive(UUID.fromString(id), user)
+                .invoke(this::invalidateBrandListeners);
+    }
+
+    private void invalidateBrandListeners() {
+        assert caches != null;
+        caches.invalidateAll(caches.brandListeners());
     }
 }
\ No newline at end of file
@@ -57,6 +57,9 @@ public class OneTimeStreamService {
     @Inject
     StreamAgendaService streamAgendaService;
 
+    @Inject
+    StationDirectoryService stationDirectory;
+
 
     public Uni<OneTimeStreamRunReqDTO> populateFromSlugName(OneTimeStreamRunReqDTO dto, IUser user) {
         if (dto.getSlugName() == null || dto.getSlugName().isEmpty()) {
@@ -192,6 +195,7 @@ public class OneTimeStreamService {
                                 stream.setStatus(StreamStatus.PENDING);
                             }
                             oneTimeStreamRepository.insert(stream);
+                            stationDirectory.invalidate();
                             LOGGER.info("OneTimeStream created: slugName={}, id={}, status={}", stream.getSlugName(), stream.getId(), stream.getStatus());
                             return Uni.createFrom().item(stream);
                         })
@@ -210,7 +214,8 @@ public class OneTimeStreamService {
                         return Uni.createFrom().failure(new RuntimeException("Stream not found"));
                     }
                     return radioStationPool.stopAndRemove(stream.getSlugName())
-                            .chain(() -> oneTimeStreamRepository.delete(id));
+                            .chain(() -> oneTimeStreamRepository.delete(id))
+                            .invoke(stationDirectory::invalidate);
                 });
     }
 
@@ -236,6 +241,7 @@ public class OneTimeStreamService {
                                     stream.setProfileId(dto.getProfileId());
                                     stream.setStreamAgenda(fromScheduleDTO(dto.getStreamSchedule()));
                                     oneTimeStreamRepository.insert(stream);
+                                    stationDirectory.invalidate();
                                     return mapToDTO(stream);
                                 } else {
                                     return oneTimeStreamRepository.findById(UUID.fromString(id))
@@ -250,6 +256,7 @@ public class OneTimeStreamService {
                                                 existing.setProfileId(dto.getProfileId());
                                                 existing.setStreamAgenda(fromScheduleDTO(dto.getStreamSchedule()));
                                                 return oneTimeStreamRepository.update(UUID.fromString(id), existing)
+                                                        .invoke(stationDirectory::invalidate)
                                                         .chain(this::mapToDTO);
                                             });
                                 }
@@ -20,12 +20,14 @@ import java.util.stream.Collectors;
 public class ProfileService extends AbstractService<Profile, ProfileDTO> {
 
     private final ProfileRepository repository;
+    private final EntityCaches caches;
 
 
     @Inject
-    public ProfileService(UserService userService, ProfileRepository repository) {
+    public ProfileService(UserService userService, ProfileRepository repository, EntityCaches caches) {
         super(userService);
         this.repository = repository;
+        this.caches = caches;
     }
 
     public Uni<List<ProfileDTO>> getAll(final int limit, final int offset, final IUser user) {
@@ -53,7 +55,7 @@ public class ProfileService extends AbstractService<Profile, ProfileDTO> {
     }
 
     public Uni<Profile> getById(UUID id) {
-        return repository.findById(id);
+        return caches.profiles().get(id, repository::findById);
     }
 
     public Uni<Profile> findByName(String name) {
@@ -65,13 +67,16 @@ public class ProfileService extends AbstractService<Profile, ProfileDTO> {
         if (id == null) {
             return repository.insert(entity, user).chain(this::mapToDTO);
         } else {
-            return repository.update(UUID.fromString(id), entity, user).chain(this::mapToDTO);
+            return repository.update(UUID.fromString(id), entity, user)
+                    .invoke(() -> caches.invalidate(caches.profiles(), UUID.fromString(id)))
+                    .chain(this::mapToDTO);
         }
     }
 
     @Override
     public Uni<Integer> delete(String id, IUser user) {
-        return repository.archive(UUID.fromString(id), user);
+        return repository.archive(UUID.fromString(id), user)
+                .invoke(() -> caches.invalidate(caches.profiles(), UUID.fromString(id)));
     }
 
 
@@ -21,11 +21,13 @@ import java.util.stream.Collectors;
 @ApplicationScoped
 public class PromptService extends AbstractService<Prompt, PromptDTO> {
     private final PromptRepository repository;
+    private final EntityCaches caches;
 
     @Inject
-    public PromptService(UserService userService, PromptRepository repository) {
+    public PromptService(UserService userService, PromptRepository repository, EntityCaches caches) {
         super(userService);
         this.repository = repository;
+        this.caches = caches;
     }
 
     public Uni<List<PromptDTO>> getAllDTO(final int limit, final int offset, final IUser user, final PromptFilterDTO filter) {
@@ -51,6 +53,9 @@ public class PromptService extends AbstractService<Prompt, PromptDTO> {
     }
 
     public Uni<Prompt> getById(UUID id, IUser user) {
+        if (EntityCaches.isShareable(user)) {
+            return caches.prompts().get(id, key -> repository.findById(key, user, false));
+        }
         return repository.findById(id, user, false);
     }
 
@@ -68,7 +73,9 @@ public class PromptService extends AbstractService<Prompt, PromptDTO> {
         if (id == null) {
             return repository.insert(entity, user).chain(this::mapToDTO);
         } else {
-            return repository.update(UUID.fromString(id), entity, user).chain(this::mapToDTO);
+            return repository.update(UUID.fromString(id), entity, user)
+                    .invoke(() -> caches.invalidate(caches.prompts(), UUID.fromString(id)))
+                    .chain(this::mapToDTO);
         }
     }
 
@@ -77,16 +84,19 @@ public class PromptService extends AbstractService<Prompt, PromptDTO> {
     }
 
     public Uni<Prompt> update(UUID id, Prompt entity, IUser user) {
-        return repository.update(id, entity, user);
+        return repository.update(id, entity, user)
+                .invoke(() -> caches.invalidate(caches.prompts(), id));
     }
 
     public Uni<Integer> archive(String id, IUser user) {
-        return repository.archive(UUID.fromString(id), user);
+        return repository.archive(UUID.fromString(id), user)
+                .invoke(() -> caches.invalidate(caches.prompts(), UUID.fromString(id)));
     }
 
     @Override
     public Uni<Integer> delete(String id, IUser user) {
-        return repository.delete(UUID.fromString(id), user);
+        return repository.delete(UUID.fromString(id), user)
+                .invoke(() -> caches.invalidate(caches.prompts(), UUID.fromString(id)));
     }
 
     public Uni<Prompt> findByMasterAndLanguage(UUID masterId, LanguageTag languageCode, boolean includeArchived) {
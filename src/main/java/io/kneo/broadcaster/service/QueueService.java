@@ -9,6 +9,7 @@ import io.kneo.broadcaster.model.stream.IStream;
 import io.kneo.broadcaster.repository.soundfragment.SoundFragmentRepository;
 import io.kneo.broadcaster.service.exceptions.AudioMergeException;
 import io.kneo.broadcaster.service.exceptions.RadioStationException;
+import io.kneo.broadcaster.service.maintenance.FileLeaseRegistry;
 import io.kneo.broadcaster.service.manipulation.FFmpegProvider;
 import io.kneo.broadcaster.service.manipulation.mixing.AudioConcatenator;
 import io.kneo.broadcaster.service.manipulation.mixing.ConcatenationType;
@@ -51,6 +52,9 @@ public class QueueService {
     @Inject
     AudioConcatenator audioConcatenator;
 
+    @Inject
+    FileLeaseRegistry fileLeaseRegistry;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(QueueService.class);
 
     public final ConcurrentHashMap<String, SSEProgressDTO> queuingProgressMap = new ConcurrentHashMap<>();
@@ -72,7 +76,8 @@ public class QueueService {
                                     soundFragmentRepository,
                                     soundFragmentService,
                                     aiAgentService,
-                                    fFmpegProvider
+                                    fFmpegProvider,
+                                    fileLeaseRegistry
                             );
                             LOGGER.debug("[QueueService] IntroSongHandler created, calling handle method");
                             return handler.handle(radioStation, toQueueDTO);
@@ -186,7 +191,8 @@ public class QueueService {
                     soundFragmentService,
                     audioConcatenator,
                     aiAgentService,
-                    fFmpegProvider
+                    fFmpegProvider,
+                    fileLeaseRegistry
             );
         } catch (IOException | AudioMergeException e) {
             throw new RuntimeException(e);
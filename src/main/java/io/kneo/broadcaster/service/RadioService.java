@@ -20,8 +20,9 @@ import io.kneo.broadcaster.model.cnst.SubmissionPolicy;
 import io.kneo.broadcaster.model.soundfragment.SoundFragment;
 import io.kneo.broadcaster.model.stream.IStream;
 import io.kneo.broadcaster.model.stream.OneTimeStream;
-import io.kneo.broadcaster.repository.OneTimeStreamRepository;
 import io.kneo.broadcaster.repository.soundfragment.SoundFragmentRepository;
+import io.kneo.broadcaster.service.cluster.ClusterMembership;
+import io.kneo.broadcaster.service.cluster.StationRelay;
 import io.kneo.broadcaster.service.exceptions.FileUploadException;
 import io.kneo.broadcaster.service.exceptions.RadioStationException;
 import io.kneo.broadcaster.service.maintenance.LocalFileCleanupService;
@@ -48,7 +49,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.UUID;
@@ -66,10 +66,12 @@ public class RadioService {
     @Inject LocalFileCleanupService localFileCleanupService;
     @Inject BroadcasterConfig config;
     @Inject ListenerService listenerService;
+    @Inject EntityCaches caches;
     @Inject
     UserService userService;
-    @Inject OneTimeStreamRepository oneTimeStreamRepository;
     @Inject LabelService labelService;
+    @Inject ClusterMembership clusterMembership;
+    @Inject StationRelay stationRelay;
 
     public Uni<IStream> initializeStation(String brand) {
         return radioStationPool.initializeRadio(brand)
@@ -85,6 +87,29 @@ public class RadioService {
         return radioStationPool.stopAndRemove(brand);
     }
 
+    /**
+     * Starts the station on the node that owns it, which is this one unless running in cluster mode.
+     */
+    public Uni<StreamStatus> startOnOwner(String brand) {
+        String owner = clusterMembership.ownerOf(brand);
+        if (!clusterMembership.isEnabled() || owner.equals(clusterMembership.getNodeId())) {
+            return initializeStation(brand).map(IStream::getStatus);
+        }
+        return stationRelay.start(owner, brand);
+    }
+
+    /**
+     * Stops the station wherever it runs: here if it is in the local pool, otherwise on its owner.
+     */
+    public Uni<StreamStatus> stopOnOwner(String brand) {
+        String owner = clusterMembership.ownerOf(brand);
+        if (!clusterMembership.isEnabled() || radioStationPool.getStation(brand) != null
+                || owner.equals(clusterMembership.getNodeId())) {
+            return stopStation(brand).map(stream -> stream != null ? StreamStatus.OFF_LINE : null);
+        }
+        return stationRelay.stop(owner, brand);
+    }
+
     public Uni<IStreamManager> getStreamManager(String brand) {
         return radioStationPool.get(brand)
                 .onItem().ifNull().failWith(() ->
@@ -101,57 +126,6 @@ public class RadioService {
                 .chain(s -> toRadioStatusDTO(s, null));
     }
 
-    public Uni<List<RadioStationStatusDTO>> getStations() {
-        return Uni.combine().all().unis(getOnlineStations(), oneTimeStreamRepository.getAll(1000, 0))
-                .asTuple()
-                .chain(tuple -> {
-                    List<IStream> online = tuple.getItem1();
-                    List<OneTimeStream> allOneTimeStreams = tuple.getItem2();
-
-                    List<Uni<RadioStationStatusDTO>> unis = new ArrayList<>();
-
-                    online.forEach(s -> unis.add(toStatusDTO(s, null)));
-
-                    List<String> onlineSlugs = online.stream()
-                            .map(IStream::getSlugName)
-                            .toList();
-
-                    allOneTimeStreams.stream()
-                            .filter(ots -> ots.getStatus() == StreamStatus.PENDING)
-                            .filter(ots -> !onlineSlugs.contains(ots.getSlugName()))
-                            .forEach(ots -> unis.add(oneTimeStreamToStatusDTO(ots)));
-
-                    return unis.isEmpty()
-                            ? Uni.createFrom().item(List.of())
-                            : Uni.join().all(unis).andFailFast();
-                });
-    }
-
-    public Uni<List<RadioStationStatusDTO>> getAllStations(Boolean onlineOnly) {
-        return Uni.combine().all().unis(getOnlineStations(), brandService.getAll(1000, 0))
-                .asTuple().chain(t -> {
-                    List<IStream> online = t.getItem1();
-                    List<Brand> all = t.getItem2();
-
-                    List<Uni<RadioStationStatusDTO>> unis = all.stream()
-                            .filter(b -> onlineOnly == null || !onlineOnly ||
-                                    online.stream().anyMatch(o -> o.getSlugName().equals(b.getSlugName())))
-                            .map(b -> {
-                                IStream os = online.stream()
-                                        .filter(o -> o.getSlugName().equals(b.getSlugName()))
-                                        .findFirst().orElse(null);
-                                return os != null
-                                        ? toStatusDTO(os, b)
-                                        : brandToStatusDTO(b);
-                            })
-                            .toList();
-
-                    return unis.isEmpty()
-                            ? Uni.createFrom().item(List.of())
-                            : Uni.join().all(unis).andFailFast();
-                });
-    }
-
     public Uni<RadioStationStatusDTO> getStation(String slugName) {
         return brandService.getBySlugName(slugName)
                 .chain(b -> {
@@ -273,6 +247,7 @@ public class RadioService {
         entity.setFileMetadataList(files);
 
         return soundFragmentRepository.insert(entity, List.of(brand.getId()), user)
+                .invoke(() -> caches.invalidate(caches.agendaCatalogs(), brand.getId()))
                 .chain(doc -> moveFilesForNewEntity(doc, files, user).replaceWith(doc))
                 .chain(this::mapToDTO)
                 .onFailure().invoke(() ->
@@ -451,7 +426,7 @@ public class RadioService {
                 brand.getPopularityRate());
     }
 
-    private Uni<RadioStationStatusDTO> oneTimeStreamToStatusDTO(OneTimeStream ots) {
+    public Uni<RadioStationStatusDTO> oneTimeStreamToStatusDTO(OneTimeStream ots) {
         if (ots == null) return Uni.createFrom().nullItem();
         return buildStatusDTO(
                 ots.getLocalizedName().getOrDefault(
@@ -576,11 +551,6 @@ public class RadioService {
                 .rateSoundFragmentByAction(brand, id, action, prev, SuperUser.build());
     }
 
-    private Uni<List<IStream>> getOnlineStations() {
-        return Uni.createFrom().item(
-                new ArrayList<>(radioStationPool.getOnlineStationsSnapshot()));
-    }
-
     private LanguageTag selectLanguageByWeight(AiAgent agent) {
 
         List<LanguagePreference> p = agent.getPreferredLang();
@@ -27,11 +27,13 @@ import java.util.stream.Collectors;
 @ApplicationScoped
 public class SceneService extends AbstractService<Scene, SceneDTO> {
     private final SceneRepository repository;
+    private final EntityCaches caches;
 
     @Inject
-    public SceneService(UserService userService, SceneRepository repository) {
+    public SceneService(UserService userService, SceneRepository repository, EntityCaches caches) {
         super(userService);
         this.repository = repository;
+        this.caches = caches;
     }
 
     public Uni<List<SceneDTO>> getAllDTO(final int limit, final int offset, final IUser user, SceneFilterDTO filter) {
@@ -75,6 +77,9 @@ public class SceneService extends AbstractService<Scene, SceneDTO> {
     }
 
     public Uni<Scene> getById(UUID sceneId, IUser user) {
+        if (EntityCaches.isShareable(user)) {
+            return caches.scenes().get(sceneId, key -> repository.findById(key, user, false));
+        }
         return repository.findById(sceneId, user, false);
     }
 
@@ -84,17 +89,21 @@ public class SceneService extends AbstractService<Scene, SceneDTO> {
             entity.setScriptId(scriptId);
             return repository.insert(entity, user).chain(this::mapToDTO);
         } else {
-            return repository.update(UUID.fromString(id), entity, user).chain(this::mapToDTO);
+            return repository.update(UUID.fromString(id), entity, user)
+                    .invoke(() -> caches.invalidate(caches.scenes(), UUID.fromString(id)))
+                    .chain(this::mapToDTO);
         }
     }
 
     public Uni<Integer> archive(String id, IUser user) {
-        return repository.archive(UUID.fromString(id), user);
+        return repository.archive(UUID.fromString(id), user)
+                .invoke(() -> caches.invalidate(caches.scenes(), UUID.fromString(id)));
     }
 
     @Override
     public Uni<Integer> delete(String id, IUser user) {
-        return repository.delete(UUID.fromString(id), user);
+        return repository.delete(UUID.fromString(id), user)
+                .invoke(() -> caches.invalidate(caches.scenes(), UUID.fromString(id)));
     }
 
     private Uni<SceneDTO> mapToDTO(Scene doc) {
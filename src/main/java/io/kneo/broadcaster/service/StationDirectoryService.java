@@ -0,0 +1,315 @@
+package io.kneo.broadcaster.service;
+
+import io.kneo.broadcaster.dto.radiostation.RadioStationStatusDTO;
+import io.kneo.broadcaster.model.brand.Brand;
+import io.kneo.broadcaster.model.cnst.StreamStatus;
+import io.kneo.broadcaster.model.stream.IStream;
+import io.kneo.broadcaster.model.stream.OneTimeStream;
+import io.kneo.broadcaster.repository.OneTimeStreamRepository;
+import io.kneo.broadcaster.service.stream.RadioStationPool;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pre-serialized station lists for {@code /radio/stations} and {@code /radio/all-stations}.
+ * Brands and pending one-time streams are loaded in full only on start, on brand or one-time
+ * stream edits and on a slow safety refresh; stream status transitions reported by
+ * {@link RadioStationPool} re-encode just the affected entry. Every entry is kept as its encoded
+ * JSON, so publishing a new {@link View} only joins the stored bytes; concurrent changes are
+ * folded into one publish instead of queueing on a lock. Requests get the current view without
+ * touching the database.
+ * <p>
+ * The directory is per node: a station counts as online when it runs in this node's
+ * {@link RadioStationPool}. With clustering enabled a station lives on the node that owns it,
+ * so each node lists the stations it hosts, and clients that need the whole picture have to
+ * ask every member.
+ */
+@ApplicationScoped
+public class StationDirectoryService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StationDirectoryService.class);
+    private static final int MAX_BRANDS = 1000;
+
+    @Inject
+    RadioService radioService;
+
+    @Inject
+    BrandService brandService;
+
+    @Inject
+    RadioStationPool radioStationPool;
+
+    @Inject
+    OneTimeStreamRepository oneTimeStreamRepository;
+
+    private volatile Map<String, Brand> brandsBySlug = Map.of();
+    private volatile List<OneTimeStream> oneTimeStreams = List.of();
+    private final ConcurrentHashMap<String, Buffer> brandEntries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Buffer> liveEntries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Buffer> oneTimeEntries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> entryVersions = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final AtomicBoolean publishRunning = new AtomicBoolean();
+    private final AtomicBoolean publishRequested = new AtomicBoolean();
+    private volatile Uni<Void> initialLoad;
+    private volatile Snapshot snapshot;
+
+    public record View(Buffer body, String etag) {
+    }
+
+    private record Snapshot(View stations, View allStations, View onlineStations) {
+    }
+
+    public Uni<View> getStations() {
+        return ready().map(s -> s.stations());
+    }
+
+    public Uni<View> getAllStations(Boolean onlineOnly) {
+        return ready().map(s -> Boolean.TRUE.equals(onlineOnly) ? s.onlineStations() : s.allStations());
+    }
+
+    /**
+     * Brand or one-time stream definitions changed, reload them. Calls arriving while a reload runs
+     * are folded into one follow-up reload.
+     */
+    public void invalidate() {
+        rebuildRequested.set(true);
+        if (rebuildRunning.compareAndSet(false, true)) {
+            runRebuild();
+        }
+    }
+
+    public void onStreamChanged(IStream stream) {
+        String slug = stream.getSlugName();
+        long version = entryVersions.merge(slug, 1L, Long::sum);
+        Brand brand = brandsBySlug.get(slug);
+        Uni<RadioStationStatusDTO> brandEntry = brand != null
+                ? radioService.toStatusDTO(stream, brand)
+                : Uni.createFrom().nullItem();
+        Uni.combine().all().unis(radioService.toStatusDTO(stream, null), brandEntry).asTuple()
+                .subscribe().with(
+                        tuple -> {
+                            if (entryVersions.get(slug) != version) {
+                                return;
+                            }
+                            if (radioStationPool.getStation(slug) == null) {
+                                return;
+                            }
+                            liveEntries.put(slug, Json.encodeToBuffer(tuple.getItem1()));
+                            if (tuple.getItem2() != null) {
+                                brandEntries.put(slug, Json.encodeToBuffer(tuple.getItem2()));
+                            }
+                            publish();
+                        },
+                        failure -> LOGGER.warn("Directory update for {} failed: {}", slug, failure.getMessage())
+                );
+    }
+
+    public void onStreamRemoved(String slug) {
+        long version = entryVersions.merge(slug, 1L, Long::sum);
+        liveEntries.remove(slug);
+        Brand brand = brandsBySlug.get(slug);
+        if (brand == null) {
+            publish();
+            return;
+        }
+        radioService.brandToStatusDTO(brand)
+                .subscribe().with(
+                        dto -> {
+                            if (entryVersions.get(slug) == version) {
+                                brandEntries.put(slug, Json.encodeToBuffer(dto));
+                            }
+                            publish();
+                        },
+                        failure -> LOGGER.warn("Directory update for {} failed: {}", slug, failure.getMessage())
+                );
+    }
+
+    @Scheduled(every = "5m", identity = "station-directory-refresh")
+    void scheduledRefresh() {
+        invalidate();
+    }
+
+    private Uni<Snapshot> ready() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return Uni.createFrom().item(current);
+        }
+        Uni<Void> load = initialLoad;
+        if (load == null) {
+            synchronized (this) {
+                if (initialLoad == null) {
+                    initialLoad = rebuild().memoize().indefinitely();
+                }
+                load = initialLoad;
+            }
+        }
+        return load.map(ignored -> snapshot);
+    }
+
+    private void runRebuild() {
+        rebuildRequested.set(false);
+        rebuild().subscribe().with(
+                ignored -> afterRebuild(),
+                failure -> {
+                    LOGGER.error("Station directory rebuild failed", failure);
+                    afterRebuild();
+                });
+    }
+
+    private void afterRebuild() {
+        rebuildRunning.set(false);
+        if (rebuildRequested.get() && rebuildRunning.compareAndSet(false, true)) {
+            runRebuild();
+        }
+    }
+
+    private Uni<Void> rebuild() {
+        return Uni.combine().all().unis(brandService.getAll(MAX_BRANDS, 0), oneTimeStreamRepository.getAll(MAX_BRANDS, 0))
+                .asTuple()
+                .chain(tuple -> {
+                    Map<String, Brand> brands = new LinkedHashMap<>();
+                    tuple.getItem1().forEach(b -> brands.put(b.getSlugName(), b));
+                    List<OneTimeStream> pending = tuple.getItem2().stream()
+                            .filter(ots -> ots.getStatus() == StreamStatus.PENDING)
+                            .toList();
+
+                    Map<String, IStream> online = new LinkedHashMap<>();
+                    radioStationPool.getOnlineStationsSnapshot().forEach(s -> online.put(s.getSlugName(), s));
+
+                    Map<String, Buffer> newBrandEntries = new ConcurrentHashMap<>();
+                    Map<String, Buffer> newLiveEntries = new ConcurrentHashMap<>();
+                    Map<String, Buffer> newOneTimeEntries = new ConcurrentHashMap<>();
+                    List<Uni<Void>> unis = new ArrayList<>();
+
+                    for (Brand brand : brands.values()) {
+                        IStream stream = online.get(brand.getSlugName());
+                        unis.add((stream != null ? radioService.toStatusDTO(stream, brand) : radioService.brandToStatusDTO(brand))
+                                .invoke(dto -> newBrandEntries.put(brand.getSlugName(), Json.encodeToBuffer(dto)))
+                                .replaceWithVoid());
+                    }
+                    for (IStream stream : online.values()) {
+                        unis.add(radioService.toStatusDTO(stream, null)
+                                .invoke(dto -> newLiveEntries.put(stream.getSlugName(), Json.encodeToBuffer(dto)))
+                                .replaceWithVoid());
+                    }
+                    for (OneTimeStream ots : pending) {
+                        unis.add(radioService.oneTimeStreamToStatusDTO(ots)
+                                .invoke(dto -> newOneTimeEntries.put(ots.getSlugName(), Json.encodeToBuffer(dto)))
+                                .replaceWithVoid());
+                    }
+
+                    Uni<Void> all = unis.isEmpty()
+                            ? Uni.createFrom().voidItem()
+                            : Uni.join().all(unis).andFailFast().replaceWithVoid();
+                    return all.invoke(() -> {
+                        brandsBySlug = brands;
+                        oneTimeStreams = pending;
+                        replace(brandEntries, newBrandEntries);
+                        replace(liveEntries, newLiveEntries);
+                        replace(oneTimeEntries, newOneTimeEntries);
+                        publish();
+                        LOGGER.debug("Station directory rebuilt: {} brands, {} online, {} pending one-time streams",
+                                brands.size(), online.size(), pending.size());
+                    });
+                });
+    }
+
+    /**
+     * Joins the stored entries into new views. A caller that finds another publish running
+     * leaves it a request and returns; the running one publishes again before it stops, so the
+     * last change is always visible.
+     */
+    private void publish() {
+        publishRequested.set(true);
+        while (publishRequested.get() && publishRunning.compareAndSet(false, true)) {
+            try {
+                publishRequested.set(false);
+                snapshot = assemble();
+            } finally {
+                publishRunning.set(false);
+            }
+        }
+    }
+
+    private Snapshot assemble() {
+        Set<String> online = radioStationPool.getActiveSnapshot();
+
+        List<Buffer> stations = new ArrayList<>();
+        for (IStream stream : radioStationPool.getOnlineStationsSnapshot()) {
+            Buffer entry = liveEntries.get(stream.getSlugName());
+            if (entry != null) {
+                stations.add(entry);
+            }
+        }
+        for (OneTimeStream ots : oneTimeStreams) {
+            Buffer entry = oneTimeEntries.get(ots.getSlugName());
+            if (entry != null && ots.getStatus() == StreamStatus.PENDING && !online.contains(ots.getSlugName())) {
+                stations.add(entry);
+            }
+        }
+
+        List<Buffer> all = new ArrayList<>();
+        List<Buffer> onlineOnly = new ArrayList<>();
+        for (String slug : brandsBySlug.keySet()) {
+            Buffer entry = brandEntries.get(slug);
+            if (entry == null) {
+                continue;
+            }
+            all.add(entry);
+            if (online.contains(slug)) {
+                onlineOnly.add(entry);
+            }
+        }
+
+        return new Snapshot(toView(stations), toView(all), toView(onlineOnly));
+    }
+
+    private static View toView(List<Buffer> entries) {
+        int length = 2 + Math.max(0, entries.size() - 1);
+        for (Buffer entry : entries) {
+            length += entry.length();
+        }
+        Buffer body = Buffer.buffer(length).appendByte((byte) '[');
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) {
+                body.appendByte((byte) ',');
+            }
+            body.appendBuffer(entries.get(i));
+        }
+        body.appendByte((byte) ']');
+        return new View(body, etag(body.getBytes()));
+    }
+
+    static String etag(byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return "\"" + HexFormat.of().formatHex(digest.digest(body), 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void replace(Map<String, Buffer> target, Map<String, Buffer> source) {
+        target.keySet().retainAll(source.keySet());
+        target.putAll(source);
+    }
+}
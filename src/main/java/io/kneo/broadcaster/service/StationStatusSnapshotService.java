@@ -0,0 +1,100 @@
+package io.kneo.broadcaster.service;
+
+import io.kneo.broadcaster.model.stream.IStream;
+import io.kneo.broadcaster.service.exceptions.RadioStationException;
+import io.kneo.broadcaster.service.stream.RadioStationPool;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pre-encoded {@code /:brand/radio/status} bodies, one per live station. {@link RadioStationPool}
+ * reports status transitions of its streams here through the same status listener that feeds
+ * {@link StationDirectoryService}, and a reported station's body is dropped; requests in between
+ * get the cached {@link View} without looking at the stream. The DTO is built and encoded again
+ * on the first request after a change, or once the body is older than {@link #MAX_AGE_MILLIS}
+ * (the DJ name comes from the agent record, which the stream does not track). ETags are the
+ * strong SHA-256 tags of the directory.
+ */
+@ApplicationScoped
+public class StationStatusSnapshotService {
+    private static final long MAX_AGE_MILLIS = 5 * 60 * 1000;
+
+    @Inject
+    RadioService radioService;
+
+    @Inject
+    RadioStationPool radioStationPool;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Uni<View>> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public record View(Buffer body, String etag) {
+    }
+
+    private record Entry(View view, long builtAt) {
+    }
+
+    public void onStreamChanged(IStream stream) {
+        forget(stream.getSlugName());
+    }
+
+    public void onStreamRemoved(String slug) {
+        forget(slug);
+    }
+
+    public Uni<View> getStatus(String brand) {
+        IStream stream = radioStationPool.getStation(brand);
+        if (stream == null) {
+            entries.remove(brand);
+            return Uni.createFrom().failure(new RadioStationException(RadioStationException.ErrorType.STATION_NOT_ACTIVE));
+        }
+        Entry entry = entries.get(brand);
+        if (entry != null && System.currentTimeMillis() - entry.builtAt() < MAX_AGE_MILLIS) {
+            hits.incrementAndGet();
+            return Uni.createFrom().item(entry.view());
+        }
+        // concurrent pollers of the same station share one rebuild
+        return pending.computeIfAbsent(brand, key -> rebuild(stream)
+                .eventually(() -> pending.remove(key))
+                .memoize().indefinitely());
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getRebuilds() {
+        return rebuilds.get();
+    }
+
+    private void forget(String slug) {
+        versions.merge(slug, 1L, Long::sum);
+        entries.remove(slug);
+        pending.remove(slug);
+    }
+
+    private Uni<View> rebuild(IStream stream) {
+        String slug = stream.getSlugName();
+        long version = versions.getOrDefault(slug, 0L);
+        return radioService.toRadioStatusDTO(stream, null)
+                .map(dto -> {
+                    Buffer body = Json.encodeToBuffer(dto);
+                    View view = new View(body, StationDirectoryService.etag(body.getBytes()));
+                    // a change reported while the DTO was being built makes this body stale already
+                    if (versions.getOrDefault(slug, 0L) == version) {
+                        entries.put(slug, new Entry(view, System.currentTimeMillis()));
+                    }
+                    rebuilds.incrementAndGet();
+                    return view;
+                });
+    }
+}
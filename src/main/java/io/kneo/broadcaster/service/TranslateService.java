@@ -1,34 +1,64 @@
 package io.kneo.broadcaster.service;
 
 import io.kneo.broadcaster.agent.AgentClient;
+import io.kneo.broadcaster.dto.agentrest.AgentRespDTO;
 import io.kneo.broadcaster.dto.agentrest.TranslateReqDTO;
 import io.kneo.broadcaster.model.Draft;
 import io.kneo.broadcaster.model.JobState;
 import io.kneo.broadcaster.model.Prompt;
 import io.kneo.broadcaster.model.cnst.LanguageTag;
+import io.kneo.broadcaster.service.exceptions.RateLimitedException;
+import io.kneo.broadcaster.service.translation.TranslationCheckpointStore;
+import io.kneo.broadcaster.service.translation.TranslationJobEngine;
 import io.kneo.core.model.user.IUser;
+import io.kneo.core.service.UserService;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.vertx.core.VertxException;
 import io.vertx.core.json.JsonObject;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import org.apache.commons.text.StringEscapeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
+/**
+ * Translation jobs started from the draft and prompt editors. Items of a job are translated in
+ * parallel through {@link TranslationJobEngine}, which bounds concurrency and request rate per
+ * provider and sends each distinct source string once. Progress is streamed to SSE subscribers
+ * and checkpointed, so jobs still running at shutdown are resumed on the next start. Only items
+ * with a final outcome are checkpointed; an item that failed because of shutdown, rate limiting
+ * or a connection problem is left open, and its job is kept so the next start retries it.
+ */
 @ApplicationScoped
 public class TranslateService {
     private static final Logger LOGGER = LoggerFactory.getLogger(TranslateService.class);
+    private static final String PROVIDER = "agent";
+    private static final String DRAFTS = "drafts";
+    private static final String PROMPTS = "prompts";
 
     private final AgentClient agentClient;
     private final DraftService draftService;
     private final PromptService promptService;
+    private final UserService userService;
+    private final TranslationJobEngine engine;
+    private final TranslationCheckpointStore checkpoints;
 
     public record SseEvent(String type, JsonObject data) {}
 
@@ -36,20 +66,51 @@ public class TranslateService {
     private final Map<String, List<Consumer<SseEvent>>> subscribers = new ConcurrentHashMap<>();
 
     @Inject
-    public TranslateService(AgentClient agentClient, DraftService draftService, PromptService promptService) {
+    public TranslateService(AgentClient agentClient, DraftService draftService, PromptService promptService,
+                            UserService userService, TranslationJobEngine engine, TranslationCheckpointStore checkpoints) {
         this.agentClient = agentClient;
         this.draftService = draftService;
         this.promptService = promptService;
+        this.userService = userService;
+        this.engine = engine;
+        this.checkpoints = checkpoints;
+    }
+
+    private volatile boolean shuttingDown;
+
+    void onStop(@Observes ShutdownEvent event) {
+        shuttingDown = true;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        for (TranslationCheckpointStore.Checkpoint checkpoint : checkpoints.load()) {
+            userService.findById(checkpoint.userId())
+                    .subscribe().with(user -> {
+                        if (user.isEmpty()) {
+                            LOGGER.warn("Dropping translation job {}: user {} no longer exists", checkpoint.jobId(), checkpoint.userId());
+                            checkpoints.remove(checkpoint.jobId());
+                            return;
+                        }
+                        LOGGER.info("Resuming translation job {} at {}/{}", checkpoint.jobId(),
+                                checkpoint.processed().size(), checkpoint.items().size());
+                        startJob(checkpoint.jobId(), checkpoint.kind(), checkpoint.items(), user.get(),
+                                checkpoint.processed(), checkpoint.succeeded());
+                    }, err -> LOGGER.error("Cannot resume translation job {}", checkpoint.jobId(), err));
+        }
     }
 
     public void subscribe(String jobId, Consumer<SseEvent> consumer) {
-        subscribers.computeIfAbsent(jobId, k -> new ArrayList<>()).add(consumer);
+        subscribers.computeIfAbsent(jobId, k -> new CopyOnWriteArrayList<>()).add(consumer);
         JobState st = jobs.get(jobId);
         if (st != null) {
-            consumer.accept(new SseEvent("snapshot", new JsonObject()
-                    .put("total", st.total)
-                    .put("done", st.done)
-                    .put("finished", st.finished)));
+            JsonObject snapshot;
+            synchronized (st) {
+                snapshot = new JsonObject()
+                        .put("total", st.total)
+                        .put("done", st.done)
+                        .put("finished", st.finished);
+            }
+            consumer.accept(new SseEvent("snapshot", snapshot));
         }
     }
 
@@ -65,88 +126,150 @@ public class TranslateService {
         List<Consumer<SseEvent>> list = subscribers.get(jobId);
         if (list != null) {
             SseEvent ev = new SseEvent(type, data);
-            for (Consumer<SseEvent> c : new ArrayList<>(list)) {
+            for (Consumer<SseEvent> c : list) {
                 try { c.accept(ev); } catch (Exception ignore) { }
             }
         }
     }
 
     public void startJobForDrafts(String jobId, List<TranslateReqDTO> dtos, IUser user) {
-        startJob(jobId, dtos, user, this::translateAndUpsertDraft);
+        startNewJob(jobId, DRAFTS, dtos, user);
     }
 
     public void startJobForPrompts(String jobId, List<TranslateReqDTO> dtos, IUser user) {
-        startJob(jobId, dtos, user, this::translateAndUpsertPrompt);
+        startNewJob(jobId, PROMPTS, dtos, user);
     }
 
-    private <T> void startJob(String jobId, List<TranslateReqDTO> dtos, IUser user,
-                              BiFunction<TranslateReqDTO, IUser, Uni<T>> translator) {
+    private void startNewJob(String jobId, String kind, List<TranslateReqDTO> dtos, IUser user) {
         if (jobId == null || jobId.isBlank()) throw new IllegalArgumentException("jobId is required");
+        List<TranslateReqDTO> items = dtos != null ? dtos : List.of();
+        if (!items.isEmpty()) {
+            checkpoints.create(jobId, kind, user.getId(), items);
+        }
+        startJob(jobId, kind, items, user, Set.of(), 0);
+    }
+
+    private void startJob(String jobId, String kind, List<TranslateReqDTO> dtos, IUser user,
+                          Set<String> processed, int succeeded) {
+        BiFunction<Job, TranslateReqDTO, Uni<?>> translator = DRAFTS.equals(kind)
+                ? this::translateAndUpsertDraft
+                : this::translateAndUpsertPrompt;
 
         JobState st = new JobState();
-        st.total = dtos != null ? dtos.size() : 0;
-        st.done = 0;
+        st.total = dtos.size();
+        st.done = succeeded;
         st.finished = false;
         jobs.put(jobId, st);
 
         emit(jobId, "started", new JsonObject().put("total", st.total));
 
-        if (st.total == 0) {
-            st.finished = true;
-            emit(jobId, "done", new JsonObject().put("total", 0).put("success", 0));
+        List<TranslateReqDTO> pending = dtos.stream()
+                .filter(dto -> !processed.contains(TranslationCheckpointStore.itemKey(dto)))
+                .toList();
+        Job job = new Job(jobId, user, engine.batch(PROVIDER), new AtomicInteger());
+        if (pending.isEmpty()) {
+            finish(job, st);
             return;
         }
 
-        assert dtos != null;
-        processSequential(jobId, dtos, 0, user, translator)
+        Multi.createFrom().iterable(pending)
+                .onItem().transformToUni(dto -> translateItem(job, st, dto, translator))
+                .merge(engine.getConcurrency())
+                .collect().last()
                 .subscribe().with(
-                        ignored -> {},
+                        ignored -> finish(job, st),
                         err -> {
                             LOGGER.error("Translation job failed: {}", jobId, err);
-                            st.finished = true;
+                            synchronized (st) {
+                                st.finished = true;
+                            }
+                            checkpoints.remove(jobId);
                             emit(jobId, "error", new JsonObject().put("message", err.getMessage()));
                         }
                 );
     }
 
-    private <T> Uni<Void> processSequential(
-            String jobId, List<TranslateReqDTO> dtos, int idx, IUser user,
-            BiFunction<TranslateReqDTO, IUser, Uni<T>> translator) {
-
-        if (idx >= dtos.size()) {
-            JobState st = jobs.get(jobId);
-            if (st != null) {
-                st.finished = true;
-                emit(jobId, "done", new JsonObject().put("total", st.total).put("success", st.done));
-            }
-            return Uni.createFrom().voidItem();
-        }
-
-        TranslateReqDTO dto = dtos.get(idx);
+    private Uni<Void> translateItem(Job job, JobState st, TranslateReqDTO dto,
+                                    BiFunction<Job, TranslateReqDTO, Uni<?>> translator) {
         LanguageTag lang = LanguageTag.fromTag(dto.getLanguageTag());
+        String masterId = dto.getMasterId() != null ? dto.getMasterId().toString() : null;
 
-        return translator.apply(dto, user)
+        return translator.apply(job, dto)
                 .onItem().invoke(result -> {
-                    JobState st = jobs.get(jobId);
-                    if (st != null) st.done += 1;
-                    JsonObject payload = new JsonObject()
+                    if (result != null) {
+                        synchronized (st) {
+                            st.done += 1;
+                        }
+                    }
+                    checkpoints.record(job.jobId(), TranslationCheckpointStore.itemKey(dto), result != null);
+                    emit(job.jobId(), "language_done", new JsonObject()
                             .put("language", lang.tag())
-                            .put("masterId", dto.getMasterId() != null ? dto.getMasterId().toString() : null)
-                            .put("success", result != null);
-                    emit(jobId, "language_done", payload);
+                            .put("masterId", masterId)
+                            .put("success", result != null));
                 })
                 .onFailure().invoke(err -> {
-                    emit(jobId, "language_done", new JsonObject()
+                    if (shuttingDown || isTransient(err)) {
+                        job.retryLater().incrementAndGet();
+                    } else {
+                        checkpoints.record(job.jobId(), TranslationCheckpointStore.itemKey(dto), false);
+                    }
+                    emit(job.jobId(), "language_done", new JsonObject()
                             .put("language", lang.tag())
-                            .put("masterId", dto.getMasterId() != null ? dto.getMasterId().toString() : null)
+                            .put("masterId", masterId)
                             .put("success", false)
                             .put("message", err.getMessage()));
                 })
-                .onTermination().call(() -> processSequential(jobId, dtos, idx + 1, user, translator))
+                .onFailure().recoverWithNull()
                 .replaceWithVoid();
     }
 
-    private Uni<Draft> translateAndUpsertDraft(TranslateReqDTO dto, IUser user) {
+    private void finish(Job job, JobState st) {
+        int total;
+        int done;
+        synchronized (st) {
+            st.finished = true;
+            total = st.total;
+            done = st.done;
+        }
+        int open = job.retryLater().get();
+        if (open == 0) {
+            checkpoints.remove(job.jobId());
+        } else {
+            LOGGER.info("Translation job {} left {} item(s) open, they are retried on the next start", job.jobId(), open);
+        }
+        emit(job.jobId(), "done", new JsonObject().put("total", total).put("success", done));
+    }
+
+    /**
+     * Failures that say nothing about the item itself, so it should be translated again rather
+     * than recorded as failed.
+     */
+    private static boolean isTransient(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof RateLimitedException
+                    || t instanceof IOException
+                    || t instanceof VertxException
+                    || t instanceof TimeoutException
+                    || t instanceof RejectedExecutionException
+                    || t instanceof CancellationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Uni<AgentRespDTO> translate(Job job, TranslateReqDTO dto, LanguageTag targetLanguage) {
+        String sourceKey = dto.getTranslationType() + "|" + targetLanguage + "|" + dto.getCountryCode() + "|" + dto.getToTranslate();
+        return job.batch().submit(sourceKey, () ->
+                agentClient.translate(dto.getToTranslate(), dto.getTranslationType(), targetLanguage, dto.getCountryCode()));
+    }
+
+    private record Job(String jobId, IUser user, TranslationJobEngine.Batch<AgentRespDTO> batch,
+                       AtomicInteger retryLater) {
+    }
+
+    private Uni<Draft> translateAndUpsertDraft(Job job, TranslateReqDTO dto) {
+        IUser user = job.user();
         LanguageTag targetTranslation = LanguageTag.fromTag(dto.getLanguageTag());
         return draftService.getById(dto.getMasterId(), user)
                 .chain(originalDraft -> {
@@ -154,7 +277,7 @@ public class TranslateService {
                         return Uni.createFrom().nullItem();
                     }
 
-                    return agentClient.translate(dto.getToTranslate(), dto.getTranslationType(), targetTranslation, dto.getCountryCode())
+                    return translate(job, dto, targetTranslation)
                             .chain(resp -> {
                                 String translatedContent = resp != null ? resp.getResult() : null;
                                 if (translatedContent == null || translatedContent.isBlank()) {
@@ -183,7 +306,8 @@ public class TranslateService {
                 });
     }
 
-    private Uni<Prompt> translateAndUpsertPrompt(TranslateReqDTO dto, IUser user) {
+    private Uni<Prompt> translateAndUpsertPrompt(Job job, TranslateReqDTO dto) {
+        IUser user = job.user();
         LanguageTag targetTranslation = LanguageTag.fromTag(dto.getLanguageTag());
         return promptService.getById(dto.getMasterId(), user)
                 .chain(master -> {
@@ -191,7 +315,7 @@ public class TranslateService {
                         return Uni.createFrom().nullItem();
                     }
 
-                    return agentClient.translate(dto.getToTranslate(), dto.getTranslationType(), targetTranslation, dto.getCountryCode())
+                    return translate(job, dto, targetTranslation)
                             .chain(resp -> {
                                 String translatedContent = resp != null ? resp.getResult() : null;
                                 if (translatedContent == null || translatedContent.isBlank()) {
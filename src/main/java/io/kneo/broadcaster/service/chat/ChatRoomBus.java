@@ -0,0 +1,259 @@
+package io.kneo.broadcaster.service.chat;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.http.WebSocketFrame;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Public chat rooms, one per station slug. A message is encoded to a {@link Buffer} once and the
+ * same bytes are written to every socket in the room. Each connection has a bounded outbound
+ * queue that only fills while its socket reports a full write queue; a listener that falls
+ * further behind than the queue allows is disconnected rather than slowing the room down.
+ */
+@ApplicationScoped
+public class ChatRoomBus {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChatRoomBus.class);
+    private static final short SLOW_CONSUMER_CLOSE_CODE = 1008;
+
+    private final int queueCapacity;
+    private final Map<String, Member> members = new ConcurrentHashMap<>();
+    private final Map<String, Set<Member>> rooms = new ConcurrentHashMap<>();
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong deliveries = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Inject
+    public ChatRoomBus(BroadcasterConfig config) {
+        this(config.getChatRoomQueueCapacity());
+    }
+
+    public ChatRoomBus(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Member connect(String connectionId, Outlet outlet) {
+        Member member = new Member(connectionId, outlet);
+        members.put(connectionId, member);
+        outlet.onDrain(member::drain);
+        return member;
+    }
+
+    public void disconnect(String connectionId) {
+        Member member = members.remove(connectionId);
+        if (member != null) {
+            member.close();
+        }
+    }
+
+    /**
+     * Sends {@code message} to everyone in the station's room and returns how many sockets took it.
+     */
+    public int publish(String brandSlug, String message) {
+        Set<Member> room = rooms.get(brandSlug);
+        if (room == null) {
+            return 0;
+        }
+        Buffer payload = Buffer.buffer(message);
+        published.incrementAndGet();
+        int delivered = 0;
+        for (Member member : room) {
+            if (member.offer(payload)) {
+                delivered++;
+            }
+        }
+        deliveries.addAndGet(delivered);
+        return delivered;
+    }
+
+    public int getRoomSize(String brandSlug) {
+        Set<Member> room = rooms.get(brandSlug);
+        return room == null ? 0 : room.size();
+    }
+
+    public int getConnectionCount() {
+        return members.size();
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public long getDeliveries() {
+        return deliveries.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private void enter(String brandSlug, Member member) {
+        rooms.compute(brandSlug, (slug, room) -> {
+            Set<Member> target = room != null ? room : ConcurrentHashMap.newKeySet();
+            target.add(member);
+            return target;
+        });
+    }
+
+    private void exit(String brandSlug, Member member) {
+        rooms.computeIfPresent(brandSlug, (slug, room) -> {
+            room.remove(member);
+            return room.isEmpty() ? null : room;
+        });
+    }
+
+    public final class Member {
+        private final String connectionId;
+        private final Outlet outlet;
+        private final ArrayDeque<Buffer> pending = new ArrayDeque<>();
+        private String room;
+        private boolean closed;
+
+        private Member(String connectionId, Outlet outlet) {
+            this.connectionId = connectionId;
+            this.outlet = outlet;
+        }
+
+        /**
+         * Moves the connection into the station's room, leaving the one it was in before.
+         */
+        public synchronized void join(String brandSlug) {
+            if (closed || brandSlug == null || brandSlug.equals(room)) {
+                return;
+            }
+            if (room != null) {
+                exit(room, this);
+            }
+            room = brandSlug;
+            enter(brandSlug, this);
+        }
+
+        /**
+         * Sends a message to this connection only, in order with what the room sends it.
+         */
+        public void send(String message) {
+            offer(Buffer.buffer(message));
+        }
+
+        public synchronized String getRoom() {
+            return room;
+        }
+
+        public synchronized int getPending() {
+            return pending.size();
+        }
+
+        private synchronized boolean offer(Buffer payload) {
+            if (closed) {
+                return false;
+            }
+            if (pending.isEmpty() && !outlet.writeQueueFull()) {
+                outlet.write(payload);
+                return true;
+            }
+            if (pending.size() >= queueCapacity) {
+                evict();
+                return false;
+            }
+            pending.add(payload);
+            return true;
+        }
+
+        private synchronized void drain() {
+            while (!closed && !pending.isEmpty() && !outlet.writeQueueFull()) {
+                outlet.write(pending.poll());
+            }
+        }
+
+        private void evict() {
+            evictions.incrementAndGet();
+            LOGGER.warn("Disconnecting slow chat listener {} in room {} after {} queued messages",
+                    connectionId, room, pending.size());
+            members.remove(connectionId);
+            close();
+            outlet.close(SLOW_CONSUMER_CLOSE_CODE, "Too slow to keep up with the chat");
+        }
+
+        private synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.clear();
+            if (room != null) {
+                exit(room, this);
+            }
+        }
+    }
+
+    /**
+     * One text message over {@code payload}'s bytes, so fan-out copies nothing per socket. The
+     * public {@link WebSocketFrame#textFrame} factory only takes a String and would encode the
+     * message again for every socket, so only its first character goes out that way, in a
+     * non-final text frame; the rest follows in a final continuation frame over a slice of the
+     * shared buffer. Clients reassemble the fragments into a single text message. The opening
+     * fragment is not left empty because Vert.x clients drop continuations that follow an empty
+     * text frame. Netty releases a frame's data once it is written; the heap buffers behind
+     * {@link Buffer} ignore that, so the bytes still queued for other sockets stay intact.
+     * ChatRoomBusTest checks both against the Vert.x version in use.
+     */
+    static List<WebSocketFrame> textMessage(Buffer payload) {
+        int length = payload.length();
+        if (length == 0) {
+            return List.of(WebSocketFrame.textFrame("", true));
+        }
+        int lead = payload.getUnsignedByte(0);
+        int head = Math.min(length, lead < 0x80 ? 1 : lead < 0xE0 ? 2 : lead < 0xF0 ? 3 : 4);
+        return List.of(WebSocketFrame.textFrame(payload.getString(0, head), false),
+                WebSocketFrame.continuationFrame(payload.slice(head, length), true));
+    }
+
+    /**
+     * The write side of a socket as the bus needs it.
+     */
+    public interface Outlet {
+        boolean writeQueueFull();
+
+        void write(Buffer payload);
+
+        void onDrain(Runnable handler);
+
+        void close(short code, String reason);
+
+        static Outlet of(ServerWebSocket webSocket) {
+            return new Outlet() {
+                @Override
+                public boolean writeQueueFull() {
+                    return webSocket.writeQueueFull();
+                }
+
+                @Override
+                public void write(Buffer payload) {
+                    textMessage(payload).forEach(webSocket::writeFrame);
+                }
+
+                @Override
+                public void onDrain(Runnable handler) {
+                    webSocket.drainHandler(v -> handler.run());
+                }
+
+                @Override
+                public void close(short code, String reason) {
+                    webSocket.close(code, reason);
+                }
+            };
+        }
+    }
+}
@@ -1,19 +1,19 @@
 package io.kneo.broadcaster.service.chat;
 
-import com.anthropic.client.AnthropicClient;
-import com.anthropic.client.okhttp.AnthropicOkHttpClient;
 import com.anthropic.core.JsonValue;
-import com.anthropic.core.http.AsyncStreamResponse;
 import com.anthropic.models.messages.MessageCreateParams;
 import com.anthropic.models.messages.MessageParam;
-import com.anthropic.models.messages.RawContentBlockDelta;
-import com.anthropic.models.messages.RawMessageStreamEvent;
+import com.anthropic.models.messages.TextBlockParam;
 import com.anthropic.models.messages.Tool;
 import com.anthropic.models.messages.ToolUseBlock;
 import io.kneo.broadcaster.agent.ElevenLabsClient;
+import io.kneo.broadcaster.agent.PromptCachePlanner;
+import io.kneo.broadcaster.agent.TextToSpeechClient;
+import io.kneo.broadcaster.agent.TtsAudioCache;
 import io.kneo.broadcaster.config.BroadcasterConfig;
 import io.kneo.broadcaster.dto.ChatMessageDTO;
 import io.kneo.broadcaster.model.aiagent.AiAgent;
+import io.kneo.broadcaster.model.aiagent.TTSEngineType;
 import io.kneo.broadcaster.model.brand.Brand;
 import io.kneo.broadcaster.model.cnst.ChatType;
 import io.kneo.broadcaster.model.cnst.MessageType;
@@ -29,6 +29,8 @@ import io.kneo.broadcaster.service.live.generated.GeneratedNewsService;
 import io.kneo.broadcaster.service.live.scripting.PerplexitySearchHelper;
 import io.kneo.broadcaster.service.soundfragment.SoundFragmentService;
 import io.kneo.broadcaster.service.stream.RadioStationPool;
+import io.kneo.broadcaster.service.util.BlockingExecutor;
+import io.kneo.broadcaster.template.PromptTemplate;
 import io.kneo.broadcaster.util.ResourceUtil;
 import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.IUser;
@@ -40,26 +42,26 @@ import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
-import static io.smallrye.mutiny.infrastructure.Infrastructure.getDefaultWorkerPool;
-
 public abstract class ChatService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ChatService.class);
     
-    protected final AnthropicClient anthropicClient;
     protected final AiHelperService aiHelperService;
     protected final String mainPrompt;
     protected final String followUpPrompt;
     protected final BroadcasterConfig config;
     protected final ConcurrentHashMap<String, String> assistantNameByConnectionId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, StationPrompt> stationPrompts = new ConcurrentHashMap<>();
     
     @Inject
     protected BrandService brandService;
@@ -72,14 +74,20 @@ public abstract class ChatService {
     @Inject
     protected ChatRepository chatRepository;
     @Inject
+    protected ChatTurnStreamer turnStreamer;
+    @Inject
+    protected ConversationHistoryStore historyStore;
+    @Inject
+    protected BlockingExecutor blockingExecutor;
+    @Inject
     protected ElevenLabsClient elevenLabsClient;
     @Inject
+    protected TtsAudioCache ttsAudioCache;
+    @Inject
     protected AirSupplier waiter;
     @Inject
     protected PerplexitySearchHelper perplexitySearchHelper;
     @Inject
-    protected ChatSummaryService chatSummaryService;
-    @Inject
     protected PromptService promptService;
     @Inject
     protected GeneratedNewsService generatedNewsService;
@@ -90,15 +98,11 @@ public abstract class ChatService {
 
     protected ChatService(BroadcasterConfig config, AiHelperService aiHelperService) {
         if (config != null) {
-            this.anthropicClient = AnthropicOkHttpClient.builder()
-                    .apiKey(config.getAnthropicApiKey())
-                    .build();
             this.aiHelperService = aiHelperService;
             this.config = config;
             this.mainPrompt = ResourceUtil.loadResourceAsString("/prompts/mainPrompt.hbs");
             this.followUpPrompt = ResourceUtil.loadResourceAsString("/prompts/followUpPrompt.hbs");
         } else {
-            this.anthropicClient = null;
             this.aiHelperService = null;
             this.config = null;
             this.mainPrompt = null;
@@ -117,6 +121,10 @@ public abstract class ChatService {
 
     protected abstract ChatType getChatType();
 
+    protected TextToSpeechClient getTtsClient() {
+        return ttsAudioCache.decorate(TTSEngineType.ELEVENLABS, elevenLabsClient);
+    }
+
     public Uni<String> processUserMessage(String username, String content, String connectionId, String brandName, IUser user) {
         return Uni.createFrom().item(() -> {
             JsonObject message = createMessage(
@@ -151,6 +159,10 @@ public abstract class ChatService {
                 });
     }
 
+    /**
+     * {@code chunkHandler} gets everything meant only for the asking listener: streamed text, tool
+     * progress and errors. {@code completionHandler} gets nothing but the finished bot message.
+     */
     public Uni<Void> generateBotResponse(String userMessage, Consumer<String> chunkHandler, Consumer<String> completionHandler, String connectionId, String slugName, IUser user) {
 
         MessageParam userMsg = MessageParam.builder()
@@ -158,82 +170,80 @@ public abstract class ChatService {
                 .content(MessageParam.Content.ofString(userMessage))
                 .build();
 
-        chatRepository.appendToConversation(user.getId(), getChatType(), userMsg);
+        historyStore.append(user.getId(), getChatType(), userMsg);
 
-        Uni<Brand> stationUni = brandService.getBySlugName(slugName, SuperUser.build()); //I still dont knw shou we use superuser here
-
-        return stationUni.flatMap(station -> {
-            String radioStationName = station != null && station.getLocalizedName() != null
-                    ? station.getLocalizedName().getOrDefault(LanguageCode.en, station.getSlugName())
-                    : slugName;
+        return brandService.getBySlugName(slugName)
+                .flatMap(station -> {
+                    if (station == null || station.getAiAgentId() == null) {
+                        return Uni.createFrom().<StationPrompt>failure(
+                                new IllegalStateException("No DJ is assigned to station " + slugName));
+                    }
+                    return aiAgentService.getById(station.getAiAgentId(), SuperUser.build(), LanguageCode.en)
+                            .map(agent -> stationPrompt(slugName, station, agent));
+                })
+                .flatMap(stationPrompt -> {
+                    PromptTemplate prompt = stationPrompt.prompt();
+                    String stable = prompt.getLeadingText();
+                    String renderedPrompt = prompt.render(Map.of("userName", user.getUserName()));
+                    List<TextBlockParam> system = PromptCachePlanner.system(stable, renderedPrompt.substring(stable.length()));
+
+                    assistantNameByConnectionId.put(connectionId, stationPrompt.djName());
+                    assistantNameByConnectionId.put(connectionId + "_voice", stationPrompt.djVoiceId());
+
+                    return historyStore.window(user.getId(), slugName, getChatType())
+                            .map(history -> PromptCachePlanner.plan(
+                                    buildMessageCreateParams(system, history), PromptCachePlanner.Mode.CONVERSATION));
+                })
+                .flatMap(params -> streamTurn(params, chunkHandler, completionHandler, connectionId, slugName, user.getId()))
+                .runSubscriptionOn(blockingExecutor.executor(BlockingExecutor.Category.LLM));
+    }
 
-            Uni<AiAgent> agentUni;
-            if (station != null && station.getAiAgentId() != null) {
-                agentUni = aiAgentService.getById(station.getAiAgentId(), SuperUser.build(), LanguageCode.en);
-            } else {
-                agentUni = Uni.createFrom().item(() -> null);
-            }
+    /**
+     * The main prompt with everything about the station and its DJ filled in, leaving only the
+     * per-user placeholders. It is rebuilt when the prompt text changes or when the brand or
+     * agent cache hands out a different instance, which is what happens after either is edited.
+     */
+    private StationPrompt stationPrompt(String slugName, Brand station, AiAgent agent) {
+        PromptTemplate source = PromptTemplate.of(getMainPrompt());
+        StationPrompt cached = stationPrompts.get(slugName);
+        if (cached != null && cached.source() == source && cached.station() == station && cached.agent() == agent) {
+            return cached;
+        }
 
-            return agentUni.onItem().transform(agent -> {
-                String djName = agent.getName();
-
-                assert station != null;
-                String stationSlug = station.getSlugName();
-                String stationCountry = station.getCountry().getCountryName();
-                String stationBitRate = Long.toString(station.getBitRate());
-                String stationStatus = "unknown";
-                String stationTz = station.getTimeZone().getId();
-                String stationDesc = station.getDescription();
-                String hlsUrl = config.getHost() + "/" + stationSlug + "/radio/stream.m3u8";
-                String mixplaUrl = "https://player.mixpla.io/?radio=" + stationSlug;
-
-                String djLanguages, djPrimaryVoices;
-                String djCopilotName = "";
-                djLanguages = agent.getPreferredLang().stream()
-                        .sorted(java.util.Comparator.comparingDouble(io.kneo.broadcaster.model.aiagent.LanguagePreference::getWeight).reversed())
-                        .map(lp -> lp.getLanguageTag().name())
-                        .reduce((a, b) -> a + "," + b).orElse("");
-                djPrimaryVoices = agent.getTtsSetting().getDj().getId();
-
-                String renderedPrompt = getMainPrompt()
-                        .replace("{{djName}}", djName)
-                        .replace("{{radioStationName}}", radioStationName)
-                        .replace("{{radioStationSlug}}", stationSlug)
-                        .replace("{{radioStationCountry}}", stationCountry)
-                        .replace("{{radioStationBitRate}}", stationBitRate)
-                        .replace("{{radioStationStatus}}", stationStatus)
-                        .replace("{{radioStationTimeZone}}", stationTz)
-                        .replace("{{radioStationDescription}}", stationDesc)
-                        .replace("{{radioStationHlsUrl}}", hlsUrl)
-                        .replace("{{radioStationMixplaUrl}}", mixplaUrl)
-                        .replace("{{djLanguages}}", djLanguages)
-                        .replace("{{djCopilotName}}", djCopilotName)
-                        .replace("{{userName}}", user.getUserName());
-
-                assistantNameByConnectionId.put(connectionId, djName);
-                assistantNameByConnectionId.put(connectionId + "_voice", djPrimaryVoices);
-
-                return loadConversationHistoryWithSummary(user.getId(), slugName, getChatType())
-                        .map(history -> buildMessageCreateParams(renderedPrompt, history));
-            });
-        }).flatMap(paramsUni -> paramsUni).flatMap(params ->
-                Uni.createFrom().completionStage(() -> anthropicClient.async().messages().create(params))
-                        .flatMap(message -> {
-                            Optional<ToolUseBlock> toolUse = message.content().stream()
-                                    .flatMap(block -> block.toolUse().stream())
-                                    .findFirst();
-
-                            if (toolUse.isPresent()) {
-                                List<MessageParam> history = chatRepository.getConversationHistory(user.getId(), getChatType());
-                                return handleToolCall(toolUse.get(), chunkHandler, completionHandler, connectionId, slugName, user.getId(), history);
-                            } else {
-                                return streamResponse(params, chunkHandler, completionHandler, connectionId, slugName, user.getId());
-                            }
-                        })
-        ).runSubscriptionOn(getDefaultWorkerPool());
+        String stationSlug = station.getSlugName();
+        String radioStationName = station.getLocalizedName() != null
+                ? station.getLocalizedName().getOrDefault(LanguageCode.en, stationSlug)
+                : slugName;
+        String djLanguages = agent.getPreferredLang().stream()
+                .sorted(Comparator.comparingDouble(io.kneo.broadcaster.model.aiagent.LanguagePreference::getWeight).reversed())
+                .map(lp -> lp.getLanguageTag().name())
+                .reduce((a, b) -> a + "," + b).orElse("");
+
+        Map<String, String> values = new HashMap<>();
+        values.put("djName", agent.getName());
+        values.put("radioStationName", radioStationName);
+        values.put("radioStationSlug", stationSlug);
+        values.put("radioStationCountry", station.getCountry().getCountryName());
+        values.put("radioStationBitRate", Long.toString(station.getBitRate()));
+        values.put("radioStationStatus", "unknown");
+        values.put("radioStationTimeZone", station.getTimeZone().getId());
+        values.put("radioStationDescription", Objects.toString(station.getDescription(), ""));
+        values.put("radioStationHlsUrl", config.getHost() + "/" + stationSlug + "/radio/stream.m3u8");
+        values.put("radioStationMixplaUrl", "https://player.mixpla.io/?radio=" + stationSlug);
+        values.put("djLanguages", djLanguages);
+        values.put("djCopilotName", "");
+
+        StationPrompt prompt = new StationPrompt(source, station, agent, source.bind(values),
+                agent.getName(), agent.getTtsSetting().getDj().getId());
+        stationPrompts.put(slugName, prompt);
+        return prompt;
     }
 
-    protected abstract MessageCreateParams buildMessageCreateParams(String renderedPrompt, List<MessageParam> history);
+    /**
+     * Builds the request for a turn. {@code system} is the station part of the prompt followed by
+     * the per-user part; cache breakpoints are added afterwards.
+     */
+    protected abstract MessageCreateParams buildMessageCreateParams(List<TextBlockParam> system, List<MessageParam> history);
 
     protected abstract List<Tool> getAvailableTools();
 
@@ -245,129 +255,94 @@ public abstract class ChatService {
                                                 long userId,
                                                 List<MessageParam> conversationHistory);
 
-    protected Uni<Void> streamResponse(MessageCreateParams params,
-                                     Consumer<String> chunkHandler,
-                                     Consumer<String> completionHandler,
-                                     String connectionId,
-                                     String brandName,
-                                     long userId) {
-
-        return Uni.createFrom().completionStage(() -> {
-
-            StringBuilder fullResponse = new StringBuilder();
-            boolean[] inThinking = {false};
-
-            return anthropicClient.async().messages().createStreaming(params)
-                    .subscribe(new AsyncStreamResponse.Handler<>() {
-
-                        @Override
-                        public void onNext(RawMessageStreamEvent chunk) {
-                            try {
-                                if (chunk.contentBlockDelta().isPresent()) {
-                                    RawContentBlockDelta delta = chunk.contentBlockDelta().get().delta();
-
-                                    if (delta.text().isPresent()) {
-                                        String text = delta.text().get().text();
-                                        fullResponse.append(text);
-
-                                        if (text.contains("<thinking>")) {
-                                            inThinking[0] = true;
-                                        }
-                                        if (text.contains("</thinking>")) {
-                                            inThinking[0] = false;
-                                        }
-
-                                        if (!inThinking[0]
-                                                && !text.contains("<thinking>")
-                                                && !text.contains("</thinking>")) {
-
-                                            chunkHandler.accept(ChatMessageDTO.chunk(text, assistantNameByConnectionId.get(connectionId), connectionId).build().toJson());
-                                        }
-                                    }
-                                }
-                            } catch (Exception ignored) {
-                            }
-                        }
-
-                        @Override
-                        public void onComplete(Optional<Throwable> error) {
-
-                            if (error.isPresent()) {
-                                completionHandler.accept(ChatMessageDTO.error("Bot response failed: " + error.get().getMessage(), "system", "system").build().toJson());
-                                return;
-                            }
-
-                            String responseText = fullResponse.toString()
-                                    .replaceAll("(?s)<thinking>.*?</thinking>", "")
-                                    .trim();
-
-                            if (!responseText.isEmpty()) {
-
-                                MessageParam assistantResponse = MessageParam.builder()
-                                        .role(MessageParam.Role.ASSISTANT)
-                                        .content(MessageParam.Content.ofString(responseText))
-                                        .build();
-
-                                chatRepository.appendToConversation(userId, getChatType(), assistantResponse);
-
-                                JsonObject botMessage = createMessage(
-                                        MessageType.BOT,
-                                        assistantNameByConnectionId.get(connectionId),
-                                        responseText,
-                                        System.currentTimeMillis(),
-                                        connectionId
-                                );
-
-                                chatRepository.saveChatMessage(userId, brandName, getChatType(), botMessage).subscribe().with(
-                                        success -> {},
-                                        failure -> LOGGER.error("Failed to save bot message", failure)
-                                );
-
-
-                                String completeMessage = ChatMessageDTO.bot(
-                    botMessage.getJsonObject("data").getString("content"),
-                    botMessage.getJsonObject("data").getString("username"),
-                    botMessage.getJsonObject("data").getString("connectionId")
-            )
-            .timestamp(botMessage.getJsonObject("data").getLong("timestamp"))
-            .build()
-            .toJson();
-
-
-                                completionHandler.accept(completeMessage);
-                            }
-                        }
-                    })
-                    .onCompleteFuture();
-
-        }).runSubscriptionOn(getDefaultWorkerPool());
-    }
-
-    protected Uni<List<MessageParam>> loadConversationHistoryWithSummary(long userId, String brandName, ChatType chatType) {
-        List<MessageParam> currentHistory = chatRepository.getConversationHistory(userId, chatType);
-        
-        return chatSummaryService.getLatestUserSummary(userId, brandName, chatType)
-                .map(summaryText -> {
-                    if (summaryText != null && !summaryText.isBlank() && currentHistory.size() > 10) {
-                        List<MessageParam> historyWithSummary = new ArrayList<>();
-                        
-                        MessageParam summaryMessage = MessageParam.builder()
-                                .role(MessageParam.Role.USER)
-                                .content(MessageParam.Content.ofString(
-                                        "[Previous conversation summary]\n" + summaryText + "\n[End of summary]"
-                                ))
-                                .build();
-                        historyWithSummary.add(summaryMessage);
-                        
-                        int recentMessagesStart = Math.max(0, currentHistory.size() - 10);
-                        historyWithSummary.addAll(currentHistory.subList(recentMessagesStart, currentHistory.size()));
-                        
-                        return historyWithSummary;
+    /**
+     * One streaming request per turn: text is forwarded while it arrives, and a tool call that
+     * shows up in the same response is dispatched without asking the model again.
+     */
+    protected Uni<Void> streamTurn(MessageCreateParams params,
+                                   Consumer<String> chunkHandler,
+                                   Consumer<String> completionHandler,
+                                   String connectionId,
+                                   String brandName,
+                                   long userId) {
+        return turnStreamer.stream(brandName, params, chunkForwarder(chunkHandler, connectionId))
+                .onFailure().invoke(error -> chunkHandler.accept(
+                        ChatMessageDTO.error("Bot response failed: " + error.getMessage(), "system", "system").build().toJson()))
+                .flatMap(turn -> {
+                    if (turn.toolUse().isPresent()) {
+                        LOGGER.debug("Turn switched to tool call: {}", turn.toolUse().get().name());
+                        List<MessageParam> history = historyStore.get(userId, getChatType());
+                        return handleToolCall(turn.toolUse().get(), chunkHandler, completionHandler, connectionId, brandName, userId, history);
                     }
-                    return currentHistory;
+                    completeResponse(turn.text(), completionHandler, connectionId, brandName, userId);
+                    return Uni.createFrom().voidItem();
                 });
     }
 
+    private Consumer<String> chunkForwarder(Consumer<String> chunkHandler, String connectionId) {
+        boolean[] inThinking = {false};
+        return text -> {
+            if (text.contains("<thinking>")) {
+                inThinking[0] = true;
+            }
+            if (text.contains("</thinking>")) {
+                inThinking[0] = false;
+            }
+
+            if (!inThinking[0]
+                    && !text.contains("<thinking>")
+                    && !text.contains("</thinking>")) {
+
+                chunkHandler.accept(ChatMessageDTO.chunk(text, assistantNameByConnectionId.get(connectionId), connectionId).build().toJson());
+            }
+        };
+    }
+
+    private void completeResponse(String fullResponse,
+                                  Consumer<String> completionHandler,
+                                  String connectionId,
+                                  String brandName,
+                                  long userId) {
+        String responseText = fullResponse
+                .replaceAll("(?s)<thinking>.*?</thinking>", "")
+                .trim();
+
+        if (responseText.isEmpty()) {
+            return;
+        }
+
+        MessageParam assistantResponse = MessageParam.builder()
+                .role(MessageParam.Role.ASSISTANT)
+                .content(MessageParam.Content.ofString(responseText))
+                .build();
+
+        historyStore.append(userId, getChatType(), assistantResponse);
+
+        JsonObject botMessage = createMessage(
+                MessageType.BOT,
+                assistantNameByConnectionId.get(connectionId),
+                responseText,
+                System.currentTimeMillis(),
+                connectionId
+        );
+
+        chatRepository.saveChatMessage(userId, brandName, getChatType(), botMessage).subscribe().with(
+                success -> {},
+                failure -> LOGGER.error("Failed to save bot message", failure)
+        );
+
+        String completeMessage = ChatMessageDTO.bot(
+                        botMessage.getJsonObject("data").getString("content"),
+                        botMessage.getJsonObject("data").getString("username"),
+                        botMessage.getJsonObject("data").getString("connectionId")
+                )
+                .timestamp(botMessage.getJsonObject("data").getLong("timestamp"))
+                .build()
+                .toJson();
+
+        completionHandler.accept(completeMessage);
+    }
+
     protected JsonObject createMessage(MessageType type, String username, String content, long timestamp, String connectionId) {
         return new JsonObject()
                 .put("type", "message")
@@ -414,21 +389,13 @@ public abstract class ChatService {
             builder.addTool(tool);
         }
         
-        MessageCreateParams paramsWithTools = builder.build();
+        MessageCreateParams paramsWithTools = PromptCachePlanner.plan(builder.build(), PromptCachePlanner.Mode.CONVERSATION);
         
-        return Uni.createFrom().completionStage(() -> anthropicClient.async().messages().create(paramsWithTools))
-                .flatMap(message -> {
-                    Optional<ToolUseBlock> toolUse = message.content().stream()
-                            .flatMap(block -> block.toolUse().stream())
-                            .findFirst();
-
-                    if (toolUse.isPresent()) {
-                        LOGGER.debug("Follow-up detected tool call: {}", toolUse.get().name());
-                        List<MessageParam> history = chatRepository.getConversationHistory(userId, getChatType());
-                        return handleToolCall(toolUse.get(), chunkHandler, completionHandler, connectionId, brandName, userId, history);
-                    } else {
-                        return streamResponse(params, chunkHandler, completionHandler, connectionId, brandName, userId);
-                    }
-                }).runSubscriptionOn(getDefaultWorkerPool());
+        return streamTurn(paramsWithTools, chunkHandler, completionHandler, connectionId, brandName, userId)
+                .runSubscriptionOn(blockingExecutor.executor(BlockingExecutor.Category.LLM));
+    }
+
+    private record StationPrompt(PromptTemplate source, Brand station, AiAgent agent, PromptTemplate prompt,
+                                 String djName, String djVoiceId) {
     }
 }
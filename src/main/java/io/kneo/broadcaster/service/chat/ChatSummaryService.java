@@ -1,12 +1,14 @@
 package io.kneo.broadcaster.service.chat;
 
-import com.anthropic.client.AnthropicClient;
-import com.anthropic.client.okhttp.AnthropicOkHttpClient;
 import com.anthropic.models.messages.ContentBlock;
+import com.anthropic.models.messages.ContentBlockParam;
 import com.anthropic.models.messages.Message;
 import com.anthropic.models.messages.MessageCreateParams;
 import com.anthropic.models.messages.MessageParam;
 import com.anthropic.models.messages.Model;
+import com.anthropic.models.messages.TextBlockParam;
+import io.kneo.broadcaster.agent.LlmGateway;
+import io.kneo.broadcaster.agent.PromptCachePlanner;
 import io.kneo.broadcaster.config.BroadcasterConfig;
 import io.kneo.broadcaster.model.chat.ChatMessage;
 import io.kneo.broadcaster.model.chat.ChatSummary;
@@ -32,28 +34,25 @@ public class ChatSummaryService {
     private static final int USER_SUMMARY_THRESHOLD = 20;
     private static final int MESSAGE_RETENTION_DAYS = 7;
 
-    private final AnthropicClient anthropicClient;
+    private final LlmGateway llmGateway;
+    private final boolean enabled;
     private final ChatRepository chatRepository;
     private final ChatSummaryRepository chatSummaryRepository;
 
     @Inject
     public ChatSummaryService(BroadcasterConfig config,
                               ChatRepository chatRepository,
-                              ChatSummaryRepository chatSummaryRepository) {
+                              ChatSummaryRepository chatSummaryRepository,
+                              LlmGateway llmGateway) {
         this.chatRepository = chatRepository;
         this.chatSummaryRepository = chatSummaryRepository;
-        if (config != null && config.getAnthropicApiKey() != null) {
-            this.anthropicClient = AnthropicOkHttpClient.builder()
-                    .apiKey(config.getAnthropicApiKey())
-                    .build();
-        } else {
-            this.anthropicClient = null;
-        }
+        this.llmGateway = llmGateway;
+        this.enabled = config != null && config.getAnthropicApiKey() != null;
     }
 
     @Scheduled(every = "15m")
     public void scheduledBrandSummary() {
-        if (anthropicClient == null) {
+        if (!enabled) {
             return;
         }
 
@@ -66,7 +65,7 @@ public class ChatSummaryService {
 
     @Scheduled(every = "15m")
     public void scheduledUserSummary() {
-        if (anthropicClient == null) {
+        if (!enabled) {
             return;
         }
 
@@ -126,7 +125,7 @@ public class ChatSummaryService {
                     }
 
                     String messagesText = formatMessagesForSummary(messages);
-                    return generateSummary(messagesText, "BRAND")
+                    return generateSummary(brandName, messagesText, "BRAND")
                             .flatMap(summaryText -> {
                                 ChatSummary summary = new ChatSummary();
                                 summary.setBrandName(brandName);
@@ -158,7 +157,7 @@ public class ChatSummaryService {
                     List<ChatMessage> toSummarize = messages.subList(0, messagesToSummarize);
 
                     String messagesText = formatMessagesForSummary(toSummarize);
-                    return generateSummary(messagesText, "USER")
+                    return generateSummary(brandName, messagesText, "USER")
                             .flatMap(summaryText -> {
                                 ChatSummary summary = new ChatSummary();
                                 summary.setBrandName(brandName);
@@ -201,42 +200,44 @@ public class ChatSummaryService {
         return sb.toString();
     }
 
-    private Uni<String> generateSummary(String messagesText, String summaryType) {
-        if (anthropicClient == null) {
+    private Uni<String> generateSummary(String brandName, String messagesText, String summaryType) {
+        if (!enabled) {
             return Uni.createFrom().item("Summary generation unavailable");
         }
 
-        String prompt;
+        String instructions;
         if ("BRAND".equals(summaryType)) {
-            prompt = """
+            instructions = """
                     Summarize the following public chat messages from radio listeners.
                     Extract key themes, common questions, song requests, mood, and any important topics.
                     This summary will be used by the DJ to understand what the audience is talking about.
                     Be concise but comprehensive. Format as bullet points.
                     
                     Messages:
-                    """ + messagesText;
+                    """;
         } else {
-            prompt = """
+            instructions = """
                     Summarize the following conversation history with a user.
                     Capture key topics discussed, user preferences, and any important context.
                     This summary will be used to maintain conversation context.
                     Be concise but preserve important details.
                     
                     Conversation:
-                    """ + messagesText;
+                    """;
         }
 
-        MessageCreateParams params = MessageCreateParams.builder()
+        MessageCreateParams params = PromptCachePlanner.plan(MessageCreateParams.builder()
                 .maxTokens(500L)
                 .model(Model.CLAUDE_HAIKU_4_5_20251001)
                 .addMessage(MessageParam.builder()
                         .role(MessageParam.Role.USER)
-                        .content(MessageParam.Content.ofString(prompt))
+                        .content(MessageParam.Content.ofBlockParams(List.of(
+                                PromptCachePlanner.stable(instructions),
+                                ContentBlockParam.ofText(TextBlockParam.builder().text(messagesText).build()))))
                         .build())
-                .build();
+                .build(), PromptCachePlanner.Mode.ONE_SHOT);
 
-        return Uni.createFrom().completionStage(() -> anthropicClient.async().messages().create(params))
+        return llmGateway.createMessage(brandName, params)
                 .map(this::extractTextFromResponse)
                 .onFailure().recoverWithItem(error -> {
                     LOGGER.error("Failed to generate summary", error);
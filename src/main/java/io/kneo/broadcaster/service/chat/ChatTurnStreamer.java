@@ -0,0 +1,81 @@
+package io.kneo.broadcaster.service.chat;
+
+import com.anthropic.core.http.AsyncStreamResponse;
+import com.anthropic.helpers.MessageAccumulator;
+import com.anthropic.models.messages.MessageCreateParams;
+import com.anthropic.models.messages.RawMessageStreamEvent;
+import com.anthropic.models.messages.ToolUseBlock;
+import io.kneo.broadcaster.agent.LlmGateway;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Runs one chat turn as a single streaming request. Text deltas go to the caller as they arrive;
+ * once a {@code tool_use} block starts, the rest of the turn is only collected so the complete
+ * tool call can be dispatched when the stream ends.
+ */
+@ApplicationScoped
+public class ChatTurnStreamer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChatTurnStreamer.class);
+
+    private final LlmGateway llmGateway;
+
+    @Inject
+    public ChatTurnStreamer(LlmGateway llmGateway) {
+        this.llmGateway = llmGateway;
+    }
+
+    public Uni<Turn> stream(String brand, MessageCreateParams params, Consumer<String> textHandler) {
+        return Uni.createFrom().deferred(() -> {
+            MessageAccumulator accumulator = MessageAccumulator.create();
+            StringBuilder text = new StringBuilder();
+            boolean[] toolMode = {false};
+
+            return llmGateway.stream(brand, params, new AsyncStreamResponse.Handler<>() {
+                @Override
+                public void onNext(RawMessageStreamEvent event) {
+                    accumulator.accumulate(event);
+                    if (toolMode[0]) {
+                        return;
+                    }
+                    if (event.contentBlockStart().map(start -> start.contentBlock().isToolUse()).orElse(false)) {
+                        toolMode[0] = true;
+                        return;
+                    }
+                    event.contentBlockDelta()
+                            .flatMap(delta -> delta.delta().text())
+                            .ifPresent(delta -> {
+                                text.append(delta.text());
+                                try {
+                                    textHandler.accept(delta.text());
+                                } catch (Exception e) {
+                                    LOGGER.debug("Chunk handler failed: {}", e.getMessage());
+                                }
+                            });
+                }
+
+                @Override
+                public void onComplete(Optional<Throwable> error) {
+                }
+            }).map(ignored -> new Turn(
+                    text.toString(),
+                    accumulator.message().content().stream()
+                            .flatMap(block -> block.toolUse().stream())
+                            .findFirst()
+            ));
+        });
+    }
+
+    /**
+     * What the model produced in one turn: the text streamed before any tool call, and the first
+     * tool call if there was one.
+     */
+    public record Turn(String text, Optional<ToolUseBlock> toolUse) {
+    }
+}
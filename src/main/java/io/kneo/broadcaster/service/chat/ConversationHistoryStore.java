@@ -0,0 +1,279 @@
+package io.kneo.broadcaster.service.chat;
+
+import com.anthropic.models.messages.ContentBlockParam;
+import com.anthropic.models.messages.MessageParam;
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.model.cnst.ChatType;
+import io.kneo.broadcaster.model.cnst.MessageType;
+import io.kneo.broadcaster.repository.ChatRepository;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.json.JsonObject;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conversation context sent to the model for each chat turn. Only recently active conversations
+ * are kept in memory, each capped at a token budget; the oldest messages are dropped first and
+ * are covered by the stored chat summary instead. A conversation that is not in memory is rebuilt
+ * from the persisted chat messages on its next turn.
+ */
+@ApplicationScoped
+public class ConversationHistoryStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConversationHistoryStore.class);
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    private final int maxConversations;
+    private final int tokenBudget;
+    private final int windowMessages;
+    private final ChatRepository chatRepository;
+    private final ChatSummaryService chatSummaryService;
+    private final LinkedHashMap<Key, Conversation> conversations = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+
+    @Inject
+    public ConversationHistoryStore(BroadcasterConfig config,
+                                    ChatRepository chatRepository,
+                                    ChatSummaryService chatSummaryService) {
+        this(config.getChatHistoryMaxConversations(),
+                config.getChatHistoryTokenBudget(),
+                config.getChatHistoryWindowMessages(),
+                chatRepository,
+                chatSummaryService);
+    }
+
+    public ConversationHistoryStore(int maxConversations,
+                                    int tokenBudget,
+                                    int windowMessages,
+                                    ChatRepository chatRepository,
+                                    ChatSummaryService chatSummaryService) {
+        this.maxConversations = maxConversations;
+        this.tokenBudget = tokenBudget;
+        this.windowMessages = windowMessages;
+        this.chatRepository = chatRepository;
+        this.chatSummaryService = chatSummaryService;
+    }
+
+    /**
+     * The live message list of a conversation. Tool handlers append their tool call and result to
+     * it directly; the budget is enforced again on the next append.
+     */
+    public List<MessageParam> get(long userId, ChatType chatType) {
+        Conversation conversation = conversation(new Key(userId, chatType));
+        trim(conversation);
+        return conversation.messages;
+    }
+
+    public void append(long userId, ChatType chatType, MessageParam message) {
+        Conversation conversation = conversation(new Key(userId, chatType));
+        conversation.messages.add(message);
+        trim(conversation);
+    }
+
+    /**
+     * What goes into the next request: the recent messages, preceded by the latest summary once
+     * older messages have been dropped or the conversation is longer than the window.
+     */
+    public Uni<List<MessageParam>> window(long userId, String brandName, ChatType chatType) {
+        Conversation conversation = conversation(new Key(userId, chatType));
+        return reload(conversation, userId, brandName, chatType)
+                .flatMap(ignored -> chatSummaryService.getLatestUserSummary(userId, brandName, chatType))
+                .map(summary -> compose(conversation, summary));
+    }
+
+    public void clear(long userId, ChatType chatType) {
+        synchronized (conversations) {
+            conversations.remove(new Key(userId, chatType));
+        }
+    }
+
+    public int getConversationCount() {
+        synchronized (conversations) {
+            return conversations.size();
+        }
+    }
+
+    public long getTokenCount() {
+        List<Conversation> snapshot;
+        synchronized (conversations) {
+            snapshot = new ArrayList<>(conversations.values());
+        }
+        return snapshot.stream().mapToLong(c -> c.tokens).sum();
+    }
+
+    public long getMessageCount() {
+        List<Conversation> snapshot;
+        synchronized (conversations) {
+            snapshot = new ArrayList<>(conversations.values());
+        }
+        return snapshot.stream().mapToLong(c -> c.messages.size()).sum();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getReloads() {
+        return reloads.get();
+    }
+
+    private Conversation conversation(Key key) {
+        synchronized (conversations) {
+            Conversation conversation = conversations.get(key);
+            if (conversation == null) {
+                conversation = new Conversation();
+                conversations.put(key, conversation);
+                while (conversations.size() > maxConversations) {
+                    conversations.remove(conversations.keySet().iterator().next());
+                    evictions.incrementAndGet();
+                }
+            }
+            return conversation;
+        }
+    }
+
+    private Uni<Void> reload(Conversation conversation, long userId, String brandName, ChatType chatType) {
+        synchronized (conversation) {
+            if (conversation.loaded) {
+                return Uni.createFrom().voidItem();
+            }
+            if (conversation.reload == null) {
+                conversation.reload = chatRepository.getRecentChatMessages(userId, brandName, chatType, windowMessages)
+                        .invoke(rows -> restore(conversation, rows))
+                        .replaceWithVoid()
+                        .onFailure().recoverWithItem(error -> {
+                            LOGGER.warn("Could not reload chat history for user {} ({}): {}", userId, chatType, error.getMessage());
+                            synchronized (conversation) {
+                                conversation.reload = null;
+                            }
+                            return null;
+                        })
+                        .memoize().indefinitely();
+            }
+            return conversation.reload;
+        }
+    }
+
+    private void restore(Conversation conversation, List<JsonObject> rows) {
+        List<MessageParam> restored = new ArrayList<>();
+        for (JsonObject row : rows) {
+            JsonObject data = row.getJsonObject("data", row);
+            if (data.getLong("timestamp", 0L) >= conversation.createdAt) {
+                continue;
+            }
+            MessageParam.Role role;
+            if (MessageType.USER.name().equals(data.getString("type"))) {
+                role = MessageParam.Role.USER;
+            } else if (MessageType.BOT.name().equals(data.getString("type"))) {
+                role = MessageParam.Role.ASSISTANT;
+            } else {
+                continue;
+            }
+            String content = data.getString("content");
+            if (content == null || content.isBlank()) {
+                continue;
+            }
+            restored.add(MessageParam.builder()
+                    .role(role)
+                    .content(MessageParam.Content.ofString(content))
+                    .build());
+        }
+        while (!restored.isEmpty() && restored.get(0).role() != MessageParam.Role.USER) {
+            restored.remove(0);
+        }
+        synchronized (conversation.messages) {
+            conversation.messages.addAll(0, restored);
+            conversation.loaded = true;
+        }
+        reloads.incrementAndGet();
+        trim(conversation);
+    }
+
+    private List<MessageParam> compose(Conversation conversation, String summary) {
+        List<MessageParam> snapshot;
+        synchronized (conversation.messages) {
+            snapshot = new ArrayList<>(conversation.messages);
+        }
+        if (summary == null || summary.isBlank() || (!conversation.compacted && snapshot.size() <= windowMessages)) {
+            return snapshot;
+        }
+
+        int start = Math.max(0, snapshot.size() - windowMessages);
+        while (start < snapshot.size() - 1 && !startsTurn(snapshot.get(start))) {
+            start++;
+        }
+        List<MessageParam> window = new ArrayList<>();
+        window.add(MessageParam.builder()
+                .role(MessageParam.Role.USER)
+                .content(MessageParam.Content.ofString(
+                        "[Previous conversation summary]\n" + summary + "\n[End of summary]"
+                ))
+                .build());
+        window.addAll(snapshot.subList(start, snapshot.size()));
+        return window;
+    }
+
+    /**
+     * Drops the oldest messages until the conversation fits the budget, then keeps dropping until
+     * it starts with a user message that is not a tool result, so no tool call loses its pair.
+     */
+    private void trim(Conversation conversation) {
+        List<MessageParam> messages = conversation.messages;
+        synchronized (messages) {
+            int[] sizes = new int[messages.size()];
+            int tokens = 0;
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = estimateTokens(messages.get(i));
+                tokens += sizes[i];
+            }
+            int drop = 0;
+            while (tokens > tokenBudget && drop < sizes.length - 1) {
+                tokens -= sizes[drop++];
+            }
+            if (drop > 0) {
+                while (drop < sizes.length - 1 && !startsTurn(messages.get(drop))) {
+                    tokens -= sizes[drop++];
+                }
+                messages.subList(0, drop).clear();
+                conversation.compacted = true;
+            }
+            conversation.tokens = tokens;
+        }
+    }
+
+    private static boolean startsTurn(MessageParam message) {
+        if (message.role() != MessageParam.Role.USER) {
+            return false;
+        }
+        MessageParam.Content content = message.content();
+        return content.isString() || content.asBlockParams().stream().noneMatch(ContentBlockParam::isToolResult);
+    }
+
+    static int estimateTokens(MessageParam message) {
+        MessageParam.Content content = message.content();
+        int chars = content.isString() ? content.asString().length() : content.toString().length();
+        return chars / CHARS_PER_TOKEN + MESSAGE_OVERHEAD_TOKENS;
+    }
+
+    private record Key(long userId, ChatType chatType) {
+    }
+
+    private static final class Conversation {
+        private final List<MessageParam> messages = Collections.synchronizedList(new ArrayList<>());
+        private final long createdAt = System.currentTimeMillis();
+        private volatile boolean loaded;
+        private volatile boolean compacted;
+        private volatile int tokens;
+        private Uni<Void> reload;
+    }
+}
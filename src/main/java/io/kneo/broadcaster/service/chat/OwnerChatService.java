@@ -4,6 +4,7 @@ import com.anthropic.core.JsonValue;
 import com.anthropic.models.messages.MessageCreateParams;
 import com.anthropic.models.messages.MessageParam;
 import com.anthropic.models.messages.Model;
+import com.anthropic.models.messages.TextBlockParam;
 import com.anthropic.models.messages.Tool;
 import com.anthropic.models.messages.ToolUseBlock;
 import io.kneo.broadcaster.config.BroadcasterConfig;
@@ -70,10 +71,10 @@ public class OwnerChatService extends ChatService {
     }
 
     @Override
-    protected MessageCreateParams buildMessageCreateParams(String renderedPrompt, List<MessageParam> history) {
+    protected MessageCreateParams buildMessageCreateParams(List<TextBlockParam> system, List<MessageParam> history) {
         MessageCreateParams.Builder builder = MessageCreateParams.builder()
                 .maxTokens(1024L)
-                .system(renderedPrompt)
+                .systemOfTextBlockParams(system)
                 .messages(history)
                 .model(Model.CLAUDE_HAIKU_4_5_20251001);
         
@@ -108,7 +109,7 @@ public class OwnerChatService extends ChatService {
         } else if ("add_to_queue".equals(toolUse.name())) {
             String djVoiceId = assistantNameByConnectionId.get(connectionId + "_voice");
             return AddToQueueToolHandler.handle(
-                    toolUse, inputMap, queueService, aiHelperService, elevenLabsClient, config, djVoiceId, chunkHandler, connectionId, conversationHistory, followUpPrompt, streamFn
+                    toolUse, inputMap, queueService, aiHelperService, getTtsClient(), config, djVoiceId, chunkHandler, connectionId, conversationHistory, followUpPrompt, streamFn
             );
         } else if ("control_station".equals(toolUse.name())) {
             return RadioStationControlToolHandler.handle(
@@ -1,9 +1,8 @@
 package io.kneo.broadcaster.service.chat;
 
-import java.io.Serializable;
 import java.time.Instant;
 
-public record PublicChatSession(String email, Instant expiresAt) implements Serializable {
+public record PublicChatSession(String email, Instant expiresAt) {
     boolean isExpired() {
         return Instant.now().isAfter(expiresAt);
     }
@@ -0,0 +1,113 @@
+package io.kneo.broadcaster.service.chat;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * Fixed binary layout of the session log. A record is an op byte, the token, and for a put the
+ * email and the expiry in epoch milliseconds, followed by a CRC32 of those bytes; strings are
+ * length-prefixed UTF-8. A zero op byte or a record whose checksum does not match marks the end
+ * of the log.
+ */
+final class PublicChatSessionCodec {
+    static final byte END = 0;
+    static final byte PUT = 1;
+    static final byte REMOVE = 2;
+
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private PublicChatSessionCodec() {
+    }
+
+    static int putSize(String token, PublicChatSession session) {
+        return 1 + stringSize(token) + stringSize(session.email()) + Long.BYTES + Integer.BYTES;
+    }
+
+    static int removeSize(String token) {
+        return 1 + stringSize(token) + Integer.BYTES;
+    }
+
+    static void writePut(ByteBuffer buffer, String token, PublicChatSession session) {
+        int start = buffer.position();
+        buffer.put(PUT);
+        writeString(buffer, token);
+        writeString(buffer, session.email());
+        buffer.putLong(session.expiresAt().toEpochMilli());
+        buffer.putInt(checksum(buffer, start, buffer.position()));
+    }
+
+    static void writeRemove(ByteBuffer buffer, String token) {
+        int start = buffer.position();
+        buffer.put(REMOVE);
+        writeString(buffer, token);
+        buffer.putInt(checksum(buffer, start, buffer.position()));
+    }
+
+    /**
+     * Reads the record at the buffer position, or returns null at the end of the log or at a
+     * record that was cut short or only partly reached the disk.
+     */
+    static Record read(ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        int start = buffer.position();
+        try {
+            byte op = buffer.get();
+            Record record = null;
+            if (op == PUT) {
+                String token = readString(buffer);
+                String email = readString(buffer);
+                long expiresAt = buffer.getLong();
+                record = new Record(token, new PublicChatSession(email, Instant.ofEpochMilli(expiresAt)));
+            } else if (op == REMOVE) {
+                record = new Record(readString(buffer), null);
+            }
+            if (record != null && buffer.getInt() == checksum(buffer, start, buffer.position() - Integer.BYTES)) {
+                return record;
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // cut short at the end of the mapping
+        }
+        buffer.position(start);
+        return null;
+    }
+
+    private static int checksum(ByteBuffer buffer, int from, int to) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(to).position(from));
+        return (int) crc.getValue();
+    }
+
+    private static int stringSize(String value) {
+        return Short.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Value too long for session record: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("Truncated record");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A put when {@code session} is set, a removal otherwise.
+     */
+    record Record(String token, PublicChatSession session) {
+    }
+}
@@ -4,60 +4,60 @@ import io.quarkus.scheduler.Scheduled;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
-import org.mapdb.DB;
-import org.mapdb.DBMaker;
-import org.mapdb.HTreeMap;
-import org.mapdb.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 
 @ApplicationScoped
 public class PublicChatSessionManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PublicChatSessionManager.class);
+    private static final Path SESSIONS_FILE = Path.of("sessions_data", "chat-sessions.bin");
+    private static final int SESSIONS_FILE_INITIAL_BYTES = 4 * 1024 * 1024;
     private static final long CODE_EXPIRY_SECONDS = 300;
     private static final long SESSION_EXPIRY_SECONDS = 86400;  //24 hours
     private static final int MAX_ATTEMPTS = 3;
 
     private final Map<String, VerificationCode> verificationCodes = new ConcurrentHashMap<>();
     private final SecureRandom secureRandom = new SecureRandom();
-    private DB db;
-    private HTreeMap<String, PublicChatSession> sessions;
+    private PublicChatSessionStore sessions;
 
-    @SuppressWarnings("unchecked")
     @PostConstruct
     void init() {
-        new File("sessions_data").mkdirs();
-
-        this.db = DBMaker
-                .fileDB("sessions_data/chat-sessions.db")
-                .transactionEnable()
-                .make();
-
-        this.sessions = db
-                .hashMap("sessions", Serializer.STRING, Serializer.JAVA)
-                .expireAfterCreate(SESSION_EXPIRY_SECONDS, TimeUnit.SECONDS)
-                .createOrOpen();
+        try {
+            this.sessions = new PublicChatSessionStore(SESSIONS_FILE, SESSIONS_FILE_INITIAL_BYTES);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open chat session store " + SESSIONS_FILE, e);
+        }
     }
 
     @PreDestroy
     void shutdown() {
-        db.close();
+        try {
+            sessions.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close chat session store: {}", e.getMessage());
+        }
     }
 
-    @Scheduled(every = "1h")
+    @Scheduled(every = "1m")
     void cleanupExpiredSessions() {
-        sessions.entrySet().removeIf(entry -> entry.getValue().isExpired());
-        db.commit();
+        int expired = sessions.expire(System.currentTimeMillis());
+        if (expired > 0) {
+            LOGGER.debug("Expired {} chat sessions", expired);
+        }
+        sessions.force();
     }
 
     //@Scheduled(every = "30s")
     void debugSessions() {
-        System.out.println("=== MapDB Sessions Debug ===");
+        System.out.println("=== Chat Sessions Debug ===");
         System.out.println("Total sessions: " + sessions.size());
         sessions.forEach((token, session) -> {
             System.out.println("Token: " + token);
@@ -106,11 +106,10 @@ public class PublicChatSessionManager {
 
     private String createSession(String email) {
         // Remove existing sessions for this email
-        sessions.entrySet().removeIf(entry -> entry.getValue().email().equals(email));
+        sessions.removeByEmail(email);
 
         String token = UUID.randomUUID().toString();
         sessions.put(token, new PublicChatSession(email, Instant.now().plusSeconds(SESSION_EXPIRY_SECONDS)));
-        db.commit();
         return token;
     }
 
@@ -121,7 +120,6 @@ public class PublicChatSessionManager {
 
     public void storeUserToken(String userToken, String email) {
         sessions.put(userToken, new PublicChatSession(email, Instant.now().plusSeconds(SESSION_EXPIRY_SECONDS)));
-        db.commit();
     }
 
     private void cleanupExpiredCodes() {
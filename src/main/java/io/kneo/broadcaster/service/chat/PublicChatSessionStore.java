@@ -0,0 +1,263 @@
+package io.kneo.broadcaster.service.chat;
+
+import io.kneo.broadcaster.util.ExpiryWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Public chat sessions, held in memory and persisted as an append-only log in a memory-mapped
+ * file so they survive restarts. Reads never touch the file. Expiry goes through an
+ * {@link ExpiryWheel}, so a sweep only looks at sessions that are due. When the log runs out of
+ * room it is rewritten with just the live sessions, and the mapping grows if that is still not
+ * enough. Each record carries a checksum, so replay stops at a record that was only partly
+ * written when the process died.
+ * <p>
+ * The header holds the offset where the current log starts. Compaction writes the live sessions
+ * to another part of the same file and then moves that offset, so the mapped file is never
+ * replaced, which Windows does not allow, and a crash leaves either the old log or the new one.
+ */
+public class PublicChatSessionStore implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PublicChatSessionStore.class);
+    private static final int MAGIC = 0x4B435333;
+    private static final int START_OFFSET = Integer.BYTES;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final Duration WHEEL_TICK = Duration.ofMinutes(1);
+    private static final int WHEEL_SLOTS = 2048;
+    private static final byte[] ZEROS = new byte[8192];
+
+    private final int initialBytes;
+    private final FileChannel channel;
+    private final ConcurrentHashMap<String, PublicChatSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> tokensByEmail = new HashMap<>();
+    private final ExpiryWheel<String> wheel;
+    private MappedByteBuffer log;
+    private long liveBytes;
+
+    public PublicChatSessionStore(Path file, int initialBytes) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.initialBytes = initialBytes;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.log = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), initialBytes));
+        this.wheel = new ExpiryWheel<>(WHEEL_TICK, WHEEL_SLOTS, System.currentTimeMillis());
+
+        int start = log.getInt(START_OFFSET);
+        if (log.getInt(0) == MAGIC && start >= HEADER_BYTES && start < log.capacity()) {
+            replay(start);
+        } else {
+            zero(0, log.capacity());
+            log.putInt(0, MAGIC);
+            log.putInt(START_OFFSET, HEADER_BYTES);
+            log.position(HEADER_BYTES);
+        }
+    }
+
+    public PublicChatSession get(String token) {
+        PublicChatSession session = sessions.get(token);
+        return session == null || session.isExpired() ? null : session;
+    }
+
+    public synchronized void put(String token, PublicChatSession session) {
+        append(PublicChatSessionCodec.putSize(token, session), () -> PublicChatSessionCodec.writePut(log, token, session));
+        forget(token, sessions.put(token, session));
+        index(token, session);
+    }
+
+    public synchronized void remove(String token) {
+        PublicChatSession previous = sessions.remove(token);
+        if (previous != null) {
+            forget(token, previous);
+            append(PublicChatSessionCodec.removeSize(token), () -> PublicChatSessionCodec.writeRemove(log, token));
+        }
+    }
+
+    public synchronized void removeByEmail(String email) {
+        Set<String> tokens = tokensByEmail.get(email);
+        if (tokens != null) {
+            for (String token : Set.copyOf(tokens)) {
+                remove(token);
+            }
+        }
+    }
+
+    /**
+     * Drops the sessions that expired by {@code nowMillis} and returns how many there were. The
+     * log is not touched for them: expired records are skipped on replay and left out when the
+     * log is rewritten.
+     */
+    public synchronized int expire(long nowMillis) {
+        int expired = 0;
+        for (ExpiryWheel.Scheduled<String> due : wheel.advance(nowMillis)) {
+            PublicChatSession session = sessions.get(due.key());
+            if (session != null && session.expiresAt().toEpochMilli() == due.deadlineMillis()) {
+                sessions.remove(due.key());
+                forget(due.key(), session);
+                expired++;
+            }
+        }
+        long deadBytes = log.position() - log.getInt(START_OFFSET) - liveBytes;
+        if (deadBytes > liveBytes && log.position() > initialBytes / 2) {
+            compact();
+        }
+        return expired;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public void forEach(BiConsumer<String, PublicChatSession> action) {
+        sessions.forEach(action);
+    }
+
+    /**
+     * Writes dirty pages of the mapping to disk.
+     */
+    public synchronized void force() {
+        log.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.force();
+        channel.close();
+    }
+
+    private void replay(int start) {
+        log.position(start);
+        long now = System.currentTimeMillis();
+        PublicChatSessionCodec.Record record;
+        while ((record = PublicChatSessionCodec.read(log)) != null) {
+            if (record.session() == null) {
+                forget(record.token(), sessions.remove(record.token()));
+            } else if (record.session().expiresAt().toEpochMilli() > now) {
+                forget(record.token(), sessions.put(record.token(), record.session()));
+                index(record.token(), record.session());
+            } else {
+                forget(record.token(), sessions.remove(record.token()));
+            }
+        }
+        int end = log.position();
+        compact();
+        // a crash between a compaction and the zeroing after it can leave old records behind the log
+        zero(log.position(), log.capacity());
+        LOGGER.info("Restored {} chat sessions ({} of {} log bytes live)", sessions.size(), liveBytes, end - start);
+    }
+
+    private void append(int bytes, Runnable write) {
+        if (log.remaining() < bytes + 1 + tailReserve(bytes)) {
+            compact();
+            long needed = bytes + 1 + tailReserve(bytes);
+            if (log.remaining() < needed) {
+                grow((int) needed);
+            }
+        }
+        write.run();
+    }
+
+    /**
+     * Room to keep free behind the log while the space in front of it cannot take the live
+     * sessions, so the next compaction still has somewhere to write them without growing.
+     */
+    private long tailReserve(int bytes) {
+        long live = liveBytes + bytes;
+        return log.getInt(START_OFFSET) - HEADER_BYTES > live ? 0 : live + 2;
+    }
+
+    /**
+     * Writes one record per live session into the free space in front of the log if they fit
+     * there, behind it otherwise, growing the mapping when neither has room. The new records are
+     * forced before the header is pointed at them, and the old records are zeroed only after
+     * that, so a crash at any point leaves one complete log to replay.
+     */
+    private void compact() {
+        long now = System.currentTimeMillis();
+        int needed = 1;
+        for (Map.Entry<String, PublicChatSession> entry : sessions.entrySet()) {
+            if (entry.getValue().expiresAt().toEpochMilli() > now) {
+                needed += PublicChatSessionCodec.putSize(entry.getKey(), entry.getValue());
+            }
+        }
+        int start = log.getInt(START_OFFSET);
+        int end = log.position();
+        // behind the log, the end marker of the current records is left in place
+        int target = needed <= start - HEADER_BYTES ? HEADER_BYTES : end + 1;
+        if ((long) target + needed > log.capacity()) {
+            grow(needed + 1);
+        }
+        ByteBuffer fresh = log.duplicate();
+        fresh.position(target);
+        for (Map.Entry<String, PublicChatSession> entry : sessions.entrySet()) {
+            if (entry.getValue().expiresAt().toEpochMilli() > now) {
+                PublicChatSessionCodec.writePut(fresh, entry.getKey(), entry.getValue());
+            }
+        }
+        int newEnd = fresh.position();
+        log.put(newEnd, PublicChatSessionCodec.END);
+        log.force();
+        log.putInt(START_OFFSET, target);
+        log.force();
+        if (target == HEADER_BYTES) {
+            zero(newEnd, end);
+        }
+        log.position(newEnd);
+    }
+
+    private void grow(int extra) {
+        int position = log.position();
+        long capacity = Math.max((long) log.capacity() * 2, (long) position + extra + initialBytes);
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Chat session log is full");
+        }
+        try {
+            log.force();
+            log = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            log.position(position);
+            LOGGER.info("Chat session log grown to {} bytes", capacity);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot grow chat session log", e);
+        }
+    }
+
+    private void index(String token, PublicChatSession session) {
+        tokensByEmail.computeIfAbsent(session.email(), e -> new HashSet<>()).add(token);
+        wheel.schedule(token, session.expiresAt().toEpochMilli());
+        liveBytes += PublicChatSessionCodec.putSize(token, session);
+    }
+
+    private void forget(String token, PublicChatSession session) {
+        if (session == null) {
+            return;
+        }
+        Set<String> tokens = tokensByEmail.get(session.email());
+        if (tokens != null && tokens.remove(token) && tokens.isEmpty()) {
+            tokensByEmail.remove(session.email());
+        }
+        liveBytes -= PublicChatSessionCodec.putSize(token, session);
+    }
+
+    private void zero(int from, int to) {
+        int position = from;
+        while (position < to) {
+            int length = Math.min(ZEROS.length, to - position);
+            log.put(position, ZEROS, 0, length);
+            position += length;
+        }
+    }
+}
@@ -4,7 +4,7 @@ import com.anthropic.core.JsonValue;
 import com.anthropic.models.messages.MessageCreateParams;
 import com.anthropic.models.messages.MessageParam;
 import com.anthropic.models.messages.ToolUseBlock;
-import io.kneo.broadcaster.agent.ElevenLabsClient;
+import io.kneo.broadcaster.agent.TextToSpeechClient;
 import io.kneo.broadcaster.config.BroadcasterConfig;
 import io.kneo.broadcaster.dto.queue.AddToQueueDTO;
 import io.kneo.broadcaster.model.cnst.LanguageTag;
@@ -39,7 +39,7 @@ public class AddToQueueToolHandler extends BaseToolHandler {
             Map<String, JsonValue> inputMap,
             QueueService queueService,
             AiHelperService aiHelperService,
-            ElevenLabsClient elevenLabsClient,
+            TextToSpeechClient ttsClient,
             BroadcasterConfig config,
             String djVoiceId,
             Consumer<String> chunkHandler,
@@ -119,7 +119,7 @@ public class AddToQueueToolHandler extends BaseToolHandler {
                     handler.sendProcessingChunk(chunkHandler, connectionId, "Generating intro ...");
                     LOGGER.info("[AddToQueue] Calling ElevenLabs TTS - voiceId: {}, modelId: {}", djVoiceId, config.getElevenLabsModelId());
                     //TODO the lang should be set correctly
-                    return elevenLabsClient.textToSpeech(textToTTSIntro, djVoiceId, config.getElevenLabsModelId(), LanguageTag.EN_US);
+                    return ttsClient.textToSpeech(textToTTSIntro, djVoiceId, config.getElevenLabsModelId(), LanguageTag.EN_US);
                 })
                 .flatMap(audioBytes -> {
                     LOGGER.info("[AddToQueue] TTS completed - received {} bytes", audioBytes.length);
@@ -4,7 +4,7 @@ import com.anthropic.core.JsonValue;
 import com.anthropic.models.messages.MessageCreateParams;
 import com.anthropic.models.messages.MessageParam;
 import com.anthropic.models.messages.ToolUseBlock;
-import io.kneo.broadcaster.model.stream.IStream;
+import io.kneo.broadcaster.model.cnst.StreamStatus;
 import io.kneo.broadcaster.service.RadioService;
 import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
@@ -42,13 +42,13 @@ public class RadioStationControlToolHandler extends BaseToolHandler {
         String actionText = action.equals("start") ? "Starting" : "Stopping";
         handler.sendProcessingChunk(chunkHandler, connectionId, actionText + " station: " + brand);
 
-        Uni<IStream> operationUni = action.equals("start")
-                ? radioService.initializeStation(brand)
-                : radioService.stopStation(brand);
+        Uni<StreamStatus> operationUni = action.equals("start")
+                ? radioService.startOnOwner(brand)
+                : radioService.stopOnOwner(brand);
 
         return operationUni
-                .flatMap((IStream stream) -> {
-                    String resultMessage = stream != null
+                .flatMap((StreamStatus status) -> {
+                    String resultMessage = status != null
                             ? "Station '" + brand + "' " + action + "ed successfully"
                             : "Failed to " + action + " station '" + brand + "'";
                     
@@ -0,0 +1,240 @@
+package io.kneo.broadcaster.service.cluster;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.util.ConsistentHashRing;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.pgclient.PgConnectOptions;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cluster membership gossiped over Postgres {@code NOTIFY}: every node announces its id and base
+ * URL each heartbeat, and peers that stay silent longer than the timeout drop out. Stations are
+ * owned by consistent hashing of their slug over the live members. With clustering disabled the
+ * ring only ever contains this node, so every station is local. The announcements go through a
+ * {@link ClusterTransport}, {@link PgNotifyTransport} in production.
+ */
+@ApplicationScoped
+public class ClusterMembership {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterMembership.class);
+    private static final String JOIN = "join";
+    private static final String LEAVE = "leave";
+
+    @Inject
+    BroadcasterConfig config;
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    PgPool client;
+
+    @ConfigProperty(name = "quarkus.datasource.reactive.url")
+    Optional<String> reactiveUrl;
+
+    @ConfigProperty(name = "quarkus.datasource.username")
+    Optional<String> username;
+
+    @ConfigProperty(name = "quarkus.datasource.password")
+    Optional<String> password;
+
+    public record Node(String id, String url, long lastSeen) {
+    }
+
+    private final Map<String, Node> members = new ConcurrentHashMap<>();
+    private String nodeId;
+    private String nodeUrl;
+    private volatile ConsistentHashRing ring;
+    private volatile ConsistentHashRing previousRing;
+    private volatile long ringChangedAt;
+    private volatile long startedAt;
+    private volatile ClusterTransport transport;
+
+    void onStart(@Observes StartupEvent event) {
+        init(config.getClusterNodeId().filter(id -> !id.isBlank()).orElseGet(ClusterMembership::defaultNodeId),
+                config.getClusterAdvertisedUrl().orElse(""));
+        if (!config.isClusterEnabled()) {
+            return;
+        }
+        if (nodeUrl.isBlank() || config.getClusterSecret().isEmpty() || reactiveUrl.isEmpty()) {
+            LOGGER.error("Cluster mode needs broadcaster.cluster.advertised-url, broadcaster.cluster.secret and a reactive datasource, staying single-node");
+            return;
+        }
+        PgConnectOptions options = PgConnectOptions.fromUri(reactiveUrl.get().replaceFirst("^vertx-reactive:", ""));
+        username.ifPresent(options::setUser);
+        password.ifPresent(options::setPassword);
+
+        join(new PgNotifyTransport(vertx, client, options)).subscribe().with(
+                ignored -> {},
+                failure -> LOGGER.warn("Cluster membership listener failed to connect: {}", failure.getMessage())
+        );
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        leave();
+    }
+
+    /**
+     * Starts out as a one-node ring containing only this node.
+     */
+    void init(String nodeId, String nodeUrl) {
+        this.nodeId = nodeId;
+        this.nodeUrl = nodeUrl;
+        startedAt = System.currentTimeMillis();
+        members.put(nodeId, new Node(nodeId, nodeUrl, startedAt));
+        ring = new ConsistentHashRing(List.of(nodeId), config.getClusterVirtualNodes());
+        previousRing = ring;
+    }
+
+    /**
+     * Starts listening on the transport and announces this node once the listener is up.
+     */
+    Uni<Void> join(ClusterTransport transport) {
+        this.transport = transport;
+        return transport.listen(this::onNotification)
+                .invoke(() -> {
+                    LOGGER.info("Cluster node {} joined at {}", nodeId, nodeUrl);
+                    announce(JOIN);
+                });
+    }
+
+    void leave() {
+        if (transport != null) {
+            announce(LEAVE);
+            transport.close();
+        }
+    }
+
+    @Scheduled(every = "${broadcaster.cluster.heartbeat-seconds:5}s", identity = "cluster-heartbeat")
+    void heartbeat() {
+        if (transport == null) {
+            return;
+        }
+        announce(JOIN);
+        long cutoff = System.currentTimeMillis() - config.getClusterNodeTimeoutSeconds() * 1000L;
+        boolean removed = members.values().removeIf(node -> !node.id().equals(nodeId) && node.lastSeen() < cutoff);
+        if (removed) {
+            rebuildRing();
+        }
+    }
+
+    /**
+     * True once this node takes part in a cluster; otherwise every station is local.
+     */
+    public boolean isEnabled() {
+        return transport != null;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getNodeUrl() {
+        return nodeUrl;
+    }
+
+    public boolean isLocal(String slug) {
+        return nodeId.equals(ownerOf(slug));
+    }
+
+    public String ownerOf(String slug) {
+        String owner = ring.owner(slug);
+        return owner != null ? owner : nodeId;
+    }
+
+    /**
+     * Owner before the last membership change, used to find a station that has not been handed
+     * over yet.
+     */
+    public String previousOwnerOf(String slug) {
+        String owner = previousRing.owner(slug);
+        return owner != null ? owner : nodeId;
+    }
+
+    public long getRingChangedAt() {
+        return ringChangedAt;
+    }
+
+    public String urlOf(String id) {
+        Node node = members.get(id);
+        return node != null ? node.url() : null;
+    }
+
+    public List<Node> getMembers() {
+        return List.copyOf(members.values());
+    }
+
+    /**
+     * Peers need a couple of heartbeats to hear about each other; until then this node believes it
+     * owns everything and must not hand stations away.
+     */
+    public boolean isSettled() {
+        return System.currentTimeMillis() - startedAt > 2L * config.getClusterHeartbeatSeconds() * 1000L;
+    }
+
+    private void announce(String type) {
+        transport.publish(type + "|" + nodeId + "|" + nodeUrl)
+                .subscribe().with(
+                        ignored -> {},
+                        failure -> LOGGER.warn("Cluster heartbeat failed: {}", failure.getMessage())
+                );
+    }
+
+    private void onNotification(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length < 3 || parts[1].equals(nodeId)) {
+            return;
+        }
+        String id = parts[1];
+        if (LEAVE.equals(parts[0])) {
+            if (members.remove(id) != null) {
+                LOGGER.info("Cluster node {} left", id);
+                rebuildRing();
+            }
+            return;
+        }
+        Node previous = members.put(id, new Node(id, parts[2], System.currentTimeMillis()));
+        if (previous == null) {
+            LOGGER.info("Cluster node {} joined at {}", id, parts[2]);
+            rebuildRing();
+            // let the newcomer learn about us without waiting for the next heartbeat
+            announce(JOIN);
+        }
+    }
+
+    private synchronized void rebuildRing() {
+        ConsistentHashRing updated = new ConsistentHashRing(members.keySet(), config.getClusterVirtualNodes());
+        if (updated.getNodes().equals(ring.getNodes())) {
+            return;
+        }
+        previousRing = ring;
+        ring = updated;
+        ringChangedAt = System.currentTimeMillis();
+        LOGGER.info("Cluster ring now {}", updated.getNodes());
+    }
+
+    private static String defaultNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        } catch (UnknownHostException e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.kneo.broadcaster.service.cluster;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.function.Consumer;
+
+/**
+ * Channel the membership announcements travel over. Every payload published by any node is
+ * delivered to every listening node, the publisher included.
+ */
+interface ClusterTransport {
+
+    Uni<Void> listen(Consumer<String> handler);
+
+    Uni<Void> publish(String payload);
+
+    void close();
+}
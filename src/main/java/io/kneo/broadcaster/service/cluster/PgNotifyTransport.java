@@ -0,0 +1,45 @@
+package io.kneo.broadcaster.service.cluster;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.pgclient.pubsub.PgSubscriber;
+import io.vertx.mutiny.sqlclient.Tuple;
+import io.vertx.pgclient.PgConnectOptions;
+
+import java.util.function.Consumer;
+
+/**
+ * {@link ClusterTransport} over Postgres {@code LISTEN/NOTIFY}. The listener keeps its own
+ * connection and reconnects on its own; announcements go out through the shared pool.
+ */
+class PgNotifyTransport implements ClusterTransport {
+    private static final String CHANNEL = "cluster_membership";
+
+    private final PgPool client;
+    private final PgSubscriber subscriber;
+
+    PgNotifyTransport(Vertx vertx, PgPool client, PgConnectOptions options) {
+        this.client = client;
+        this.subscriber = PgSubscriber.subscriber(vertx, options)
+                .reconnectPolicy(retries -> 2000L);
+    }
+
+    @Override
+    public Uni<Void> listen(Consumer<String> handler) {
+        subscriber.channel(CHANNEL).handler(handler);
+        return subscriber.connect();
+    }
+
+    @Override
+    public Uni<Void> publish(String payload) {
+        return client.preparedQuery("SELECT pg_notify($1, $2)")
+                .execute(Tuple.of(CHANNEL, payload))
+                .replaceWithVoid();
+    }
+
+    @Override
+    public void close() {
+        subscriber.closeAndForget();
+    }
+}
@@ -0,0 +1,101 @@
+package io.kneo.broadcaster.service.cluster;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.model.stream.IStream;
+import io.kneo.broadcaster.model.stream.RadioStream;
+import io.kneo.broadcaster.service.stream.RadioStationPool;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves stations to their owner after the ring changed. The new owner is asked to adopt the
+ * station; it pulls the live state from this node and continues at the same media sequence. This
+ * node keeps serving the station for the grace period so listeners already holding its playlist
+ * can finish the segments they know about, then stops it and relays from then on.
+ */
+@ApplicationScoped
+public class StationRebalancer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StationRebalancer.class);
+
+    @Inject
+    ClusterMembership membership;
+
+    @Inject
+    StationRelay relay;
+
+    @Inject
+    RadioStationPool radioStationPool;
+
+    @Inject
+    BroadcasterConfig config;
+
+    private final Map<String, String> handovers = new ConcurrentHashMap<>();
+
+    @Scheduled(every = "10s", identity = "cluster-rebalance")
+    void rebalance() {
+        if (!membership.isEnabled() || !membership.isSettled()) {
+            return;
+        }
+        for (IStream stream : radioStationPool.getOnlineStationsSnapshot()) {
+            // one-time streams are short-lived and not checkpointable, they finish where they started
+            if (!(stream instanceof RadioStream)) {
+                continue;
+            }
+            String slug = stream.getSlugName();
+            String owner = membership.ownerOf(slug);
+            if (owner.equals(membership.getNodeId()) || handovers.putIfAbsent(slug, owner) != null) {
+                continue;
+            }
+            LOGGER.info("Station {} now belongs to {}, handing over", slug, owner);
+            relay.requestAdoption(owner, slug)
+                    .subscribe().with(
+                            adopted -> {
+                                if (adopted) {
+                                    scheduleStop(slug, owner);
+                                } else {
+                                    LOGGER.warn("Node {} declined station {}, keeping it for now", owner, slug);
+                                    handovers.remove(slug);
+                                }
+                            },
+                            failure -> {
+                                LOGGER.warn("Handover of station {} to {} failed: {}", slug, owner, failure.getMessage());
+                                handovers.remove(slug);
+                            });
+        }
+    }
+
+    public Map<String, String> getHandovers() {
+        return Map.copyOf(handovers);
+    }
+
+    private void scheduleStop(String slug, String owner) {
+        Duration grace = Duration.ofSeconds(config.getClusterHandoverGraceSeconds());
+        Uni<Void> waited = grace.isZero()
+                ? Uni.createFrom().voidItem()
+                : Uni.createFrom().voidItem().onItem().delayIt().by(grace);
+        waited
+                .chain(() -> {
+                    if (membership.ownerOf(slug).equals(membership.getNodeId())) {
+                        // the ring moved back while we were waiting
+                        return Uni.createFrom().nullItem();
+                    }
+                    return radioStationPool.stopAndRemove(slug);
+                })
+                .eventually(() -> handovers.remove(slug))
+                .subscribe().with(
+                        stopped -> {
+                            if (stopped != null) {
+                                LOGGER.info("Station {} handed over to {}", slug, owner);
+                            }
+                        },
+                        failure -> LOGGER.warn("Stopping handed over station {} failed: {}", slug, failure.getMessage()));
+    }
+}
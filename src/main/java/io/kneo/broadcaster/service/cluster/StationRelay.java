@@ -0,0 +1,286 @@
+package io.kneo.broadcaster.service.cluster;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.model.cnst.StreamStatus;
+import io.kneo.broadcaster.service.stream.HlsCachePolicy;
+import io.kneo.broadcaster.service.stream.RadioStationPool;
+import io.kneo.broadcaster.util.EntityCache;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.core.http.HttpServerResponse;
+import io.vertx.mutiny.ext.web.client.HttpRequest;
+import io.vertx.mutiny.ext.web.client.HttpResponse;
+import io.vertx.mutiny.ext.web.client.WebClient;
+import io.vertx.mutiny.ext.web.codec.BodyCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Forwards station traffic to the cluster node that owns the station. Content-addressed segments
+ * never change once published, so those the owner serves as immutable are cached here, bounded by
+ * the bytes they hold, and a node fetches each one once however many of its listeners ask for it.
+ * Segments without a content hash, playlists and the mp3 stream are passed through uncached; the
+ * owner's caching headers are kept.
+ */
+@ApplicationScoped
+public class StationRelay {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StationRelay.class);
+    public static final String HOP_HEADER = "X-Cluster-Hop";
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+    private static final List<String> FORWARDED_HEADERS = List.of(
+            "Content-Type", "Cache-Control", "ETag", "Last-Modified",
+            "icy-br", "icy-pub", "icy-name", "icy-genre", "icy-url", "icy-notice1", "icy-notice2");
+
+    @Inject
+    Vertx vertx;
+
+    @Inject
+    BroadcasterConfig config;
+
+    @Inject
+    ClusterMembership membership;
+
+    @Inject
+    RadioStationPool radioStationPool;
+
+    @Inject
+    HlsCachePolicy hlsCachePolicy;
+
+    private EntityCache<String, CachedSegment> segments;
+    private WebClient webClient;
+
+    private record CachedSegment(String contentType, String cacheControl, String etag, Buffer body) {
+        /**
+         * Only what the owner marked immutable may be kept; a {@code no-cache} answer, e.g. for a
+         * segment name that merely looks hashed, is served once and dropped.
+         */
+        boolean immutable() {
+            String value = cacheControl.toLowerCase();
+            return value.contains("immutable") && !value.contains("no-cache") && !value.contains("no-store");
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        this.webClient = WebClient.create(vertx);
+        this.segments = new EntityCache<>("relayedSegments", 5000, config.getClusterRelayCacheMaxMb() * 1024L * 1024L,
+                Duration.ofMinutes(2), segment -> segment.body().length());
+    }
+
+    /**
+     * Node that should answer for the station, or {@code null} to serve it here. A station
+     * running on this node is always served locally, which keeps listeners on the old owner
+     * playing while a handover is in progress. Requests that were already relayed once are never
+     * forwarded again.
+     */
+    public String targetFor(String slug, HttpServerRequest request) {
+        if (!membership.isEnabled() || request.getHeader(HOP_HEADER) != null
+                || radioStationPool.getStation(slug) != null) {
+            return null;
+        }
+        String owner = membership.ownerOf(slug);
+        if (!owner.equals(membership.getNodeId())) {
+            return owner;
+        }
+        // we own it but have not adopted it yet: the previous owner is probably still playing it
+        String previous = membership.previousOwnerOf(slug);
+        long sinceChange = System.currentTimeMillis() - membership.getRingChangedAt();
+        if (!previous.equals(owner) && sinceChange < config.getClusterHandoverGraceSeconds() * 2000L) {
+            return previous;
+        }
+        return null;
+    }
+
+    public void relay(RoutingContext rc, String node) {
+        String url = membership.urlOf(node);
+        if (url == null) {
+            rc.response().setStatusCode(503).end("Station owner unavailable");
+            return;
+        }
+        String uri = rc.request().uri();
+        if (uri.contains("/segments/")) {
+            String key = node + uri;
+            Uni<CachedSegment> fetch = hlsCachePolicy.isImmutable(rc.request().path())
+                    ? segments.get(key, k -> fetchSegment(url + uri).invoke(fetched -> {
+                        if (!fetched.immutable()) {
+                            segments.invalidate(k);
+                        }
+                    }))
+                    : fetchSegment(url + uri);
+            fetch.subscribe().with(
+                    segment -> {
+                        if (segment.etag() != null && segment.etag().equals(rc.request().getHeader("If-None-Match"))) {
+                            rc.response().setStatusCode(304).putHeader("ETag", segment.etag()).end();
+                            return;
+                        }
+                        rc.response()
+                                .putHeader("Content-Type", segment.contentType())
+                                .putHeader("Cache-Control", segment.cacheControl());
+                        if (segment.etag() != null) {
+                            rc.response().putHeader("ETag", segment.etag());
+                        }
+                        rc.response().end(segment.body());
+                    },
+                    failure -> relayFailed(rc, uri, failure));
+        } else if (uri.endsWith(".mp3") || uri.contains(".mp3?")) {
+            pipe(rc, url + uri);
+        } else {
+            var request = clusterRequest(webClient.getAbs(url + uri));
+            String etag = rc.request().getHeader("If-None-Match");
+            if (etag != null) {
+                request.putHeader("If-None-Match", etag);
+            }
+            request.send()
+                    .subscribe().with(
+                            response -> {
+                                copyHeaders(response, rc);
+                                rc.response().setStatusCode(response.statusCode());
+                                Buffer body = response.bodyAsBuffer() != null
+                                        ? response.bodyAsBuffer().getDelegate()
+                                        : Buffer.buffer();
+                                rc.response().end(body);
+                            },
+                            failure -> relayFailed(rc, uri, failure));
+        }
+    }
+
+    /**
+     * Asks the owner to start a station and returns the status it reported.
+     */
+    public Uni<StreamStatus> start(String node, String slug) {
+        return control(node, slug, "start")
+                .map(body -> StreamStatus.valueOf(body.getString("status")));
+    }
+
+    public Uni<StreamStatus> stop(String node, String slug) {
+        return control(node, slug, "stop")
+                .map(body -> StreamStatus.valueOf(body.getString("status")));
+    }
+
+    /**
+     * Tells {@code node} to take the station over from this node.
+     */
+    public Uni<Boolean> requestAdoption(String node, String slug) {
+        return control(node, slug, "adopt?from=" + membership.getNodeId())
+                .map(body -> body.getBoolean("adopted", false));
+    }
+
+    public Uni<byte[]> fetchHandover(String node, String slug) {
+        String url = membership.urlOf(node);
+        if (url == null) {
+            return Uni.createFrom().failure(new IllegalStateException("Unknown cluster node " + node));
+        }
+        return clusterRequest(webClient.getAbs(url + "/cluster/stations/" + slug + "/handover"))
+                .timeout(30_000)
+                .send()
+                .map(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("HTTP " + response.statusCode() + " from " + node);
+                    }
+                    return response.bodyAsBuffer().getBytes();
+                });
+    }
+
+    public EntityCache.Stats getSegmentCacheStats() {
+        return segments.getStats();
+    }
+
+    private Uni<JsonObject> control(String node, String slug, String action) {
+        String url = membership.urlOf(node);
+        if (url == null) {
+            return Uni.createFrom().failure(new IllegalStateException("Unknown cluster node " + node));
+        }
+        return clusterRequest(webClient.postAbs(url + "/cluster/stations/" + slug + "/" + action))
+                .timeout(60_000)
+                .send()
+                .map(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("HTTP " + response.statusCode() + ": " + response.bodyAsString());
+                    }
+                    return response.bodyAsJsonObject();
+                });
+    }
+
+    private Uni<CachedSegment> fetchSegment(String url) {
+        return clusterRequest(webClient.getAbs(url))
+                .timeout(10_000)
+                .send()
+                .map(response -> {
+                    if (response.statusCode() != 200) {
+                        // not cached: the segment may simply not be sliced yet
+                        throw new RelayException(response.statusCode());
+                    }
+                    String contentType = response.getHeader("Content-Type");
+                    String cacheControl = response.getHeader("Cache-Control");
+                    return new CachedSegment(
+                            contentType != null ? contentType : "video/MP2T",
+                            cacheControl != null ? cacheControl : "no-cache",
+                            response.getHeader("ETag"),
+                            response.bodyAsBuffer().getDelegate());
+                });
+    }
+
+    private void pipe(RoutingContext rc, String url) {
+        HttpServerResponse response = HttpServerResponse.newInstance(rc.response());
+        rc.response()
+                .putHeader("Content-Type", "audio/mpeg")
+                .putHeader("Cache-Control", "no-cache")
+                .setChunked(true);
+        clusterRequest(webClient.getAbs(url))
+                .as(BodyCodec.pipe(response))
+                .send()
+                .subscribe().with(
+                        ignored -> {},
+                        failure -> relayFailed(rc, rc.request().uri(), failure));
+    }
+
+    private <T> HttpRequest<T> clusterRequest(HttpRequest<T> request) {
+        return request
+                .putHeader(HOP_HEADER, membership.getNodeId())
+                .putHeader(SECRET_HEADER, config.getClusterSecret().orElse(""));
+    }
+
+    private void copyHeaders(HttpResponse<?> response, RoutingContext rc) {
+        for (String name : FORWARDED_HEADERS) {
+            String value = response.getHeader(name);
+            if (value != null) {
+                rc.response().putHeader(name, value);
+            }
+        }
+    }
+
+    private void relayFailed(RoutingContext rc, String uri, Throwable failure) {
+        if (rc.response().ended() || rc.response().closed()) {
+            return;
+        }
+        if (failure instanceof RelayException relay) {
+            rc.response().setStatusCode(relay.status).end();
+            return;
+        }
+        LOGGER.warn("Relaying {} failed: {}", uri, failure.getMessage());
+        if (!rc.response().headWritten()) {
+            rc.response().setStatusCode(502).end("Station owner unavailable");
+        } else {
+            rc.response().end();
+        }
+    }
+
+    private static class RelayException extends RuntimeException {
+        private final int status;
+
+        private RelayException(int status) {
+            super("HTTP " + status, null, false, false);
+            this.status = status;
+        }
+    }
+}
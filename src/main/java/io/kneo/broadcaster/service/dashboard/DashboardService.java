@@ -1,15 +1,21 @@
 package io.kneo.broadcaster.service.dashboard;
 
+import io.kneo.broadcaster.agent.LlmGateway;
+import io.kneo.broadcaster.agent.TtsAudioCache;
 import io.kneo.broadcaster.config.HlsPlaylistConfig;
 import io.kneo.broadcaster.dto.dashboard.SchedulerStatsDTO;
 import io.kneo.broadcaster.dto.dashboard.StationEntry;
 import io.kneo.broadcaster.dto.dashboard.StatsDTO;
+import io.kneo.broadcaster.dto.dashboard.TemplateRenderStatsDTO;
 import io.kneo.broadcaster.model.cnst.StreamStatus;
 import io.kneo.broadcaster.model.stats.ConfigurationStats;
 import io.kneo.broadcaster.model.stream.IStream;
+import io.kneo.broadcaster.service.EntityCaches;
 import io.kneo.broadcaster.service.maintenance.FileMaintenanceService;
 import io.kneo.broadcaster.service.scheduler.EventTriggerJob;
 import io.kneo.broadcaster.service.stream.RadioStationPool;
+import io.kneo.broadcaster.service.util.FileUploadService;
+import io.kneo.broadcaster.template.GroovyTemplateEngine;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -37,6 +43,21 @@ public class DashboardService {
     @Inject
     EventTriggerJob eventTriggerJob;
 
+    @Inject
+    TtsAudioCache ttsAudioCache;
+
+    @Inject
+    LlmGateway llmGateway;
+
+    @Inject
+    EntityCaches entityCaches;
+
+    @Inject
+    FileUploadService fileUploadService;
+
+    @Inject
+    GroovyTemplateEngine groovyTemplateEngine;
+
     public Uni<StatsDTO> getInfo() {
         return Uni.createFrom().item(() -> {
             StatsDTO stats = new StatsDTO();
@@ -66,6 +87,11 @@ public class DashboardService {
             stats.setFileMaintenanceStats(fileMaintenanceService.getStats());
             stats.setConfigurationStats(configurationStats);
             stats.setSchedulerStats(buildSchedulerStats());
+            stats.setTtsCacheStats(ttsAudioCache.getStats());
+            stats.setLlmStats(llmGateway.getStats());
+            stats.setEntityCacheStats(entityCaches.getStats());
+            stats.setBulkIngestStats(fileUploadService.getIngestStats());
+            stats.setTemplateRenderStats(buildTemplateRenderStats());
 
             return stats;
         });
@@ -84,4 +110,22 @@ public class DashboardService {
         schedulerStats.setLastFiredEventTime(eventTriggerJob.getLastFiredTime());
         return schedulerStats;
     }
-}
\ No newline at end of file
+
+    private TemplateRenderStatsDTO buildTemplateRenderStats() {
+        GroovyTemplateEngine.RenderStats renderStats = groovyTemplateEngine.getStats();
+        TemplateRenderStatsDTO dto = new TemplateRenderStatsDTO();
+        dto.setRenders(renderStats.renders());
+        dto.setCacheHits(renderStats.cacheHits());
+        dto.setCacheMisses(renderStats.cacheMisses());
+        dto.setHitRate(renderStats.getHitRate());
+        dto.setEvictions(renderStats.evictions());
+        dto.setTimeouts(renderStats.timeouts());
+        dto.setRejections(renderStats.rejections());
+        dto.setCachedScripts(renderStats.cachedScripts());
+        dto.setActiveRenders(renderStats.activeRenders());
+        dto.setQueuedRenders(renderStats.queuedRenders());
+        dto.setCpuTimeMs(renderStats.cpuTimeNanos() / 1_000_000);
+        dto.setRenderTimeMs(renderStats.renderTimeNanos() / 1_000_000);
+        return dto;
+    }
+}
@@ -0,0 +1,7 @@
+package io.kneo.broadcaster.service.exceptions;
+
+public class IngestQueueFullException extends Exception {
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package io.kneo.broadcaster.service.exceptions;
+
+/**
+ * The requested byte range lies outside the stored object. This is a client error, the object
+ * itself is fine; {@link #getSize()} is what goes into {@code Content-Range: bytes *&#47;size}.
+ */
+public class RangeNotSatisfiableException extends RuntimeException {
+    private final long size;
+
+    public RangeNotSatisfiableException(String message, long size) {
+        super(message);
+        this.size = size;
+    }
+
+    public long getSize() {
+        return size;
+    }
+}
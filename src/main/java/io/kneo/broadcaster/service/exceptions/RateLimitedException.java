@@ -0,0 +1,17 @@
+package io.kneo.broadcaster.service.exceptions;
+
+import java.time.Duration;
+import java.util.Optional;
+
+public class RateLimitedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public RateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Optional<Duration> getRetryAfter() {
+        return Optional.ofNullable(retryAfter);
+    }
+}
@@ -2,8 +2,8 @@ package io.kneo.broadcaster.service.external.digitalocean;
 
 import io.kneo.broadcaster.config.DOConfig;
 import io.kneo.broadcaster.model.FileMetadata;
+import io.kneo.broadcaster.service.util.BlockingExecutor;
 import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -27,11 +27,13 @@ public class DigitalOceanSpacesService {
     private static final Logger LOGGER = LoggerFactory.getLogger(DigitalOceanSpacesService.class);
 
     private final DOConfig doConfig;
+    private final BlockingExecutor blockingExecutor;
     private S3Client s3Client;
 
     @Inject
-    public DigitalOceanSpacesService(DOConfig doConfig) {
+    public DigitalOceanSpacesService(DOConfig doConfig, BlockingExecutor blockingExecutor) {
         this.doConfig = doConfig;
+        this.blockingExecutor = blockingExecutor;
     }
 
     @PostConstruct
@@ -66,7 +68,7 @@ public class DigitalOceanSpacesService {
                     LOGGER.debug("Stream created for key: {}, size: {} bytes", keyName, responseInputStream.response().contentLength());
                     return metadata;
                 })
-                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .runSubscriptionOn(blockingExecutor.executor(BlockingExecutor.Category.STORAGE))
                 .onFailure().invoke(throwable -> LOGGER.error("Error retrieving file stream: {} from S3 bucket: {}", keyName, doConfig.getBucketName(), throwable))
                 .onFailure().recoverWithUni(Uni.createFrom()::failure);
     }
@@ -81,7 +83,7 @@ public class DigitalOceanSpacesService {
                     s3Client.putObject(putObjectRequest, RequestBody.fromFile(Paths.get(fileToUpload)));
                     return null;
                 })
-                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .runSubscriptionOn(blockingExecutor.executor(BlockingExecutor.Category.STORAGE))
                 .onFailure().invoke(throwable -> LOGGER.error("Error uploading file to S3. Key: {}, Bucket: {}", keyName, doConfig.getBucketName(), throwable))
                 .onFailure().recoverWithUni(Uni.createFrom()::failure);
     }
@@ -98,7 +100,7 @@ public class DigitalOceanSpacesService {
                     s3Client.deleteObject(deleteObjectRequest);
                     return null;
                 })
-                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .runSubscriptionOn(blockingExecutor.executor(BlockingExecutor.Category.STORAGE))
                 .onFailure().invoke(throwable -> LOGGER.error("Error deleting file from S3. Key: {}, Bucket: {}", keyName, doConfig.getBucketName(), throwable))
                 .onFailure().recoverWithUni(Uni.createFrom()::failure);
     }
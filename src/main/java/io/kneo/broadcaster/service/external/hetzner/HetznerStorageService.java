@@ -2,8 +2,10 @@ package io.kneo.broadcaster.service.external.hetzner;
 
 import io.kneo.broadcaster.config.HetznerConfig;
 import io.kneo.broadcaster.model.FileMetadata;
+import io.kneo.broadcaster.service.exceptions.RangeNotSatisfiableException;
+import io.kneo.broadcaster.service.util.BlockingExecutor;
+import io.kneo.broadcaster.util.HttpRange;
 import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -11,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.core.sync.ResponseTransformer;
@@ -19,7 +22,10 @@ import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 
 import java.net.URI;
 import java.nio.file.Paths;
@@ -30,11 +36,13 @@ public class HetznerStorageService {
     private static final Logger LOGGER = LoggerFactory.getLogger(HetznerStorageService.class);
 
     private final HetznerConfig hetznerConfig;
+    private final BlockingExecutor blockingExecutor;
     private S3Client s3Client;
 
     @Inject
-    public HetznerStorageService(HetznerConfig hetznerConfig) {
+    public HetznerStorageService(HetznerConfig hetznerConfig, BlockingExecutor blockingExecutor) {
         this.hetznerConfig = hetznerConfig;
+        this.blockingExecutor = blockingExecutor;
     }
 
     @PostConstruct
@@ -67,33 +75,67 @@ public class HetznerStorageService {
     }
 
     public Uni<FileMetadata> getFileStream(String keyName) {
+        return getFileStream(keyName, null);
+    }
+
+    /**
+     * With a range, the object's size is looked up first and the range is checked and resolved
+     * against it, so a range past the end fails with {@link RangeNotSatisfiableException} instead
+     * of a storage error. A 416 from the store itself (the object changed in between) is reported
+     * the same way.
+     */
+    public Uni<FileMetadata> getFileStream(String keyName, HttpRange range) {
         return Uni.createFrom().item(() -> {
                     LOGGER.debug("Retrieving file stream for key: {}", keyName);
 
-                    GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                    GetObjectRequest.Builder request = GetObjectRequest.builder()
                             .bucket(hetznerConfig.getBucketName())
-                            .key(keyName)
-                            .build();
+                            .key(keyName);
+                    long size = -1;
+                    if (range != null) {
+                        size = s3Client.headObject(HeadObjectRequest.builder()
+                                .bucket(hetznerConfig.getBucketName())
+                                .key(keyName)
+                                .build()).contentLength();
+                        if (!range.isSatisfiable(size)) {
+                            throw new RangeNotSatisfiableException("Range " + range.toHeaderValue()
+                                    + " is outside " + keyName, size);
+                        }
+                        request.range(range.toHeaderValue(size));
+                    }
+                    GetObjectRequest getObjectRequest = request.build();
 
-                    var responseInputStream = s3Client.getObject(getObjectRequest, ResponseTransformer.toInputStream());
+                    var responseInputStream = getObject(getObjectRequest, size);
 
                     FileMetadata metadata = new FileMetadata();
                     metadata.setInputStream(responseInputStream);
                     metadata.setMimeType(responseInputStream.response().contentType());
                     metadata.setContentLength(responseInputStream.response().contentLength());
+                    metadata.setContentRange(responseInputStream.response().contentRange());
                     metadata.setFileKey(keyName);
 
                     LOGGER.debug("Stream created for key: {}, size: {} bytes", keyName, responseInputStream.response().contentLength());
                     return metadata;
                 })
-                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
-                .onFailure().invoke(throwable -> {
+                .runSubscriptionOn(blockingExecutor.executor(BlockingExecutor.Category.STORAGE))
+                .onFailure(failure -> !(failure instanceof RangeNotSatisfiableException)).invoke(throwable -> {
                     LOGGER.error("Error retrieving file stream: {} from Hetzner bucket: {}", keyName, hetznerConfig.getBucketName(), throwable);
                     LOGGER.error("Full error details:", throwable);
                 })
                 .onFailure().recoverWithUni(Uni.createFrom()::failure);
     }
 
+    private ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request, long size) {
+        try {
+            return s3Client.getObject(request, ResponseTransformer.toInputStream());
+        } catch (S3Exception e) {
+            if (e.statusCode() == 416) {
+                throw new RangeNotSatisfiableException("Range " + request.range() + " is outside " + request.key(), size);
+            }
+            throw e;
+        }
+    }
+
     public Uni<Void> uploadFile(String keyName, String fileToUpload, String mimeType) {
         return Uni.createFrom().<Void>item(() -> {
                     LOGGER.info("Uploading file with key: {}", keyName);
@@ -106,7 +148,7 @@ public class HetznerStorageService {
                     LOGGER.info("Successfully uploaded file with key: {}", keyName);
                     return null;
                 })
-                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .runSubscriptionOn(blockingExecutor.executor(BlockingExecutor.Category.STORAGE))
                 .onFailure().invoke(throwable -> LOGGER.error("Error uploading file to Hetzner. Key: {}, Bucket: {}", keyName, hetznerConfig.getBucketName(), throwable))
                 .onFailure().recoverWithUni(Uni.createFrom()::failure);
     }
@@ -123,7 +165,7 @@ public class HetznerStorageService {
                     s3Client.deleteObject(deleteObjectRequest);
                     return null;
                 })
-                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .runSubscriptionOn(blockingExecutor.executor(BlockingExecutor.Category.STORAGE))
                 .onFailure().invoke(throwable -> LOGGER.error("Error deleting file from Hetzner. Key: {}, Bucket: {}", keyName, hetznerConfig.getBucketName(), throwable))
                 .onFailure().recoverWithUni(Uni.createFrom()::failure);
     }
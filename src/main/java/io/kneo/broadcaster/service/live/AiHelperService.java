@@ -20,6 +20,7 @@ import io.kneo.broadcaster.model.stream.IStream;
 import io.kneo.broadcaster.repository.ListenersRepository;
 import io.kneo.broadcaster.service.AiAgentService;
 import io.kneo.broadcaster.service.BrandService;
+import io.kneo.broadcaster.service.EntityCaches;
 import io.kneo.broadcaster.service.ScriptService;
 import io.kneo.broadcaster.service.soundfragment.SoundFragmentService;
 import io.kneo.broadcaster.service.stats.HLSSongStats;
@@ -73,6 +74,9 @@ public class AiHelperService {
     @Inject
     StatsAccumulator statsAccumulator;
 
+    @Inject
+    EntityCaches entityCaches;
+
     private static final int SCENE_START_SHIFT_MINUTES = 10;
 
     @Inject
@@ -421,7 +425,7 @@ public class AiHelperService {
 
         Uni<List<String>> genresUni = (genreIds != null && !genreIds.isEmpty())
                 ? Uni.join().all(genreIds.stream()
-                .map(genreId -> genreService.getById(genreId)
+                .map(genreId -> entityCaches.genres().get(genreId, genreService::getById)
                         .map(genre -> genre.getLocalizedName().getOrDefault(LanguageCode.en, "Unknown"))
                         .onFailure().recoverWithItem("Unknown"))
                 .collect(Collectors.toList())).andFailFast()
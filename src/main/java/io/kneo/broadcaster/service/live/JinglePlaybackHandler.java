@@ -11,6 +11,7 @@ import io.kneo.broadcaster.model.stream.PendingSongEntry;
 import io.kneo.broadcaster.repository.soundfragment.SoundFragmentRepository;
 import io.kneo.broadcaster.service.AiAgentService;
 import io.kneo.broadcaster.service.exceptions.AudioMergeException;
+import io.kneo.broadcaster.service.maintenance.FileLeaseRegistry;
 import io.kneo.broadcaster.service.manipulation.FFmpegProvider;
 import io.kneo.broadcaster.service.manipulation.mixing.AudioConcatenator;
 import io.kneo.broadcaster.service.manipulation.mixing.ConcatenationType;
@@ -42,6 +43,7 @@ public class JinglePlaybackHandler {
     private final FFmpegProvider fFmpegProvider;
     private final AudioConcatenator audioConcatenator;
     private final AiAgentService aiAgentService;
+    private final FileLeaseRegistry fileLeaseRegistry;
 
     @Inject
     public JinglePlaybackHandler(
@@ -50,7 +52,8 @@ public class JinglePlaybackHandler {
             SoundFragmentRepository soundFragmentRepository,
             FFmpegProvider fFmpegProvider,
             AudioConcatenator audioConcatenator,
-            AiAgentService aiAgentService
+            AiAgentService aiAgentService,
+            FileLeaseRegistry fileLeaseRegistry
     ) {
         this.soundFragmentService = soundFragmentService;
         this.broadcasterConfig = broadcasterConfig;
@@ -58,6 +61,7 @@ public class JinglePlaybackHandler {
         this.fFmpegProvider = fFmpegProvider;
         this.audioConcatenator = audioConcatenator;
         this.aiAgentService = aiAgentService;
+        this.fileLeaseRegistry = fileLeaseRegistry;
     }
 
     public void handleJinglePlayback(IStream stream, Scene scene, LiveScene liveScene, java.util.Set<UUID> fetchedSongsInScene) {
@@ -167,7 +171,8 @@ public class JinglePlaybackHandler {
                     soundFragmentService,
                     audioConcatenator,
                     aiAgentService,
-                    fFmpegProvider
+                    fFmpegProvider,
+                    fileLeaseRegistry
             );
 
             handler.handleConcatenationAndFeed(stream, queueDTO, ConcatenationType.CROSSFADE)
@@ -1,15 +1,17 @@
 package io.kneo.broadcaster.service.live.generated;
 
-import com.anthropic.client.AnthropicClient;
-import com.anthropic.client.okhttp.AnthropicOkHttpClient;
 import com.anthropic.models.messages.ContentBlock;
-import com.anthropic.models.messages.Message;
+import com.anthropic.models.messages.ContentBlockParam;
 import com.anthropic.models.messages.MessageCreateParams;
 import com.anthropic.models.messages.Model;
+import com.anthropic.models.messages.TextBlockParam;
 import io.kneo.broadcaster.agent.ElevenLabsClient;
 import io.kneo.broadcaster.agent.GCPTTSClient;
+import io.kneo.broadcaster.agent.LlmGateway;
 import io.kneo.broadcaster.agent.ModelslabClient;
+import io.kneo.broadcaster.agent.PromptCachePlanner;
 import io.kneo.broadcaster.agent.TextToSpeechClient;
+import io.kneo.broadcaster.agent.TtsAudioCache;
 import io.kneo.broadcaster.config.BroadcasterConfig;
 import io.kneo.broadcaster.dto.SoundFragmentDTO;
 import io.kneo.broadcaster.model.Prompt;
@@ -29,6 +31,8 @@ import io.kneo.broadcaster.service.AiAgentService;
 import io.kneo.broadcaster.service.PromptService;
 import io.kneo.broadcaster.service.exceptions.AudioMergeException;
 import io.kneo.broadcaster.service.live.scripting.DraftFactory;
+import io.kneo.broadcaster.service.maintenance.FileLease;
+import io.kneo.broadcaster.service.maintenance.FileLeaseRegistry;
 import io.kneo.broadcaster.service.manipulation.FFmpegProvider;
 import io.kneo.broadcaster.service.manipulation.mixing.AudioConcatenator;
 import io.kneo.broadcaster.service.manipulation.mixing.handler.AudioMixingHandler;
@@ -67,6 +71,9 @@ public abstract class AbstractGeneratedContentService implements IGeneratedConte
     protected final SoundFragmentRepository soundFragmentRepository;
     protected final FFmpegProvider ffmpegProvider;
     protected final AudioConcatenator audioConcatenator;
+    protected final TtsAudioCache ttsAudioCache;
+    protected final LlmGateway llmGateway;
+    protected final FileLeaseRegistry fileLeaseRegistry;
 
     protected AbstractGeneratedContentService(
             PromptService promptService,
@@ -79,7 +86,10 @@ public abstract class AbstractGeneratedContentService implements IGeneratedConte
             AiAgentService aiAgentService,
             SoundFragmentRepository soundFragmentRepository,
             FFmpegProvider ffmpegProvider,
-            AudioConcatenator audioConcatenator
+            AudioConcatenator audioConcatenator,
+            TtsAudioCache ttsAudioCache,
+            LlmGateway llmGateway,
+            FileLeaseRegistry fileLeaseRegistry
     ) {
         this.promptService = promptService;
         this.soundFragmentService = soundFragmentService;
@@ -92,6 +102,9 @@ public abstract class AbstractGeneratedContentService implements IGeneratedConte
         this.soundFragmentRepository = soundFragmentRepository;
         this.ffmpegProvider = ffmpegProvider;
         this.audioConcatenator = audioConcatenator;
+        this.ttsAudioCache = ttsAudioCache;
+        this.llmGateway = llmGateway;
+        this.fileLeaseRegistry = fileLeaseRegistry;
     }
 
     protected abstract String getIntroJingleResource();
@@ -168,65 +181,58 @@ public abstract class AbstractGeneratedContentService implements IGeneratedConte
                 prompt.getDraftId(),
                 LanguageTag.EN_US,
                 new HashMap<>()
-        ).chain(draftContent -> Uni.createFrom().item(() -> {
+        ).chain(draftContent -> {
             LOGGER.info("Draft content received: {}", draftContent);
 
             if (draftContent.contains("\"error\":") || draftContent.contains("Search failed")) {
                 LOGGER.error("Draft content contains error, skipping generation: {}", draftContent);
-                return null;
+                return Uni.createFrom().<String>nullItem();
             }
 
-            String fullPrompt = String.format(
-                    "%s\n\nDraft input:\n%s",
-                    prompt.getPrompt(),
-                    draftContent
-            );
+            // the prompt text repeats for every generation with this prompt, the draft does not
+            String draftInput = "\n\nDraft input:\n" + draftContent;
 
-            LOGGER.info("Sending prompt to Claude (length: {} chars)", fullPrompt.length());
+            LOGGER.info("Sending prompt to Claude (length: {} chars)", prompt.getPrompt().length() + draftInput.length());
 
             long maxTokens = 2048L;
-            MessageCreateParams params = MessageCreateParams.builder()
+            MessageCreateParams params = PromptCachePlanner.plan(MessageCreateParams.builder()
                     .model(Model.CLAUDE_HAIKU_4_5_20251001)
                     .maxTokens(maxTokens)
                     .system(getSystemPrompt())
-                    .addUserMessage(fullPrompt)
-                    .build();
-
-            try {
-                AnthropicClient anthropicClient = AnthropicOkHttpClient.builder()
-                        .apiKey(config.getAnthropicApiKey())
-                        .timeout(java.time.Duration.ofSeconds(60))
-                        .build();
-                Message response = anthropicClient.messages().create(params);
-
-                LOGGER.info("Claude response received - Input tokens: {}, Output tokens: {}",
-                        response.usage().inputTokens(), response.usage().outputTokens());
-
-                String text = response.content().stream()
-                        .filter(ContentBlock::isText)
-                        .map(block -> block.asText().text())
-                        .findFirst()
-                        .orElseThrow(() -> new RuntimeException("No text generated from AI"));
-
-                if (response.usage().outputTokens() >= maxTokens * 0.95) {
-                    LOGGER.warn("Content generation used {} tokens ({}% of max {}). Response may be truncated.",
-                            response.usage().outputTokens(),
-                            Math.round((response.usage().outputTokens() / (double) maxTokens) * 100),
-                            maxTokens);
-                }
-                if (text.contains("technical difficulty")
-                        || text.contains("technical error")
-                        || text.contains("technical issue")) {
-                    return null;
-                } else {
-                    LOGGER.info("Generated text ({} tokens): {}", response.usage().outputTokens(), text);
-                    return text;
-                }
-            } catch (Exception e) {
-                LOGGER.error("Anthropic API call failed - Type: {}, Message: {}", e.getClass().getSimpleName(), e.getMessage(), e);
-                throw e;
-            }
-        }));
+                    .addUserMessageOfBlockParams(List.of(
+                            PromptCachePlanner.stable(prompt.getPrompt()),
+                            ContentBlockParam.ofText(TextBlockParam.builder().text(draftInput).build())))
+                    .build(), PromptCachePlanner.Mode.ONE_SHOT);
+
+            return llmGateway.createMessage(stream.getSlugName(), params)
+                    .map(response -> {
+                        LOGGER.info("Claude response received - Input tokens: {}, Output tokens: {}",
+                                response.usage().inputTokens(), response.usage().outputTokens());
+
+                        String text = response.content().stream()
+                                .filter(ContentBlock::isText)
+                                .map(block -> block.asText().text())
+                                .findFirst()
+                                .orElseThrow(() -> new RuntimeException("No text generated from AI"));
+
+                        if (response.usage().outputTokens() >= maxTokens * 0.95) {
+                            LOGGER.warn("Content generation used {} tokens ({}% of max {}). Response may be truncated.",
+                                    response.usage().outputTokens(),
+                                    Math.round((response.usage().outputTokens() / (double) maxTokens) * 100),
+                                    maxTokens);
+                        }
+                        if (text.contains("technical difficulty")
+                                || text.contains("technical error")
+                                || text.contains("technical issue")) {
+                            return null;
+                        } else {
+                            LOGGER.info("Generated text ({} tokens): {}", response.usage().outputTokens(), text);
+                            return text;
+                        }
+                    })
+                    .onFailure().invoke(e ->
+                            LOGGER.error("Anthropic API call failed - Type: {}, Message: {}", e.getClass().getSimpleName(), e.getMessage(), e));
+        });
     }
 
     private Uni<SoundFragment> generateTtsAndSave(
@@ -253,15 +259,15 @@ public abstract class AbstractGeneratedContentService implements IGeneratedConte
             String modelId;
 
             if (voice.getEngineType() == TTSEngineType.MODELSLAB) {
-                ttsClient = modelslabClient;
+                ttsClient = ttsAudioCache.decorate(TTSEngineType.MODELSLAB, modelslabClient);
                 modelId = null;
                 LOGGER.info("Using Modelslab TTS client");
             } else if (voice.getEngineType() == TTSEngineType.GOOGLE) {
-                ttsClient = gcpttsClient;
+                ttsClient = ttsAudioCache.decorate(TTSEngineType.GOOGLE, gcpttsClient);
                 modelId = null;
                 LOGGER.info("Using GCP TTS client");
             } else {
-                ttsClient = elevenLabsClient;
+                ttsClient = ttsAudioCache.decorate(TTSEngineType.ELEVENLABS, elevenLabsClient);
                 modelId = config.getElevenLabsModelId();
                 LOGGER.info("Using ElevenLabs TTS client with model: {}", modelId);
             }
@@ -286,11 +292,14 @@ public abstract class AbstractGeneratedContentService implements IGeneratedConte
                                     soundFragmentService,
                                     audioConcatenator,
                                     aiAgentService,
-                                    ffmpegProvider
+                                    ffmpegProvider,
+                                    fileLeaseRegistry
                             );
 
                             String mixedFileName = "mixed_content_" + uploadId + ".wav";
                             Path mixedFilePath = uploadsDir.resolve(mixedFileName);
+                            // both are dead once the mix has been copied into the fragment upload
+                            FileLease lease = fileLeaseRegistry.acquire("generated:" + uploadId, ttsFilePath, mixedFilePath);
 
                             return mixingHandler.mixContentWithBackgroundAndIntros(
                                     ttsFilePath.toString(),
@@ -308,7 +317,7 @@ public abstract class AbstractGeneratedContentService implements IGeneratedConte
                                         activeEntry,
                                         text
                                 );
-                            });
+                            }).eventually(lease::release);
                         } catch (IOException | AudioMergeException e) {
                             LOGGER.error("Failed to save or mix TTS audio for scene '{}'", sceneTitle, e);
                             return Uni.createFrom().failure(e);
@@ -2,7 +2,9 @@ package io.kneo.broadcaster.service.live.generated;
 
 import io.kneo.broadcaster.agent.ElevenLabsClient;
 import io.kneo.broadcaster.agent.GCPTTSClient;
+import io.kneo.broadcaster.agent.LlmGateway;
 import io.kneo.broadcaster.agent.ModelslabClient;
+import io.kneo.broadcaster.agent.TtsAudioCache;
 import io.kneo.broadcaster.config.BroadcasterConfig;
 import io.kneo.broadcaster.model.aiagent.AiAgent;
 import io.kneo.broadcaster.model.aiagent.Voice;
@@ -11,6 +13,7 @@ import io.kneo.broadcaster.repository.soundfragment.SoundFragmentRepository;
 import io.kneo.broadcaster.service.AiAgentService;
 import io.kneo.broadcaster.service.PromptService;
 import io.kneo.broadcaster.service.live.scripting.DraftFactory;
+import io.kneo.broadcaster.service.maintenance.FileLeaseRegistry;
 import io.kneo.broadcaster.service.manipulation.FFmpegProvider;
 import io.kneo.broadcaster.service.manipulation.mixing.AudioConcatenator;
 import io.kneo.broadcaster.service.soundfragment.SoundFragmentService;
@@ -32,15 +35,18 @@ public class GeneratedWeatherService extends AbstractGeneratedContentService {
             AiAgentService aiAgentService,
             SoundFragmentRepository soundFragmentRepository,
             FFmpegProvider ffmpegProvider,
-            AudioConcatenator audioConcatenator
+            AudioConcatenator audioConcatenator,
+            TtsAudioCache ttsAudioCache,
+            LlmGateway llmGateway,
+            FileLeaseRegistry fileLeaseRegistry
     ) {
         super(promptService, soundFragmentService, elevenLabsClient, modelslabClient,
                 gcpttsClient, config, draftFactory, aiAgentService, soundFragmentRepository,
-                ffmpegProvider, audioConcatenator);
+                ffmpegProvider, audioConcatenator, ttsAudioCache, llmGateway, fileLeaseRegistry);
     }
 
     public GeneratedWeatherService() {
-        super(null, null, null, null, null, null, null, null, null, null, null);
+        super(null, null, null, null, null, null, null, null, null, null, null, null, null, null);
     }
 
     @Override
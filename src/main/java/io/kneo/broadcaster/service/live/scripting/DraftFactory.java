@@ -16,6 +16,7 @@ import io.kneo.broadcaster.model.stream.IStream;
 import io.kneo.broadcaster.model.stream.RadioStream;
 import io.kneo.broadcaster.service.AiAgentService;
 import io.kneo.broadcaster.service.DraftService;
+import io.kneo.broadcaster.service.EntityCaches;
 import io.kneo.broadcaster.service.ListenerService;
 import io.kneo.broadcaster.service.ProfileService;
 import io.kneo.broadcaster.template.GroovyTemplateEngine;
@@ -38,8 +39,6 @@ import java.util.Random;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
-import static io.smallrye.mutiny.infrastructure.Infrastructure.getDefaultWorkerPool;
-
 @ApplicationScoped
 public class DraftFactory {
     private static final Logger LOGGER = LoggerFactory.getLogger(DraftFactory.class);
@@ -54,12 +53,14 @@ public class DraftFactory {
     private final ListenerService listenerService;
     private final Random random = new Random();
     private final GroovyTemplateEngine groovyEngine;
+    private final EntityCaches entityCaches;
 
     @Inject
     public DraftFactory(GenreService genreService, ProfileService profileService, DraftService draftService,
                         AiAgentService aiAgentService, WeatherApiClient weatherApiClient,
                         WorldNewsApiClient worldNewsApiClient, PerplexityApiClient perplexityApiClient,
-                        ListenerService listenerService) {
+                        ListenerService listenerService, GroovyTemplateEngine groovyEngine,
+                        EntityCaches entityCaches) {
         this.genreService = genreService;
         this.profileService = profileService;
         this.draftService = draftService;
@@ -68,7 +69,8 @@ public class DraftFactory {
         this.worldNewsApiClient = worldNewsApiClient;
         this.perplexityApiClient = perplexityApiClient;
         this.listenerService = listenerService;
-        this.groovyEngine = new GroovyTemplateEngine();
+        this.groovyEngine = groovyEngine;
+        this.entityCaches = entityCaches;
     }
 
     public Uni<String> createDraft(
@@ -96,8 +98,7 @@ public class DraftFactory {
                         listenerService.getBrandListeners(stream.getSlugName(), 500, 0, SuperUser.build(), null)
                 )
                 .asTuple()
-                .emitOn(getDefaultWorkerPool())
-                .map(tuple -> {
+                .chain(tuple -> {
                     Draft template = tuple.getItem1();
                     Profile profile = tuple.getItem2();
                     List<String> genres = tuple.getItem3();
@@ -152,8 +153,7 @@ public class DraftFactory {
                         listenerService.getBrandListeners(station.getSlugName(), 500, 0, SuperUser.build(), null)
                 )
                 .asTuple()
-                .emitOn(getDefaultWorkerPool())
-                .map(tuple -> {
+                .chain(tuple -> {
                     Profile profile = tuple.getItem1();
                     List<String> genres = tuple.getItem2();
                     AiAgent copilot = tuple.getItem3();
@@ -195,7 +195,7 @@ public class DraftFactory {
                 });
     }
 
-    private String buildFromTemplate(
+    private Uni<String> buildFromTemplate(
             String template,
             SoundFragment song,
             AiAgent agent,
@@ -268,7 +268,7 @@ public class DraftFactory {
             data.put("songGenres", List.of());
         }
 
-        return groovyEngine.render(template, data, draftSlug).trim();
+        return groovyEngine.render(template, data, draftSlug).map(String::trim);
     }
 
     private Uni<List<String>> resolveGenreNames(SoundFragment song, LanguageCode selectedLanguage) {
@@ -279,7 +279,7 @@ public class DraftFactory {
         }
 
         List<Uni<String>> genreUnis = genreIds.stream()
-                .map(genreId -> genreService.getById(genreId)
+                .map(genreId -> entityCaches.genres().get(genreId, genreService::getById)
                         .map(genre -> genre.getLocalizedName().get(selectedLanguage)))
                 .collect(Collectors.toList());
 
@@ -0,0 +1,55 @@
+package io.kneo.broadcaster.service.maintenance;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hold on one or more paths in the {@link FileLeaseRegistry}. Releasing is idempotent, so it is
+ * safe to call from both the success and the failure path of a pipeline.
+ */
+public class FileLease implements AutoCloseable {
+    private final FileLeaseRegistry registry;
+    private final String owner;
+    private final boolean disposable;
+    private final List<Path> paths = new ArrayList<>();
+    private boolean released;
+
+    FileLease(FileLeaseRegistry registry, String owner, boolean disposable) {
+        this.registry = registry;
+        this.owner = owner;
+        this.disposable = disposable;
+    }
+
+    public synchronized FileLease add(Path path) {
+        if (path == null) {
+            return this;
+        }
+        if (released) {
+            throw new IllegalStateException("Lease " + owner + " is already released");
+        }
+        registry.register(path, disposable);
+        paths.add(path);
+        return this;
+    }
+
+    public synchronized void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        for (Path path : paths) {
+            registry.unregister(path, owner);
+        }
+        paths.clear();
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+}
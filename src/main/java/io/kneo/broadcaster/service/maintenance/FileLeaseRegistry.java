@@ -0,0 +1,222 @@
+package io.kneo.broadcaster.service.maintenance;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks who is using the temporary audio artifacts (materialized originals, mixes, HLS segment
+ * directories, bulk uploads). Files taken with {@link #acquire} are deleted as soon as the last
+ * holder releases them; {@link #retain} only shields a file from the periodic sweeps. Nothing
+ * survives a restart, so anything left in the temp roots from before startup is removed once.
+ */
+@ApplicationScoped
+public class FileLeaseRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileLeaseRegistry.class);
+
+    private final ConcurrentHashMap<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final List<Path> tempRoots;
+    private final AtomicLong filesDeleted = new AtomicLong();
+    private final AtomicLong bytesFreed = new AtomicLong();
+
+    @Inject
+    public FileLeaseRegistry(BroadcasterConfig config) {
+        this.tempRoots = List.of(
+                Paths.get(config.getSegmentationOutputDir()),
+                Paths.get(config.getPathForMerged()),
+                Paths.get(config.getPathUploads(), "audio-processing"),
+                Paths.get(config.getPathUploads(), "playlist-processing")
+        );
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        Instant startedAt = Instant.now();
+        Infrastructure.getDefaultWorkerPool().execute(() -> reconcile(startedAt));
+    }
+
+    /**
+     * Takes ownership of temporary files or directories. They are deleted when every lease that
+     * acquired them has been released.
+     */
+    public FileLease acquire(String owner, Path... paths) {
+        FileLease lease = new FileLease(this, owner, true);
+        for (Path path : paths) {
+            lease.add(path);
+        }
+        return lease;
+    }
+
+    /**
+     * Marks files as in use without taking over their deletion.
+     */
+    public FileLease retain(String owner, Path... paths) {
+        FileLease lease = new FileLease(this, owner, false);
+        for (Path path : paths) {
+            lease.add(path);
+        }
+        return lease;
+    }
+
+    /**
+     * True if the path or one of its parent directories is currently held.
+     */
+    public boolean isLeased(Path path) {
+        if (entries.isEmpty()) {
+            return false;
+        }
+        for (Path current = path.toAbsolutePath().normalize(); current != null; current = current.getParent()) {
+            if (entries.containsKey(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getActiveCount() {
+        return entries.size();
+    }
+
+    public long getFilesDeleted() {
+        return filesDeleted.get();
+    }
+
+    public long getBytesFreed() {
+        return bytesFreed.get();
+    }
+
+    void register(Path path, boolean disposable) {
+        entries.compute(key(path), (p, entry) -> {
+            Entry current = entry != null ? entry : new Entry();
+            current.holders++;
+            current.disposable |= disposable;
+            return current;
+        });
+    }
+
+    void unregister(Path path, String owner) {
+        Path key = key(path);
+        boolean[] delete = new boolean[1];
+        entries.computeIfPresent(key, (p, entry) -> {
+            if (--entry.holders > 0) {
+                return entry;
+            }
+            delete[0] = entry.disposable;
+            return null;
+        });
+        if (delete[0]) {
+            LOGGER.debug("Last lease on {} released by {}, deleting", key, owner);
+            Infrastructure.getDefaultWorkerPool().execute(() -> delete(key));
+        }
+    }
+
+    private void delete(Path path) {
+        if (isLeased(path)) {
+            return;
+        }
+        try {
+            if (Files.isDirectory(path)) {
+                deleteTree(path, null);
+            } else if (Files.exists(path)) {
+                long size = Files.size(path);
+                Files.delete(path);
+                filesDeleted.incrementAndGet();
+                bytesFreed.addAndGet(size);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete released file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void reconcile(Instant startedAt) {
+        long before = filesDeleted.get();
+        for (Path root : tempRoots) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try {
+                deleteTree(root, startedAt);
+            } catch (IOException e) {
+                LOGGER.warn("Startup reconciliation of {} failed: {}", root, e.getMessage());
+            }
+        }
+        LOGGER.info("Removed {} temp files left over from the previous run", filesDeleted.get() - before);
+    }
+
+    /**
+     * Deletes files below {@code root} that nobody holds. With {@code olderThan} set, only files
+     * last modified before it are removed and the root itself is kept.
+     */
+    private void deleteTree(Path root, Instant olderThan) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (olderThan != null && !attrs.lastModifiedTime().toInstant().isBefore(olderThan)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                if (isLeased(file)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                try {
+                    Files.delete(file);
+                    filesDeleted.incrementAndGet();
+                    bytesFreed.addAndGet(attrs.size());
+                } catch (IOException e) {
+                    LOGGER.debug("Could not delete {}: {}", file, e.getMessage());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                if (olderThan != null && (dir.equals(root) || !isOlderThan(dir, olderThan))) {
+                    return FileVisitResult.CONTINUE;
+                }
+                try {
+                    Files.deleteIfExists(dir);
+                } catch (IOException ignored) {
+                    // not empty: something in it is still held or was just created
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static boolean isOlderThan(Path path, Instant threshold) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant().isBefore(threshold);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static Path key(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private static class Entry {
+        private int holders;
+        private boolean disposable;
+    }
+}
@@ -29,8 +29,8 @@ import java.util.concurrent.atomic.AtomicLong;
 @ApplicationScoped
 public class FileMaintenanceService {
     private static final Logger LOGGER = LoggerFactory.getLogger(FileMaintenanceService.class);
-    private static final int INTERVAL_SECONDS = 600;
-    private static final Duration INITIAL_DELAY = Duration.ofMillis(100);
+    private static final int INTERVAL_SECONDS = 6 * 3600;
+    private static final Duration INITIAL_DELAY = Duration.ofHours(1);
     private static final String ADDRESS_FILE_MAINTENANCE_STATS = "file-maintenance-stats";
 
     private static class StatsEntry {
@@ -48,6 +48,9 @@ public class FileMaintenanceService {
     }
 
     private final List<String> outputDirs;
+    private final FileLeaseRegistry leaseRegistry;
+    private long registryFilesSeen;
+    private long registryBytesSeen;
     private final ConcurrentLinkedQueue<StatsEntry> last24hStats = new ConcurrentLinkedQueue<>();
     private Cancellable cleanupSubscription;
     @Getter
@@ -58,10 +61,11 @@ public class FileMaintenanceService {
     @Inject
     EventBus eventBus;
 
-    long deletionThresholdMinutes = 10;
+    long deletionThresholdMinutes = 60;
 
     @Inject
-    public FileMaintenanceService(BroadcasterConfig broadcasterConfig) {
+    public FileMaintenanceService(BroadcasterConfig broadcasterConfig, FileLeaseRegistry leaseRegistry) {
+        this.leaseRegistry = leaseRegistry;
         this.outputDirs = List.of(
                 broadcasterConfig.getPathUploads(),
                 broadcasterConfig.getPathForMerged(),
@@ -72,9 +76,9 @@ public class FileMaintenanceService {
         this.availableSpaceBytes = 0;
     }
 
+    // Temp artifacts are deleted by FileLeaseRegistry when released, and leftovers from a previous
+    // run are reconciled there on startup. This walk only catches what slipped through.
     void onStart(@Observes StartupEvent event) {
-        LOGGER.info("Starting initial cleanup of output directories.");
-        cleanAllPaths(-1L);
         startCleanupTask();
     }
 
@@ -123,6 +127,7 @@ public class FileMaintenanceService {
 
                 Files.walk(outputPath)
                         .filter(Files::isRegularFile)
+                        .filter(path -> !leaseRegistry.isLeased(path))
                         .filter(path -> isOlderThan(path, threshold))
                         .forEach(path -> deleteFile(path, currentFilesDeleted, currentSpaceFreed));
 
@@ -138,6 +143,13 @@ public class FileMaintenanceService {
             }
         }
 
+        long registryFiles = leaseRegistry.getFilesDeleted();
+        long registryBytes = leaseRegistry.getBytesFreed();
+        totalFilesDeleted.addAndGet(registryFiles - registryFilesSeen);
+        totalSpaceFreedBytes.addAndGet(registryBytes - registryBytesSeen);
+        registryFilesSeen = registryFiles;
+        registryBytesSeen = registryBytes;
+
         if (totalFilesDeleted.get() > 0 || totalDirectoriesDeleted.get() > 0) {
             last24hStats.offer(new StatsEntry(
                     totalFilesDeleted.get(),
@@ -258,6 +270,7 @@ public class FileMaintenanceService {
         Files.walk(directory)
                 .filter(Files::isDirectory)
                 .filter(path -> !path.equals(directory))
+                .filter(path -> !leaseRegistry.isLeased(path))
                 .filter(this::isEmptyDirectory)
                 .forEach(path -> deleteDirectory(path, directoriesDeleted));
     }
@@ -30,10 +30,11 @@ public class LocalFileCleanupService {
     private static final Logger LOGGER = LoggerFactory.getLogger(LocalFileCleanupService.class);
     private static final Duration TEMP_FILE_MAX_AGE = Duration.ofHours(2);
     private static final Duration ENTITY_FILE_MAX_AGE = Duration.ofDays(1);
-    private static final Duration CLEANUP_INTERVAL = Duration.ofHours(1);
-    private static final Duration INITIAL_DELAY = Duration.ofMinutes(10);
+    private static final Duration CLEANUP_INTERVAL = Duration.ofHours(6);
+    private static final Duration INITIAL_DELAY = Duration.ofHours(1);
 
     private final FileSystem fileSystem;
+    private final FileLeaseRegistry leaseRegistry;
     private final List<String> managedDirectories;
     private Cancellable cleanupSubscription;
 
@@ -43,8 +44,9 @@ public class LocalFileCleanupService {
     private LocalDateTime lastCleanupTime;
 
     @Inject
-    public LocalFileCleanupService(BroadcasterConfig config, Vertx vertx) {
+    public LocalFileCleanupService(BroadcasterConfig config, Vertx vertx, FileLeaseRegistry leaseRegistry) {
         this.fileSystem = vertx.fileSystem();
+        this.leaseRegistry = leaseRegistry;
         String baseUploadPath = config.getPathUploads();
         this.managedDirectories = List.of(
                 baseUploadPath + "/sound-fragments-controller",
@@ -210,7 +212,7 @@ public class LocalFileCleanupService {
             Instant cutoffTime = Instant.now().minus(TEMP_FILE_MAX_AGE);
 
             for (Path file : files.toArray(Path[]::new)) {
-                if (Files.isRegularFile(file)) {
+                if (Files.isRegularFile(file) && !leaseRegistry.isLeased(file)) {
                     try {
                         Instant fileTime = Files.getLastModifiedTime(file).toInstant();
                         if (fileTime.isBefore(cutoffTime)) {
@@ -237,7 +239,7 @@ public class LocalFileCleanupService {
             Instant cutoffTime = Instant.now().minus(ENTITY_FILE_MAX_AGE);
 
             for (Path file : files.toArray(Path[]::new)) {
-                if (Files.isRegularFile(file)) {
+                if (Files.isRegularFile(file) && !leaseRegistry.isLeased(file)) {
                     try {
                         Instant fileTime = Files.getLastModifiedTime(file).toInstant();
                         if (fileTime.isBefore(cutoffTime)) {
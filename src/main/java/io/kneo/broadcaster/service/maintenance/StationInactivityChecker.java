@@ -5,6 +5,7 @@ import io.kneo.broadcaster.model.cnst.StreamStatus;
 import io.kneo.broadcaster.model.stream.IStream;
 import io.kneo.broadcaster.model.stream.OneTimeStream;
 import io.kneo.broadcaster.service.BrandService;
+import io.kneo.broadcaster.service.stats.StatsAccumulator;
 import io.kneo.broadcaster.service.stream.RadioStationPool;
 import io.kneo.broadcaster.util.BrandLogger;
 import io.quarkus.runtime.ShutdownEvent;
@@ -21,6 +22,7 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -55,10 +57,14 @@ public class StationInactivityChecker {
     @Inject
     BroadcasterConfig broadcasterConfig;
 
+    @Inject
+    StatsAccumulator statsAccumulator;
+
     private Cancellable cleanupSubscription;
     private final ConcurrentHashMap<String, Instant> stationsMarkedForRemoval = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Instant> idleStatusTime = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Instant> stationStartTime = new ConcurrentHashMap<>();
+    private final Set<String> checkedInDatabase = ConcurrentHashMap.newKeySet();
 
     void onStart(@Observes StartupEvent event) {
         LOGGER.info("=== Starting station inactivity checker ===");
@@ -117,78 +123,92 @@ public class StationInactivityChecker {
                 .replaceWithVoid()
                 .chain(() -> {
                     Collection<IStream> currentOnlineStations = radioStationPool.getOnlineStationsSnapshot();
+                    List<String> unseen = currentOnlineStations.stream()
+                            .map(IStream::getSlugName)
+                            .filter(slug -> statsAccumulator.getLastActivity(slug) == null && checkedInDatabase.add(slug))
+                            .toList();
+
+                    return loadMissingActivity(unseen)
+                            .invoke(() -> currentOnlineStations.forEach(radioStation -> applyTransition(
+                                    radioStation, now, idleThreshold, idleToOfflineThreshold)));
+                });
+    }
 
-                    return Multi.createFrom().iterable(currentOnlineStations)
-                            .onItem().transformToUni(radioStation -> {
-                                String slug = radioStation.getSlugName();
-                                StreamStatus currentStatus = radioStation.getStatus();
-
-                                return brandService.findLastAccessTimeByStationName(slug)
-                                        .onItem().transformToUni(lastAccessTime -> {
-                                            if (lastAccessTime != null) {
-                                                Instant lastAccessInstant = lastAccessTime.toInstant();
-                                                boolean isPastIdleThreshold = lastAccessInstant.isBefore(idleThreshold);
-
-                                                if (!isPastIdleThreshold && currentStatus != StreamStatus.OFF_LINE) {
-                                                    if (currentStatus != StreamStatus.ON_LINE) {
-                                                        radioStation.setStatus(StreamStatus.ON_LINE);
-                                                        stationsMarkedForRemoval.remove(slug);
-                                                        idleStatusTime.remove(slug);
-                                                    }
-                                                    return Uni.createFrom().voidItem();
-                                                }
-
-                                                if (TERMINAL_STATUSES.contains(currentStatus))
-                                                    return Uni.createFrom().voidItem();
-
-                                                if (currentStatus == StreamStatus.IDLE) {
-                                                    Instant idleStartTime = idleStatusTime.get(slug);
-                                                    if (idleStartTime != null && idleStartTime.isBefore(idleToOfflineThreshold)
-                                                            && !broadcasterConfig.getStationWhitelist().contains(slug)) {
-                                                        radioStation.setStatus(StreamStatus.OFF_LINE);
-                                                        stationsMarkedForRemoval.put(slug, now);
-                                                        idleStatusTime.remove(slug);
-                                                        stationStartTime.remove(slug);
-                                                    }
-                                                } else if (ACTIVE_STATUSES.contains(currentStatus)) {
-                                                    if (isPastIdleThreshold) {
-                                                        radioStation.setStatus(StreamStatus.IDLE);
-                                                        idleStatusTime.put(slug, now);
-                                                    }
-                                                } else if (currentStatus == StreamStatus.FINISHED && radioStation instanceof OneTimeStream) {
-                                                    // Handle finished OneTimeStream - mark for removal after 1 minute
-                                                    stationsMarkedForRemoval.put(slug, now);
-                                                    idleStatusTime.remove(slug);
-                                                    stationStartTime.remove(slug);
-                                                }
-                                            } else {
-                                                stationStartTime.putIfAbsent(slug, now);
-                                                Instant startTime = stationStartTime.get(slug);
-                                                boolean hasBeenRunning5Min = startTime.isBefore(idleThreshold);
-                                                
-                                                if (ACTIVE_STATUSES.contains(currentStatus) && hasBeenRunning5Min) {
-                                                    radioStation.setStatus(StreamStatus.IDLE);
-                                                    idleStatusTime.put(slug, now);
-                                                }
-                                                
-                                                if (currentStatus == StreamStatus.IDLE) {
-                                                    Instant idleStartTime = idleStatusTime.get(slug);
-                                                    if (idleStartTime != null && idleStartTime.isBefore(idleToOfflineThreshold)
-                                                            && !broadcasterConfig.getStationWhitelist().contains(slug)) {
-                                                        radioStation.setStatus(StreamStatus.OFF_LINE);
-                                                        stationsMarkedForRemoval.put(slug, now);
-                                                        idleStatusTime.remove(slug);
-                                                        stationStartTime.remove(slug);
-                                                    }
-                                                }
-                                            }
-                                            return Uni.createFrom().voidItem();
-                                        })
-                                        .onFailure().recoverWithUni(failure -> Uni.createFrom().voidItem());
-                            })
-                            .merge()
-                            .toUni()
-                            .replaceWithVoid();
+    private Uni<Void> loadMissingActivity(List<String> slugs) {
+        if (slugs.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        return brandService.findLastAccessTimesByStationNames(slugs)
+                .invoke(found -> found.forEach((slug, lastAccess) ->
+                        statsAccumulator.seedLastActivity(slug, lastAccess.toInstant())))
+                .replaceWithVoid()
+                .onFailure().recoverWithUni(failure -> {
+                    LOGGER.warn("Failed to load last access times for {} stations", slugs.size(), failure);
+                    slugs.forEach(checkedInDatabase::remove);
+                    return Uni.createFrom().voidItem();
                 });
     }
+
+    private void applyTransition(IStream radioStation, Instant now, Instant idleThreshold, Instant idleToOfflineThreshold) {
+        String slug = radioStation.getSlugName();
+        StreamStatus currentStatus = radioStation.getStatus();
+        Instant lastAccessInstant = statsAccumulator.getLastActivity(slug);
+
+        if (lastAccessInstant != null) {
+            boolean isPastIdleThreshold = lastAccessInstant.isBefore(idleThreshold);
+
+            if (!isPastIdleThreshold && currentStatus != StreamStatus.OFF_LINE) {
+                if (currentStatus != StreamStatus.ON_LINE) {
+                    radioStation.setStatus(StreamStatus.ON_LINE);
+                    stationsMarkedForRemoval.remove(slug);
+                    idleStatusTime.remove(slug);
+                }
+                return;
+            }
+
+            if (TERMINAL_STATUSES.contains(currentStatus))
+                return;
+
+            if (currentStatus == StreamStatus.IDLE) {
+                Instant idleStartTime = idleStatusTime.get(slug);
+                if (idleStartTime != null && idleStartTime.isBefore(idleToOfflineThreshold)
+                        && !broadcasterConfig.getStationWhitelist().contains(slug)) {
+                    radioStation.setStatus(StreamStatus.OFF_LINE);
+                    stationsMarkedForRemoval.put(slug, now);
+                    idleStatusTime.remove(slug);
+                    stationStartTime.remove(slug);
+                }
+            } else if (ACTIVE_STATUSES.contains(currentStatus)) {
+                if (isPastIdleThreshold) {
+                    radioStation.setStatus(StreamStatus.IDLE);
+                    idleStatusTime.put(slug, now);
+                }
+            } else if (currentStatus == StreamStatus.FINISHED && radioStation instanceof OneTimeStream) {
+                // Handle finished OneTimeStream - mark for removal after 1 minute
+                stationsMarkedForRemoval.put(slug, now);
+                idleStatusTime.remove(slug);
+                stationStartTime.remove(slug);
+            }
+        } else {
+            stationStartTime.putIfAbsent(slug, now);
+            Instant startTime = stationStartTime.get(slug);
+            boolean hasBeenRunning5Min = startTime.isBefore(idleThreshold);
+
+            if (ACTIVE_STATUSES.contains(currentStatus) && hasBeenRunning5Min) {
+                radioStation.setStatus(StreamStatus.IDLE);
+                idleStatusTime.put(slug, now);
+            }
+
+            if (currentStatus == StreamStatus.IDLE) {
+                Instant idleStartTime = idleStatusTime.get(slug);
+                if (idleStartTime != null && idleStartTime.isBefore(idleToOfflineThreshold)
+                        && !broadcasterConfig.getStationWhitelist().contains(slug)) {
+                    radioStation.setStatus(StreamStatus.OFF_LINE);
+                    stationsMarkedForRemoval.put(slug, now);
+                    idleStatusTime.remove(slug);
+                    stationStartTime.remove(slug);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,429 @@
+package io.kneo.broadcaster.service.manipulation;
+
+import be.tarsos.dsp.AudioDispatcher;
+import be.tarsos.dsp.AudioEvent;
+import be.tarsos.dsp.AudioProcessor;
+import be.tarsos.dsp.beatroot.BeatRootOnsetEventHandler;
+import be.tarsos.dsp.io.TarsosDSPAudioFormat;
+import be.tarsos.dsp.io.UniversalAudioInputStream;
+import be.tarsos.dsp.onsets.ComplexOnsetDetector;
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.model.soundfragment.AudioAnalysis;
+import io.kneo.broadcaster.repository.soundfragment.SoundFragmentRepository;
+import io.kneo.broadcaster.service.maintenance.FileLease;
+import io.kneo.broadcaster.service.maintenance.FileLeaseRegistry;
+import io.kneo.broadcaster.service.util.BlockingExecutor;
+import io.kneo.broadcaster.util.AsyncSemaphore;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures a track once at ingest: EBU R128 integrated loudness and true peak, cue-in/cue-out
+ * silence boundaries, tempo and a coarse peak waveform. A single ffmpeg decode feeds both the
+ * loudness/silence filters (read back from stderr) and a mono PCM pipe that TarsosDSP consumes for
+ * beat tracking and the waveform.
+ */
+@ApplicationScoped
+public class AudioAnalysisService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AudioAnalysisService.class);
+
+    private static final int PCM_SAMPLE_RATE = 22050;
+    private static final int BUFFER_SIZE = 1024;
+    private static final int BUFFER_OVERLAP = 512;
+    private static final int PEAK_WINDOWS_PER_SECOND = 20;
+    private static final int WAVEFORM_POINTS = 400;
+    private static final String SILENCE_THRESHOLD = "-50dB";
+    private static final double SILENCE_MIN_SECONDS = 0.2;
+    private static final double MIN_BPM = 60;
+    private static final double MAX_BPM = 200;
+    private static final int MAX_FAILED_TRACKED = 10_000;
+
+    private static final Pattern INTEGRATED = Pattern.compile("^\\s*I:\\s+(-?[\\d.]+|-inf) LUFS");
+    private static final Pattern TRUE_PEAK = Pattern.compile("^\\s*Peak:\\s+(-?[\\d.]+|-inf) dBFS");
+    private static final Pattern SILENCE_START = Pattern.compile("silence_start: (-?[\\d.]+)");
+    private static final Pattern SILENCE_END = Pattern.compile("silence_end: (-?[\\d.]+)");
+
+    private final BroadcasterConfig config;
+    private final SoundFragmentRepository repository;
+    private final FileLeaseRegistry fileLeaseRegistry;
+    private final BlockingExecutor blockingExecutor;
+    private final AsyncSemaphore permits;
+    private final String tempBaseDir;
+    // fragment id -> when its analysis failed, oldest first; skipped by the backfill until it expires
+    private final LinkedHashMap<UUID, Long> failed = new LinkedHashMap<>();
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    @Inject
+    public AudioAnalysisService(BroadcasterConfig config, SoundFragmentRepository repository,
+                                FileLeaseRegistry fileLeaseRegistry, BlockingExecutor blockingExecutor) {
+        this.config = config;
+        this.repository = repository;
+        this.fileLeaseRegistry = fileLeaseRegistry;
+        this.blockingExecutor = blockingExecutor;
+        this.permits = new AsyncSemaphore(config.getAnalysisMaxConcurrency());
+        this.tempBaseDir = config.getPathUploads() + "/audio-analysis";
+    }
+
+    /**
+     * Queues analysis of a freshly uploaded file that is still on local disk. The file is held
+     * until the analysis is done, so the uploader can release it right away.
+     */
+    public void submit(UUID soundFragmentId, Path localFile) {
+        FileLease lease = fileLeaseRegistry.retain("analysis:" + soundFragmentId, localFile);
+        analyzeAndStore(soundFragmentId, localFile).eventually(lease::release).subscribe().with(
+                analysis -> LOGGER.info("Analysed {}: {} LUFS, cue {}-{} ms, {} bpm", soundFragmentId,
+                        analysis.getIntegratedLufs(), analysis.getCueInMs(), analysis.getCueOutMs(), analysis.getBpm()),
+                failure -> LOGGER.warn("Audio analysis failed for {}: {}", soundFragmentId, failure.getMessage())
+        );
+    }
+
+    /**
+     * Queues analysis of a stored fragment; its first file is fetched from storage.
+     */
+    public void submit(UUID soundFragmentId) {
+        analyzeAndStore(soundFragmentId).subscribe().with(
+                analysis -> LOGGER.info("Analysed {}: {} LUFS, cue {}-{} ms, {} bpm", soundFragmentId,
+                        analysis.getIntegratedLufs(), analysis.getCueInMs(), analysis.getCueOutMs(), analysis.getBpm()),
+                failure -> LOGGER.warn("Audio analysis failed for {}: {}", soundFragmentId, failure.getMessage())
+        );
+    }
+
+    public Uni<AudioAnalysis> analyzeAndStore(UUID soundFragmentId, Path localFile) {
+        if (!Files.exists(localFile)) {
+            return analyzeAndStore(soundFragmentId);
+        }
+        return permits.withPermit(() -> analyze(localFile))
+                .call(analysis -> repository.updateAnalysis(soundFragmentId, analysis))
+                .onFailure().invoke(() -> markFailed(soundFragmentId));
+    }
+
+    public Uni<AudioAnalysis> analyzeAndStore(UUID soundFragmentId) {
+        return permits.withPermit(() -> repository.getFirstFile(soundFragmentId)
+                        .chain(file -> file.materializeFileStream(tempBaseDir))
+                        .chain(tempFile -> analyze(tempFile)
+                                .eventually(() -> deleteQuietly(tempFile))))
+                .call(analysis -> repository.updateAnalysis(soundFragmentId, analysis))
+                .onFailure().invoke(() -> markFailed(soundFragmentId));
+    }
+
+    public Uni<AudioAnalysis> analyze(Path file) {
+        return Uni.createFrom().item(() -> {
+            try {
+                return runAnalysis(file);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to analyse " + file, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while analysing " + file, e);
+            }
+        }).runSubscriptionOn(blockingExecutor.executor(BlockingExecutor.Category.FFMPEG));
+    }
+
+    @Scheduled(every = "10m", delayed = "2m", identity = "audio-analysis-backfill")
+    void backfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            return;
+        }
+        Set<UUID> skipped = recentlyFailed();
+        repository.findWithoutAnalysis(config.getAnalysisBackfillBatchSize() + skipped.size())
+                .onItem().transformToMulti(ids -> Multi.createFrom().iterable(ids))
+                .select().where(id -> !skipped.contains(id))
+                .select().first(config.getAnalysisBackfillBatchSize())
+                .onItem().transformToUniAndMerge(id -> analyzeAndStore(id)
+                        .replaceWith(true)
+                        .onFailure().recoverWithItem(failure -> {
+                            LOGGER.warn("Backfill analysis failed for {}: {}", id, failure.getMessage());
+                            return false;
+                        }))
+                .collect().asList()
+                .eventually(() -> backfillRunning.set(false))
+                .subscribe().with(
+                        results -> {
+                            if (!results.isEmpty()) {
+                                LOGGER.info("Audio analysis backfill: {} of {} fragments analysed",
+                                        results.stream().filter(Boolean::booleanValue).count(), results.size());
+                            }
+                        },
+                        failure -> LOGGER.error("Audio analysis backfill failed", failure)
+                );
+    }
+
+    private void markFailed(UUID soundFragmentId) {
+        synchronized (failed) {
+            failed.remove(soundFragmentId);
+            failed.put(soundFragmentId, System.currentTimeMillis());
+            while (failed.size() > MAX_FAILED_TRACKED) {
+                failed.remove(failed.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Fragments whose analysis failed within the retry window. Older failures are forgotten here,
+     * so the backfill tries them again.
+     */
+    private Set<UUID> recentlyFailed() {
+        long cutoff = System.currentTimeMillis() - config.getAnalysisFailedRetryMinutes() * 60_000L;
+        synchronized (failed) {
+            failed.values().removeIf(failedAt -> failedAt < cutoff);
+            return new HashSet<>(failed.keySet());
+        }
+    }
+
+    private AudioAnalysis runAnalysis(Path file) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(
+                config.getFfmpegPath(), "-nostdin", "-hide_banner", "-nostats",
+                "-i", file.toString(),
+                "-vn",
+                "-af", "ebur128=peak=true:framelog=verbose,silencedetect=noise=" + SILENCE_THRESHOLD + ":d=" + SILENCE_MIN_SECONDS,
+                "-ac", "1", "-ar", String.valueOf(PCM_SAMPLE_RATE),
+                "-f", "s16le", "pipe:1"
+        ).start();
+
+        FilterLog log = new FilterLog();
+        Thread stderrReader = Thread.ofVirtual().start(() -> log.read(process.getErrorStream()));
+
+        CountingInputStream pcm = new CountingInputStream(process.getInputStream());
+        PeakCollector peaks = new PeakCollector();
+        List<Double> beats = new ArrayList<>();
+        try {
+            TarsosDSPAudioFormat format = new TarsosDSPAudioFormat(PCM_SAMPLE_RATE, 16, 1, true, false);
+            AudioDispatcher dispatcher = new AudioDispatcher(new UniversalAudioInputStream(pcm, format), BUFFER_SIZE, BUFFER_OVERLAP);
+            ComplexOnsetDetector onsetDetector = new ComplexOnsetDetector(BUFFER_SIZE);
+            BeatRootOnsetEventHandler beatRoot = new BeatRootOnsetEventHandler();
+            onsetDetector.setHandler(beatRoot);
+            dispatcher.addAudioProcessor(onsetDetector);
+            dispatcher.addAudioProcessor(peaks);
+            dispatcher.run();
+            beatRoot.trackBeats((time, salience) -> beats.add(time));
+        } finally {
+            pcm.transferTo(OutputStream.nullOutputStream());
+            int exitCode = process.waitFor();
+            stderrReader.join();
+            if (exitCode != 0) {
+                throw new IOException("ffmpeg exited with " + exitCode);
+            }
+        }
+
+        long durationMs = pcm.getCount() / 2 * 1000L / PCM_SAMPLE_RATE;
+        if (log.integratedLufs == null || durationMs == 0) {
+            throw new IOException("No loudness summary in ffmpeg output");
+        }
+
+        AudioAnalysis analysis = new AudioAnalysis();
+        analysis.setVersion(AudioAnalysis.CURRENT_VERSION);
+        analysis.setAnalyzedAt(System.currentTimeMillis());
+        analysis.setDurationMs(durationMs);
+        analysis.setIntegratedLufs(log.integratedLufs);
+        analysis.setTruePeakDb(log.truePeakDb != null ? log.truePeakDb : 0.0);
+        setCuePoints(analysis, log.silences, durationMs);
+        analysis.setBpm(estimateBpm(beats));
+        analysis.setWaveform(peaks.waveform());
+        return analysis;
+    }
+
+    private static void setCuePoints(AudioAnalysis analysis, List<double[]> silences, long durationMs) {
+        double duration = durationMs / 1000.0;
+        double cueIn = 0;
+        double cueOut = duration;
+        if (!silences.isEmpty()) {
+            double[] first = silences.getFirst();
+            if (first[0] <= 0.01 && !Double.isNaN(first[1])) {
+                cueIn = first[1];
+            }
+            double[] last = silences.getLast();
+            if (Double.isNaN(last[1]) || last[1] >= duration - 0.05) {
+                cueOut = last[0];
+            }
+        }
+        if (cueOut <= cueIn) {
+            cueIn = 0;
+            cueOut = duration;
+        }
+        analysis.setCueInMs(Math.round(cueIn * 1000));
+        analysis.setCueOutMs(Math.round(cueOut * 1000));
+    }
+
+    private static Double estimateBpm(List<Double> beats) {
+        if (beats.size() < 8) {
+            return null;
+        }
+        List<Double> intervals = new ArrayList<>(beats.size() - 1);
+        for (int i = 1; i < beats.size(); i++) {
+            double interval = beats.get(i) - beats.get(i - 1);
+            if (interval > 0) {
+                intervals.add(interval);
+            }
+        }
+        if (intervals.isEmpty()) {
+            return null;
+        }
+        intervals.sort(Double::compare);
+        double bpm = 60.0 / intervals.get(intervals.size() / 2);
+        while (bpm < MIN_BPM) {
+            bpm *= 2;
+        }
+        while (bpm > MAX_BPM) {
+            bpm /= 2;
+        }
+        return Math.round(bpm * 10) / 10.0;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.debug("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Collects what ebur128 and silencedetect print to stderr. Only the final summary is used for
+     * loudness; per-frame lines are suppressed with {@code framelog=verbose}.
+     */
+    private static final class FilterLog {
+        private Double integratedLufs;
+        private Double truePeakDb;
+        private final List<double[]> silences = new ArrayList<>();
+
+        void read(InputStream stderr) {
+            boolean inSummary = false;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stderr, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Matcher m = SILENCE_START.matcher(line);
+                    if (m.find()) {
+                        silences.add(new double[]{Math.max(0, Double.parseDouble(m.group(1))), Double.NaN});
+                        continue;
+                    }
+                    m = SILENCE_END.matcher(line);
+                    if (m.find() && !silences.isEmpty()) {
+                        silences.getLast()[1] = Double.parseDouble(m.group(1));
+                        continue;
+                    }
+                    if (line.contains("Summary:")) {
+                        inSummary = true;
+                        continue;
+                    }
+                    if (!inSummary) {
+                        continue;
+                    }
+                    m = INTEGRATED.matcher(line);
+                    if (m.find()) {
+                        integratedLufs = parseLevel(m.group(1));
+                        continue;
+                    }
+                    m = TRUE_PEAK.matcher(line);
+                    if (m.find()) {
+                        truePeakDb = parseLevel(m.group(1));
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.debug("ffmpeg stderr closed: {}", e.getMessage());
+            }
+        }
+
+        private static double parseLevel(String value) {
+            return "-inf".equals(value) ? -70.0 : Double.parseDouble(value);
+        }
+    }
+
+    /**
+     * Keeps the absolute peak of every 1/{@value #PEAK_WINDOWS_PER_SECOND} s window and folds them
+     * into {@value #WAVEFORM_POINTS} points at the end.
+     */
+    private static final class PeakCollector implements AudioProcessor {
+        private float[] windows = new float[PEAK_WINDOWS_PER_SECOND * 300];
+        private int size;
+
+        @Override
+        public boolean process(AudioEvent audioEvent) {
+            float[] buffer = audioEvent.getFloatBuffer();
+            int from = audioEvent.getTimeStamp() == 0 ? 0 : audioEvent.getOverlap();
+            double secondsPerSample = 1.0 / PCM_SAMPLE_RATE;
+            for (int i = from; i < buffer.length; i++) {
+                int window = (int) ((audioEvent.getTimeStamp() + i * secondsPerSample) * PEAK_WINDOWS_PER_SECOND);
+                if (window >= windows.length) {
+                    windows = Arrays.copyOf(windows, Math.max(window + 1, windows.length * 2));
+                }
+                size = Math.max(size, window + 1);
+                windows[window] = Math.max(windows[window], Math.abs(buffer[i]));
+            }
+            return true;
+        }
+
+        @Override
+        public void processingFinished() {
+        }
+
+        List<Integer> waveform() {
+            int points = Math.min(WAVEFORM_POINTS, size);
+            List<Integer> result = new ArrayList<>(points);
+            for (int p = 0; p < points; p++) {
+                int start = (int) ((long) p * size / points);
+                int end = (int) ((long) (p + 1) * size / points);
+                float peak = 0;
+                for (int i = start; i < end; i++) {
+                    peak = Math.max(peak, windows[i]);
+                }
+                result.add(Math.min(255, Math.round(peak * 255)));
+            }
+            return result;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
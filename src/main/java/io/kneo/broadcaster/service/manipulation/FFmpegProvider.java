@@ -1,6 +1,8 @@
 package io.kneo.broadcaster.service.manipulation;
 
 import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.service.util.BlockingExecutor;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
@@ -8,11 +10,14 @@ import net.bramp.ffmpeg.FFmpeg;
 import net.bramp.ffmpeg.FFprobe;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 @ApplicationScoped
 public class FFmpegProvider {
     @Inject
     BroadcasterConfig config;
+    @Inject
+    BlockingExecutor blockingExecutor;
     private FFmpeg ffmpeg;
     private FFprobe ffprobe;
 
@@ -30,4 +35,20 @@ public class FFmpegProvider {
     public FFprobe getFFprobe() {
         return ffprobe;
     }
-}
\ No newline at end of file
+
+    /**
+     * Where ffmpeg jobs run: virtual threads bounded by the ffmpeg permit count. Manual runners
+     * that build the provider by hand fall back to the worker pool.
+     */
+    public Executor getExecutor() {
+        return blockingExecutor != null
+                ? blockingExecutor.executor(BlockingExecutor.Category.FFMPEG)
+                : Infrastructure.getDefaultWorkerPool();
+    }
+
+    public Executor getProbeExecutor() {
+        return blockingExecutor != null
+                ? blockingExecutor.executor(BlockingExecutor.Category.PROBE)
+                : Infrastructure.getDefaultWorkerPool();
+    }
+}
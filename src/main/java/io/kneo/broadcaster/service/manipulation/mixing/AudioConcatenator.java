@@ -1,10 +1,10 @@
 package io.kneo.broadcaster.service.manipulation.mixing;
 
 import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.model.soundfragment.AudioAnalysis;
 import io.kneo.broadcaster.service.exceptions.AudioMergeException;
 import io.kneo.broadcaster.service.manipulation.FFmpegProvider;
 import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import net.bramp.ffmpeg.FFmpegExecutor;
@@ -18,6 +18,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.Executor;
 
 @ApplicationScoped
 public class AudioConcatenator {
@@ -26,11 +28,13 @@ public class AudioConcatenator {
 
     private final FFmpegExecutor executor;
     private final FFprobe ffprobe;
+    private final Executor jobExecutor;
     private final String outputDir;
 
     @Inject
     public AudioConcatenator(BroadcasterConfig config, FFmpegProvider ffmpeg) throws AudioMergeException {
         this.outputDir = config.getPathForMerged();
+        this.jobExecutor = ffmpeg.getExecutor();
 
         try {
             this.executor = new FFmpegExecutor(ffmpeg.getFFmpeg());
@@ -64,20 +68,31 @@ public class AudioConcatenator {
 
     public Uni<String> concatenate(String firstPath, String secondPath, String outputPath,
                                    ConcatenationType mixingType, double mixParam) {
+        return concatenate(firstPath, secondPath, outputPath, mixingType, mixParam, null, null);
+    }
+
+    /**
+     * Same as {@link #concatenate(String, String, String, ConcatenationType, double)}, but when the
+     * tracks were analysed at ingest the crossfade trims to their stored cue points instead of
+     * searching for silence.
+     */
+    public Uni<String> concatenate(String firstPath, String secondPath, String outputPath,
+                                   ConcatenationType mixingType, double mixParam,
+                                   AudioAnalysis firstAnalysis, AudioAnalysis secondAnalysis) {
         return Uni.createFrom().item(() -> {
             try {
                 LOGGER.info("Concatenating with mixing type: {}, param: {}", mixingType, mixParam);
 
                 return switch (mixingType) {
                     case DIRECT_CONCAT -> directConcatenation(firstPath, secondPath, outputPath, mixParam);
-                    case CROSSFADE -> createCrossfadeMix(firstPath, secondPath, outputPath, mixParam);
+                    case CROSSFADE -> createCrossfadeMix(firstPath, secondPath, outputPath, mixParam, firstAnalysis, secondAnalysis);
                     case VOLUME_CONCAT -> volumeConcatenation(firstPath, secondPath, outputPath, mixParam);
                 };
             } catch (Exception e) {
                 LOGGER.error("Error in concatenateWithMixing: {}", e.getMessage(), e);
                 throw new RuntimeException("Failed to concatenate with mixing", e);
             }
-        }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+        }).runSubscriptionOn(jobExecutor);
     }
 
     private String directConcatenation(String firstPath, String secondPath, String outputPath, double mixParam) {
@@ -100,9 +115,7 @@ public class AudioConcatenator {
     }
 
     private String createCrossfadeMix(String firstPath, String secondPath, String outputPath,
-                                      double mixParam) throws Exception {
-        double firstDuration = getAudioDuration(firstPath);
-        double crossfadeStart = Math.max(0, firstDuration - mixParam);
+                                      double mixParam, AudioAnalysis firstAnalysis, AudioAnalysis secondAnalysis) throws Exception {
 
         // ORIGINAL CODE - WORKING VERSION
         /*String filterComplex = String.format(
@@ -118,13 +131,18 @@ public class AudioConcatenator {
         );*/
 
         // MODIFIED VERSION - with logarithmic curve for more aggressive song fadeout
-        String filterComplex = String.format(
-                // First: remove trailing silence by reversing, trimming leading, then reverse back
-                "[0:a]aformat=sample_rates=44100:sample_fmts=s16:channel_layouts=stereo,areverse," +
-                        "silenceremove=start_periods=1:start_threshold=-40dB:stop_periods=0:detection=rms,areverse,asetpts=PTS-STARTPTS[a0];" +
-                        // Second: remove leading silence
-                        "[1:a]silenceremove=start_periods=1:start_threshold=-40dB:stop_periods=0:detection=rms," +
-                        "aformat=sample_rates=44100:sample_fmts=s16:channel_layouts=stereo,asetpts=PTS-STARTPTS[a1];" +
+        // Trailing silence of the first track: cut at the stored cue-out when known, otherwise
+        // reverse, trim leading silence and reverse back (buffers the whole track in ffmpeg)
+        String firstTrim = firstAnalysis != null && firstAnalysis.hasCuePoints()
+                ? String.format(Locale.ROOT, "atrim=end=%.3f,", firstAnalysis.getCueOutMs() / 1000.0)
+                : "areverse,silenceremove=start_periods=1:start_threshold=-40dB:stop_periods=0:detection=rms,areverse,";
+        // Leading silence of the second track
+        String secondTrim = secondAnalysis != null && secondAnalysis.hasCuePoints()
+                ? String.format(Locale.ROOT, "atrim=start=%.3f,", secondAnalysis.getCueInMs() / 1000.0)
+                : "silenceremove=start_periods=1:start_threshold=-40dB:stop_periods=0:detection=rms,";
+        String filterComplex = String.format(Locale.ROOT,
+                "[0:a]" + firstTrim + "aformat=sample_rates=44100:sample_fmts=s16:channel_layouts=stereo,asetpts=PTS-STARTPTS[a0];" +
+                        "[1:a]" + secondTrim + "aformat=sample_rates=44100:sample_fmts=s16:channel_layouts=stereo,asetpts=PTS-STARTPTS[a1];" +
                         // Crossfade with logarithmic curve to reduce song volume more during overlap
                         "[a0][a1]acrossfade=d=%.3f:c1=log:c2=tri:o=1",
                 mixParam
@@ -10,6 +10,8 @@ import io.kneo.broadcaster.model.stream.IStream;
 import io.kneo.broadcaster.repository.soundfragment.SoundFragmentRepository;
 import io.kneo.broadcaster.service.AiAgentService;
 import io.kneo.broadcaster.service.exceptions.AudioMergeException;
+import io.kneo.broadcaster.service.maintenance.FileLease;
+import io.kneo.broadcaster.service.maintenance.FileLeaseRegistry;
 import io.kneo.broadcaster.service.manipulation.FFmpegProvider;
 import io.kneo.broadcaster.service.manipulation.mixing.AudioConcatenator;
 import io.kneo.broadcaster.service.manipulation.mixing.ConcatenationType;
@@ -18,7 +20,6 @@ import io.kneo.broadcaster.service.soundfragment.SoundFragmentService;
 import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.SuperUser;
 import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.infrastructure.Infrastructure;
 import net.bramp.ffmpeg.builder.FFmpegBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +48,7 @@ public class AudioMixingHandler extends MixingHandlerBase {
     private final SoundFragmentService soundFragmentService;
     private final AudioConcatenator audioConcatenator;
     private final AiAgentService aiAgentService;
+    private final FileLeaseRegistry fileLeaseRegistry;
     private final String outputDir;
     private final String tempBaseDir;
 
@@ -55,8 +57,10 @@ public class AudioMixingHandler extends MixingHandlerBase {
                               SoundFragmentService soundFragmentService,
                               AudioConcatenator audioConcatenator,
                               AiAgentService aiAgentService,
-                              FFmpegProvider fFmpegProvider) throws IOException, AudioMergeException {
+                              FFmpegProvider fFmpegProvider,
+                              FileLeaseRegistry fileLeaseRegistry) throws IOException, AudioMergeException {
         super(fFmpegProvider);
+        this.fileLeaseRegistry = fileLeaseRegistry;
         this.soundFragmentRepository = repository;
         this.soundFragmentService = soundFragmentService;
         this.audioConcatenator = audioConcatenator;
@@ -84,13 +88,14 @@ public class AudioMixingHandler extends MixingHandlerBase {
                                                         String tempMixPath = outputDir + "/temp_mix_" +
                                                                 soundFragment1.getSlugName() + "_i_" +
                                                                 System.currentTimeMillis() + ".wav";
+                                                        FileLease lease = fileLeaseRegistry.acquire("mix:" + soundFragment1.getSlugName(), tempPath1);
                                                         return mixSongPlusIntro(tempPath1.toString(),
                                                                 introSongPath,
                                                                 tempMixPath,
                                                                 2.0,
                                                                 false,
                                                                 -3,
-                                                                0.2);
+                                                                0.2).eventually(lease::release);
                                                     })
                                                     .chain(actualTempMixPath -> {
                                                         return soundFragmentService.getById(soundFragmentId2, SuperUser.build())
@@ -153,13 +158,14 @@ public class AudioMixingHandler extends MixingHandlerBase {
                                                         String tempMixPath = outputDir + "/temp_mix_" +
                                                                 soundFragment1.getSlugName() + "_i_" +
                                                                 System.currentTimeMillis() + ".wav";
+                                                        FileLease lease = fileLeaseRegistry.acquire("mix:" + soundFragment1.getSlugName(), tempPath1);
 
                                                         return mixIntroSongPlusIntro(
                                                                 part1,                     // intro1
                                                                 tempPath1.toString(),      // song
                                                                 part3,                     // intro2
                                                                 tempMixPath                // output
-                                                        ).chain(actualTempMixPath -> {
+                                                        ).eventually(lease::release).chain(actualTempMixPath -> {
                                                             return soundFragmentService.getById(part4, SuperUser.build())
                                                                     .chain(soundFragment2 -> {
                                                                         return soundFragmentRepository.getFirstFile(soundFragment2.getId())
@@ -221,6 +227,7 @@ public class AudioMixingHandler extends MixingHandlerBase {
                                     fileMetadata.setTemporaryFilePath(tempPath);
                                     fragment.setFileMetadataList(List.of(fileMetadata));
                                     fragment.setType(PlaylistItemType.SONG);
+                                    fragment.setAnalysis(soundFragment.getAnalysis());
 
                                     return playlistManager.addFragmentToSlice(
                                             fragment,
@@ -248,13 +255,18 @@ public class AudioMixingHandler extends MixingHandlerBase {
                                                                 .chain(tempPath2 -> {
                                                                     String outputPath = outputDir + "/crossfade_" +
                                                                             System.currentTimeMillis() + ".wav";
+                                                                    FileLease lease = fileLeaseRegistry.acquire("crossfade:" + sf1.getSlugName(),
+                                                                            tempPath1, tempPath2);
                                                                     return audioConcatenator.concatenate(
                                                                                     tempPath1.toString(),
                                                                                     tempPath2.toString(),
                                                                                     outputPath,
                                                                                     concatType,
-                                                                                    0
+                                                                                    0,
+                                                                                    sf1.getAnalysis(),
+                                                                                    sf2.getAnalysis()
                                                                             )
+                                                                            .eventually(lease::release)
                                                                             .chain(finalPath -> {
                                                                                 SoundFragment crossfadeFragment = new SoundFragment();
                                                                                 if (sf1.getType() == PlaylistItemType.JINGLE) {
@@ -333,7 +345,7 @@ public class AudioMixingHandler extends MixingHandlerBase {
                 LOGGER.error("Error creating outro-intro mix with FFmpeg: {}", e.getMessage(), e);
                 throw new RuntimeException("Failed to create outro-intro mix", e);
             }
-        }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+        }).runSubscriptionOn(jobExecutor);
     }
 
     private Uni<String> mixSongPlusIntro(String songFile, String introFile, String outputFile,
@@ -434,7 +446,7 @@ public class AudioMixingHandler extends MixingHandlerBase {
                                 songWav.file.delete();
                                 introWav.file.delete();
                             }
-                        }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                        }).runSubscriptionOn(jobExecutor)
                 )
         );
     }
@@ -542,7 +554,7 @@ public class AudioMixingHandler extends MixingHandlerBase {
                 closeQuietly(introJingleStream);
                 closeQuietly(backgroundMusicStream);
             }
-        }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+        }).runSubscriptionOn(jobExecutor);
     }
 
     private void cleanupQuietly(File file) {
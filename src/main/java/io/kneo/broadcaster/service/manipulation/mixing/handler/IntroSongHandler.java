@@ -10,6 +10,8 @@ import io.kneo.broadcaster.model.stream.IStream;
 import io.kneo.broadcaster.repository.soundfragment.SoundFragmentRepository;
 import io.kneo.broadcaster.service.AiAgentService;
 import io.kneo.broadcaster.service.exceptions.AudioMergeException;
+import io.kneo.broadcaster.service.maintenance.FileLease;
+import io.kneo.broadcaster.service.maintenance.FileLeaseRegistry;
 import io.kneo.broadcaster.service.manipulation.FFmpegProvider;
 import io.kneo.broadcaster.service.manipulation.mixing.AudioConcatenator;
 import io.kneo.broadcaster.service.manipulation.mixing.ConcatenationType;
@@ -34,14 +36,17 @@ public class IntroSongHandler {
     private final AiAgentService aiAgentService;
     private final BroadcasterConfig config;
     private final AudioConcatenator audioConcatenator;
+    private final FileLeaseRegistry fileLeaseRegistry;
     private final String tempBaseDir;
 
     public IntroSongHandler(BroadcasterConfig config,
                             SoundFragmentRepository repository,
                             SoundFragmentService soundFragmentService,
                             AiAgentService aiAgentService,
-                            FFmpegProvider fFmpegProvider) throws IOException, AudioMergeException {
+                            FFmpegProvider fFmpegProvider,
+                            FileLeaseRegistry fileLeaseRegistry) throws IOException, AudioMergeException {
         this.config = config;
+        this.fileLeaseRegistry = fileLeaseRegistry;
         this.repository = repository;
         this.soundFragmentService = soundFragmentService;
         this.aiAgentService = aiAgentService;
@@ -86,6 +91,7 @@ public class IntroSongHandler {
                             .chain(songTempFile -> {
                                 String outputPath = config.getPathForMerged() + "/merged_intro_" +
                                         soundFragment.getSlugName() + "_" + System.currentTimeMillis() + ".wav";
+                                FileLease lease = fileLeaseRegistry.acquire("intro:" + soundFragment.getSlugName(), songTempFile);
 
                                 return audioConcatenator.concatenate(
                                         ttsFilePath,
@@ -93,12 +99,14 @@ public class IntroSongHandler {
                                         outputPath,
                                         ConcatenationType.DIRECT_CONCAT,
                                         gainValue
-                                );
+                                ).eventually(lease::release);
                             })
                             .onItem().transform(mergedPath -> {
                                 FileMetadata mergedMetadata = new FileMetadata();
                                 mergedMetadata.setTemporaryFilePath(Path.of(mergedPath));
                                 soundFragment.setFileMetadataList(List.of(mergedMetadata));
+                                // cue points and gain were measured on the bare song, not the merge
+                                soundFragment.setAnalysis(null);
                                 return mergedMetadata;
                             })
                             .chain(updatedMetadata -> {
@@ -2,7 +2,6 @@ package io.kneo.broadcaster.service.manipulation.mixing.handler;
 
 import io.kneo.broadcaster.service.manipulation.FFmpegProvider;
 import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.infrastructure.Infrastructure;
 import net.bramp.ffmpeg.FFmpegExecutor;
 import net.bramp.ffmpeg.FFprobe;
 import net.bramp.ffmpeg.probe.FFmpegProbeResult;
@@ -16,16 +15,19 @@ import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.UnsupportedAudioFileException;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 public class MixingHandlerBase {
     private static final Logger LOGGER = LoggerFactory.getLogger(MixingHandlerBase.class);
     protected final FFmpegExecutor executor;
     protected final FFprobe ffprobe;
+    protected final Executor jobExecutor;
     private final String ffmpegPath;
 
     public MixingHandlerBase(FFmpegProvider fFmpegProvider) throws IOException {
         this.executor = new FFmpegExecutor(fFmpegProvider.getFFmpeg());
         this.ffprobe = fFmpegProvider.getFFprobe();
+        this.jobExecutor = fFmpegProvider.getExecutor();
         this.ffmpegPath = fFmpegProvider.getFFmpeg().getPath();
     }
 
@@ -92,6 +94,6 @@ public class MixingHandlerBase {
             } catch (IOException | UnsupportedAudioFileException | InterruptedException e) {
                 throw new RuntimeException("Failed to convert to wav: " + inputPath, e);
             }
-        }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+        }).runSubscriptionOn(jobExecutor);
     }
 }
\ No newline at end of file
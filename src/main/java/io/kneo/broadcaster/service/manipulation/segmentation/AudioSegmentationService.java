@@ -4,14 +4,18 @@ import io.kneo.broadcaster.config.BroadcasterConfig;
 import io.kneo.broadcaster.config.HlsPlaylistConfig;
 import io.kneo.broadcaster.model.SegmentInfo;
 import io.kneo.broadcaster.model.live.SongMetadata;
+import io.kneo.broadcaster.model.soundfragment.AudioAnalysis;
+import io.kneo.broadcaster.service.maintenance.FileLease;
+import io.kneo.broadcaster.service.maintenance.FileLeaseRegistry;
 import io.kneo.broadcaster.service.manipulation.FFmpegProvider;
 import io.kneo.broadcaster.service.stream.HlsSegment;
+import io.kneo.broadcaster.service.util.BlockingExecutor;
 import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import net.bramp.ffmpeg.FFmpegExecutor;
 import net.bramp.ffmpeg.builder.FFmpegBuilder;
+import net.bramp.ffmpeg.builder.FFmpegOutputBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,10 +29,12 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 @ApplicationScoped
 public class AudioSegmentationService {
@@ -36,23 +42,38 @@ public class AudioSegmentationService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("HH");
     private final FFmpegProvider ffmpeg;
+    private final FileLeaseRegistry leaseRegistry;
+    private final BlockingExecutor blockingExecutor;
     private final String outputDir;
     private final int segmentDuration;
+    private final double targetLufs;
+    private final double truePeakCeilingDb;
 
     @Inject
-    public AudioSegmentationService(BroadcasterConfig broadcasterConfig, FFmpegProvider ffmpeg, HlsPlaylistConfig hlsPlaylistConfig) {
+    public AudioSegmentationService(BroadcasterConfig broadcasterConfig, FFmpegProvider ffmpeg, HlsPlaylistConfig hlsPlaylistConfig,
+                                    FileLeaseRegistry leaseRegistry, BlockingExecutor blockingExecutor) {
         this.ffmpeg = ffmpeg;
+        this.leaseRegistry = leaseRegistry;
+        this.blockingExecutor = blockingExecutor;
         this.outputDir = broadcasterConfig.getSegmentationOutputDir();
         this.segmentDuration = hlsPlaylistConfig.getSegmentDuration();
+        this.targetLufs = broadcasterConfig.getAnalysisTargetLufs();
+        this.truePeakCeilingDb = broadcasterConfig.getAnalysisTruePeakCeilingDb();
         new File(outputDir).mkdirs();
         preallocateDirectories();
     }
 
+    /**
+     * Segments a temporary source file. The source and the segment directories are only needed
+     * until the segment bytes are in memory, so they are released (and deleted) right after.
+     */
     public Uni<Map<Long, ConcurrentLinkedQueue<HlsSegment>>> slice(SongMetadata songMetadata, Path filePath, List<Long> bitRates) {
-        return Uni.createFrom().item(() -> segmentAudioFileMultipleBitrates(filePath, songMetadata, bitRates))
-                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+        FileLease lease = leaseRegistry.acquire("slice:" + songMetadata, filePath);
+        return Uni.createFrom().item(() -> segmentAudioFileMultipleBitrates(filePath, songMetadata, bitRates, lease))
+                .runSubscriptionOn(ffmpeg.getExecutor())
                 .onFailure().invoke(e -> LOGGER.error("Failed to slice audio file: {}", filePath, e))
-                .chain(this::createHlsQueueFromMultipleBitrateSegments);
+                .chain(this::createHlsQueueFromMultipleBitrateSegments)
+                .eventually(lease::release);
     }
 
     private Uni<Map<Long, ConcurrentLinkedQueue<HlsSegment>>> createHlsQueueFromMultipleBitrateSegments(
@@ -60,18 +81,15 @@ public class AudioSegmentationService {
         if (segmentsByBitrate.isEmpty()) {
             return Uni.createFrom().item(new ConcurrentHashMap<>());
         }
-        return Uni.createFrom().item(() -> {
-            Map<Long, ConcurrentLinkedQueue<HlsSegment>> resultMap = new ConcurrentHashMap<>();
-            List<Uni<Void>> tasks = segmentsByBitrate.entrySet().stream()
-                    .map(entry -> Uni.createFrom().item(() -> {
-                        ConcurrentLinkedQueue<HlsSegment> segments = createHlsQueueFromSegments(entry.getValue());
-                        resultMap.put(entry.getKey(), segments);
-                        return (Void) null;
-                    }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool()))
-                    .toList();
-            Uni.combine().all().unis(tasks).with(list -> (Void) null).await().indefinitely();
-            return resultMap;
-        }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+        Map<Long, ConcurrentLinkedQueue<HlsSegment>> resultMap = new ConcurrentHashMap<>();
+        List<Uni<Void>> tasks = segmentsByBitrate.entrySet().stream()
+                .map(entry -> Uni.createFrom().item(() -> {
+                    ConcurrentLinkedQueue<HlsSegment> segments = createHlsQueueFromSegments(entry.getValue());
+                    resultMap.put(entry.getKey(), segments);
+                    return (Void) null;
+                }).runSubscriptionOn(blockingExecutor.executor(BlockingExecutor.Category.FILE)))
+                .toList();
+        return Uni.combine().all().unis(tasks).with(list -> resultMap);
     }
 
     private ConcurrentLinkedQueue<HlsSegment> createHlsQueueFromSegments(List<SegmentInfo> segments) {
@@ -94,7 +112,8 @@ public class AudioSegmentationService {
         return hlsSegments;
     }
 
-    public Map<Long, List<SegmentInfo>> segmentAudioFileMultipleBitrates(Path audioFilePath, SongMetadata songMetadata, List<Long> bitRates) {
+    public Map<Long, List<SegmentInfo>> segmentAudioFileMultipleBitrates(Path audioFilePath, SongMetadata songMetadata, List<Long> bitRates,
+                                                                         FileLease lease) {
         Map<Long, List<SegmentInfo>> segmentsByBitrate = new ConcurrentHashMap<>();
         LocalDateTime now = LocalDateTime.now();
         String today = now.format(DATE_FORMATTER);
@@ -105,16 +124,34 @@ public class AudioSegmentationService {
             FFmpegBuilder builder = new FFmpegBuilder().setInput(audioFilePath.toString());
             Map<Long, BitrateOutputInfo> outputInfoMap = new HashMap<>();
 
+            // Tracks analysed at ingest get a fixed gain and are trimmed to their cue points;
+            // anything else (mixes, TTS, unanalysed uploads) still goes through the adaptive chain.
+            AudioAnalysis analysis = songMetadata.getAnalysis();
+            String audioFilter = "dynaudnorm,acompressor";
+            long trimmedDurationMs = 0;
+            if (analysis != null) {
+                audioFilter = String.format(Locale.ROOT, "volume=%.2fdB", analysis.gainDb(targetLufs, truePeakCeilingDb));
+                if (analysis.hasCuePoints()) {
+                    builder.setStartOffset(analysis.getCueInMs(), TimeUnit.MILLISECONDS);
+                    trimmedDurationMs = analysis.getCueOutMs() - analysis.getCueInMs();
+                }
+            }
+
             for (Long bitRate : bitRates) {
                 String bitrateDir = sanitizedSongName + "_" + bitRate + "k";
                 Path songDir = Paths.get(outputDir, today, currentHour, bitrateDir);
+                lease.add(songDir);
                 Files.createDirectories(songDir);
                 String baseName = UUID.randomUUID().toString();
                 String segmentPattern = songDir + File.separator + baseName + "_%03d.ts";
                 String segmentListFile = songDir + File.separator + baseName + "_segments.txt";
                 outputInfoMap.put(bitRate, new BitrateOutputInfo(songDir, segmentListFile, songMetadata));
 
-                builder.addOutput(segmentPattern)
+                FFmpegOutputBuilder output = builder.addOutput(segmentPattern);
+                if (trimmedDurationMs > 0) {
+                    output.setDuration(trimmedDurationMs, TimeUnit.MILLISECONDS);
+                }
+                output
                         .setAudioCodec("aac")
                         .setAudioBitRate(bitRate)
                         .setFormat("segment")
@@ -128,7 +165,7 @@ public class AudioSegmentationService {
                         .addExtraArgs("-map", "0:a")
                         .addExtraArgs("-metadata", "title=" + songMetadata.getTitle())
                         .addExtraArgs("-metadata", "artist=" + songMetadata.getArtist())
-                        .addExtraArgs("-af", "dynaudnorm,acompressor")
+                        .addExtraArgs("-af", audioFilter)
                         .addExtraArgs("-threads", "0")
                         .addExtraArgs("-preset", "ultrafast")
                         .addExtraArgs("-aac_coder", "twoloop")
@@ -162,7 +199,7 @@ public class AudioSegmentationService {
                         List<SegmentInfo> segments = processSegmentList(entry.getKey(), entry.getValue());
                         processedSegments.put(entry.getKey(), segments);
                         return (Void) null;
-                    }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool()))
+                    }).runSubscriptionOn(blockingExecutor.executor(BlockingExecutor.Category.FILE)))
                     .toList();
             Uni.combine().all().unis(segmentTasks).with(list -> (Void) null).await().indefinitely();
             segmentsByBitrate.putAll(processedSegments);
@@ -25,6 +25,7 @@ import io.kneo.broadcaster.service.soundfragment.BrandSoundFragmentUpdateService
 import io.kneo.broadcaster.service.soundfragment.SoundFragmentService;
 import io.kneo.broadcaster.service.stream.HlsSegment;
 import io.kneo.broadcaster.service.stream.IStreamManager;
+import io.kneo.broadcaster.service.util.StationScope;
 import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.SuperUser;
 import io.smallrye.mutiny.Multi;
@@ -47,8 +48,7 @@ import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -81,7 +81,8 @@ public class PlaylistManager {
     private final String brandSlug;
     private final UUID masterBrandId;
     private final SoundFragmentService soundFragmentService;
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private final StationScope scope;
+    private ScheduledFuture<?> selfManaging;
     private final AudioSegmentationService segmentationService;
     private final ISupplier songSupplier;
     private final BrandSoundFragmentUpdateService brandSoundFragmentUpdateService;
@@ -107,8 +108,10 @@ public class PlaylistManager {
                            ISupplier songSupplier,
                            BrandSoundFragmentUpdateService brandSoundFragmentUpdateService,
                            AiHelperService aiHelperService,
-                           LanguageTag waitingMessageLang
+                           LanguageTag waitingMessageLang,
+                           StationScope scope
     ) {
+        this.scope = scope;
         this.soundFragmentService = streamManager.getSoundFragmentService();
         this.segmentationService = streamManager.getSegmentationService();
         this.stream = streamManager.getStream();
@@ -132,7 +135,7 @@ public class PlaylistManager {
     }
 
     public void startSelfManaging() {
-        scheduler.scheduleAtFixedRate(() -> {
+        selfManaging = scope.scheduleAtFixedRate(() -> {
             try {
                 if (regularQueue.size() <= TRIGGER_SELF_MANAGING) {
                     if (RANDOM.nextDouble() < 0.5) {
@@ -184,19 +187,7 @@ public class PlaylistManager {
                 )
                 .onItem().call(fragment -> {
                     try {
-                        List<FileMetadata> fileMetadataList = fragment.getFileMetadataList();
-                        FileMetadata metadata = fileMetadataList.getFirst();
-
-                        return soundFragmentService.getFileBySlugName(
-                                        fragment.getId(),
-                                        metadata.getSlugName(),
-                                        SuperUser.build()
-                                )
-                                .chain(fetchedMetadata -> {
-                                    //LOGGER.info("File to materialize: {}", fetchedMetadata.getFileOriginalName());
-                                    return fetchedMetadata.materializeFileStream(tempBaseDir)
-                                            .onItem().transform(tempFilePath -> fetchedMetadata);
-                                })
+                        return materialize(fragment)
                                 .chain(materializedMetadata ->
                                         addFragmentToSlice(fragment, materializedMetadata, stream.getBitRate()));
                     } catch (Exception e) {
@@ -216,6 +207,91 @@ public class PlaylistManager {
                 );
     }
 
+    private Uni<FileMetadata> materialize(SoundFragment fragment) {
+        FileMetadata metadata = fragment.getFileMetadataList().getFirst();
+        return soundFragmentService.getFileBySlugName(
+                        fragment.getId(),
+                        metadata.getSlugName(),
+                        SuperUser.build()
+                )
+                .chain(fetchedMetadata -> fetchedMetadata.materializeFileStream(tempBaseDir)
+                        .onItem().transform(tempFilePath -> fetchedMetadata));
+    }
+
+    /**
+     * A fragment waiting in one of the queues. A restored entry without {@code fragment} only
+     * names the sound fragment and has to be fetched and sliced again.
+     */
+    public record QueuedEntry(UUID soundFragmentId, int priority, boolean prioritized, LiveSoundFragment fragment) {
+    }
+
+    public List<QueuedEntry> snapshotQueued() {
+        List<QueuedEntry> queued = new ArrayList<>();
+        for (LiveSoundFragment fragment : prioritizedQueue.toArray(new LiveSoundFragment[0])) {
+            queued.add(new QueuedEntry(fragment.getSoundFragmentId(), fragment.getPriority(), true, fragment));
+        }
+        for (LiveSoundFragment fragment : regularQueue.toArray(new LiveSoundFragment[0])) {
+            queued.add(new QueuedEntry(fragment.getSoundFragmentId(), fragment.getPriority(), false, fragment));
+        }
+        return queued;
+    }
+
+    /**
+     * Puts fragments that were waiting in the queues when the checkpoint was taken back into the
+     * queue they came from; the regular buffer cap still applies. Entries that carry their
+     * segments from the segment store are queued as they are, only the others are fetched and
+     * sliced again.
+     */
+    public Uni<Integer> restoreQueued(List<QueuedEntry> queued) {
+        return Multi.createFrom().iterable(queued)
+                .onItem().transformToUniAndConcatenate(entry -> {
+                    if (entry.fragment() != null) {
+                        return Uni.createFrom().item(enqueueRestored(entry, entry.fragment()));
+                    }
+                    return soundFragmentService.getById(entry.soundFragmentId())
+                            .chain(fragment -> materialize(fragment)
+                                    .chain(materializedMetadata -> {
+                                        LiveSoundFragment liveSoundFragment = new LiveSoundFragment();
+                                        SongMetadata songMetadata = new SongMetadata(fragment.getTitle(), fragment.getArtist());
+                                        songMetadata.setItemType(fragment.getType());
+                                        songMetadata.setAnalysis(fragment.getAnalysis());
+                                        liveSoundFragment.setSoundFragmentId(fragment.getId());
+                                        liveSoundFragment.setMetadata(songMetadata);
+                                        liveSoundFragment.setSourceFilePath(materializedMetadata.getTemporaryFilePath());
+                                        long maxRate = stream.getBitRate();
+                                        return segmentationService.slice(songMetadata, materializedMetadata.getTemporaryFilePath(), List.of(maxRate, maxRate / 2))
+                                                .map(segments -> {
+                                                    if (segments.isEmpty()) {
+                                                        return false;
+                                                    }
+                                                    liveSoundFragment.setSegments(segments);
+                                                    return enqueueRestored(entry, liveSoundFragment);
+                                                });
+                                    }))
+                            .onFailure().recoverWithItem(failure -> {
+                                LOGGER.warn("Could not restore queued fragment {} for brand {}: {}",
+                                        entry.soundFragmentId(), brandSlug, failure.getMessage());
+                                return false;
+                            });
+                })
+                .filter(Boolean::booleanValue)
+                .collect().asList()
+                .map(List::size);
+    }
+
+    private boolean enqueueRestored(QueuedEntry entry, LiveSoundFragment liveSoundFragment) {
+        liveSoundFragment.setPriority(entry.priority());
+        if (entry.prioritized()) {
+            prioritizedQueue.add(liveSoundFragment);
+            return true;
+        }
+        if (regularQueue.size() >= REGULAR_BUFFER_MAX) {
+            return false;
+        }
+        regularQueue.add(liveSoundFragment);
+        return true;
+    }
+
     public Uni<Boolean> addFragmentToSlice(SoundFragment soundFragment, int priority, long maxRate, AddToQueueDTO queueDTO) {
         try {
             List<FileMetadata> metadataList = soundFragment.getFileMetadataList();
@@ -223,6 +299,7 @@ public class PlaylistManager {
             LiveSoundFragment liveSoundFragment = new LiveSoundFragment();
             SongMetadata songMetadata = new SongMetadata(soundFragment.getTitle(), soundFragment.getArtist());
             songMetadata.setItemType(soundFragment.getType());
+            songMetadata.setAnalysis(soundFragment.getAnalysis());
             liveSoundFragment.setSoundFragmentId(soundFragment.getId());
             liveSoundFragment.setMetadata(songMetadata);
             liveSoundFragment.setSourceFilePath(metadata.getTemporaryFilePath());
@@ -291,6 +368,7 @@ public class PlaylistManager {
         LiveSoundFragment liveSoundFragment = new LiveSoundFragment();
         SongMetadata songMetadata = new SongMetadata(soundFragment.getTitle(), soundFragment.getArtist());
         songMetadata.setItemType(soundFragment.getType());
+        songMetadata.setAnalysis(soundFragment.getAnalysis());
         liveSoundFragment.setSoundFragmentId(soundFragment.getId());
         liveSoundFragment.setMetadata(songMetadata);
         liveSoundFragment.setSourceFilePath(materializedMetadata.getTemporaryFilePath());
@@ -495,7 +573,9 @@ public class PlaylistManager {
     public void shutdown() {
         LOGGER.info("Shutting down PlaylistManager for brand: {}", brandSlug);
         
-        scheduler.shutdownNow();
+        if (selfManaging != null) {
+            selfManaging.cancel(true);
+        }
         
         slicedFragmentsLock.writeLock().lock();
         try {
@@ -1,18 +1,18 @@
 package io.kneo.broadcaster.service.scheduler;
 
-import com.anthropic.client.AnthropicClient;
-import com.anthropic.client.okhttp.AnthropicOkHttpClient;
 import com.anthropic.models.messages.ContentBlock;
-import com.anthropic.models.messages.Message;
 import com.anthropic.models.messages.MessageCreateParams;
 import com.anthropic.models.messages.Model;
 import io.kneo.broadcaster.agent.ElevenLabsClient;
+import io.kneo.broadcaster.agent.LlmGateway;
+import io.kneo.broadcaster.agent.TtsAudioCache;
 import io.kneo.broadcaster.config.BroadcasterConfig;
 import io.kneo.broadcaster.dto.queue.AddToQueueDTO;
 import io.kneo.broadcaster.model.Event;
 import io.kneo.broadcaster.model.PlaylistRequest;
 import io.kneo.broadcaster.model.Prompt;
 import io.kneo.broadcaster.model.ScenePrompt;
+import io.kneo.broadcaster.model.aiagent.TTSEngineType;
 import io.kneo.broadcaster.model.cnst.ActionType;
 import io.kneo.broadcaster.model.cnst.EventType;
 import io.kneo.broadcaster.model.cnst.LanguageTag;
@@ -69,6 +69,9 @@ public class EventExecutor {
     @Inject
     ElevenLabsClient elevenLabsClient;
 
+    @Inject
+    TtsAudioCache ttsAudioCache;
+
     @Inject
     AiAgentService aiAgentService;
 
@@ -84,16 +87,8 @@ public class EventExecutor {
     @Inject
     SongSupplier songSupplier;
 
-    private AnthropicClient anthropicClient;
-
-    private AnthropicClient getAnthropicClient() {
-        if (anthropicClient == null) {
-            anthropicClient = AnthropicOkHttpClient.builder()
-                    .apiKey(config.getAnthropicApiKey())
-                    .build();
-        }
-        return anthropicClient;
-    }
+    @Inject
+    LlmGateway llmGateway;
 
     public Uni<Void> execute(Event event) {
         LOGGER.info("Executing event: {} ({})", event.getDescription(), event.getId());
@@ -184,7 +179,7 @@ public class EventExecutor {
                 .chain(prompt -> aiAgentService.getById(stationStream.getAiAgentId(), SuperUser.build(), LanguageCode.en)
                         .chain(agent -> {
                             return draftFactory.createDraft(fragment, agent, stationStream, prompt.getDraftId(), LanguageTag.EN_US, null)
-                                    .chain(draft -> generateText(prompt, draft))
+                                    .chain(draft -> generateText(stationStream.getSlugName(), prompt, draft))
                                     .chain(ttsText -> {
                                         String voiceId = AiHelperUtils.resolvePrimaryVoiceId(stationStream, agent);
                                         return generateTtsAndQueue(stationStream, fragment, ttsText, voiceId);
@@ -192,32 +187,32 @@ public class EventExecutor {
                         }));
     }
 
-    private Uni<String> generateText(Prompt prompt, String draft) {
-        return Uni.createFrom().item(() -> {
-            String userMessage = prompt.getPrompt() + "\n\nDraft input:\n" + draft;
-
-            MessageCreateParams params = MessageCreateParams.builder()
-                    .model(Model.CLAUDE_HAIKU_4_5_20251001)
-                    .maxTokens(256)
-                    .addUserMessage(userMessage)
-                    .build();
-
-            Message response = getAnthropicClient().messages().create(params);
-
-            String text = response.content().stream()
-                    .filter(ContentBlock::isText)
-                    .map(block -> block.asText().text())
-                    .findFirst()
-                    .orElseThrow();
-            LOGGER.info("Generated text: {}", text);
-            return text;
-        });
+    private Uni<String> generateText(String brand, Prompt prompt, String draft) {
+        String userMessage = prompt.getPrompt() + "\n\nDraft input:\n" + draft;
+
+        MessageCreateParams params = MessageCreateParams.builder()
+                .model(Model.CLAUDE_HAIKU_4_5_20251001)
+                .maxTokens(256)
+                .addUserMessage(userMessage)
+                .build();
+
+        return llmGateway.createMessage(brand, params)
+                .map(response -> {
+                    String text = response.content().stream()
+                            .filter(ContentBlock::isText)
+                            .map(block -> block.asText().text())
+                            .findFirst()
+                            .orElseThrow();
+                    LOGGER.info("Generated text: {}", text);
+                    return text;
+                });
     }
 
     private Uni<Void> generateTtsAndQueue(IStream station, SoundFragment fragment, String ttsText, String voiceId) {
         String uploadId = UUID.randomUUID().toString();
 
-        return elevenLabsClient.textToSpeech(ttsText, voiceId, config.getElevenLabsModelId(), LanguageTag.EN_US )
+        return ttsAudioCache.decorate(TTSEngineType.ELEVENLABS, elevenLabsClient)
+                .textToSpeech(ttsText, voiceId, config.getElevenLabsModelId(), LanguageTag.EN_US)
                 .chain(audioBytes -> {
                     try {
                         Path uploadsDir = Paths.get(config.getPathForExternalServiceUploads());
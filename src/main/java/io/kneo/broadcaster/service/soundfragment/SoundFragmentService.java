@@ -16,10 +16,13 @@ import io.kneo.broadcaster.model.soundfragment.SoundFragment;
 import io.kneo.broadcaster.model.soundfragment.SoundFragmentFilter;
 import io.kneo.broadcaster.repository.soundfragment.SoundFragmentRepository;
 import io.kneo.broadcaster.service.BrandService;
+import io.kneo.broadcaster.service.EntityCaches;
 import io.kneo.broadcaster.service.RefService;
 import io.kneo.broadcaster.service.maintenance.LocalFileCleanupService;
+import io.kneo.broadcaster.service.manipulation.AudioAnalysisService;
 import io.kneo.broadcaster.util.BrandLogger;
 import io.kneo.broadcaster.util.FileSecurityUtils;
+import io.kneo.broadcaster.util.HttpRange;
 import io.kneo.core.dto.DocumentAccessDTO;
 import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.DataEntity;
@@ -56,6 +59,8 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
     private final GenreService genreService;
     private final LocalFileCleanupService localFileCleanupService;
     private final RefService refService;
+    private final AudioAnalysisService audioAnalysisService;
+    private final EntityCaches caches;
     private String uploadDir;
     Validator validator;
 
@@ -66,6 +71,8 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
         this.repository = null;
         this.brandService = null;
         this.refService = null;
+        this.audioAnalysisService = null;
+        this.caches = null;
     }
 
     @Inject
@@ -75,7 +82,9 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
                                 Validator validator,
                                 SoundFragmentRepository repository,
                                 BroadcasterConfig config,
-                                io.kneo.broadcaster.service.RefService refService) {
+                                io.kneo.broadcaster.service.RefService refService,
+                                AudioAnalysisService audioAnalysisService,
+                                EntityCaches caches) {
         super(userService);
         this.genreService = genreService;
         this.localFileCleanupService = localFileCleanupService;
@@ -83,6 +92,8 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
         this.repository = repository;
         this.brandService = brandService;
         this.refService = refService;
+        this.audioAnalysisService = audioAnalysisService;
+        this.caches = caches;
         uploadDir = config.getPathUploads() + "/sound-fragments-controller";
     }
 
@@ -159,8 +170,12 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
     }
 
     public Uni<FileMetadata> getFileBySlugName(UUID soundFragmentId, String slugName, IUser user) {
+        return getFileBySlugName(soundFragmentId, slugName, null, user);
+    }
+
+    public Uni<FileMetadata> getFileBySlugName(UUID soundFragmentId, String slugName, HttpRange range, IUser user) {
         assert repository != null;
-        return repository.getFileBySlugName(soundFragmentId, slugName, user, false);
+        return repository.getFileBySlugName(soundFragmentId, slugName, range, user, false);
     }
 
     public Uni<FileMetadata> getFirstFile(UUID soundFragmentId) {
@@ -285,7 +300,9 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
         if ("new".equalsIgnoreCase(id) || id == null) {
             entity.setSource(SourceType.USER_UPLOAD);
             return repository.insert(entity, dto.getRepresentedInBrands(), user)
+                    .invoke(this::onCatalogChanged)
                     .chain(doc -> moveFilesForNewEntity(doc, fileMetadataList, user))
+                    .invoke(doc -> submitAnalysis(doc, fileMetadataList))
                     .chain(doc -> mapToDTO(doc, true, null))
                     .onFailure().invoke(failure -> {
                         LOGGER.warn("Entity creation failed, cleaning up temp files for user: {}", user.getUserName());
@@ -297,6 +314,8 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
                     });
         } else {
             return repository.update(UUID.fromString(id), entity, dto.getRepresentedInBrands(), user)
+                    .invoke(this::onCatalogChanged)
+                    .invoke(doc -> submitAnalysis(doc, fileMetadataList))
                     .chain(doc -> mapToDTO(doc, true, null))
                     .onFailure().invoke(failure -> {
                         LOGGER.warn("Entity update failed, cleaning up files for user: {}, entity: {}",
@@ -314,6 +333,13 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
         return Uni.createFrom().item(localFileCleanupService.getStats());
     }
 
+    private void submitAnalysis(SoundFragment doc, List<FileMetadata> newFiles) {
+        if (!newFiles.isEmpty()) {
+            assert audioAnalysisService != null;
+            audioAnalysisService.submit(doc.getId());
+        }
+    }
+
     private Uni<SoundFragment> moveFilesForNewEntity(SoundFragment doc, List<FileMetadata> fileMetadataList, IUser user) {
         if (fileMetadataList.isEmpty()) {
             return Uni.createFrom().item(doc);
@@ -388,6 +414,7 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
                             .collect(Collectors.toList());
 
                     return Uni.join().all(updateUnis).andFailFast()
+                            .invoke(this::onCatalogChanged)
                             .map(results -> (int) results.stream().filter(result -> result != null).count());
                 });
     }
@@ -471,22 +498,30 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
 
     public Uni<Integer> delete(String id, IUser user) {
         assert repository != null;
-        return repository.delete(UUID.fromString(id), user);
+        return repository.delete(UUID.fromString(id), user)
+                .invoke(this::onCatalogChanged);
     }
 
     public Uni<Integer> delete(UUID id) {
         assert repository != null;
-        return repository.delete(id, SuperUser.build());
+        return repository.delete(id, SuperUser.build())
+                .invoke(this::onCatalogChanged);
     }
 
     public Uni<Integer> hardDelete(UUID id) {
         assert repository != null;
-        return repository.hardDelete(id);
+        return repository.hardDelete(id)
+                .invoke(this::onCatalogChanged);
     }
 
     public Uni<Integer> archive(String id, IUser user) {
         assert repository != null;
-        return repository.archive(UUID.fromString(id), user);
+        return repository.archive(UUID.fromString(id), user)
+                .invoke(this::onCatalogChanged);
+    }
+
+    private void onCatalogChanged() {
+        caches.invalidateAll(caches.agendaCatalogs());
     }
 
     private Uni<BrandSoundFragmentDTO> mapToBrandSoundFragmentDTO(BrandSoundFragment doc) {
@@ -573,7 +608,12 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
                 });
     }
 
-    public Uni<SoundFragment> createFromBulkUpload(UploadFileDTO uploadFile, UUID brandId, IUser user) {
+    public Uni<UUID> findByContentHash(String contentHash) {
+        assert repository != null;
+        return repository.findByContentHash(contentHash);
+    }
+
+    public Uni<SoundFragment> createFromBulkUpload(UploadFileDTO uploadFile, String contentHash, UUID brandId, IUser user) {
         if (uploadFile.getMetadata() == null) {
             return Uni.createFrom().failure(new IllegalArgumentException("Upload file has no metadata"));
         }
@@ -596,6 +636,7 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
         
         FileMetadata fileMetadata = new FileMetadata();
         fileMetadata.setFilePath(Paths.get(uploadFile.getFullPath()));
+        fileMetadata.setContentHash(contentHash);
         fragment.setFileMetadataList(List.of(fileMetadata));
         List<UUID> brandIds = brandId !=null ? List.of(brandId) : List.of();
         
@@ -605,7 +646,8 @@ public class SoundFragmentService extends AbstractService<SoundFragment, SoundFr
                     List<UUID> genreIds = genres.stream().map(DataEntity::getId).collect(java.util.stream.Collectors.toList());
                     fragment.setGenres(genreIds);
                     assert repository != null;
-                    return repository.insert(fragment, brandIds, user);
+                    return repository.insert(fragment, brandIds, user)
+                            .invoke(this::onCatalogChanged);
                 });
     }
 
@@ -7,6 +7,7 @@ import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -22,6 +23,8 @@ public class StatsAccumulator implements IStatsService {
     private final ConcurrentHashMap<String, String> lastIpAddresses = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, String> lastCountryCodes = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, OffsetDateTime> lastAccessTimes = new ConcurrentHashMap<>();
+    // unlike lastAccessTimes this is never drained by a flush, it is the live activity index
+    private final ConcurrentHashMap<String, Instant> lastActivity = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, ConcurrentHashMap<String, OffsetDateTime>> activeListeners = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<String, Boolean>>> countryListeners = new ConcurrentHashMap<>();
 
@@ -40,6 +43,7 @@ public class StatsAccumulator implements IStatsService {
             lastIpAddresses.put(stationName, ipAddress);
             lastCountryCodes.put(stationName, countryCode);
             lastAccessTimes.put(stationName, now);
+            lastActivity.put(stationName, now.toInstant());
 
             activeListeners.computeIfAbsent(stationName, k -> new ConcurrentHashMap<>())
                     .put(ipAddress, now);
@@ -129,6 +133,14 @@ public class StatsAccumulator implements IStatsService {
         );
     }
 
+    public Instant getLastActivity(String stationName) {
+        return lastActivity.get(stationName);
+    }
+
+    public void seedLastActivity(String stationName, Instant lastAccess) {
+        lastActivity.merge(stationName, lastAccess, (current, seeded) -> current.isAfter(seeded) ? current : seeded);
+    }
+
     public int getPendingStatsCount() {
         return accessCounts.size();
     }
@@ -0,0 +1,86 @@
+package io.kneo.broadcaster.service.stream;
+
+import io.kneo.broadcaster.model.PlaylistRequest;
+import io.kneo.broadcaster.model.Scene;
+import io.kneo.broadcaster.model.cnst.WayOfSourcing;
+import io.kneo.broadcaster.model.soundfragment.SoundFragment;
+import io.kneo.broadcaster.model.stream.AgendaCatalog;
+import io.kneo.broadcaster.repository.soundfragment.SoundFragmentRepository;
+import io.kneo.broadcaster.service.EntityCaches;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Loads what an agenda build needs in one go: it collects the playlist requests of every scene
+ * in the script and resolves them against the brand's catalog, after which each scene samples
+ * its pool from the returned {@link AgendaCatalog} in memory. The brand's catalog comes from
+ * {@link EntityCaches#agendaCatalogs()}, which sound fragment writers invalidate, so repeated
+ * builds for a brand do not reload it; only listed fragments outside the brand are queried.
+ */
+@ApplicationScoped
+public class AgendaDataLoader {
+
+    private final SoundFragmentRepository repository;
+    private final EntityCaches caches;
+
+    @Inject
+    public AgendaDataLoader(SoundFragmentRepository repository, EntityCaches caches) {
+        this.repository = repository;
+        this.caches = caches;
+    }
+
+    public Uni<AgendaCatalog> load(UUID brandId, Collection<Scene> scenes) {
+        Set<UUID> listedIds = new LinkedHashSet<>();
+        boolean needsBrandCatalog = false;
+        for (Scene scene : scenes) {
+            PlaylistRequest request = scene.getPlaylistRequest();
+            WayOfSourcing sourcing = request != null ? request.getSourcing() : null;
+            if (sourcing == WayOfSourcing.GENERATED) {
+                continue;
+            }
+            if (sourcing == WayOfSourcing.STATIC_LIST) {
+                if (request.getSoundFragments() != null) {
+                    listedIds.addAll(request.getSoundFragments());
+                }
+            } else {
+                needsBrandCatalog = true;
+            }
+        }
+        if (!needsBrandCatalog && listedIds.isEmpty()) {
+            return Uni.createFrom().item(AgendaCatalog.empty());
+        }
+        if (!needsBrandCatalog) {
+            return repository.findAgendaFragments(List.copyOf(listedIds))
+                    .map(listed -> new AgendaCatalog(List.of(), listed));
+        }
+        return caches.agendaCatalogs().get(brandId, repository::findAgendaFragments)
+                .chain(brandFragments -> {
+                    Set<UUID> missing = new LinkedHashSet<>(listedIds);
+                    brandFragments.forEach(f -> missing.remove(f.getId()));
+                    return repository.findAgendaFragments(List.copyOf(missing))
+                            .map(listed -> new AgendaCatalog(brandFragments, listed));
+                });
+    }
+
+    /**
+     * The given fragments by id, for an agenda restored from a checkpoint. Fragments archived
+     * since are missing from the result.
+     */
+    public Uni<Map<UUID, SoundFragment>> loadFragments(Collection<UUID> ids) {
+        return repository.findAgendaFragments(List.copyOf(new LinkedHashSet<>(ids)))
+                .map(fragments -> {
+                    Map<UUID, SoundFragment> byId = new HashMap<>();
+                    fragments.forEach(f -> byId.put(f.getId(), f));
+                    return byId;
+                });
+    }
+}
@@ -0,0 +1,114 @@
+package io.kneo.broadcaster.service.stream;
+
+import io.kneo.broadcaster.config.HlsPlaylistConfig;
+import io.kneo.broadcaster.util.EntityCache;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * HTTP caching rules for HLS responses. Segment URLs carry a hash of their bytes, so those are
+ * cacheable forever by any CDN or reverse proxy. Playlists may be cached for half a target
+ * duration, which keeps players at most one segment behind. In origin-shield mode each playlist is
+ * rendered once per that interval and shared by every request, with an ETag so the cache in front
+ * can revalidate it cheaply.
+ */
+@ApplicationScoped
+public class HlsCachePolicy {
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("\\.[0-9a-f]{8}\\.ts$");
+    private static final int MASTER_MAX_AGE_SECONDS = 60;
+
+    private final int segmentMaxAge;
+    private final int playlistMaxAge;
+    private final boolean originShield;
+    private final EntityCache<String, String> shieldedPlaylists;
+
+    @Inject
+    public HlsCachePolicy(HlsPlaylistConfig config) {
+        this.segmentMaxAge = config.getSegmentMaxAge();
+        this.playlistMaxAge = Math.max(1, config.getSegmentDuration() / 2);
+        this.originShield = config.isOriginShield();
+        this.shieldedPlaylists = new EntityCache<>("shieldedPlaylists", 2000, Duration.ofSeconds(playlistMaxAge));
+    }
+
+    /**
+     * True for segment names that include the content hash. Older names without it still resolve,
+     * but must not be cached since a sequence number can be reused after a cold restart.
+     */
+    public boolean isImmutable(String segmentName) {
+        return CONTENT_ADDRESSED.matcher(segmentName).find();
+    }
+
+    public String etag(HlsSegment segment) {
+        return "\"" + segment.getContentHash() + "-" + segment.getSize() + "\"";
+    }
+
+    /**
+     * ETag for a rendered playlist, built from a CRC32 of its bytes the same way as for segments.
+     */
+    public String etag(String playlist) {
+        byte[] bytes = playlist.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return "\"" + String.format("%08x", crc.getValue()) + "-" + bytes.length + "\"";
+    }
+
+    /**
+     * Answers with 304 and returns true if the client already holds this segment.
+     */
+    public boolean notModified(HttpServerRequest request, HttpServerResponse response, String etag) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch == null || !ifNoneMatch.contains(etag)) {
+            return false;
+        }
+        response.setStatusCode(304)
+                .putHeader("ETag", etag)
+                .end();
+        return true;
+    }
+
+    public void applySegmentHeaders(HttpServerResponse response, HlsSegment segment, boolean immutable) {
+        response.putHeader("Content-Type", "video/MP2T")
+                .putHeader("Content-Length", String.valueOf(segment.getSize()));
+        if (immutable) {
+            response.putHeader("Cache-Control", "public, max-age=" + segmentMaxAge + ", immutable")
+                    .putHeader("ETag", etag(segment));
+        } else {
+            response.putHeader("Cache-Control", "no-cache");
+        }
+    }
+
+    public String playlistCacheControl() {
+        return "public, max-age=" + playlistMaxAge;
+    }
+
+    public String masterCacheControl() {
+        return "public, max-age=" + MASTER_MAX_AGE_SECONDS;
+    }
+
+    public boolean isOriginShield() {
+        return originShield;
+    }
+
+    /**
+     * Renders a media playlist, sharing one rendering per cache interval in origin-shield mode.
+     */
+    public Uni<String> playlist(String key, Supplier<String> render) {
+        if (!originShield) {
+            return Uni.createFrom().item(render);
+        }
+        return shieldedPlaylists.get(key, k -> Uni.createFrom().item(render));
+    }
+
+    public EntityCache.Stats getShieldStats() {
+        return shieldedPlaylists.getStats();
+    }
+}
@@ -5,6 +5,8 @@ import io.kneo.broadcaster.model.live.SongMetadata;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.zip.CRC32;
+
 @Getter
 public class HlsSegment {
     @Setter
@@ -19,6 +21,7 @@ public class HlsSegment {
     private LiveSoundFragment liveSoundFragment;
     @Setter
     private boolean firstSegmentOfFragment = false;
+    private volatile String contentHash;
 
     public HlsSegment(long sequence, byte[] data, int duration, SongMetadata songMetadata, long timestamp) {
         this.sequence = sequence;
@@ -30,6 +33,20 @@ public class HlsSegment {
         this.songMetadata = songMetadata;
     }
 
+    /**
+     * CRC32 of the segment bytes as 8 hex digits. The bytes never change, so this goes into the
+     * segment URL and ETag and lets caches keep the segment forever.
+     */
+    public String getContentHash() {
+        String hash = contentHash;
+        if (hash == null) {
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            hash = String.format("%08x", crc.getValue());
+            contentHash = hash;
+        }
+        return hash;
+    }
 
     public String toString() {
         return String.format("song=%s, duration=%s", songMetadata, duration);
@@ -12,11 +12,14 @@ import io.kneo.broadcaster.repository.OneTimeStreamRepository;
 import io.kneo.broadcaster.service.AiAgentService;
 import io.kneo.broadcaster.service.BrandService;
 import io.kneo.broadcaster.service.OneTimeStreamService;
+import io.kneo.broadcaster.service.StationDirectoryService;
+import io.kneo.broadcaster.service.StationStatusSnapshotService;
 import io.kneo.broadcaster.service.live.AiHelperService;
 import io.kneo.broadcaster.service.manipulation.segmentation.AudioSegmentationService;
 import io.kneo.broadcaster.service.playlist.SongSupplier;
 import io.kneo.broadcaster.service.soundfragment.BrandSoundFragmentUpdateService;
 import io.kneo.broadcaster.service.soundfragment.SoundFragmentService;
+import io.kneo.broadcaster.service.util.BlockingExecutor;
 import io.kneo.broadcaster.util.AiHelperUtils;
 import io.kneo.core.localization.LanguageCode;
 import io.kneo.core.model.user.SuperUser;
@@ -30,6 +33,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 @ApplicationScoped
@@ -64,6 +68,9 @@ public class RadioStationPool {
     @Inject
     AiHelperService aiHelperService;
 
+    @Inject
+    BlockingExecutor blockingExecutor;
+
     @Inject
     private SongSupplier songSupplier;
 
@@ -79,7 +86,25 @@ public class RadioStationPool {
     @Inject
     private AiAgentService aiAgentService;
 
+    @Inject
+    private StationDirectoryService stationDirectory;
+
+    @Inject
+    private StationStatusSnapshotService statusSnapshots;
+
     public Uni<IStream> initializeRadio(String brandName) {
+        return initializeRadio(brandName, null);
+    }
+
+    /**
+     * Starts a station from a checkpoint. The saved agenda is restored when it still fits the
+     * brand's script; otherwise a new one is built as on a cold start.
+     */
+    public Uni<IStream> restoreRadio(String brandName, StationCheckpoint.Agenda savedAgenda) {
+        return initializeRadio(brandName, savedAgenda);
+    }
+
+    private Uni<IStream> initializeRadio(String brandName, StationCheckpoint.Agenda savedAgenda) {
         LOGGER.info("Attempting to initialize Radio Stream for brand: {}", brandName);
 
         return Uni.createFrom().item(brandName)
@@ -118,19 +143,35 @@ public class RadioStationPool {
                                             segmentationService,
                                             songSupplier,
                                             updateService,
-                                            aiHelperService
+                                            aiHelperService,
+                                            blockingExecutor
                                     );
                                     RadioStream radioStream = new RadioStream(brand);
+                                    radioStream.setStatusListener(this::onStatusChanged);
                                     streamManager.initialize(radioStream);
                                     radioStream.setStreamManager(streamManager);
 
                                     LOGGER.info("RadioStationPool: StreamManager for {} instance created and StreamManager.initialize() called. Status should be WARMING_UP", key);
                                     return radioStream;
                                 });
+                                onStatusChanged(finalStationToUse);
 
                                 if (finalStationToUse instanceof RadioStream radioStream && radioStream.getStreamAgenda() == null) {
-                                    LOGGER.info("RadioStationPool: Building looped schedule for RadioStream '{}'", radioStream.getSlugName());
-                                    return streamAgendaService.buildRadioStreamAgenda(brand.getId(), brand.getScripts().getFirst().getScriptId(), SuperUser.build())
+                                    UUID scriptId = brand.getScripts().getFirst().getScriptId();
+                                    return streamAgendaService.restoreRadioStreamAgenda(scriptId, savedAgenda, SuperUser.build())
+                                            .onFailure().recoverWithItem(failure -> {
+                                                LOGGER.warn("RadioStationPool: Saved schedule of '{}' could not be restored: {}",
+                                                        radioStream.getSlugName(), failure.getMessage());
+                                                return null;
+                                            })
+                                            .chain(restored -> {
+                                                if (restored != null) {
+                                                    LOGGER.info("RadioStationPool: Restored saved schedule for RadioStream '{}'", radioStream.getSlugName());
+                                                    return Uni.createFrom().item(restored);
+                                                }
+                                                LOGGER.info("RadioStationPool: Building looped schedule for RadioStream '{}'", radioStream.getSlugName());
+                                                return streamAgendaService.buildRadioStreamAgenda(brand.getId(), scriptId, SuperUser.build());
+                                            })
                                             .invoke(schedule -> {
                                                 radioStream.setStreamAgenda(schedule);
                                                 LOGGER.info("RadioStationPool: Schedule set for '{}': {} scenes, {} songs",
@@ -204,13 +245,16 @@ public class RadioStationPool {
                                             segmentationService,
                                             songSupplier,
                                             updateService,
-                                            aiHelperService
+                                            aiHelperService,
+                                            blockingExecutor
                                     );
+                                    stream.setStatusListener(this::onStatusChanged);
                                     streamManager.initialize(stream);
                                     stream.setStreamManager(streamManager);
                                     LOGGER.info("RadioStationPool: StreamManager for {} instance created and StreamManager.initialize() called. Status should be WARMING_UP.", key);
                                     return stream;
                                 });
+                                onStatusChanged(finalStationToUse);
                                 return Uni.createFrom().item(finalStationToUse);
                             });
                 })
@@ -228,7 +272,10 @@ public class RadioStationPool {
 
         if (brand != null) {
             LOGGER.info("Station {} found in pool and removed. Shutting down StreamManager.", brandName);
-            
+            brand.setStatusListener(null);
+            stationDirectory.onStreamRemoved(brandName);
+            statusSnapshots.onStreamRemoved(brandName);
+
             if (brand.getStreamManager() != null) {
                 brand.getStreamManager().shutdown();
             }
@@ -257,6 +304,11 @@ public class RadioStationPool {
         }
     }
 
+    private void onStatusChanged(IStream stream) {
+        stationDirectory.onStreamChanged(stream);
+        statusSnapshots.onStreamChanged(stream);
+    }
+
     public Collection<IStream> getOnlineStationsSnapshot() {
         return new ArrayList<>(pool.values());
     }
@@ -0,0 +1,249 @@
+package io.kneo.broadcaster.service.stream;
+
+import io.kneo.broadcaster.model.soundfragment.SoundFragment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Picks the songs of a scene so that their lengths plus one DJ intro each add up as close as
+ * possible to the scene's music time. This is a bounded subset sum over whole seconds, solved
+ * exactly over the candidate pool; a plan may run over the target only if that lands closer than
+ * any plan that stays under it, and by no more than one song. Before solving, the pool is thinned
+ * so that no artist appears more than {@value #MAX_SONGS_PER_ARTIST} time(s) and no genre takes
+ * more than half of the expected songs; the caps are lifted if the thinned pool cannot fill the
+ * scene. The chosen songs are ordered so that neighbours differ in artist and, where possible,
+ * in genre.
+ */
+public final class ScenePackingPlanner {
+    public static final int MAX_SONGS_PER_ARTIST = 1;
+    public static final double MAX_GENRE_SHARE = 0.5;
+    static final int DEFAULT_SONG_SECONDS = 180;
+    private static final int MAX_CANDIDATES = 400;
+
+    private ScenePackingPlanner() {
+    }
+
+    public record Plan(List<SoundFragment> songs, int plannedSeconds, int targetSeconds) {
+        /**
+         * Planned minus target seconds; negative when the scene under-runs.
+         */
+        public int getError() {
+            return plannedSeconds - targetSeconds;
+        }
+    }
+
+    /**
+     * How many candidates to fetch for a scene: one per minute of scene plus a few spare. With a
+     * typical song and its intro taking about 210s, that is roughly three and a half times as many
+     * songs as could fit, so the planner has room to choose and the diversity caps can still fill
+     * the scene.
+     */
+    public static int candidatePoolSize(int sceneDurationSeconds) {
+        return sceneDurationSeconds / 60 + 4;
+    }
+
+    public static Plan plan(List<SoundFragment> pool, int targetSeconds, int introSeconds) {
+        return plan(pool, targetSeconds, introSeconds, MAX_SONGS_PER_ARTIST, MAX_GENRE_SHARE);
+    }
+
+    public static Plan plan(List<SoundFragment> pool, int targetSeconds, int introSeconds,
+                            int maxPerArtist, double maxGenreShare) {
+        List<SoundFragment> unique = distinct(pool);
+        if (unique.isEmpty() || targetSeconds <= 0) {
+            return new Plan(List.of(), 0, Math.max(targetSeconds, 0));
+        }
+
+        long totalCost = 0;
+        for (SoundFragment song : unique) {
+            totalCost += cost(song, introSeconds);
+        }
+        int expectedSongs = (int) Math.max(1, Math.round(targetSeconds / ((double) totalCost / unique.size())));
+        int genreCap = Math.max(1, (int) Math.ceil(expectedSongs * maxGenreShare));
+
+        List<SoundFragment> candidates = diverse(unique, maxPerArtist, genreCap);
+        if (totalCost(candidates, introSeconds) < targetSeconds) {
+            candidates = diverse(unique, maxPerArtist, Integer.MAX_VALUE);
+        }
+        if (totalCost(candidates, introSeconds) < targetSeconds) {
+            candidates = unique;
+        }
+        if (candidates.size() > MAX_CANDIDATES) {
+            candidates = candidates.subList(0, MAX_CANDIDATES);
+        }
+
+        List<SoundFragment> chosen = solve(candidates, targetSeconds, introSeconds);
+        if (chosen.isEmpty()) {
+            // nothing fits: play the shortest song rather than leave the scene without music
+            SoundFragment shortest = candidates.get(0);
+            for (SoundFragment song : candidates) {
+                if (cost(song, introSeconds) < cost(shortest, introSeconds)) {
+                    shortest = song;
+                }
+            }
+            chosen = List.of(shortest);
+        }
+        return new Plan(order(chosen), totalCost(chosen, introSeconds), targetSeconds);
+    }
+
+    private static List<SoundFragment> solve(List<SoundFragment> candidates, int target, int introSeconds) {
+        int[] costs = new int[candidates.size()];
+        int maxCost = 0;
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = cost(candidates.get(i), introSeconds);
+            maxCost = Math.max(maxCost, costs[i]);
+        }
+        int upper = target + Math.min(maxCost, target);
+
+        // via[s] is the item whose addition first reached sum s; -1 = unreachable
+        int[] via = new int[upper + 1];
+        Arrays.fill(via, -1);
+        via[0] = Integer.MAX_VALUE;
+        for (int i = 0; i < costs.length && via[target] == -1; i++) {
+            int c = costs[i];
+            for (int s = upper; s >= c; s--) {
+                if (via[s] == -1 && via[s - c] != -1) {
+                    via[s] = i;
+                }
+            }
+        }
+
+        int best = 0;
+        for (int d = 0; d <= target; d++) {
+            if (target - d > 0 && via[target - d] != -1) {
+                best = target - d;
+                break;
+            }
+            if (target + d <= upper && via[target + d] != -1) {
+                best = target + d;
+                break;
+            }
+        }
+
+        List<SoundFragment> chosen = new ArrayList<>();
+        for (int s = best; s > 0; s -= costs[via[s]]) {
+            chosen.add(candidates.get(via[s]));
+        }
+        return chosen;
+    }
+
+    /**
+     * Keeps pool order, skipping songs whose artist or genres are already at their cap.
+     */
+    private static List<SoundFragment> diverse(List<SoundFragment> pool, int maxPerArtist, int maxPerGenre) {
+        Map<String, Integer> perArtist = new HashMap<>();
+        Map<UUID, Integer> perGenre = new HashMap<>();
+        List<SoundFragment> kept = new ArrayList<>();
+        for (SoundFragment song : pool) {
+            String artist = artistKey(song);
+            if (artist != null && perArtist.getOrDefault(artist, 0) >= maxPerArtist) {
+                continue;
+            }
+            List<UUID> genres = song.getGenres() != null ? song.getGenres() : List.of();
+            boolean genreFull = false;
+            for (UUID genre : genres) {
+                if (perGenre.getOrDefault(genre, 0) >= maxPerGenre) {
+                    genreFull = true;
+                    break;
+                }
+            }
+            if (genreFull) {
+                continue;
+            }
+            kept.add(song);
+            if (artist != null) {
+                perArtist.merge(artist, 1, Integer::sum);
+            }
+            for (UUID genre : genres) {
+                perGenre.merge(genre, 1, Integer::sum);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Orders the songs so that each one differs from the previous in artist and, when some
+     * remaining song allows it, in genre.
+     */
+    private static List<SoundFragment> order(List<SoundFragment> songs) {
+        LinkedList<SoundFragment> remaining = new LinkedList<>(songs);
+        List<SoundFragment> ordered = new ArrayList<>(songs.size());
+        SoundFragment previous = null;
+        while (!remaining.isEmpty()) {
+            SoundFragment next = null;
+            SoundFragment otherArtist = null;
+            for (SoundFragment song : remaining) {
+                boolean sameArtist = previous != null && artistKey(song) != null
+                        && artistKey(song).equals(artistKey(previous));
+                if (sameArtist) {
+                    continue;
+                }
+                if (otherArtist == null) {
+                    otherArtist = song;
+                }
+                if (previous == null || !sharesGenre(song, previous)) {
+                    next = song;
+                    break;
+                }
+            }
+            if (next == null) {
+                next = otherArtist != null ? otherArtist : remaining.getFirst();
+            }
+            remaining.remove(next);
+            ordered.add(next);
+            previous = next;
+        }
+        return ordered;
+    }
+
+    private static boolean sharesGenre(SoundFragment a, SoundFragment b) {
+        if (a.getGenres() == null || b.getGenres() == null) {
+            return false;
+        }
+        for (UUID genre : a.getGenres()) {
+            if (b.getGenres().contains(genre)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<SoundFragment> distinct(List<SoundFragment> pool) {
+        if (pool == null) {
+            return List.of();
+        }
+        Set<Object> seen = new HashSet<>();
+        List<SoundFragment> unique = new ArrayList<>(pool.size());
+        for (SoundFragment song : pool) {
+            if (song != null && seen.add(Objects.requireNonNullElse(song.getId(), song))) {
+                unique.add(song);
+            }
+        }
+        return unique;
+    }
+
+    private static String artistKey(SoundFragment song) {
+        return song.getArtist() != null && !song.getArtist().isBlank() ? song.getArtist().trim().toLowerCase() : null;
+    }
+
+    static int cost(SoundFragment song, int introSeconds) {
+        int length = song.getLength() != null ? (int) song.getLength().toSeconds() : DEFAULT_SONG_SECONDS;
+        return Math.max(1, length + introSeconds);
+    }
+
+    private static int totalCost(List<SoundFragment> songs, int introSeconds) {
+        int total = 0;
+        for (SoundFragment song : songs) {
+            total += cost(song, introSeconds);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,265 @@
+package io.kneo.broadcaster.service.stream;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Live state of one station at a point in time. Segment audio is not part of the checkpoint;
+ * slots and queued fragments only reference segments, the bytes live in the segment store next
+ * to the checkpoint file. The agenda keeps the scenes and songs the station was playing through,
+ * by id, so a restore continues the same agenda instead of drawing a new one. Version 1
+ * checkpoints, without queued segments and agenda, are still read.
+ */
+public record StationCheckpoint(
+        String slugName,
+        long savedAt,
+        long nextSequence,
+        List<Slot> slots,
+        List<QueuedFragment> queuedFragments,
+        Map<UUID, Set<UUID>> fetchedSongsByScene,
+        Agenda agenda
+) {
+    private static final int MAGIC = 0x4B424350; // "KBCP"
+    private static final int VERSION = 2;
+
+    public record Slot(long sequence, boolean live, UUID soundFragmentId, String title, String artist,
+                       boolean firstSegmentOfFragment, List<SegmentRef> segments) {
+    }
+
+    public record SegmentRef(long bitrate, int duration, long timestamp) {
+    }
+
+    /**
+     * A fragment waiting in the queues. {@code segments} lists its sliced segments per bitrate in
+     * play order; it is empty when the fragment has to be sliced again on restore.
+     */
+    public record QueuedFragment(UUID soundFragmentId, int priority, boolean prioritized, String title, String artist,
+                                 String itemType, List<QueuedSegmentRef> segments) {
+    }
+
+    public record QueuedSegmentRef(long bitrate, int index, int duration, long timestamp) {
+    }
+
+    public record Agenda(UUID scriptId, LocalDateTime createdAt, List<AgendaScene> scenes) {
+    }
+
+    public record AgendaScene(UUID sceneId, LocalDateTime scheduledStartTime, int durationSeconds,
+                              LocalTime originalStartTime, LocalTime originalEndTime,
+                              LocalDateTime actualStartTime, LocalDateTime actualEndTime,
+                              String generatedContentStatus, LocalDateTime lastRunDate, List<AgendaSong> songs) {
+    }
+
+    public record AgendaSong(UUID entryId, UUID soundFragmentId, LocalDateTime scheduledStartTime, int durationSeconds) {
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(slugName);
+        out.writeLong(savedAt);
+        out.writeLong(nextSequence);
+
+        out.writeInt(slots.size());
+        for (Slot slot : slots) {
+            out.writeLong(slot.sequence());
+            out.writeBoolean(slot.live());
+            writeUuid(out, slot.soundFragmentId());
+            writeNullableString(out, slot.title());
+            writeNullableString(out, slot.artist());
+            out.writeBoolean(slot.firstSegmentOfFragment());
+            out.writeByte(slot.segments().size());
+            for (SegmentRef ref : slot.segments()) {
+                out.writeLong(ref.bitrate());
+                out.writeInt(ref.duration());
+                out.writeLong(ref.timestamp());
+            }
+        }
+
+        out.writeInt(queuedFragments.size());
+        for (QueuedFragment fragment : queuedFragments) {
+            writeUuid(out, fragment.soundFragmentId());
+            out.writeInt(fragment.priority());
+            out.writeBoolean(fragment.prioritized());
+            writeNullableString(out, fragment.title());
+            writeNullableString(out, fragment.artist());
+            writeNullableString(out, fragment.itemType());
+            out.writeInt(fragment.segments().size());
+            for (QueuedSegmentRef ref : fragment.segments()) {
+                out.writeLong(ref.bitrate());
+                out.writeInt(ref.index());
+                out.writeInt(ref.duration());
+                out.writeLong(ref.timestamp());
+            }
+        }
+
+        out.writeInt(fetchedSongsByScene.size());
+        for (Map.Entry<UUID, Set<UUID>> entry : fetchedSongsByScene.entrySet()) {
+            writeUuid(out, entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (UUID songId : entry.getValue()) {
+                writeUuid(out, songId);
+            }
+        }
+
+        out.writeBoolean(agenda != null);
+        if (agenda != null) {
+            writeUuid(out, agenda.scriptId());
+            writeDateTime(out, agenda.createdAt());
+            out.writeInt(agenda.scenes().size());
+            for (AgendaScene scene : agenda.scenes()) {
+                writeUuid(out, scene.sceneId());
+                writeDateTime(out, scene.scheduledStartTime());
+                out.writeInt(scene.durationSeconds());
+                writeNullableString(out, scene.originalStartTime() != null ? scene.originalStartTime().toString() : null);
+                writeNullableString(out, scene.originalEndTime() != null ? scene.originalEndTime().toString() : null);
+                writeDateTime(out, scene.actualStartTime());
+                writeDateTime(out, scene.actualEndTime());
+                writeNullableString(out, scene.generatedContentStatus());
+                writeDateTime(out, scene.lastRunDate());
+                out.writeInt(scene.songs().size());
+                for (AgendaSong song : scene.songs()) {
+                    writeUuid(out, song.entryId());
+                    writeUuid(out, song.soundFragmentId());
+                    writeDateTime(out, song.scheduledStartTime());
+                    out.writeInt(song.durationSeconds());
+                }
+            }
+        }
+    }
+
+    public static StationCheckpoint readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a station checkpoint");
+        }
+        int version = in.readInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version);
+        }
+        String slugName = in.readUTF();
+        long savedAt = in.readLong();
+        long nextSequence = in.readLong();
+
+        int slotCount = in.readInt();
+        List<Slot> slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            long sequence = in.readLong();
+            boolean live = in.readBoolean();
+            UUID fragmentId = readUuid(in);
+            String title = readNullableString(in);
+            String artist = readNullableString(in);
+            boolean first = in.readBoolean();
+            int refCount = in.readUnsignedByte();
+            List<SegmentRef> refs = new ArrayList<>(refCount);
+            for (int r = 0; r < refCount; r++) {
+                refs.add(new SegmentRef(in.readLong(), in.readInt(), in.readLong()));
+            }
+            slots.add(new Slot(sequence, live, fragmentId, title, artist, first, refs));
+        }
+
+        int queuedCount = in.readInt();
+        List<QueuedFragment> queued = new ArrayList<>(queuedCount);
+        for (int i = 0; i < queuedCount; i++) {
+            UUID fragmentId = readUuid(in);
+            int priority = in.readInt();
+            boolean prioritized = in.readBoolean();
+            if (version == 1) {
+                queued.add(new QueuedFragment(fragmentId, priority, prioritized, null, null, null, List.of()));
+                continue;
+            }
+            String title = readNullableString(in);
+            String artist = readNullableString(in);
+            String itemType = readNullableString(in);
+            int refCount = in.readInt();
+            List<QueuedSegmentRef> refs = new ArrayList<>(refCount);
+            for (int r = 0; r < refCount; r++) {
+                refs.add(new QueuedSegmentRef(in.readLong(), in.readInt(), in.readInt(), in.readLong()));
+            }
+            queued.add(new QueuedFragment(fragmentId, priority, prioritized, title, artist, itemType, refs));
+        }
+
+        int sceneCount = in.readInt();
+        Map<UUID, Set<UUID>> fetched = new HashMap<>(sceneCount);
+        for (int i = 0; i < sceneCount; i++) {
+            UUID sceneId = readUuid(in);
+            int songCount = in.readInt();
+            Set<UUID> songs = new HashSet<>(songCount);
+            for (int s = 0; s < songCount; s++) {
+                songs.add(readUuid(in));
+            }
+            fetched.put(sceneId, songs);
+        }
+
+        Agenda agenda = null;
+        if (version >= 2 && in.readBoolean()) {
+            UUID scriptId = readUuid(in);
+            LocalDateTime createdAt = readDateTime(in);
+            int sceneTotal = in.readInt();
+            List<AgendaScene> scenes = new ArrayList<>(sceneTotal);
+            for (int i = 0; i < sceneTotal; i++) {
+                UUID sceneId = readUuid(in);
+                LocalDateTime scheduledStart = readDateTime(in);
+                int durationSeconds = in.readInt();
+                String originalStart = readNullableString(in);
+                String originalEnd = readNullableString(in);
+                LocalDateTime actualStart = readDateTime(in);
+                LocalDateTime actualEnd = readDateTime(in);
+                String generatedContentStatus = readNullableString(in);
+                LocalDateTime lastRunDate = readDateTime(in);
+                int songCount = in.readInt();
+                List<AgendaSong> songs = new ArrayList<>(songCount);
+                for (int s = 0; s < songCount; s++) {
+                    songs.add(new AgendaSong(readUuid(in), readUuid(in), readDateTime(in), in.readInt()));
+                }
+                scenes.add(new AgendaScene(sceneId, scheduledStart, durationSeconds,
+                        originalStart != null ? LocalTime.parse(originalStart) : null,
+                        originalEnd != null ? LocalTime.parse(originalEnd) : null,
+                        actualStart, actualEnd, generatedContentStatus, lastRunDate, songs));
+            }
+            agenda = new Agenda(scriptId, createdAt, scenes);
+        }
+
+        return new StationCheckpoint(slugName, savedAt, nextSequence, slots, queued, fetched, agenda);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        writeNullableString(out, value != null ? value.toString() : null);
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        String value = readNullableString(in);
+        return value != null ? LocalDateTime.parse(value) : null;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
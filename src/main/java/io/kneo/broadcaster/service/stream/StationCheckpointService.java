@@ -0,0 +1,564 @@
+package io.kneo.broadcaster.service.stream;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.model.cnst.PlaylistItemType;
+import io.kneo.broadcaster.model.live.LiveSoundFragment;
+import io.kneo.broadcaster.model.live.SongMetadata;
+import io.kneo.broadcaster.model.stream.IStream;
+import io.kneo.broadcaster.model.stream.LiveScene;
+import io.kneo.broadcaster.model.stream.PendingSongEntry;
+import io.kneo.broadcaster.model.stream.RadioStream;
+import io.kneo.broadcaster.model.stream.StreamAgenda;
+import io.kneo.broadcaster.service.playlist.PlaylistManager;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import static io.smallrye.mutiny.infrastructure.Infrastructure.getDefaultWorkerPool;
+
+/**
+ * Periodically checkpoints live radio stations to local disk and brings them back on startup, so a
+ * redeploy does not send every station through warm-up again and listeners keep a continuous media
+ * sequence. Each station gets {@code <slug>.ckpt} plus a segment store directory holding the
+ * already sliced segments, both those in the playlist window and those of the fragments waiting in
+ * the queues; segments are written once and dropped when they fall out of the checkpoint. A
+ * restore takes the segments back from the store and re-slices only queued fragments whose
+ * segments are missing, and it continues the saved agenda at the scene and song it had reached.
+ * The same snapshot, with the segment bytes inlined, is what a cluster node hands to the next
+ * owner of a station.
+ */
+@ApplicationScoped
+public class StationCheckpointService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StationCheckpointService.class);
+    private static final String CHECKPOINT_SUFFIX = ".ckpt";
+    private static final String SEGMENT_SUFFIX = ".ts";
+    private static final int CAPTURE_DEADLINE_SECONDS = 5;
+
+    private final RadioStationPool radioStationPool;
+    private final BroadcasterConfig broadcasterConfig;
+
+    private volatile boolean restoreCompleted = false;
+
+    @Inject
+    public StationCheckpointService(RadioStationPool radioStationPool, BroadcasterConfig broadcasterConfig) {
+        this.radioStationPool = radioStationPool;
+        this.broadcasterConfig = broadcasterConfig;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        Path root = root();
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            LOGGER.error("Cannot create checkpoint directory {}, warm restart disabled", root, e);
+            return;
+        }
+        List<Path> checkpoints = listCheckpoints();
+        if (checkpoints.isEmpty()) {
+            restoreCompleted = true;
+            return;
+        }
+        LOGGER.info("Found {} station checkpoints, restoring", checkpoints.size());
+        Multi.createFrom().iterable(checkpoints)
+                .onItem().transformToUniAndMerge(this::restore)
+                .collect().asList()
+                .runSubscriptionOn(getDefaultWorkerPool())
+                .subscribe().with(
+                        restored -> {
+                            restoreCompleted = true;
+                            LOGGER.info("Warm restart finished, {} of {} stations restored",
+                                    restored.stream().filter(Boolean::booleanValue).count(), checkpoints.size());
+                        },
+                        failure -> {
+                            restoreCompleted = true;
+                            LOGGER.error("Warm restart failed", failure);
+                        });
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        LOGGER.info("Writing final station checkpoints");
+        checkpointAll();
+    }
+
+    @Scheduled(every = "15s", identity = "station-checkpoint")
+    void scheduledCheckpoint() {
+        if (restoreCompleted) {
+            checkpointAll();
+        }
+    }
+
+    /**
+     * Captures every running station at once and waits for all of them under one deadline. A
+     * station that cannot be captured or written keeps its previous checkpoint; only checkpoints of
+     * stations that are no longer in the pool are deleted.
+     */
+    private void checkpointAll() {
+        List<PendingCapture> captures = new ArrayList<>();
+        for (IStream stream : radioStationPool.getOnlineStationsSnapshot()) {
+            if (stream instanceof RadioStream radioStream && stream.getStreamManager() instanceof StreamManager streamManager) {
+                try {
+                    captures.add(new PendingCapture(radioStream, streamManager, streamManager.requestLiveState()));
+                } catch (RejectedExecutionException e) {
+                    LOGGER.debug("Station {} is stopping, not checkpointed", stream.getSlugName());
+                }
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CAPTURE_DEADLINE_SECONDS);
+        for (PendingCapture capture : captures) {
+            String slug = capture.stream().getSlugName();
+            try {
+                StreamManager.LiveState state = capture.state()
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                write(capture.stream(), capture.streamManager(), state);
+            } catch (TimeoutException e) {
+                capture.state().cancel(false);
+                LOGGER.warn("Checkpoint of station {} timed out, keeping the previous one", slug);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOGGER.warn("Checkpoint of station {} failed, keeping the previous one: {}", slug, e.getMessage());
+            }
+        }
+
+        Set<String> running = radioStationPool.getActiveSnapshot();
+        for (Path file : listCheckpoints()) {
+            String slug = slugOf(file);
+            if (!running.contains(slug)) {
+                delete(slug);
+            }
+        }
+    }
+
+    /**
+     * Serializes a running station together with its segment bytes so another node can continue it
+     * at the same media sequence. Returns {@code null} if the station is not live here.
+     */
+    public byte[] exportHandover(String slug) throws IOException {
+        IStream stream = radioStationPool.getStation(slug);
+        if (!(stream instanceof RadioStream radioStream)
+                || !(stream.getStreamManager() instanceof StreamManager streamManager)) {
+            return null;
+        }
+        Map<String, byte[]> segments = new HashMap<>();
+        StationCheckpoint checkpoint;
+        try {
+            checkpoint = capture(radioStream, streamManager.captureLiveState(), streamManager, segments);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Cannot capture station " + slug, e);
+        }
+        if (checkpoint == null) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            checkpoint.writeTo(out);
+            out.writeInt(segments.size());
+            for (Map.Entry<String, byte[]> segment : segments.entrySet()) {
+                out.writeUTF(segment.getKey());
+                out.writeInt(segment.getValue().length);
+                out.write(segment.getValue());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Starts a station from a payload produced by {@link #exportHandover} on another node.
+     */
+    public Uni<Boolean> importHandover(String slug, byte[] payload) {
+        if (radioStationPool.getStation(slug) != null) {
+            LOGGER.info("Station {} is already running here, ignoring handover", slug);
+            return Uni.createFrom().item(true);
+        }
+        StationCheckpoint checkpoint;
+        Restored restored;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            checkpoint = StationCheckpoint.readFrom(in);
+            int count = in.readInt();
+            Map<String, byte[]> segments = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String fileName = in.readUTF();
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                segments.put(fileName, data);
+            }
+            restored = load(checkpoint, fileName -> {
+                byte[] data = segments.get(fileName);
+                if (data == null) {
+                    throw new NoSuchFileException("Handover is missing segment " + fileName);
+                }
+                return data;
+            });
+        } catch (IOException e) {
+            LOGGER.warn("Unreadable handover for station {}: {}", slug, e.getMessage());
+            return Uni.createFrom().item(false);
+        }
+        if (!slug.equals(checkpoint.slugName())) {
+            LOGGER.warn("Handover for station {} carries station {}", slug, checkpoint.slugName());
+            return Uni.createFrom().item(false);
+        }
+        return activate(slug, checkpoint, restored);
+    }
+
+    private void write(RadioStream stream, StreamManager streamManager, StreamManager.LiveState state) throws IOException {
+        Map<String, byte[]> segments = new HashMap<>();
+        StationCheckpoint checkpoint = capture(stream, state, streamManager, segments);
+        if (checkpoint == null) {
+            return;
+        }
+        String slug = stream.getSlugName();
+        Path segmentDir = root().resolve(slug);
+        Files.createDirectories(segmentDir);
+        for (Map.Entry<String, byte[]> segment : segments.entrySet()) {
+            Path file = segmentDir.resolve(segment.getKey());
+            if (!Files.exists(file)) {
+                Path tmp = segmentDir.resolve(segment.getKey() + ".tmp");
+                Files.write(tmp, segment.getValue());
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        Path target = root().resolve(slug + CHECKPOINT_SUFFIX);
+        Path tmp = root().resolve(slug + CHECKPOINT_SUFFIX + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            checkpoint.writeTo(out);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        try (Stream<Path> files = Files.list(segmentDir)) {
+            files.filter(f -> !segments.containsKey(f.getFileName().toString()))
+                    .forEach(StationCheckpointService::deleteQuietly);
+        }
+    }
+
+    /**
+     * Turns a captured live state of a station into a checkpoint; the segments it references are added to
+     * {@code segments} by file name. Returns {@code null} while nothing is live yet.
+     */
+    private StationCheckpoint capture(RadioStream stream, StreamManager.LiveState state, StreamManager streamManager,
+                                      Map<String, byte[]> segments) {
+        if (state.live().isEmpty()) {
+            return null;
+        }
+        List<StationCheckpoint.Slot> slots = new ArrayList<>();
+        for (Map<Long, HlsSegment> slot : state.live()) {
+            slots.add(toSlot(slot, true, segments));
+        }
+        for (Map<Long, HlsSegment> slot : state.pending()) {
+            slots.add(toSlot(slot, false, segments));
+        }
+
+        List<StationCheckpoint.QueuedFragment> queued = new ArrayList<>();
+        for (PlaylistManager.QueuedEntry entry : streamManager.getPlaylistManager().snapshotQueued()) {
+            queued.add(toQueued(entry, segments));
+        }
+
+        Map<UUID, Set<UUID>> fetched = new HashMap<>();
+        stream.getFetchedSongsByScene().forEach((sceneId, songs) -> fetched.put(sceneId, new HashSet<>(songs)));
+        return new StationCheckpoint(
+                stream.getSlugName(),
+                System.currentTimeMillis(),
+                state.nextSequence(),
+                slots,
+                queued,
+                fetched,
+                toAgenda(stream)
+        );
+    }
+
+    private StationCheckpoint.Slot toSlot(Map<Long, HlsSegment> slot, boolean live, Map<String, byte[]> segments) {
+        HlsSegment any = slot.values().iterator().next();
+        List<StationCheckpoint.SegmentRef> refs = new ArrayList<>(slot.size());
+        for (Map.Entry<Long, HlsSegment> entry : slot.entrySet()) {
+            HlsSegment segment = entry.getValue();
+            segments.put(segmentFileName(segment.getSequence(), entry.getKey(), segment.getTimestamp()), segment.getData());
+            refs.add(new StationCheckpoint.SegmentRef(entry.getKey(), segment.getDuration(), segment.getTimestamp()));
+        }
+        LiveSoundFragment fragment = any.getLiveSoundFragment();
+        SongMetadata metadata = any.getSongMetadata();
+        return new StationCheckpoint.Slot(
+                any.getSequence(),
+                live,
+                fragment != null ? fragment.getSoundFragmentId() : null,
+                metadata != null ? metadata.getTitle() : null,
+                metadata != null ? metadata.getArtist() : null,
+                any.isFirstSegmentOfFragment(),
+                refs
+        );
+    }
+
+    private StationCheckpoint.QueuedFragment toQueued(PlaylistManager.QueuedEntry entry, Map<String, byte[]> segments) {
+        LiveSoundFragment fragment = entry.fragment();
+        List<StationCheckpoint.QueuedSegmentRef> refs = new ArrayList<>();
+        if (fragment.getSegments() != null) {
+            for (Map.Entry<Long, ConcurrentLinkedQueue<HlsSegment>> bitrate : fragment.getSegments().entrySet()) {
+                int index = 0;
+                for (HlsSegment segment : bitrate.getValue()) {
+                    segments.put(queuedSegmentFileName(entry.soundFragmentId(), bitrate.getKey(), index, segment.getTimestamp()),
+                            segment.getData());
+                    refs.add(new StationCheckpoint.QueuedSegmentRef(bitrate.getKey(), index, segment.getDuration(), segment.getTimestamp()));
+                    index++;
+                }
+            }
+        }
+        SongMetadata metadata = fragment.getMetadata();
+        return new StationCheckpoint.QueuedFragment(
+                entry.soundFragmentId(),
+                entry.priority(),
+                entry.prioritized(),
+                metadata != null ? metadata.getTitle() : null,
+                metadata != null ? metadata.getArtist() : null,
+                metadata != null && metadata.getItemType() != null ? metadata.getItemType().name() : null,
+                refs
+        );
+    }
+
+    private static StationCheckpoint.Agenda toAgenda(RadioStream stream) {
+        StreamAgenda agenda = stream.getStreamAgenda();
+        if (agenda == null || stream.getScripts() == null || stream.getScripts().isEmpty()) {
+            return null;
+        }
+        List<StationCheckpoint.AgendaScene> scenes = new ArrayList<>();
+        for (LiveScene scene : agenda.getLiveScenes()) {
+            List<StationCheckpoint.AgendaSong> songs = new ArrayList<>();
+            for (PendingSongEntry song : scene.getSongs()) {
+                songs.add(new StationCheckpoint.AgendaSong(song.getId(), song.getSoundFragment().getId(),
+                        song.getScheduledStartTime(), song.getDurationSeconds()));
+            }
+            scenes.add(new StationCheckpoint.AgendaScene(
+                    scene.getSceneId(),
+                    scene.getScheduledStartTime(),
+                    scene.getDurationSeconds(),
+                    scene.getOriginalStartTime(),
+                    scene.getOriginalEndTime(),
+                    scene.getActualStartTime(),
+                    scene.getActualEndTime(),
+                    scene.getGeneratedContentStatus() != null ? scene.getGeneratedContentStatus().name() : null,
+                    scene.getLastRunDate(),
+                    songs
+            ));
+        }
+        return new StationCheckpoint.Agenda(stream.getScripts().getFirst().getScriptId(), agenda.getCreatedAt(), scenes);
+    }
+
+    private Uni<Boolean> restore(Path file) {
+        String slug = slugOf(file);
+        StationCheckpoint checkpoint;
+        Restored restored;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            checkpoint = StationCheckpoint.readFrom(in);
+            long ageSeconds = (System.currentTimeMillis() - checkpoint.savedAt()) / 1000;
+            if (ageSeconds > broadcasterConfig.getCheckpointMaxAgeSeconds()) {
+                LOGGER.info("Checkpoint of station {} is {}s old, starting cold", slug, ageSeconds);
+                delete(slug);
+                return Uni.createFrom().item(false);
+            }
+            Path segmentDir = root().resolve(slug);
+            restored = load(checkpoint, fileName -> Files.readAllBytes(segmentDir.resolve(fileName)));
+        } catch (IOException e) {
+            LOGGER.warn("Unreadable checkpoint for station {}, starting cold: {}", slug, e.getMessage());
+            delete(slug);
+            return Uni.createFrom().item(false);
+        }
+        return activate(slug, checkpoint, restored);
+    }
+
+    private Uni<Boolean> activate(String slug, StationCheckpoint checkpoint, Restored restored) {
+        return radioStationPool.restoreRadio(slug, checkpoint.agenda())
+                .map(stream -> {
+                    if (!(stream instanceof RadioStream radioStream)
+                            || !(stream.getStreamManager() instanceof StreamManager streamManager)) {
+                        return false;
+                    }
+                    radioStream.getFetchedSongsByScene().putAll(checkpoint.fetchedSongsByScene());
+                    streamManager.restoreLiveState(restored.state());
+                    streamManager.getPlaylistManager().restoreQueued(restored.queued())
+                            .subscribe().with(
+                                    count -> LOGGER.info("Restored {} of {} queued fragments for station {}, {} from the segment store",
+                                            count, restored.queued().size(), slug, restored.fromStore()),
+                                    failure -> LOGGER.warn("Restoring queue of station {} failed", slug, failure));
+                    return true;
+                })
+                .onFailure().recoverWithItem(failure -> {
+                    LOGGER.warn("Restoring station {} failed: {}", slug, failure.getMessage());
+                    return false;
+                });
+    }
+
+    /**
+     * Reads the segments a checkpoint references. Slot segments must all be there; a queued
+     * fragment with a missing segment comes back without its segments and is sliced again.
+     */
+    private Restored load(StationCheckpoint checkpoint, SegmentSource source) throws IOException {
+        StreamManager.LiveState state = loadSegments(checkpoint, source);
+        List<PlaylistManager.QueuedEntry> queued = new ArrayList<>();
+        int fromStore = 0;
+        for (StationCheckpoint.QueuedFragment fragment : checkpoint.queuedFragments()) {
+            LiveSoundFragment restored = loadQueued(fragment, source);
+            if (restored != null) {
+                fromStore++;
+            }
+            queued.add(new PlaylistManager.QueuedEntry(fragment.soundFragmentId(), fragment.priority(), fragment.prioritized(), restored));
+        }
+        return new Restored(state, queued, fromStore);
+    }
+
+    private LiveSoundFragment loadQueued(StationCheckpoint.QueuedFragment queued, SegmentSource source) throws IOException {
+        if (queued.segments().isEmpty()) {
+            return null;
+        }
+        SongMetadata metadata = new SongMetadata(queued.title(), queued.artist());
+        metadata.setSoundFragmentId(queued.soundFragmentId());
+        if (queued.itemType() != null) {
+            metadata.setItemType(PlaylistItemType.valueOf(queued.itemType()));
+        }
+        Map<Long, ConcurrentLinkedQueue<HlsSegment>> segments = new HashMap<>();
+        for (StationCheckpoint.QueuedSegmentRef ref : queued.segments()) {
+            byte[] data;
+            try {
+                data = source.read(queuedSegmentFileName(queued.soundFragmentId(), ref.bitrate(), ref.index(), ref.timestamp()));
+            } catch (NoSuchFileException e) {
+                LOGGER.debug("Segment {} of queued fragment {} is gone, slicing it again", ref.index(), queued.soundFragmentId());
+                return null;
+            }
+            segments.computeIfAbsent(ref.bitrate(), b -> new ConcurrentLinkedQueue<>())
+                    .add(new HlsSegment(0, data, ref.duration(), metadata, ref.timestamp()));
+        }
+        LiveSoundFragment fragment = new LiveSoundFragment();
+        fragment.setSoundFragmentId(queued.soundFragmentId());
+        fragment.setMetadata(metadata);
+        fragment.setSegments(segments);
+        return fragment;
+    }
+
+    private StreamManager.LiveState loadSegments(StationCheckpoint checkpoint, SegmentSource source) throws IOException {
+        List<Map<Long, HlsSegment>> live = new ArrayList<>();
+        List<Map<Long, HlsSegment>> pending = new ArrayList<>();
+        LiveSoundFragment currentFragment = null;
+
+        for (StationCheckpoint.Slot slot : checkpoint.slots()) {
+            if (currentFragment == null || slot.firstSegmentOfFragment()
+                    || !Objects.equals(currentFragment.getSoundFragmentId(), slot.soundFragmentId())) {
+                currentFragment = new LiveSoundFragment();
+                currentFragment.setSoundFragmentId(slot.soundFragmentId());
+                SongMetadata metadata = new SongMetadata(slot.title(), slot.artist());
+                metadata.setSoundFragmentId(slot.soundFragmentId());
+                currentFragment.setMetadata(metadata);
+            }
+            Map<Long, HlsSegment> restored = new HashMap<>();
+            for (StationCheckpoint.SegmentRef ref : slot.segments()) {
+                byte[] data = source.read(segmentFileName(slot.sequence(), ref.bitrate(), ref.timestamp()));
+                HlsSegment segment = new HlsSegment(slot.sequence(), data, ref.duration(),
+                        currentFragment.getMetadata(), ref.timestamp());
+                segment.setLiveSoundFragment(currentFragment);
+                segment.setFirstSegmentOfFragment(slot.firstSegmentOfFragment());
+                restored.put(ref.bitrate(), segment);
+            }
+            (slot.live() ? live : pending).add(restored);
+        }
+        return new StreamManager.LiveState(checkpoint.nextSequence(), live, pending);
+    }
+
+    private List<Path> listCheckpoints() {
+        Path root = root();
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(root)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(CHECKPOINT_SUFFIX))
+                    .sorted(Comparator.comparing(Path::toString))
+                    .toList();
+        } catch (IOException e) {
+            LOGGER.warn("Cannot list checkpoints in {}: {}", root, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void delete(String slug) {
+        deleteQuietly(root().resolve(slug + CHECKPOINT_SUFFIX));
+        Path segmentDir = root().resolve(slug);
+        if (Files.isDirectory(segmentDir)) {
+            try (Stream<Path> files = Files.list(segmentDir)) {
+                files.forEach(StationCheckpointService::deleteQuietly);
+            } catch (IOException e) {
+                LOGGER.debug("Cannot clear segment store {}: {}", segmentDir, e.getMessage());
+            }
+            deleteQuietly(segmentDir);
+        }
+    }
+
+    private Path root() {
+        return Paths.get(broadcasterConfig.getCheckpointPath());
+    }
+
+    private static String slugOf(Path checkpointFile) {
+        String name = checkpointFile.getFileName().toString();
+        return name.substring(0, name.length() - CHECKPOINT_SUFFIX.length());
+    }
+
+    private static String segmentFileName(long sequence, long bitrate, long timestamp) {
+        return sequence + "_" + bitrate + "_" + timestamp + SEGMENT_SUFFIX;
+    }
+
+    private static String queuedSegmentFileName(UUID soundFragmentId, long bitrate, int index, long timestamp) {
+        return "q_" + soundFragmentId + "_" + bitrate + "_" + index + "_" + timestamp + SEGMENT_SUFFIX;
+    }
+
+    private record Restored(StreamManager.LiveState state, List<PlaylistManager.QueuedEntry> queued, int fromStore) {
+    }
+
+    private record PendingCapture(RadioStream stream, StreamManager streamManager, Future<StreamManager.LiveState> state) {
+    }
+
+    @FunctionalInterface
+    private interface SegmentSource {
+        byte[] read(String fileName) throws IOException;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.debug("Cannot delete {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -5,9 +5,10 @@ import io.kneo.broadcaster.model.PlaylistRequest;
 import io.kneo.broadcaster.model.Scene;
 import io.kneo.broadcaster.model.Script;
 import io.kneo.broadcaster.model.brand.Brand;
-import io.kneo.broadcaster.model.cnst.PlaylistItemType;
+import io.kneo.broadcaster.model.cnst.GeneratedContentStatus;
 import io.kneo.broadcaster.model.cnst.WayOfSourcing;
 import io.kneo.broadcaster.model.soundfragment.SoundFragment;
+import io.kneo.broadcaster.model.stream.AgendaCatalog;
 import io.kneo.broadcaster.model.stream.LiveScene;
 import io.kneo.broadcaster.model.stream.PendingSongEntry;
 import io.kneo.broadcaster.model.stream.StreamAgenda;
@@ -16,27 +17,38 @@ import io.kneo.broadcaster.service.SceneService;
 import io.kneo.broadcaster.service.ScriptService;
 import io.kneo.core.model.user.IUser;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.security.SecureRandom;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NavigableSet;
 import java.util.TreeSet;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * Builds stream agendas from a script's scenes. The catalog comes from {@link AgendaDataLoader};
+ * sampling and packing the scenes runs on a worker thread, off the event loop that delivered it.
+ * A station restored from a checkpoint gets its saved agenda back instead of a new one.
+ */
 @ApplicationScoped
 public class StreamAgendaService {
     private static final Logger LOGGER = LoggerFactory.getLogger(StreamAgendaService.class);
     private static final int AVG_DJ_INTRO_SECONDS = 30;
 
+    private final SecureRandom random = new SecureRandom();
+
     @Inject
     BrandService brandService;
 
@@ -44,7 +56,7 @@ public class StreamAgendaService {
     ScriptService scriptService;
 
     @Inject
-    ScheduleSongSupplier scheduleSongSupplier;
+    AgendaDataLoader agendaDataLoader;
 
     @Inject
     SceneService sceneService;
@@ -62,7 +74,7 @@ public class StreamAgendaService {
                                                     addAll(list);
                                                 }})
                                                 .invoke(script::setScenes)
-                                                .chain(x -> build(script, sourceBrand, scheduleSongSupplier))
+                                                .chain(x -> build(script, sourceBrand, agendaDataLoader))
                                 )
                 );
     }
@@ -94,13 +106,85 @@ public class StreamAgendaService {
                                                     addAll(list);
                                                 }})
                                                 .invoke(script::setScenes)
-                                                .chain(x -> buildAgenda(script, sourceBrand, scheduleSongSupplier))
+                                                .chain(x -> buildAgenda(script, sourceBrand, agendaDataLoader))
                                 )
                 );
     }
 
 
-    public Uni<StreamAgenda> build(Script script, Brand sourceBrand, ScheduleSongSupplier songSupplier) {
+    /**
+     * Rebuilds the agenda a station was running from its checkpoint: the same scenes at the same
+     * times with the same songs, so the station carries on where it was instead of drawing a new
+     * agenda. Scene definitions and songs are looked up by id. Emits {@code null} when the agenda
+     * no longer fits the brand, that is the brand switched scripts or a scene was deleted; songs
+     * archived since are left out.
+     */
+    public Uni<StreamAgenda> restoreRadioStreamAgenda(UUID scriptId, StationCheckpoint.Agenda saved, IUser user) {
+        if (saved == null || !scriptId.equals(saved.scriptId())) {
+            return Uni.createFrom().nullItem();
+        }
+        return sceneService.getAllWithPromptIds(scriptId, 100, 0, user)
+                .chain(sceneList -> {
+                    Map<UUID, Scene> scenes = new HashMap<>();
+                    sceneList.forEach(scene -> scenes.put(scene.getId(), scene));
+                    List<UUID> songIds = new ArrayList<>();
+                    for (StationCheckpoint.AgendaScene savedScene : saved.scenes()) {
+                        if (!scenes.containsKey(savedScene.sceneId())) {
+                            LOGGER.info("Scene {} of the saved agenda is gone, not restoring it", savedScene.sceneId());
+                            return Uni.createFrom().<StreamAgenda>nullItem();
+                        }
+                        savedScene.songs().forEach(song -> songIds.add(song.soundFragmentId()));
+                    }
+                    return agendaDataLoader.loadFragments(songIds)
+                            .map(fragments -> {
+                                StreamAgenda agenda = new StreamAgenda(saved.createdAt());
+                                for (StationCheckpoint.AgendaScene savedScene : saved.scenes()) {
+                                    agenda.addScene(toLiveScene(scenes.get(savedScene.sceneId()), savedScene, fragments));
+                                }
+                                return agenda;
+                            });
+                });
+    }
+
+    private LiveScene toLiveScene(Scene scene, StationCheckpoint.AgendaScene saved, Map<UUID, SoundFragment> fragments) {
+        PlaylistRequest playlistRequest = scene.getPlaylistRequest();
+        LiveScene entry = new LiveScene(
+                scene.getId(),
+                scene.getTitle(),
+                saved.scheduledStartTime(),
+                saved.durationSeconds(),
+                saved.originalStartTime(),
+                saved.originalEndTime(),
+                playlistRequest != null ? playlistRequest.getSourcing() : null,
+                playlistRequest != null ? playlistRequest.getTitle() : null,
+                playlistRequest != null ? playlistRequest.getArtist() : null,
+                playlistRequest != null ? playlistRequest.getGenres() : null,
+                playlistRequest != null ? playlistRequest.getLabels() : null,
+                playlistRequest != null ? playlistRequest.getType() : null,
+                playlistRequest != null ? playlistRequest.getSource() : null,
+                playlistRequest != null ? playlistRequest.getSearchTerm() : null,
+                playlistRequest != null ? playlistRequest.getSoundFragments() : null,
+                playlistRequest != null ? playlistRequest.getContentPrompts() : null,
+                scene.isOneTimeRun(),
+                scene.getTalkativity(),
+                scene.getIntroPrompts()
+        );
+        entry.setActualStartTime(saved.actualStartTime());
+        entry.setActualEndTime(saved.actualEndTime());
+        entry.setLastRunDate(saved.lastRunDate());
+        if (saved.generatedContentStatus() != null) {
+            entry.setGeneratedContentStatus(GeneratedContentStatus.valueOf(saved.generatedContentStatus()));
+        }
+        for (StationCheckpoint.AgendaSong song : saved.songs()) {
+            SoundFragment fragment = fragments.get(song.soundFragmentId());
+            if (fragment != null) {
+                entry.addSong(new PendingSongEntry(song.entryId(), fragment, song.scheduledStartTime(), song.durationSeconds()));
+            }
+        }
+        return entry;
+    }
+
+    public Uni<StreamAgenda> build(Script script, Brand sourceBrand, AgendaDataLoader dataLoader) {
         StreamAgenda schedule = new StreamAgenda(LocalDateTime.now());
 
         NavigableSet<Scene> scenes = script.getScenes();
@@ -108,103 +192,44 @@ public class StreamAgendaService {
             return Uni.createFrom().item(schedule);
         }
 
-        List<Uni<LiveScene>> sceneUnis = new ArrayList<>();
-        LocalDateTime sceneStartTime = LocalDateTime.now();
-
-        for (Scene scene : scenes) {
-            LocalDateTime finalSceneStartTime = sceneStartTime;
-            sceneUnis.add(
-                    fetchSongsForScene(sourceBrand, scene, songSupplier)
-                            .map(songs -> {
-                                LiveScene entry = new LiveScene(scene, finalSceneStartTime);
-                                LocalDateTime songStartTime = finalSceneStartTime;
-                                for (SoundFragment song : songs) {
-                                    PendingSongEntry songEntry = new PendingSongEntry(song, songStartTime);
-                                    entry.addSong(songEntry);
-                                    songStartTime = songStartTime.plusSeconds(songEntry.getDurationSeconds());
-                                }
-                                return entry;
-                            })
-            );
-            sceneStartTime = sceneStartTime.plusSeconds(scene.getDurationSeconds());
-        }
-
-        return Uni.join().all(sceneUnis).andFailFast()
-                .map(entries -> {
-                    entries.forEach(schedule::addScene);
+        LocalDateTime scheduleStart = LocalDateTime.now();
+        return dataLoader.load(sourceBrand.getId(), scenes)
+                .emitOn(Infrastructure.getDefaultWorkerPool())
+                .map(catalog -> {
+                    LocalDateTime sceneStartTime = scheduleStart;
+                    for (Scene scene : scenes) {
+                        LiveScene entry = new LiveScene(scene, sceneStartTime);
+                        LocalDateTime songStartTime = sceneStartTime;
+                        for (SoundFragment song : fetchSongsForScene(catalog, scene)) {
+                            PendingSongEntry songEntry = new PendingSongEntry(song, songStartTime);
+                            entry.addSong(songEntry);
+                            songStartTime = songStartTime.plusSeconds(songEntry.getDurationSeconds());
+                        }
+                        schedule.addScene(entry);
+                        sceneStartTime = sceneStartTime.plusSeconds(scene.getDurationSeconds());
+                    }
                     return schedule;
                 });
     }
 
-    private Uni<List<SoundFragment>> fetchSongsForScene(Brand brand, Scene scene, ScheduleSongSupplier songSupplier) {
+    private List<SoundFragment> fetchSongsForScene(AgendaCatalog catalog, Scene scene) {
         PlaylistRequest playlistRequest = scene.getPlaylistRequest();
         if (playlistRequest != null && playlistRequest.getSourcing() == WayOfSourcing.GENERATED) {
-            return Uni.createFrom().item(List.of());
+            return List.of();
         }
-        
-        int sceneDurationSeconds = scene.getDurationSeconds();
-        int maxSongsNeeded = (int) Math.ceil(sceneDurationSeconds / 120.0 * 1.5) + 2;
 
-        Uni<List<SoundFragment>> songsPoolUni;
-        if (playlistRequest == null) {
-            songsPoolUni = songSupplier.getSongsForBrand(brand.getId(), PlaylistItemType.SONG, maxSongsNeeded);
-        } else {
-            WayOfSourcing sourcing = playlistRequest.getSourcing();
-            if (sourcing == null) {
-                songsPoolUni = songSupplier.getSongsForBrand(brand.getId(), PlaylistItemType.SONG, maxSongsNeeded);
-            } else {
-                songsPoolUni = switch (sourcing) {
-                    case QUERY -> {
-                        PlaylistRequest req = new PlaylistRequest();
-                        req.setSearchTerm(playlistRequest.getSearchTerm());
-                        req.setGenres(playlistRequest.getGenres());
-                        req.setLabels(playlistRequest.getLabels());
-                        req.setType(playlistRequest.getType());
-                        req.setSource(playlistRequest.getSource());
-                        yield songSupplier.getSongsByQuery(brand.getId(), req, maxSongsNeeded);
-                    }
-                    case STATIC_LIST -> songSupplier.getSongsFromStaticList(playlistRequest.getSoundFragments(), maxSongsNeeded);
-                    default -> songSupplier.getSongsForBrand(brand.getId(), PlaylistItemType.SONG, maxSongsNeeded);
-                };
-            }
-        }
-
-        return songsPoolUni.map(songsPool -> selectSongsToFitDuration(songsPool, sceneDurationSeconds));
+        int sceneDurationSeconds = scene.getDurationSeconds();
+        int maxSongsNeeded = ScenePackingPlanner.candidatePoolSize(sceneDurationSeconds);
+        List<SoundFragment> songsPool = catalog.select(playlistRequest, maxSongsNeeded, random);
+        return selectSongsToFitDuration(songsPool, sceneDurationSeconds);
     }
 
     private List<SoundFragment> selectSongsToFitDuration(List<SoundFragment> songsPool, int sceneDurationSeconds) {
-        if (songsPool.isEmpty()) {
-            return songsPool;
-        }
-
-        List<SoundFragment> selectedSongs = new ArrayList<>();
-        int totalTimeUsed = 0;
-
-        for (SoundFragment song : songsPool) {
-            int songDurationSeconds = song.getLength() != null ? (int) song.getLength().toSeconds() : 180;
-            int timeWithIntro = songDurationSeconds + AVG_DJ_INTRO_SECONDS;
-
-            if (totalTimeUsed + timeWithIntro <= sceneDurationSeconds) {
-                selectedSongs.add(song);
-                totalTimeUsed += timeWithIntro;
-            } else if (selectedSongs.isEmpty()) {
-                selectedSongs.add(song);
-                totalTimeUsed += timeWithIntro;
-                break;
-            } else {
-                int gap = sceneDurationSeconds - totalTimeUsed;
-                if (gap > 60) {
-                    selectedSongs.add(song);
-                    totalTimeUsed += timeWithIntro;
-                }
-            }
-        }
-
-        LOGGER.debug("Scene duration: {}s, Pool size: {}, Selected {} songs with total time: {}s, Gap: {}s", 
-                sceneDurationSeconds, songsPool.size(), selectedSongs.size(), totalTimeUsed, 
-                sceneDurationSeconds - totalTimeUsed);
-
-        return selectedSongs;
+        ScenePackingPlanner.Plan plan = ScenePackingPlanner.plan(songsPool, sceneDurationSeconds, AVG_DJ_INTRO_SECONDS);
+        LOGGER.debug("Scene duration: {}s, Pool size: {}, Selected {} songs with total time: {}s, Gap: {}s",
+                sceneDurationSeconds, songsPool.size(), plan.songs().size(), plan.plannedSeconds(),
+                -plan.getError());
+        return plan.songs();
     }
 
     public StreamScheduleDTO toScheduleDTO(StreamAgenda schedule) {
@@ -299,7 +324,7 @@ public class StreamAgendaService {
         return dto;
     }
 
-    public Uni<StreamAgenda> buildAgenda(Script script, Brand sourceBrand, ScheduleSongSupplier songSupplier) {
+    public Uni<StreamAgenda> buildAgenda(Script script, Brand sourceBrand, AgendaDataLoader dataLoader) {
         LocalDate today = LocalDate.now();
         LocalDateTime scheduleStart = today.atTime(6, 0);
         StreamAgenda schedule = new StreamAgenda(LocalDateTime.now());
@@ -326,60 +351,51 @@ public class StreamAgendaService {
             return Uni.createFrom().item(schedule);
         }
 
-        LocalDateTime sceneStartTime = scheduleStart;
-        List<Uni<LiveScene>> sceneUnis = new ArrayList<>();
-
-        for (int i = 0; i < timeSlots.size(); i++) {
-            SceneTimeSlot slot = timeSlots.get(i);
-            Scene scene = slot.scene();
-            LocalTime sceneOriginalStart = slot.startTime();
-            
-            int nextIndex = (i + 1) % timeSlots.size();
-            LocalTime sceneOriginalEnd = timeSlots.get(nextIndex).startTime();
-
-            int finalDurationSeconds = calculateDurationUntilNext(sceneOriginalStart, sceneOriginalEnd);
-
-            LocalDateTime finalSceneStartTime = sceneStartTime;
-
-            sceneUnis.add(
-                    fetchSongsForSceneWithDuration(sourceBrand, scene, finalDurationSeconds, songSupplier)
-                            .map(songs -> {
-                                LiveScene entry = new LiveScene(
-                                        scene.getId(),
-                                        scene.getTitle(),
-                                        finalSceneStartTime,
-                                        finalDurationSeconds,
-                                        sceneOriginalStart,
-                                        sceneOriginalEnd,
-                                        scene.getPlaylistRequest() != null ? scene.getPlaylistRequest().getSourcing() : null,
-                                        scene.getPlaylistRequest() != null ? scene.getPlaylistRequest().getTitle() : null,
-                                        scene.getPlaylistRequest() != null ? scene.getPlaylistRequest().getArtist() : null,
-                                        scene.getPlaylistRequest() != null ? scene.getPlaylistRequest().getGenres() : null,
-                                        scene.getPlaylistRequest() != null ? scene.getPlaylistRequest().getLabels() : null,
-                                        scene.getPlaylistRequest() != null ? scene.getPlaylistRequest().getType() : null,
-                                        scene.getPlaylistRequest() != null ? scene.getPlaylistRequest().getSource() : null,
-                                        scene.getPlaylistRequest() != null ? scene.getPlaylistRequest().getSearchTerm() : null,
-                                        scene.getPlaylistRequest() != null ? scene.getPlaylistRequest().getSoundFragments() : null,
-                                        scene.getPlaylistRequest() != null ? scene.getPlaylistRequest().getContentPrompts() : null,
-                                        scene.isOneTimeRun(),
-                                        scene.getTalkativity(),
-                                        scene.getIntroPrompts()
-                                );
-                                LocalDateTime songStartTime = finalSceneStartTime;
-                                for (SoundFragment song : songs) {
-                                    PendingSongEntry songEntry = new PendingSongEntry(song, songStartTime);
-                                    entry.addSong(songEntry);
-                                    songStartTime = songStartTime.plusSeconds(songEntry.getDurationSeconds());
-                                }
-                                return entry;
-                            })
-            );
-            sceneStartTime = sceneStartTime.plusSeconds(finalDurationSeconds);
-        }
-
-        return Uni.join().all(sceneUnis).andFailFast()
-                .map(entries -> {
-                    entries.forEach(schedule::addScene);
+        return dataLoader.load(sourceBrand.getId(), scenes)
+                .emitOn(Infrastructure.getDefaultWorkerPool())
+                .map(catalog -> {
+                    LocalDateTime sceneStartTime = scheduleStart;
+                    for (int i = 0; i < timeSlots.size(); i++) {
+                        SceneTimeSlot slot = timeSlots.get(i);
+                        Scene scene = slot.scene();
+                        LocalTime sceneOriginalStart = slot.startTime();
+
+                        int nextIndex = (i + 1) % timeSlots.size();
+                        LocalTime sceneOriginalEnd = timeSlots.get(nextIndex).startTime();
+
+                        int finalDurationSeconds = calculateDurationUntilNext(sceneOriginalStart, sceneOriginalEnd);
+                        PlaylistRequest playlistRequest = scene.getPlaylistRequest();
+
+                        LiveScene entry = new LiveScene(
+                                scene.getId(),
+                                scene.getTitle(),
+                                sceneStartTime,
+                                finalDurationSeconds,
+                                sceneOriginalStart,
+                                sceneOriginalEnd,
+                                playlistRequest != null ? playlistRequest.getSourcing() : null,
+                                playlistRequest != null ? playlistRequest.getTitle() : null,
+                                playlistRequest != null ? playlistRequest.getArtist() : null,
+                                playlistRequest != null ? playlistRequest.getGenres() : null,
+                                playlistRequest != null ? playlistRequest.getLabels() : null,
+                                playlistRequest != null ? playlistRequest.getType() : null,
+                                playlistRequest != null ? playlistRequest.getSource() : null,
+                                playlistRequest != null ? playlistRequest.getSearchTerm() : null,
+                                playlistRequest != null ? playlistRequest.getSoundFragments() : null,
+                                playlistRequest != null ? playlistRequest.getContentPrompts() : null,
+                                scene.isOneTimeRun(),
+                                scene.getTalkativity(),
+                                scene.getIntroPrompts()
+                        );
+                        LocalDateTime songStartTime = sceneStartTime;
+                        for (SoundFragment song : fetchSongsForSceneWithDuration(catalog, scene, finalDurationSeconds)) {
+                            PendingSongEntry songEntry = new PendingSongEntry(song, songStartTime);
+                            entry.addSong(songEntry);
+                            songStartTime = songStartTime.plusSeconds(songEntry.getDurationSeconds());
+                        }
+                        schedule.addScene(entry);
+                        sceneStartTime = sceneStartTime.plusSeconds(finalDurationSeconds);
+                    }
                     return schedule;
                 });
     }
@@ -394,76 +410,22 @@ public class StreamAgendaService {
         }
     }
 
-    private Uni<List<SoundFragment>> fetchSongsForSceneWithDuration(Brand brand, Scene scene, int durationSeconds, ScheduleSongSupplier songSupplier) {
+    private List<SoundFragment> fetchSongsForSceneWithDuration(AgendaCatalog catalog, Scene scene, int durationSeconds) {
         PlaylistRequest playlistRequest = scene.getPlaylistRequest();
         if (playlistRequest != null && playlistRequest.getSourcing() == WayOfSourcing.GENERATED) {
-            return Uni.createFrom().item(List.of());
+            return List.of();
         }
-        
-        int maxSongsNeeded = (durationSeconds / 120) + 2;
 
-        Uni<List<SoundFragment>> songsPoolUni;
-        if (playlistRequest == null) {
-            songsPoolUni = songSupplier.getSongsForBrand(brand.getId(), PlaylistItemType.SONG, maxSongsNeeded);
-        } else {
-            WayOfSourcing sourcing = playlistRequest.getSourcing();
-            if (sourcing == null) {
-                songsPoolUni = songSupplier.getSongsForBrand(brand.getId(), PlaylistItemType.SONG, maxSongsNeeded);
-            } else {
-                songsPoolUni = switch (sourcing) {
-                    case QUERY -> {
-                        PlaylistRequest req = new PlaylistRequest();
-                        req.setSearchTerm(playlistRequest.getSearchTerm());
-                        req.setGenres(playlistRequest.getGenres());
-                        req.setLabels(playlistRequest.getLabels());
-                        req.setType(playlistRequest.getType());
-                        req.setSource(playlistRequest.getSource());
-                        yield songSupplier.getSongsByQuery(brand.getId(), req, maxSongsNeeded);
-                    }
-                    case STATIC_LIST -> songSupplier.getSongsFromStaticList(playlistRequest.getSoundFragments(), maxSongsNeeded);
-                    default -> songSupplier.getSongsForBrand(brand.getId(), PlaylistItemType.SONG, maxSongsNeeded);
-                };
-            }
-        }
-
-        return songsPoolUni.map(songsPool -> selectSongsToFitDurationWithTalkativity(songsPool, durationSeconds, scene.getTalkativity()));
+        int maxSongsNeeded = ScenePackingPlanner.candidatePoolSize(durationSeconds);
+        List<SoundFragment> songsPool = catalog.select(playlistRequest, maxSongsNeeded, random);
+        return selectSongsToFitDurationWithTalkativity(songsPool, durationSeconds, scene.getTalkativity());
     }
 
     private List<SoundFragment> selectSongsToFitDurationWithTalkativity(List<SoundFragment> songsPool, int sceneDurationSeconds, double talkativity) {
-        if (songsPool.isEmpty()) {
-            return songsPool;
-        }
-
         int effectiveMusicTime = (int) (sceneDurationSeconds * (1 - talkativity * 0.3));
-
-        List<SoundFragment> selectedSongs = new ArrayList<>();
-        java.util.Set<UUID> addedSongIds = new java.util.HashSet<>();
-        int totalTimeUsed = 0;
-
-        for (SoundFragment song : songsPool) {
-            if (addedSongIds.contains(song.getId())) {
-                continue;
-            }
-
-            int songDurationSeconds = song.getLength() != null ? (int) song.getLength().toSeconds() : 180;
-            int timeWithIntro = songDurationSeconds + AVG_DJ_INTRO_SECONDS;
-
-            if (totalTimeUsed + timeWithIntro <= effectiveMusicTime) {
-                selectedSongs.add(song);
-                addedSongIds.add(song.getId());
-                totalTimeUsed += timeWithIntro;
-            } else if (selectedSongs.isEmpty()) {
-                selectedSongs.add(song);
-                addedSongIds.add(song.getId());
-                break;
-            } else {
-                break;
-            }
-        }
-
+        ScenePackingPlanner.Plan plan = ScenePackingPlanner.plan(songsPool, effectiveMusicTime, AVG_DJ_INTRO_SECONDS);
         LOGGER.debug("RadioStream scene duration: {}s, effective music time: {}s (talkativity: {}), Selected {} songs with total time: {}s",
-                sceneDurationSeconds, effectiveMusicTime, talkativity, selectedSongs.size(), totalTimeUsed);
-
-        return selectedSongs;
+                sceneDurationSeconds, effectiveMusicTime, talkativity, plan.songs().size(), plan.plannedSeconds());
+        return plan.songs();
     }
 }
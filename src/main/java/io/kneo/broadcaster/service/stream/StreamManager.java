@@ -13,6 +13,8 @@ import io.kneo.broadcaster.service.playlist.PlaylistManager;
 import io.kneo.broadcaster.service.playlist.SongSupplier;
 import io.kneo.broadcaster.service.soundfragment.BrandSoundFragmentUpdateService;
 import io.kneo.broadcaster.service.soundfragment.SoundFragmentService;
+import io.kneo.broadcaster.service.util.BlockingExecutor;
+import io.kneo.broadcaster.service.util.StationScope;
 import io.smallrye.mutiny.subscription.Cancellable;
 import lombok.Getter;
 import org.slf4j.Logger;
@@ -21,16 +23,18 @@ import org.slf4j.LoggerFactory;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -38,7 +42,7 @@ import java.util.regex.Pattern;
 public class StreamManager implements IStreamManager {
     private static final ZoneId ZONE_ID = ZoneId.of("Europe/Lisbon");
     private static final Logger LOGGER = LoggerFactory.getLogger(StreamManager.class);
-    private static final Pattern SEGMENT_PATTERN = Pattern.compile("([^_]+)_([0-9]+)_([0-9]+)\\.ts$");
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("([^_]+)_([0-9]+)_([0-9]+)(?:\\.([0-9a-f]{8}))?\\.ts$");
 
     private final ConcurrentSkipListMap<Long, Map<Long, HlsSegment>> liveSegments = new ConcurrentSkipListMap<>();
     private final AtomicLong currentSequence = new AtomicLong(0);
@@ -59,11 +63,13 @@ public class StreamManager implements IStreamManager {
     private final ISupplier songSupplier;
     private final SegmentFeederTimer segmentFeederTimer;
     private final SliderTimer sliderTimer;
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private final BlockingExecutor blockingExecutor;
+    private StationScope scope;
     private final BrandSoundFragmentUpdateService updateService;
 
     private final int maxVisibleSegments = 20;
     private static final int PENDING_QUEUE_REFILL_THRESHOLD = 10;
+    private static final int CAPTURE_TIMEOUT_SECONDS = 5;
 
     private final Map<String, Cancellable> timerSubscriptions = new ConcurrentHashMap<>();
     private final Map<String, Long> clientBitrate = new ConcurrentHashMap<>();
@@ -79,7 +85,8 @@ public class StreamManager implements IStreamManager {
             AudioSegmentationService segmentationService,
             SongSupplier songSupplier,
             BrandSoundFragmentUpdateService updateService,
-            AiHelperService aiHelperService
+            AiHelperService aiHelperService,
+            BlockingExecutor blockingExecutor
     ) {
         this.config = config;
         this.sliderTimer = sliderTimer;
@@ -91,12 +98,14 @@ public class StreamManager implements IStreamManager {
         this.songSupplier = songSupplier;
         this.updateService = updateService;
         this.aiHelperService = aiHelperService;
+        this.blockingExecutor = blockingExecutor;
     }
 
     @Override
     public void initialize(IStream stream) {
         stream.setStatus(StreamStatus.WARMING_UP);
         this.stream = stream;
+        this.scope = blockingExecutor.openScope(stream.getSlugName());
         LOGGER.info("New broadcast initialized for {}", stream.getSlugName());
 
         playlistManager = new PlaylistManager(
@@ -106,19 +115,20 @@ public class StreamManager implements IStreamManager {
                 songSupplier,
                 updateService,
                 aiHelperService,
-                stream.getStreamLanguage()
+                stream.getStreamLanguage(),
+                scope
         );
         if (stream.getManagedBy() == ManagedBy.ITSELF) {
             playlistManager.startSelfManaging();
         }
 
         Cancellable feeder = segmentFeederTimer.getTicker().subscribe().with(
-                timestamp -> executorService.submit(this::feedSegments),
+                timestamp -> scope.execute(this::feedSegments),
                 error -> LOGGER.error("Feeder subscription error for {}: {}", stream.getSlugName(), error.getMessage(), error)
         );
 
         Cancellable slider = sliderTimer.getTicker().subscribe().with(
-                timestamp -> executorService.submit(this::slideWindow),
+                timestamp -> scope.execute(this::slideWindow),
                 error -> LOGGER.error("Slider subscription error for {}: {}", stream.getSlugName(), error.getMessage(), error)
         );
 
@@ -246,9 +256,10 @@ public class StreamManager implements IStreamManager {
                 .limit(maxVisibleSegments)
                 .forEach(entry -> {
                     Map<Long, HlsSegment> bitrateSlot = entry.getValue();
-                    HlsSegment segment = bitrateSlot.containsKey(bitrate)
-                            ? bitrateSlot.get(bitrate)
-                            : bitrateSlot.values().iterator().next();
+                    long segmentBitrate = bitrateSlot.containsKey(bitrate)
+                            ? bitrate
+                            : bitrateSlot.keySet().iterator().next();
+                    HlsSegment segment = bitrateSlot.get(segmentBitrate);
                     playlist.append("#EXTINF:")
                             .append(segment.getDuration())
                             .append(",")
@@ -257,9 +268,11 @@ public class StreamManager implements IStreamManager {
                             .append("segments/")
                             .append(slug)
                             .append("_")
-                            .append(bitrate)
+                            .append(segmentBitrate)
                             .append("_")
                             .append(segment.getSequence())
+                            .append(".")
+                            .append(segment.getContentHash())
                             .append(".ts\n");
                 });
 
@@ -291,6 +304,13 @@ public class StreamManager implements IStreamManager {
             HlsSegment segment = bitrateSlot.get(bitrate);
             if (segment == null) {
                 LOGGER.debug("Bitrate {} not found for sequence {}", bitrate, sequence);
+                return null;
+            }
+            String hash = matcher.group(4);
+            if (hash != null && !hash.equals(segment.getContentHash())) {
+                // the URL names other bytes, e.g. a sequence reused after a cold restart
+                LOGGER.debug("Segment {} does not match content {}", segmentParam, segment.getContentHash());
+                return null;
             }
             return segment;
         } catch (Exception e) {
@@ -324,7 +344,9 @@ public class StreamManager implements IStreamManager {
             }
         });
         timerSubscriptions.clear();
-        executorService.shutdownNow();
+        if (scope != null) {
+            scope.close();
+        }
         currentSequence.set(0);
         liveSegments.clear();
         pendingFragmentSegmentsQueue.clear();
@@ -338,4 +360,54 @@ public class StreamManager implements IStreamManager {
     public boolean getSegmentHeartbeat() {
         return !liveSegments.isEmpty();
     }
+
+    /**
+     * Copies the visible window and the not yet published slots. Runs in the station scope so the
+     * pending queue is never read while it is being refilled.
+     */
+    public LiveState captureLiveState() throws Exception {
+        return requestLiveState().get(CAPTURE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues a snapshot of the live window on the station's scope without waiting for it, so
+     * callers can capture many stations at once.
+     */
+    public Future<LiveState> requestLiveState() {
+        return scope.submit(() -> new LiveState(
+                currentSequence.get(),
+                new ArrayList<>(liveSegments.values()),
+                new ArrayList<>(pendingFragmentSegmentsQueue)
+        ));
+    }
+
+    /**
+     * Puts a checkpointed window back in place and continues numbering where the previous process
+     * stopped. Anything fed since {@link #initialize} is renumbered to follow the restored slots.
+     */
+    public void restoreLiveState(LiveState state) {
+        scope.execute(() -> {
+            List<Map<Long, HlsSegment>> fedSinceStart = new ArrayList<>(liveSegments.values());
+            fedSinceStart.addAll(pendingFragmentSegmentsQueue);
+            liveSegments.clear();
+            pendingFragmentSegmentsQueue.clear();
+
+            for (Map<Long, HlsSegment> slot : state.live()) {
+                liveSegments.put(slot.values().iterator().next().getSequence(), slot);
+            }
+            pendingFragmentSegmentsQueue.addAll(state.pending());
+            currentSequence.set(state.nextSequence());
+            for (Map<Long, HlsSegment> slot : fedSinceStart) {
+                long seq = currentSequence.getAndIncrement();
+                slot.values().forEach(segment -> segment.setSequence(seq));
+                pendingFragmentSegmentsQueue.offer(slot);
+            }
+            stream.setStatus(StreamStatus.ON_LINE);
+            LOGGER.info("Restored {} live and {} pending slots for {}, next sequence {}",
+                    state.live().size(), pendingFragmentSegmentsQueue.size(), stream.getSlugName(), currentSequence.get());
+        });
+    }
+
+    public record LiveState(long nextSequence, List<Map<Long, HlsSegment>> live, List<Map<Long, HlsSegment>> pending) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+package io.kneo.broadcaster.service.translation;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.dto.agentrest.TranslateReqDTO;
+import io.kneo.broadcaster.service.util.BlockingExecutor;
+import io.quarkus.runtime.ShutdownEvent;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Keeps running translation jobs on disk so they survive a restart. A job is a spec file with
+ * its items, written once when the job starts, and a journal to which one line is appended per
+ * processed item. Recorded lines are collected in memory and appended by a file worker, one
+ * write per job for whatever has piled up, so callers on event-loop threads never touch the
+ * disk; shutdown writes what is left. Loading a job skips the journaled items; a line cut short
+ * by a crash is ignored, so that item is simply translated again. Both files are removed when
+ * the job ends.
+ */
+@ApplicationScoped
+public class TranslationCheckpointStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TranslationCheckpointStore.class);
+    private static final String SPEC_SUFFIX = ".json";
+    private static final String JOURNAL_SUFFIX = ".log";
+
+    private final Path dir;
+    private final Executor writer;
+    private final Object files = new Object();
+    private final Map<String, StringBuilder> unwritten = new LinkedHashMap<>();
+    private boolean writeScheduled;
+
+    @Inject
+    public TranslationCheckpointStore(BroadcasterConfig config, BlockingExecutor blockingExecutor) {
+        this(Paths.get(config.getTranslationCheckpointDir()), blockingExecutor.executor(BlockingExecutor.Category.FILE));
+    }
+
+    public TranslationCheckpointStore(Path dir) {
+        this(dir, Runnable::run);
+    }
+
+    public TranslationCheckpointStore(Path dir, Executor writer) {
+        this.dir = dir;
+        this.writer = writer;
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    public record Checkpoint(String jobId, String kind, long userId, List<TranslateReqDTO> items,
+                             Set<String> processed, int succeeded) {
+    }
+
+    public static String itemKey(TranslateReqDTO dto) {
+        return dto.getMasterId() + "/" + dto.getLanguageTag();
+    }
+
+    public void create(String jobId, String kind, long userId, List<TranslateReqDTO> items) {
+        JsonArray array = new JsonArray();
+        items.forEach(dto -> array.add(JsonObject.mapFrom(dto)));
+        JsonObject spec = new JsonObject()
+                .put("jobId", jobId)
+                .put("kind", kind)
+                .put("userId", userId)
+                .put("items", array);
+        try {
+            Files.createDirectories(dir);
+            Path spool = dir.resolve(fileName(jobId) + SPEC_SUFFIX + ".tmp");
+            Files.writeString(spool, spec.encode(), StandardCharsets.UTF_8);
+            Files.deleteIfExists(journal(jobId));
+            Files.move(spool, spec(jobId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot checkpoint translation job {}, it will not resume after a restart: {}", jobId, e.getMessage());
+        }
+    }
+
+    public void record(String jobId, String itemKey, boolean success) {
+        boolean schedule;
+        synchronized (unwritten) {
+            unwritten.computeIfAbsent(jobId, k -> new StringBuilder())
+                    .append(success ? '+' : '-').append(itemKey).append('\n');
+            schedule = !writeScheduled;
+            writeScheduled = true;
+        }
+        if (schedule) {
+            try {
+                writer.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Appends every recorded line to its job's journal.
+     */
+    public void flush() {
+        synchronized (files) {
+            Map<String, StringBuilder> lines;
+            synchronized (unwritten) {
+                lines = new LinkedHashMap<>(unwritten);
+                unwritten.clear();
+                writeScheduled = false;
+            }
+            lines.forEach((jobId, text) -> {
+                try {
+                    Files.writeString(journal(jobId), text, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+                } catch (IOException e) {
+                    LOGGER.warn("Cannot checkpoint progress of translation job {}: {}", jobId, e.getMessage());
+                }
+            });
+        }
+    }
+
+    public void remove(String jobId) {
+        synchronized (files) {
+            synchronized (unwritten) {
+                unwritten.remove(jobId);
+            }
+            try {
+                Files.deleteIfExists(journal(jobId));
+                Files.deleteIfExists(spec(jobId));
+            } catch (IOException e) {
+                LOGGER.warn("Cannot remove checkpoint of translation job {}: {}", jobId, e.getMessage());
+            }
+        }
+    }
+
+    public List<Checkpoint> load() {
+        List<Checkpoint> checkpoints = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return checkpoints;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SPEC_SUFFIX)).toList()) {
+                try {
+                    checkpoints.add(read(file));
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warn("Skipping unreadable translation checkpoint {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot list translation checkpoints in {}: {}", dir, e.getMessage());
+        }
+        return checkpoints;
+    }
+
+    private Checkpoint read(Path specFile) throws IOException {
+        JsonObject spec = new JsonObject(Files.readString(specFile, StandardCharsets.UTF_8));
+        String jobId = spec.getString("jobId");
+        List<TranslateReqDTO> items = new ArrayList<>();
+        JsonArray array = spec.getJsonArray("items");
+        for (int i = 0; i < array.size(); i++) {
+            items.add(array.getJsonObject(i).mapTo(TranslateReqDTO.class));
+        }
+
+        Set<String> processed = new HashSet<>();
+        int succeeded = 0;
+        Path journalFile = journal(jobId);
+        if (Files.exists(journalFile)) {
+            String journal = Files.readString(journalFile, StandardCharsets.UTF_8);
+            int complete = journal.lastIndexOf('\n') + 1;
+            for (String line : journal.substring(0, complete).split("\n")) {
+                if (line.length() < 2 || !processed.add(line.substring(1))) {
+                    continue;
+                }
+                if (line.charAt(0) == '+') {
+                    succeeded++;
+                }
+            }
+        }
+        return new Checkpoint(jobId, spec.getString("kind"), spec.getLong("userId"), items, processed, succeeded);
+    }
+
+    private Path spec(String jobId) {
+        return dir.resolve(fileName(jobId) + SPEC_SUFFIX);
+    }
+
+    private Path journal(String jobId) {
+        return dir.resolve(fileName(jobId) + JOURNAL_SUFFIX);
+    }
+
+    private static String fileName(String jobId) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(jobId.getBytes(StandardCharsets.UTF_8)), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
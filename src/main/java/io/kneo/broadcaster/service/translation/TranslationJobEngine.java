@@ -0,0 +1,137 @@
+package io.kneo.broadcaster.service.translation;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.service.exceptions.RateLimitedException;
+import io.kneo.broadcaster.util.AsyncSemaphore;
+import io.kneo.broadcaster.util.TokenBucket;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs translation calls for jobs. Every provider gets its own pool of concurrent calls and its
+ * own token bucket, so a job keeps as many calls in flight as the provider allows without
+ * exceeding its request rate. A call rejected with {@link RateLimitedException} pauses the
+ * provider's bucket for the advertised (or backed-off) delay and is retried. Within a
+ * {@link Batch}, identical source strings share one call.
+ */
+@ApplicationScoped
+public class TranslationJobEngine {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TranslationJobEngine.class);
+
+    private final int concurrency;
+    private final double ratePerSecond;
+    private final int burst;
+    private final int maxRetries;
+    private final Duration initialBackoff;
+    private final ConcurrentHashMap<String, Provider> providers = new ConcurrentHashMap<>();
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    @Inject
+    public TranslationJobEngine(BroadcasterConfig config) {
+        this(
+                config.getTranslationConcurrency(),
+                config.getTranslationRatePerSecond(),
+                config.getTranslationBurst(),
+                config.getTranslationMaxRetries(),
+                Duration.ofSeconds(1)
+        );
+    }
+
+    public TranslationJobEngine(int concurrency, double ratePerSecond, int burst, int maxRetries, Duration initialBackoff) {
+        this.concurrency = concurrency;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxRetries = maxRetries;
+        this.initialBackoff = initialBackoff;
+    }
+
+    public <T> Batch<T> batch(String provider) {
+        return new Batch<>(providers.computeIfAbsent(provider, p -> new Provider(
+                new AsyncSemaphore(concurrency), new TokenBucket(ratePerSecond, burst))), provider);
+    }
+
+    /**
+     * Calls each provider runs at once; jobs use it to bound how many items they work on in
+     * parallel, so the reads and writes around each call stay bounded too.
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.get();
+    }
+
+    public long getDeduplicated() {
+        return deduplicated.get();
+    }
+
+    private <T> Uni<T> attempt(Provider provider, String name, Supplier<Uni<T>> call, int retry) {
+        return provider.permits().withPermit(() -> provider.bucket().acquire()
+                        .chain(() -> {
+                            calls.incrementAndGet();
+                            return call.get();
+                        }))
+                .onFailure(RateLimitedException.class).recoverWithUni(err -> {
+                    rateLimited.incrementAndGet();
+                    if (retry >= maxRetries) {
+                        return Uni.createFrom().failure(err);
+                    }
+                    Duration delay = ((RateLimitedException) err).getRetryAfter()
+                            .orElse(initialBackoff.multipliedBy(1L << Math.min(retry, 10)));
+                    LOGGER.debug("Provider '{}' rate limited the call, retry {} in {}ms", name, retry + 1, delay.toMillis());
+                    provider.bucket().pause(delay);
+                    return attempt(provider, name, call, retry + 1);
+                });
+    }
+
+    private record Provider(AsyncSemaphore permits, TokenBucket bucket) {
+    }
+
+    /**
+     * The calls of one job. Holds the job's translations until it is dropped, so a string that
+     * occurs many times in the job is sent to the provider once.
+     */
+    public final class Batch<T> {
+        private final Provider provider;
+        private final String name;
+        private final ConcurrentHashMap<String, Uni<T>> results = new ConcurrentHashMap<>();
+
+        private Batch(Provider provider, String name) {
+            this.provider = provider;
+            this.name = name;
+        }
+
+        public Uni<T> submit(String sourceKey, Supplier<Uni<T>> call) {
+            boolean[] created = {false};
+            Uni<T> result = results.computeIfAbsent(sourceKey, k -> {
+                created[0] = true;
+                AtomicReference<Uni<T>> self = new AtomicReference<>();
+                self.set(attempt(provider, name, call, 0)
+                        .onFailure().invoke(() -> results.remove(k, self.get()))
+                        .memoize().indefinitely());
+                return self.get();
+            });
+            if (!created[0]) {
+                deduplicated.incrementAndGet();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.kneo.broadcaster.service.util;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.quarkus.runtime.ShutdownEvent;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking work (ffmpeg and ffprobe processes, object storage, local file reads, script
+ * helpers, chat turns) on virtual threads instead of the shared worker pool. Each category has
+ * its own permit count, so a burst of ffmpeg jobs cannot starve storage reads and the process never
+ * spawns more ffmpeg processes than configured. Waiting for a permit parks a virtual thread, which costs nothing, so
+ * the platform thread count stays flat however many stations are running.
+ */
+@ApplicationScoped
+public class BlockingExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlockingExecutor.class);
+
+    public enum Category {
+        FFMPEG, PROBE, STORAGE, FILE, SCRIPT, LLM
+    }
+
+    private final ExecutorService virtualThreads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("blocking-", 0).factory());
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("station-timer").daemon().factory());
+    private final Map<Category, Lane> lanes = new EnumMap<>(Category.class);
+
+    @Inject
+    public BlockingExecutor(BroadcasterConfig config) {
+        lanes.put(Category.FFMPEG, new Lane(config.getBlockingFfmpegConcurrency()));
+        lanes.put(Category.PROBE, new Lane(config.getBlockingProbeConcurrency()));
+        lanes.put(Category.STORAGE, new Lane(config.getBlockingStorageConcurrency()));
+        lanes.put(Category.FILE, new Lane(config.getBlockingFileConcurrency()));
+        lanes.put(Category.SCRIPT, new Lane(config.getBlockingScriptConcurrency()));
+        lanes.put(Category.LLM, new Lane(config.getBlockingLlmConcurrency()));
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        timer.shutdownNow();
+        virtualThreads.shutdownNow();
+    }
+
+    /**
+     * Executor for {@code runSubscriptionOn}/{@code emitOn}: every task gets its own virtual thread
+     * and holds a permit of the category while it runs.
+     */
+    public Executor executor(Category category) {
+        return lanes.get(category);
+    }
+
+    public <T> Uni<T> call(Category category, Callable<T> task) {
+        return Uni.createFrom().item(() -> {
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).runSubscriptionOn(executor(category));
+    }
+
+    /**
+     * Opens the execution scope of one station. Closing it cancels its timers and interrupts
+     * whatever it still has running.
+     */
+    public StationScope openScope(String name) {
+        return new StationScope(name, virtualThreads, timer);
+    }
+
+    public int getActive(Category category) {
+        return lanes.get(category).active.get();
+    }
+
+    public int getWaiting(Category category) {
+        return lanes.get(category).permits.getQueueLength();
+    }
+
+    private class Lane implements Executor {
+        private final Semaphore permits;
+        private final AtomicInteger active = new AtomicInteger();
+
+        private Lane(int permits) {
+            this.permits = new Semaphore(Math.max(1, permits), true);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            try {
+                virtualThreads.execute(() -> {
+                    try {
+                        permits.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    active.incrementAndGet();
+                    try {
+                        task.run();
+                    } finally {
+                        active.decrementAndGet();
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn("Blocking task rejected, executor is shutting down");
+                throw e;
+            }
+        }
+    }
+}
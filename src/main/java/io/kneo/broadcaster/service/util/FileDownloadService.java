@@ -4,6 +4,7 @@ import io.kneo.broadcaster.config.BroadcasterConfig;
 import io.kneo.broadcaster.model.FileData;
 import io.kneo.broadcaster.service.soundfragment.SoundFragmentService;
 import io.kneo.broadcaster.util.FileSecurityUtils;
+import io.kneo.broadcaster.util.HttpRange;
 import io.kneo.core.model.user.IUser;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -33,12 +34,20 @@ public class FileDownloadService {
     }
 
     public Uni<FileData> getFile(String id, String requestedFileName, IUser user) {
+        return getFile(id, requestedFileName, null, user);
+    }
+
+    /**
+     * Local files are returned by path and the caller applies {@code range} itself; for files in
+     * object storage the range is forwarded so only the requested bytes are fetched.
+     */
+    public Uni<FileData> getFile(String id, String requestedFileName, HttpRange range, IUser user) {
         try {
             if ("temp".equals(id)) {
                 return getTempFile(requestedFileName, user);
             }
 
-            return getEntityFile(id, requestedFileName, user);
+            return getEntityFile(id, requestedFileName, range, user);
 
         } catch (SecurityException | IllegalArgumentException e) {
             return Uni.createFrom().failure(e);
@@ -75,11 +84,7 @@ public class FileDownloadService {
                     return Uni.createFrom().failure(new SecurityException("File access denied"));
                 }
 
-                byte[] fileBytes = Files.readAllBytes(canonicalFile);
-                String mimeType = Files.probeContentType(canonicalFile);
-                return Uni.createFrom().item(new FileData(
-                        fileBytes,
-                        mimeType != null ? mimeType : "application/octet-stream"));
+                return Uni.createFrom().item(localFile(canonicalFile));
             } catch (IOException e) {
                 LOGGER.error("Temp file read error for user {}, file: {}", user.getUserName(), safeFileName, e);
                 return Uni.createFrom().failure(e);
@@ -89,7 +94,7 @@ public class FileDownloadService {
         }
     }
 
-    private Uni<FileData> getEntityFile(String id, String requestedFileName, IUser user) {
+    private Uni<FileData> getEntityFile(String id, String requestedFileName, HttpRange range, IUser user) {
         try {
             UUID.fromString(id);
         } catch (IllegalArgumentException e) {
@@ -126,23 +131,29 @@ public class FileDownloadService {
                     return Uni.createFrom().failure(new SecurityException("File access denied"));
                 }
 
-                byte[] fileBytes = Files.readAllBytes(canonicalFile);
-                String mimeType = Files.probeContentType(canonicalFile);
-                return Uni.createFrom().item(new FileData(
-                        fileBytes,
-                        mimeType != null ? mimeType : "application/octet-stream"));
+                return Uni.createFrom().item(localFile(canonicalFile));
             } catch (IOException e) {
                 LOGGER.error("File read error for user {}, file: {}", user.getUserName(), safeFileName, e);
                 return Uni.createFrom().failure(e);
             }
         }
 
-        return soundFragmentService.getFileBySlugName(UUID.fromString(id), safeFileName, user)
+        return soundFragmentService.getFileBySlugName(UUID.fromString(id), safeFileName, range, user)
                 .onItem()
                 .transform(fileMetadata -> {
                     // Cloud storage file - use InputStream
-                    return new FileData(fileMetadata.getInputStream(), fileMetadata.getMimeType(), 
-                                       fileMetadata.getContentLength() != null ? fileMetadata.getContentLength() : 0);
+                    return new FileData(fileMetadata.getInputStream(), fileMetadata.getMimeType(),
+                            fileMetadata.getContentLength() != null ? fileMetadata.getContentLength() : 0,
+                            fileMetadata.getContentRange(),
+                            fileMetadata.getLastModifiedDate() != null ? fileMetadata.getLastModifiedDate().toInstant().toEpochMilli() : 0);
                 });
     }
+
+    private static FileData localFile(Path file) throws IOException {
+        String mimeType = Files.probeContentType(file);
+        return new FileData(file,
+                mimeType != null ? mimeType : "application/octet-stream",
+                Files.size(file),
+                Files.getLastModifiedTime(file).toMillis());
+    }
 }
\ No newline at end of file
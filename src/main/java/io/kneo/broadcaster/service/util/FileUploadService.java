@@ -3,12 +3,24 @@ package io.kneo.broadcaster.service.util;
 import io.kneo.broadcaster.config.BroadcasterConfig;
 import io.kneo.broadcaster.dto.AudioMetadataDTO;
 import io.kneo.broadcaster.dto.UploadFileDTO;
+import io.kneo.broadcaster.dto.dashboard.BulkIngestStatsDTO;
+import io.kneo.broadcaster.service.exceptions.IngestQueueFullException;
+import io.kneo.broadcaster.service.maintenance.FileLease;
+import io.kneo.broadcaster.service.maintenance.FileLeaseRegistry;
+import io.kneo.broadcaster.service.manipulation.AudioAnalysisService;
 import io.kneo.broadcaster.service.manipulation.AudioMetadataService;
 import io.kneo.broadcaster.service.soundfragment.SoundFragmentService;
+import io.kneo.broadcaster.util.AsyncSemaphore;
 import io.kneo.broadcaster.util.FileSecurityUtils;
 import io.kneo.core.model.user.IUser;
 import io.smallrye.mutiny.Uni;
 import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.core.Vertx;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.http.HttpServerFileUpload;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -16,34 +28,58 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @ApplicationScoped
 public class FileUploadService {
     private static final Logger LOGGER = LoggerFactory.getLogger(FileUploadService.class);
     private static final long MAX_FILE_SIZE_BYTES = 200 * 1024 * 1024; //200 mb
     private static final String BULK_FOLDER_NAME = "bulk";
-    private final String uploadDir;
+    private static final UUID SAME_BATCH = new UUID(0, 0);
     private final String uploadDirectory;
     private final AudioMetadataService audioMetadataService;
     private final SoundFragmentService soundFragmentService;
-    public final ConcurrentHashMap<String, UploadFileDTO> uploadProgressMap = new ConcurrentHashMap<>();
-    public final ConcurrentHashMap<String, ConcurrentHashMap<String, UploadFileDTO>> bulkUploadProgressMap = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, UUID> batchBrandIdMap = new ConcurrentHashMap<>();
+    private final AudioAnalysisService audioAnalysisService;
+    private final UploadProgressStore progressStore;
+    private final FileLeaseRegistry fileLeaseRegistry;
+    private final BlockingExecutor blockingExecutor;
+    private final AsyncSemaphore probePermits;
+    private final AsyncSemaphore storePermits;
+    private final int queueCapacity;
+    private final AtomicInteger pendingIngest = new AtomicInteger();
+    private final AtomicLong duplicatesSkipped = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final ConcurrentHashMap<String, String> inFlightHashes = new ConcurrentHashMap<>();
 
     @Inject
     public FileUploadService(BroadcasterConfig config, AudioMetadataService audioMetadataService,
-                             SoundFragmentService soundFragmentService) {
-        this.uploadDir = config.getPathUploads() + "/sound-fragments-controller";
+                             SoundFragmentService soundFragmentService, AudioAnalysisService audioAnalysisService,
+                             UploadProgressStore progressStore, FileLeaseRegistry fileLeaseRegistry,
+                             BlockingExecutor blockingExecutor) {
         this.uploadDirectory = config.getPathUploads();
         this.audioMetadataService = audioMetadataService;
         this.soundFragmentService = soundFragmentService;
+        this.audioAnalysisService = audioAnalysisService;
+        this.progressStore = progressStore;
+        this.fileLeaseRegistry = fileLeaseRegistry;
+        this.blockingExecutor = blockingExecutor;
+        this.probePermits = new AsyncSemaphore(config.getBulkUploadProbeConcurrency());
+        this.storePermits = new AsyncSemaphore(config.getBulkUploadStoreConcurrency());
+        this.queueCapacity = config.getBulkUploadQueueCapacity();
     }
 
     public void validateUploadMeta(String originalFileName, String contentType) {
@@ -61,25 +97,22 @@ public class FileUploadService {
         return Uni.createFrom().<UploadFileDTO>emitter(emitter -> {
             try {
                 rc.request().setExpectMultipart(true);
+                AtomicBoolean fileSeen = new AtomicBoolean();
+                failWithoutFilePart(rc, fileSeen, emitter::fail);
 
                 rc.request().uploadHandler(upload -> {
+                    fileSeen.set(true);
                     try {
                         String originalFileName = upload.filename();
                         validateUploadMeta(originalFileName, upload.contentType());
                         String safeFileName = sanitizeAndValidateFilename(originalFileName, user);
                         Path destination = setupDirectoriesAndPath(controllerKey, entityId, user, safeFileName);
-                        Path tempInFinalDir = destination.getParent().resolve(".tmp_" + uploadId + "_" + safeFileName);
-                        upload.streamToFileSystem(tempInFinalDir.toString());
+                        Path tempFile = destination.getParent().resolve(".tmp_" + uploadId + "_" + safeFileName);
 
-                        upload.endHandler(v -> {
+                        upload.pause();
+                        streamWithHash(rc, upload, tempFile).subscribe().with(contentHash -> {
                             try {
-                                if (Files.size(tempInFinalDir) > MAX_FILE_SIZE_BYTES) {
-                                    Files.deleteIfExists(tempInFinalDir);
-                                    emitter.fail(new IllegalArgumentException(String.format("File too large. Maximum size is %d MB",
-                                            MAX_FILE_SIZE_BYTES / 1024 / 1024)));
-                                    return;
-                                }
-                                Files.move(tempInFinalDir, destination, StandardCopyOption.REPLACE_EXISTING);
+                                Files.move(tempFile, destination, StandardCopyOption.REPLACE_EXISTING);
                                 String fileUrl = generateFileUrl(entityId, safeFileName);
 
                                 AudioMetadataDTO metadata = null;
@@ -97,26 +130,14 @@ public class FileUploadService {
                                         .build();
                                 emitter.complete(dto);
                             } catch (Exception e) {
-                                try {
-                                    Files.deleteIfExists(tempInFinalDir);
-                                    Files.deleteIfExists(destination);
-                                } catch (IOException ignored) {}
+                                deleteQuietly(tempFile);
+                                deleteQuietly(destination);
                                 emitter.fail(e);
                             }
-                        });
-
-                        upload.exceptionHandler(err -> {
-                            try {
-                                Path userDir = Paths.get(uploadDir, controllerKey, user.getUserName(), entityId != null ? entityId : "temp");
-                                Files.list(userDir)
-                                        .filter(p -> p.getFileName().toString().startsWith(".tmp_" + uploadId + "_"))
-                                        .forEach(p -> {
-                                            try { Files.deleteIfExists(p); } catch (IOException ignored) {}
-                                        });
-                            } catch (IOException ignored) {}
+                        }, err -> {
+                            deleteQuietly(tempFile);
                             emitter.fail(err);
                         });
-
                     } catch (Exception e) {
                         emitter.fail(e);
                     }
@@ -133,7 +154,7 @@ public class FileUploadService {
         }
         
         // Check if already resolved for this batch
-        if (batchBrandIdMap.containsKey(batchId)) {
+        if (progressStore.getBrandId(batchId) != null) {
             return Uni.createFrom().voidItem();
         }
         
@@ -141,7 +162,7 @@ public class FileUploadService {
         return soundFragmentService.resolveBrandSlug(brandSlug)
                 .map(brandId -> {
                     if (brandId != null) {
-                        batchBrandIdMap.put(batchId, brandId);
+                        progressStore.setBrandId(batchId, brandId);
                     }
                     return null;
                 });
@@ -154,147 +175,313 @@ public class FileUploadService {
     }
 
     private Uni<UploadFileDTO> processFileUpload(RoutingContext rc, String batchId, String fileId, String controllerKey, IUser user) {
+        if (pendingIngest.incrementAndGet() > queueCapacity) {
+            pendingIngest.decrementAndGet();
+            rejected.incrementAndGet();
+            return Uni.createFrom().failure(new IngestQueueFullException(
+                    String.format("Ingest queue is full (%d files pending), retry later", queueCapacity)));
+        }
         return Uni.createFrom().<UploadFileDTO>emitter(emitter -> {
             try {
                 rc.request().setExpectMultipart(true);
+                AtomicBoolean fileSeen = new AtomicBoolean();
+                failWithoutFilePart(rc, fileSeen, err -> {
+                    pendingIngest.decrementAndGet();
+                    emitter.fail(err);
+                });
 
                 rc.request().uploadHandler(upload -> {
+                    fileSeen.set(true);
                     try {
                         String originalFileName = upload.filename();
                         validateUploadMeta(originalFileName, upload.contentType());
                         String safeFileName = sanitizeAndValidateFilename(originalFileName, user);
-                        Path destination = setupDirectoriesAndPath(controllerKey, BULK_FOLDER_NAME, user, safeFileName);
-                        Path tempInFinalDir = destination.getParent().resolve(".tmp_" + batchId + "_" + safeFileName);
-                        upload.streamToFileSystem(tempInFinalDir.toString());
+                        Path bulkDir = setupDirectoriesAndPath(controllerKey, BULK_FOLDER_NAME, user, safeFileName).getParent();
+                        Path tempFile = bulkDir.resolve(".tmp_" + fileId + "_" + safeFileName);
+
+                        upload.pause();
+                        streamWithHash(rc, upload, tempFile)
+                                .chain(contentHash -> admitUpload(batchId, fileId, bulkDir, tempFile, safeFileName, originalFileName, contentHash, user))
+                                .subscribe().with(emitter::complete, err -> {
+                                    deleteQuietly(tempFile);
+                                    pendingIngest.decrementAndGet();
+                                    emitter.fail(err);
+                                });
+                    } catch (Exception e) {
+                        pendingIngest.decrementAndGet();
+                        emitter.fail(e);
+                    }
+                });
+            } catch (Exception e) {
+                pendingIngest.decrementAndGet();
+                emitter.fail(e);
+            }
+        });
+    }
 
-                        upload.endHandler(v -> {
-                            try {
-                                if (Files.size(tempInFinalDir) > MAX_FILE_SIZE_BYTES) {
-                                    Files.deleteIfExists(tempInFinalDir);
-                                    emitter.fail(new IllegalArgumentException(String.format("File too large. Maximum size is %d MB",
-                                            MAX_FILE_SIZE_BYTES / 1024 / 1024)));
-                                    return;
-                                }
-                                Files.move(tempInFinalDir, destination, StandardCopyOption.REPLACE_EXISTING);
-                                String fileUrl = generateFileUrl(BULK_FOLDER_NAME, safeFileName);
+    /**
+     * Writes the upload to {@code target} with backpressure and returns the SHA-256 of its content,
+     * computed over the chunks as they arrive so no second read of the file is needed. Once the
+     * upload passes the size limit nothing more is read: the request fails and its connection is
+     * dropped after the error response instead of draining the rest of the body.
+     */
+    private Uni<String> streamWithHash(RoutingContext rc, HttpServerFileUpload upload, Path target) {
+        Vertx vertx = rc.vertx();
+        return Uni.createFrom().emitter(emitter -> vertx.fileSystem().open(target.toString(),
+                new OpenOptions().setWrite(true).setCreate(true).setTruncateExisting(true), opened -> {
+                    if (opened.failed()) {
+                        upload.resume();
+                        emitter.fail(opened.cause());
+                        return;
+                    }
+                    AsyncFile file = opened.result();
+                    MessageDigest digest = sha256();
+                    AtomicLong size = new AtomicLong();
+                    AtomicBoolean tooLarge = new AtomicBoolean();
+
+                    upload.handler(chunk -> {
+                        if (tooLarge.get()) {
+                            return;
+                        }
+                        if (size.addAndGet(chunk.length()) > MAX_FILE_SIZE_BYTES) {
+                            tooLarge.set(true);
+                            abortBody(rc);
+                            file.close(closed -> emitter.fail(new IllegalArgumentException(String.format(
+                                    "File too large. Maximum size is %d MB", MAX_FILE_SIZE_BYTES / 1024 / 1024))));
+                            return;
+                        }
+                        digest.update(chunk.getBytes());
+                        file.write(chunk);
+                        if (file.writeQueueFull()) {
+                            upload.pause();
+                            file.drainHandler(v -> upload.resume());
+                        }
+                    });
+                    upload.exceptionHandler(err -> {
+                        if (!tooLarge.get()) {
+                            file.close(closed -> emitter.fail(err));
+                        }
+                    });
+                    upload.endHandler(v -> {
+                        if (tooLarge.get()) {
+                            return;
+                        }
+                        file.close(closed -> {
+                            if (closed.failed()) {
+                                emitter.fail(closed.cause());
+                            } else {
+                                emitter.complete(HexFormat.of().formatHex(digest.digest()));
+                            }
+                        });
+                    });
+                    upload.resume();
+                }));
+    }
 
-                                // Get or create batch map once
-                                ConcurrentHashMap<String, UploadFileDTO> batchMap = bulkUploadProgressMap.computeIfAbsent(batchId, k -> new ConcurrentHashMap<>());
+    /**
+     * Stops reading a request whose body is being rejected. The error response still goes out;
+     * after it the connection (or the HTTP/2 stream) is dropped.
+     */
+    private static void abortBody(RoutingContext rc) {
+        HttpServerRequest request = rc.request();
+        request.pause();
+        if (rc.response().ended()) {
+            closeRequest(request);
+        } else {
+            rc.response().endHandler(v -> closeRequest(request));
+        }
+    }
 
-                                // Return immediately with processing status
-                                UploadFileDTO dto = UploadFileDTO.builder()
+    private static void closeRequest(HttpServerRequest request) {
+        if (request.version() == HttpVersion.HTTP_2) {
+            request.reset();
+        } else {
+            request.connection().close();
+        }
+    }
+
+    /**
+     * Fails the upload if the multipart request ends, or breaks off, before any file part arrived.
+     */
+    private static void failWithoutFilePart(RoutingContext rc, AtomicBoolean fileSeen, Consumer<Throwable> fail) {
+        AtomicBoolean failed = new AtomicBoolean();
+        rc.request().endHandler(v -> {
+            if (!fileSeen.get() && failed.compareAndSet(false, true)) {
+                fail.accept(new IllegalArgumentException("Upload request contains no file"));
+            }
+        });
+        rc.request().exceptionHandler(err -> {
+            if (!fileSeen.get() && failed.compareAndSet(false, true)) {
+                fail.accept(err);
+            }
+        });
+    }
+
+    /**
+     * Drops the file if the same content is already in the library or earlier in this upload run,
+     * otherwise moves it into place, answers the request and queues it for probing and storing.
+     */
+    private Uni<UploadFileDTO> admitUpload(String batchId, String fileId, Path bulkDir, Path tempFile, String safeFileName,
+                                           String originalFileName, String contentHash, IUser user) {
+        String inFlightFileId = inFlightHashes.putIfAbsent(contentHash, fileId);
+        Uni<UUID> existing = inFlightFileId != null
+                ? Uni.createFrom().item(SAME_BATCH)
+                : soundFragmentService.findByContentHash(contentHash)
+                        .onFailure().invoke(() -> inFlightHashes.remove(contentHash, fileId));
+
+        return existing.map(existingId -> {
+            if (existingId != null) {
+                if (inFlightFileId == null) {
+                    inFlightHashes.remove(contentHash, fileId);
+                }
+                deleteQuietly(tempFile);
+                pendingIngest.decrementAndGet();
+                duplicatesSkipped.incrementAndGet();
+                LOGGER.info("Bulk upload {} skipped, content already uploaded: {}", fileId, safeFileName);
+                UploadFileDTO dto = UploadFileDTO.builder()
+                        .id(fileId)
+                        .status("duplicate")
+                        .percentage(100)
+                        .batchId(batchId)
+                        .name(safeFileName)
+                        .errorMessage("Same audio file was already uploaded")
+                        .build();
+                progressStore.put(batchId, dto);
+                return dto;
+            }
+
+            String hashDirName = contentHash.substring(0, 16);
+            Path destination;
+            try {
+                Path hashDir = Files.createDirectories(bulkDir.resolve(hashDirName));
+                destination = FileSecurityUtils.secureResolve(hashDir, safeFileName);
+                Files.move(tempFile, destination, StandardCopyOption.REPLACE_EXISTING);
+            } catch (Exception e) {
+                inFlightHashes.remove(contentHash, fileId);
+                throw new IllegalStateException("Could not move upload into place: " + e.getMessage(), e);
+            }
+            String fileUrl = generateFileUrl(BULK_FOLDER_NAME + "/" + hashDirName, safeFileName);
+            UploadFileDTO dto = UploadFileDTO.builder()
+                    .id(fileId)
+                    .status("processing")
+                    .percentage(100)
+                    .batchId(batchId)
+                    .name(safeFileName)
+                    .url(fileUrl)
+                    .build();
+            progressStore.put(batchId, dto);
+
+            // the stored copy lives in the object store; the local one goes once ingest and analysis are done
+            FileLease lease = fileLeaseRegistry.acquire("ingest:" + fileId, destination);
+            ingest(batchId, fileId, destination, safeFileName, originalFileName, fileUrl, contentHash, user)
+                    .onTermination().invoke(() -> {
+                        lease.release();
+                        inFlightHashes.remove(contentHash, fileId);
+                        pendingIngest.decrementAndGet();
+                    })
+                    .subscribe().with(
+                            result -> LOGGER.info("Bulk upload completed for fileId: {}", fileId),
+                            err -> {
+                                LOGGER.error("Bulk upload failed for fileId: {}", fileId, err);
+                                progressStore.put(batchId, UploadFileDTO.builder()
                                         .id(fileId)
-                                        .status("processing")
+                                        .status("error")
                                         .percentage(100)
                                         .batchId(batchId)
                                         .name(safeFileName)
                                         .url(fileUrl)
-                                        .build();
-                                
-                                batchMap.put(fileId, dto);
-                                emitter.complete(dto);
+                                        .errorMessage("Upload failed: " + err.getMessage())
+                                        .build());
+                            }
+                    );
+            return dto;
+        });
+    }
 
-                                // Extract metadata async in background
-                                Uni.createFrom().item(() -> {
-                                    AudioMetadataDTO metadata = extractMetadata(destination, originalFileName, fileId);
-                                    UploadFileDTO metadataDto = UploadFileDTO.builder()
-                                            .id(fileId)
-                                            .status("metadata_extracted")
-                                            .percentage(100)
-                                            .batchId(batchId)
-                                            .name(safeFileName)
-                                            .url(fileUrl)
-                                            .fullPath(destination.toString())
-                                            .metadata(metadata)
-                                            .build();
-                                    
-                                    batchMap.put(fileId, metadataDto);
-                                    return metadataDto;
-                                }).runSubscriptionOn(Infrastructure.getDefaultExecutor())
-                                .chain(metadataDto -> {
-                                    // Create SoundFragment entity
-                                    UploadFileDTO creatingDto = UploadFileDTO.builder()
-                                            .id(fileId)
-                                            .status("creating_entity")
-                                            .percentage(100)
-                                            .batchId(batchId)
-                                            .name(safeFileName)
-                                            .url(fileUrl)
-                                            .fullPath(metadataDto.getFullPath())
-                                            .metadata(metadataDto.getMetadata())
-                                            .build();
-                                    batchMap.put(fileId, creatingDto);
-                                    
-                                    // Get cached brandId for this batch
-                                    UUID brandId = batchBrandIdMap.get(batchId);
-                                    
-                                    return soundFragmentService.createFromBulkUpload(metadataDto, brandId, user)
-                                            .map(fragment -> {
-                                                UploadFileDTO finalDto = UploadFileDTO.builder()
-                                                        .id(fileId)
-                                                        .status("finished")
-                                                        .percentage(100)
-                                                        .batchId(batchId)
-                                                        .name(safeFileName)
-                                                        .url(fileUrl)
-                                                        .metadata(metadataDto.getMetadata())
-                                                        .build();
-                                                batchMap.put(fileId, finalDto);
-                                                return finalDto;
-                                            });
-                                })
-                                .subscribe().with(
-                                    result -> LOGGER.info("Bulk upload completed for fileId: {}", fileId),
-                                    err -> {
-                                        LOGGER.error("Bulk upload failed for fileId: {}", fileId, err);
-                                        UploadFileDTO errorDto = UploadFileDTO.builder()
-                                                .id(fileId)
-                                                .status("error")
-                                                .percentage(100)
-                                                .batchId(batchId)
-                                                .name(safeFileName)
-                                                .url(fileUrl)
-                                                .errorMessage("Upload failed: " + err.getMessage())
-                                                .build();
-                                        
-                                        batchMap.put(fileId, errorDto);
-                                    }
-                                );
+    private Uni<UploadFileDTO> ingest(String batchId, String fileId, Path destination, String safeFileName,
+                                      String originalFileName, String fileUrl, String contentHash, IUser user) {
+        return probePermits.withPermit(() -> Uni.createFrom().item(() -> {
+                            AudioMetadataDTO metadata = extractMetadata(destination, originalFileName, null);
+                            UploadFileDTO metadataDto = UploadFileDTO.builder()
+                                    .id(fileId)
+                                    .status("metadata_extracted")
+                                    .percentage(100)
+                                    .batchId(batchId)
+                                    .name(safeFileName)
+                                    .url(fileUrl)
+                                    .fullPath(destination.toString())
+                                    .metadata(metadata)
+                                    .build();
+                            progressStore.put(batchId, metadataDto);
+                            return metadataDto;
+                        })
+                        .runSubscriptionOn(blockingExecutor.executor(BlockingExecutor.Category.PROBE)))
+                .chain(metadataDto -> storePermits.withPermit(() -> {
+                    progressStore.put(batchId, UploadFileDTO.builder()
+                            .id(fileId)
+                            .status("creating_entity")
+                            .percentage(100)
+                            .batchId(batchId)
+                            .name(safeFileName)
+                            .url(fileUrl)
+                            .fullPath(metadataDto.getFullPath())
+                            .metadata(metadataDto.getMetadata())
+                            .build());
+
+                    UUID brandId = progressStore.getBrandId(batchId);
+                    return soundFragmentService.createFromBulkUpload(metadataDto, contentHash, brandId, user);
+                }).map(fragment -> {
+                    audioAnalysisService.submit(fragment.getId(), destination);
+                    UploadFileDTO finalDto = UploadFileDTO.builder()
+                            .id(fileId)
+                            .status("finished")
+                            .percentage(100)
+                            .batchId(batchId)
+                            .name(safeFileName)
+                            .url(fileUrl)
+                            .metadata(metadataDto.getMetadata())
+                            .build();
+                    progressStore.put(batchId, finalDto);
+                    return finalDto;
+                }));
+    }
 
-                            } catch (Exception e) {
-                                try {
-                                    Files.deleteIfExists(tempInFinalDir);
-                                    Files.deleteIfExists(destination);
-                                } catch (IOException ignored) {}
-                                emitter.fail(e);
-                            }
-                        });
+    public Map<String, UploadFileDTO> getBulkUploadProgress(String batchId) {
+        return progressStore.getFiles(batchId);
+    }
 
-                        upload.exceptionHandler(err -> {
-                            try {
-                                Path userDir = Paths.get(uploadDirectory, controllerKey, user.getUserName(), BULK_FOLDER_NAME);
-                                Files.list(userDir)
-                                        .filter(p -> p.getFileName().toString().startsWith(".tmp_" + batchId + "_"))
-                                        .forEach(p -> {
-                                            try { Files.deleteIfExists(p); } catch (IOException ignored) {}
-                                        });
-                            } catch (IOException ignored) {}
-                            emitter.fail(err);
-                        });
+    public double getBatchFilesPerMinute(String batchId) {
+        return progressStore.getBatchFilesPerMinute(batchId);
+    }
 
-                    } catch (Exception e) {
-                        emitter.fail(e);
-                    }
-                });
-            } catch (Exception e) {
-                emitter.fail(e);
-            }
-        }).emitOn(Infrastructure.getDefaultExecutor());
+    public BulkIngestStatsDTO getIngestStats() {
+        BulkIngestStatsDTO dto = new BulkIngestStatsDTO();
+        dto.setActiveBatches(progressStore.getBatchCount());
+        dto.setPending(pendingIngest.get());
+        dto.setQueueCapacity(queueCapacity);
+        dto.setProbeInFlight(probePermits.getPermits() - probePermits.getAvailable());
+        dto.setProbeQueued(probePermits.getQueued());
+        dto.setStoreInFlight(storePermits.getPermits() - storePermits.getAvailable());
+        dto.setStoreQueued(storePermits.getQueued());
+        dto.setDuplicatesSkipped(duplicatesSkipped.get());
+        dto.setRejected(rejected.get());
+        dto.setFilesPerMinute(progressStore.getFilesPerMinute());
+        return dto;
     }
 
-    public ConcurrentHashMap<String, UploadFileDTO> getBulkUploadProgress(String batchId) {
-        ConcurrentHashMap<String, UploadFileDTO> files = bulkUploadProgressMap.get(batchId);
-        return files != null ? files : new ConcurrentHashMap<>();
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     private String sanitizeAndValidateFilename(String originalFileName, IUser user) {
@@ -363,33 +550,33 @@ public class FileUploadService {
     }
 
     private void updateProgress(String uploadId, Integer percentage, String status, String url, String fullPath, AudioMetadataDTO metadata, String errorMessage) {
-        UploadFileDTO dto = uploadProgressMap.get(uploadId);
-        if (dto == null) {
-            UploadFileDTO init = UploadFileDTO.builder()
-                    .status(status != null ? status : "uploading")
-                    .percentage(percentage != null ? percentage : 0)
-                    .batchId(uploadId)
-                    .build();
-            uploadProgressMap.put(uploadId, init);
-            dto = init;
+        if (uploadId == null) {
+            return;
         }
-
-        UploadFileDTO updatedDto = UploadFileDTO.builder()
-                .id(dto.getId())
-                .name(dto.getName())
-                .status(status)
-                .percentage(percentage != null ? percentage : dto.getPercentage())
-                .url(url != null ? url : dto.getUrl())
-                .batchId(dto.getBatchId())
-                .type(dto.getType())
-                .fullPath(fullPath != null ? fullPath : dto.getFullPath())
-                .thumbnailUrl(dto.getThumbnailUrl())
-                .metadata(metadata != null ? metadata : dto.getMetadata())
-                .fileSize(dto.getFileSize())
-                .errorMessage(errorMessage != null ? errorMessage : dto.getErrorMessage())
-                .build();
-
-        uploadProgressMap.put(uploadId, updatedDto);
+        progressStore.updateSingle(uploadId, dto -> {
+            if (dto == null) {
+                dto = UploadFileDTO.builder()
+                        .id(uploadId)
+                        .status(status != null ? status : "uploading")
+                        .percentage(percentage != null ? percentage : 0)
+                        .batchId(uploadId)
+                        .build();
+            }
+            return UploadFileDTO.builder()
+                    .id(dto.getId())
+                    .name(dto.getName())
+                    .status(status)
+                    .percentage(percentage != null ? percentage : dto.getPercentage())
+                    .url(url != null ? url : dto.getUrl())
+                    .batchId(dto.getBatchId())
+                    .type(dto.getType())
+                    .fullPath(fullPath != null ? fullPath : dto.getFullPath())
+                    .thumbnailUrl(dto.getThumbnailUrl())
+                    .metadata(metadata != null ? metadata : dto.getMetadata())
+                    .fileSize(dto.getFileSize())
+                    .errorMessage(errorMessage != null ? errorMessage : dto.getErrorMessage())
+                    .build();
+        });
     }
 
     private boolean isValidAudioFile(String filename, String contentType) {
@@ -0,0 +1,155 @@
+package io.kneo.broadcaster.service.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Everything one station runs in the background. {@link #execute} and {@link #submit} run one task
+ * at a time in submission order, like a single-thread executor, but on virtual threads that only
+ * exist while there is work. Periodic tasks share one platform timer thread across all stations and
+ * never overlap with themselves. {@link #close} cancels the timers, cancels queued futures from
+ * {@link #submit} so nobody waits on them forever, and interrupts running tasks.
+ */
+public class StationScope implements Executor, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StationScope.class);
+
+    private final String name;
+    private final Executor virtualThreads;
+    private final ScheduledExecutorService timer;
+    private final Queue<Runnable> serial = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Set<ScheduledFuture<?>> schedules = ConcurrentHashMap.newKeySet();
+    private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    StationScope(String name, Executor virtualThreads, ScheduledExecutorService timer) {
+        this.name = name;
+        this.virtualThreads = virtualThreads;
+        this.timer = timer;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (closed) {
+            throw new RejectedExecutionException("Scope " + name + " is closed");
+        }
+        serial.offer(task);
+        if (closed) {
+            // close() ran between the check and the offer and may have missed this task
+            cancelQueued();
+            throw new RejectedExecutionException("Scope " + name + " is closed");
+        }
+        drain();
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+        return future;
+    }
+
+    public Future<?> submit(Runnable task) {
+        return submit(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code task} every {@code period}; a run that is still busy when the next one is due
+     * makes that one skip, as with {@link ScheduledExecutorService#scheduleAtFixedRate}.
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (closed) {
+            throw new RejectedExecutionException("Scope " + name + " is closed");
+        }
+        AtomicBoolean busy = new AtomicBoolean();
+        ScheduledFuture<?> schedule = timer.scheduleAtFixedRate(() -> {
+            if (closed || !busy.compareAndSet(false, true)) {
+                return;
+            }
+            virtualThreads.execute(() -> {
+                try {
+                    track(task);
+                } finally {
+                    busy.set(false);
+                }
+            });
+        }, initialDelay, period, unit);
+        schedules.add(schedule);
+        return schedule;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        schedules.forEach(schedule -> schedule.cancel(false));
+        schedules.clear();
+        int dropped = cancelQueued();
+        running.forEach(Thread::interrupt);
+        LOGGER.debug("Scope {} closed, {} queued task(s) dropped", name, dropped);
+    }
+
+    private int cancelQueued() {
+        int dropped = 0;
+        Runnable queued;
+        while ((queued = serial.poll()) != null) {
+            if (queued instanceof Future<?> future) {
+                future.cancel(false);
+            }
+            dropped++;
+        }
+        return dropped;
+    }
+
+    private void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        virtualThreads.execute(() -> {
+            try {
+                Runnable next;
+                while (!closed && (next = serial.poll()) != null) {
+                    track(next);
+                }
+            } finally {
+                draining.set(false);
+                // a task offered between the last poll and the reset would otherwise wait for the next one
+                if (!closed && !serial.isEmpty()) {
+                    drain();
+                }
+            }
+        });
+    }
+
+    private void track(Runnable task) {
+        Thread current = Thread.currentThread();
+        running.add(current);
+        try {
+            task.run();
+        } catch (Exception e) {
+            LOGGER.error("Task in scope {} failed: {}", name, e.getMessage(), e);
+        } finally {
+            running.remove(current);
+            Thread.interrupted();
+        }
+    }
+}
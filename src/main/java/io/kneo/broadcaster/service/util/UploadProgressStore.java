@@ -0,0 +1,185 @@
+package io.kneo.broadcaster.service.util;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.dto.UploadFileDTO;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Upload progress per batch, kept for a limited number of batches and dropped once a batch has
+ * been idle for the TTL. Each batch also remembers the brand its files go to, so that lookup
+ * is bounded the same way. Single-file uploads are tracked apart from batches under the same
+ * limits, so they never push a bulk batch out. Also counts finished files so ingest throughput
+ * can be reported.
+ */
+@ApplicationScoped
+public class UploadProgressStore {
+    private static final long THROUGHPUT_WINDOW_MILLIS = 5 * 60 * 1000;
+
+    private final int maxBatches;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Batch> batches = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Single> singles = new LinkedHashMap<>(16, 0.75f, true);
+    private final ArrayDeque<Long> recentCompletions = new ArrayDeque<>();
+
+    @Inject
+    public UploadProgressStore(BroadcasterConfig config) {
+        this.maxBatches = config.getUploadProgressMaxBatches();
+        this.ttlMillis = config.getUploadProgressTtlMinutes() * 60_000L;
+    }
+
+    public void put(String batchId, UploadFileDTO dto) {
+        Batch batch = batch(batchId);
+        UploadFileDTO previous = batch.files.put(dto.getId(), dto);
+        if (isDone(dto.getStatus()) && (previous == null || !isDone(previous.getStatus()))) {
+            batch.completed.incrementAndGet();
+            if ("finished".equals(dto.getStatus())) {
+                recordCompletion();
+            }
+        }
+    }
+
+    public void setBrandId(String batchId, UUID brandId) {
+        batch(batchId).brandId = brandId;
+    }
+
+    public UUID getBrandId(String batchId) {
+        synchronized (batches) {
+            Batch batch = batches.get(batchId);
+            return batch != null ? batch.brandId : null;
+        }
+    }
+
+    public void update(String batchId, String fileId, UnaryOperator<UploadFileDTO> change) {
+        Batch batch = batch(batchId);
+        batch.files.compute(fileId, (id, current) -> change.apply(current));
+    }
+
+    public void updateSingle(String uploadId, UnaryOperator<UploadFileDTO> change) {
+        long now = System.currentTimeMillis();
+        synchronized (singles) {
+            Single current = singles.get(uploadId);
+            singles.put(uploadId, new Single(change.apply(current != null ? current.file() : null), now));
+            Iterator<Single> eldest = singles.values().iterator();
+            while (singles.size() > maxBatches && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    public UploadFileDTO getSingle(String uploadId) {
+        synchronized (singles) {
+            Single single = singles.get(uploadId);
+            return single != null ? single.file() : null;
+        }
+    }
+
+    public Map<String, UploadFileDTO> getFiles(String batchId) {
+        Batch batch;
+        synchronized (batches) {
+            batch = batches.get(batchId);
+        }
+        return batch != null ? batch.files : Map.of();
+    }
+
+    /**
+     * Files per minute for one batch, measured from its first file to now.
+     */
+    public double getBatchFilesPerMinute(String batchId) {
+        Batch batch;
+        synchronized (batches) {
+            batch = batches.get(batchId);
+        }
+        if (batch == null || batch.completed.get() == 0) {
+            return 0.0;
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - batch.startedAt);
+        return batch.completed.get() * 60_000.0 / elapsed;
+    }
+
+    /**
+     * Files per minute finished across all batches over the last five minutes.
+     */
+    public double getFilesPerMinute() {
+        synchronized (recentCompletions) {
+            trimCompletions(System.currentTimeMillis());
+            return recentCompletions.size() * 60_000.0 / THROUGHPUT_WINDOW_MILLIS;
+        }
+    }
+
+    public int getBatchCount() {
+        synchronized (batches) {
+            return batches.size();
+        }
+    }
+
+    @Scheduled(every = "1m", identity = "upload-progress-expiry")
+    void expire() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        synchronized (batches) {
+            batches.values().removeIf(batch -> batch.lastUpdate <= cutoff);
+        }
+        synchronized (singles) {
+            singles.values().removeIf(single -> single.lastUpdate() <= cutoff);
+        }
+    }
+
+    private Batch batch(String batchId) {
+        long now = System.currentTimeMillis();
+        synchronized (batches) {
+            Batch batch = batches.computeIfAbsent(batchId, id -> new Batch(now));
+            batch.lastUpdate = now;
+            Iterator<Batch> eldest = batches.values().iterator();
+            while (batches.size() > maxBatches && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+            return batch;
+        }
+    }
+
+    private void recordCompletion() {
+        long now = System.currentTimeMillis();
+        synchronized (recentCompletions) {
+            recentCompletions.addLast(now);
+            trimCompletions(now);
+        }
+    }
+
+    private void trimCompletions(long now) {
+        while (!recentCompletions.isEmpty() && recentCompletions.peekFirst() < now - THROUGHPUT_WINDOW_MILLIS) {
+            recentCompletions.pollFirst();
+        }
+    }
+
+    private static boolean isDone(String status) {
+        return "finished".equals(status) || "error".equals(status) || "duplicate".equals(status);
+    }
+
+    private record Single(UploadFileDTO file, long lastUpdate) {
+    }
+
+    private static class Batch {
+        private final ConcurrentHashMap<String, UploadFileDTO> files = new ConcurrentHashMap<>();
+        private final long startedAt;
+        private volatile long lastUpdate;
+        private volatile UUID brandId;
+        private final AtomicInteger completed = new AtomicInteger();
+
+        private Batch(long startedAt) {
+            this.startedAt = startedAt;
+            this.lastUpdate = startedAt;
+        }
+    }
+}
@@ -1,60 +1,322 @@
 package io.kneo.broadcaster.template;
 
-import javax.script.Bindings;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineFactory;
-import javax.script.ScriptEngineManager;
-import javax.script.SimpleBindings;
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.Script;
+import groovy.transform.ThreadInterrupt;
+import groovy.transform.TimedInterrupt;
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.service.util.BlockingExecutor;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Renders draft templates. Every distinct template text is compiled once into its own
+ * {@link GroovyClassLoader}; the cache is LRU-bounded and evicted loaders are closed so
+ * their generated classes can be unloaded instead of piling up in Metaspace.
+ * <p>
+ * Draft scripts call blocking helpers (weather, news and search lookups), so renders run on the
+ * {@link BlockingExecutor.Category#SCRIPT} lane of virtual threads rather than on a CPU-sized
+ * pool, and a few slow lookups cannot hold up every station's intros. At most
+ * {@code template.queue-capacity} renders wait for a permit; more are rejected. Compilation and
+ * the script run share one per-render timeout, which starts when the render gets its thread,
+ * not while it waits. Compiled scripts check the thread's interrupt flag and their own deadline
+ * in every loop and method, so a render that times out is interrupted and actually stops.
+ */
+@ApplicationScoped
 public class GroovyTemplateEngine {
-    private final ScriptEngine engine;
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroovyTemplateEngine.class);
+
+    private final int cacheSize;
+    private final int queueCapacity;
+    private final Duration renderTimeout;
+    private final Executor renderExecutor;
+    private final CompilerConfiguration compilerConfiguration;
+    private final Map<String, CompiledTemplate> cache;
+    private final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("groovy-render-deadline").daemon().factory());
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
 
-    public GroovyTemplateEngine() {
-        ScriptEngineManager manager = new ScriptEngineManager();
+    private final AtomicLong renders = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong cpuTimeNanos = new AtomicLong();
+    private final AtomicLong renderTimeNanos = new AtomicLong();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    @Inject
+    public GroovyTemplateEngine(BroadcasterConfig config, BlockingExecutor blockingExecutor) {
+        this(
+                config.getTemplateCacheSize(),
+                blockingExecutor.executor(BlockingExecutor.Category.SCRIPT),
+                config.getTemplateQueueCapacity(),
+                Duration.ofSeconds(config.getTemplateRenderTimeoutSeconds())
+        );
+    }
 
-        ScriptEngine eng = manager.getEngineByName("groovy");
-        if (eng == null) eng = manager.getEngineByExtension("groovy");
+    public GroovyTemplateEngine(int cacheSize, Executor renderExecutor, int queueCapacity, Duration renderTimeout) {
+        this.cacheSize = cacheSize;
+        this.renderExecutor = renderExecutor;
+        this.queueCapacity = queueCapacity;
+        this.renderTimeout = renderTimeout;
+        this.compilerConfiguration = new CompilerConfiguration();
+        this.compilerConfiguration.addCompilationCustomizers(
+                new ASTTransformationCustomizer(ThreadInterrupt.class),
+                new ASTTransformationCustomizer(Map.of("value", Math.max(1L, renderTimeout.toSeconds())), TimedInterrupt.class));
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public Uni<String> render(String script, Map<String, Object> context, String draftSlug) {
+        renders.incrementAndGet();
+        Map<String, Object> variables = context != null ? new HashMap<>(context) : new HashMap<>();
+        return Uni.createFrom().emitter(emitter -> {
+            // whoever settles the render first wins: the task with its result, or a timeout or
+            // cancellation, which interrupts the task
+            AtomicBoolean settled = new AtomicBoolean();
+            // claimed by the task when it starts, or by a cancellation that stops it from starting
+            AtomicBoolean started = new AtomicBoolean();
+            FutureTask<?>[] self = new FutureTask<?>[1];
+            FutureTask<Void> task = new FutureTask<>(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    return null;
+                }
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                long startedAt = System.nanoTime();
+                ScheduledFuture<?> deadline = deadlines.schedule(() -> {
+                    if (settled.compareAndSet(false, true)) {
+                        emitter.fail(timedOut(draftSlug, null));
+                        self[0].cancel(true);
+                    }
+                }, renderTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                try {
+                    Object result = run(getOrCompile(script, draftSlug), variables);
+                    if (settled.compareAndSet(false, true)) {
+                        emitter.complete(String.valueOf(result));
+                    }
+                } catch (Throwable e) {
+                    if (settled.compareAndSet(false, true)) {
+                        emitter.fail(e instanceof TimeoutException
+                                ? timedOut(draftSlug, e)
+                                : evaluationFailed(draftSlug, e, context));
+                    }
+                } finally {
+                    deadline.cancel(false);
+                    active.decrementAndGet();
+                    renderTimeNanos.addAndGet(System.nanoTime() - startedAt);
+                }
+                return null;
+            });
+            self[0] = task;
 
-        if (eng == null) {
-            String available = manager.getEngineFactories().stream()
-                    .map(ScriptEngineFactory::getEngineName)
-                    .collect(Collectors.joining(", "));
-            throw new IllegalStateException(
-                    "Groovy scripting engine not found. Ensure groovy is on the classpath. " +
-                            "Available engines: [" + available + "]");
+            if (queued.incrementAndGet() > queueCapacity) {
+                queued.decrementAndGet();
+                rejections.incrementAndGet();
+                emitter.fail(new RuntimeException(String.format("Groovy render queue is full, script '%s' rejected", draftSlug)));
+                return;
+            }
+            emitter.onTermination(() -> {
+                if (settled.compareAndSet(false, true)) {
+                    if (started.compareAndSet(false, true)) {
+                        queued.decrementAndGet();
+                    }
+                    task.cancel(true);
+                }
+            });
+            try {
+                renderExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                if (started.compareAndSet(false, true)) {
+                    queued.decrementAndGet();
+                }
+                rejections.incrementAndGet();
+                if (settled.compareAndSet(false, true)) {
+                    emitter.fail(new RuntimeException(String.format("Groovy render executor rejected script '%s'", draftSlug), e));
+                }
+            }
+        });
+    }
+
+    public RenderStats getStats() {
+        int cached;
+        synchronized (cache) {
+            cached = cache.size();
+        }
+        return new RenderStats(
+                renders.get(),
+                cacheHits.get(),
+                cacheMisses.get(),
+                evictions.get(),
+                timeouts.get(),
+                rejections.get(),
+                cached,
+                active.get(),
+                queued.get(),
+                cpuTimeNanos.get(),
+                renderTimeNanos.get()
+        );
+    }
+
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.values().forEach(CompiledTemplate::close);
+            cache.clear();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        deadlines.shutdownNow();
+        invalidateAll();
+    }
+
+    private RuntimeException timedOut(String draftSlug, Throwable cause) {
+        timeouts.incrementAndGet();
+        return new RuntimeException(String.format("Groovy script '%s' did not finish within %ds",
+                draftSlug, renderTimeout.toSeconds()), cause);
+    }
+
+    private static RuntimeException evaluationFailed(String draftSlug, Throwable cause, Map<String, Object> context) {
+        String msg = cause.getClass().getName() + ": " + (cause.getMessage() == null ? "" : cause.getMessage());
+
+        // Log script context for debugging
+        StringBuilder contextInfo = new StringBuilder();
+        if (context != null) {
+            contextInfo.append("Context variables: ");
+            context.keySet().forEach(key -> {
+                Object value = context.get(key);
+                String valueStr = value != null ? value.getClass().getSimpleName() : "null";
+                contextInfo.append(key).append("=").append(valueStr).append(", ");
+            });
+            if (contextInfo.length() > 2) {
+                contextInfo.setLength(contextInfo.length() - 2); // Remove trailing comma
+            }
         }
-        this.engine = eng;
+
+        String errorMsg = String.format("Failed to evaluate Groovy script '%s': %s. %s", draftSlug, msg, contextInfo);
+        return new RuntimeException(errorMsg, cause);
     }
 
-    public String render(String script, Map<String, Object> context, String draftSlug) {
+    private Object run(CompiledTemplate compiled, Map<String, Object> variables) {
+        // virtual threads report -1, so CPU time is only counted when renders run on platform threads
+        long cpuStart = threadMXBean.isCurrentThreadCpuTimeSupported() ? threadMXBean.getCurrentThreadCpuTime() : -1L;
         try {
-            Bindings bindings = new SimpleBindings();
-            if (context != null) {
-                bindings.putAll(context);
+            Script instance = InvokerHelper.createScript(compiled.scriptClass(), new Binding(variables));
+            return instance.run();
+        } finally {
+            if (cpuStart >= 0) {
+                cpuTimeNanos.addAndGet(threadMXBean.getCurrentThreadCpuTime() - cpuStart);
             }
-            engine.put(ScriptEngine.FILENAME, String.format("%s.groovy", draftSlug));
-            return String.valueOf(engine.eval(script, bindings));
-        } catch (Exception e) {
-            String msg = e.getClass().getName() + ": " + (e.getMessage() == null ? "" : e.getMessage());
-            
-            // Log script context for debugging
-            StringBuilder contextInfo = new StringBuilder();
-            if (context != null) {
-                contextInfo.append("Context variables: ");
-                context.keySet().forEach(key -> {
-                    Object value = context.get(key);
-                    String valueStr = value != null ? value.getClass().getSimpleName() : "null";
-                    contextInfo.append(key).append("=").append(valueStr).append(", ");
-                });
-                if (contextInfo.length() > 2) {
-                    contextInfo.setLength(contextInfo.length() - 2); // Remove trailing comma
-                }
+        }
+    }
+
+    private CompiledTemplate getOrCompile(String script, String draftSlug) {
+        String key = hash(script);
+        synchronized (cache) {
+            CompiledTemplate cached = cache.get(key);
+            if (cached != null) {
+                cacheHits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        cacheMisses.incrementAndGet();
+        CompiledTemplate compiled = compile(script, draftSlug);
+        synchronized (cache) {
+            CompiledTemplate raced = cache.putIfAbsent(key, compiled);
+            if (raced != null) {
+                compiled.close();
+                return raced;
+            }
+            while (cache.size() > cacheSize) {
+                Map.Entry<String, CompiledTemplate> eldest = cache.entrySet().iterator().next();
+                cache.remove(eldest.getKey());
+                eldest.getValue().close();
+                evictions.incrementAndGet();
             }
-            
-            String errorMsg = String.format("Failed to evaluate Groovy script '%s': %s. %s", draftSlug, msg, contextInfo);
-            throw new RuntimeException(errorMsg, e);
+        }
+        return compiled;
+    }
+
+    private CompiledTemplate compile(String script, String draftSlug) {
+        GroovyClassLoader loader = new GroovyClassLoader(GroovyTemplateEngine.class.getClassLoader(), compilerConfiguration);
+        try {
+            GroovyCodeSource source = new GroovyCodeSource(script, String.format("%s.groovy", draftSlug), "/groovy/script");
+            source.setCachable(false);
+            Class<?> scriptClass = loader.parseClass(source);
+            LOGGER.debug("Compiled Groovy template '{}' as {}", draftSlug, scriptClass.getName());
+            return new CompiledTemplate(scriptClass, loader);
+        } catch (RuntimeException e) {
+            closeQuietly(loader);
+            throw e;
+        }
+    }
+
+    private static String hash(String script) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(script.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void closeQuietly(GroovyClassLoader loader) {
+        try {
+            loader.clearCache();
+            loader.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close Groovy class loader", e);
+        }
+    }
+
+    private record CompiledTemplate(Class<?> scriptClass, GroovyClassLoader loader) {
+        void close() {
+            closeQuietly(loader);
+        }
+    }
+
+    public record RenderStats(long renders, long cacheHits, long cacheMisses, long evictions, long timeouts,
+                              long rejections, int cachedScripts, int activeRenders, int queuedRenders,
+                              long cpuTimeNanos, long renderTimeNanos) {
+        public double getHitRate() {
+            long lookups = cacheHits + cacheMisses;
+            return lookups == 0 ? 0.0 : (double) cacheHits / lookups;
         }
     }
 }
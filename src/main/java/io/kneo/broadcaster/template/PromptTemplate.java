@@ -0,0 +1,142 @@
+package io.kneo.broadcaster.template;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A prompt with {@code {{name}}} placeholders, parsed once into alternating literal and
+ * placeholder segments. Rendering is a single pass into a builder sized up front. Placeholders
+ * without a value are left in the output untouched, the same as a chain of
+ * {@link String#replace} calls would leave them. {@link #bind} fills some placeholders ahead of
+ * time, so values that rarely change are not substituted again on every render.
+ */
+public final class PromptTemplate {
+    private static final int MAX_COMPILED = 256;
+    private static final Map<String, PromptTemplate> COMPILED = new ConcurrentHashMap<>();
+
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private PromptTemplate(List<String> literals, List<String> names) {
+        this.literals = literals.toArray(String[]::new);
+        this.names = names.toArray(String[]::new);
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Returns the compiled form of {@code text}, parsing it only the first time it is seen.
+     */
+    public static PromptTemplate of(String text) {
+        PromptTemplate template = COMPILED.get(text);
+        if (template != null) {
+            return template;
+        }
+        if (COMPILED.size() >= MAX_COMPILED) {
+            COMPILED.clear();
+        }
+        return COMPILED.computeIfAbsent(text, PromptTemplate::compile);
+    }
+
+    public static PromptTemplate compile(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int literalStart = 0;
+        int search = 0;
+        while (true) {
+            int open = text.indexOf("{{", search);
+            if (open < 0) {
+                break;
+            }
+            int close = text.indexOf("}}", open + 2);
+            if (close < 0) {
+                break;
+            }
+            String name = text.substring(open + 2, close);
+            if (!isName(name)) {
+                search = open + 1;
+                continue;
+            }
+            literals.add(text.substring(literalStart, open));
+            names.add(name);
+            literalStart = close + 2;
+            search = literalStart;
+        }
+        literals.add(text.substring(literalStart));
+        return new PromptTemplate(literals, names);
+    }
+
+    public String render(Map<String, String> values) {
+        int size = literalLength;
+        for (String name : names) {
+            String value = values.get(name);
+            size += value != null ? value.length() : name.length() + 4;
+        }
+        StringBuilder out = new StringBuilder(size);
+        out.append(literals[0]);
+        for (int i = 0; i < names.length; i++) {
+            String value = values.get(names[i]);
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append("{{").append(names[i]).append("}}");
+            }
+            out.append(literals[i + 1]);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Returns a template with the given placeholders filled in and the rest kept open.
+     */
+    public PromptTemplate bind(Map<String, String> values) {
+        List<String> boundLiterals = new ArrayList<>();
+        List<String> openNames = new ArrayList<>();
+        StringBuilder current = new StringBuilder(literals[0]);
+        for (int i = 0; i < names.length; i++) {
+            String value = values.get(names[i]);
+            if (value != null) {
+                current.append(value);
+            } else {
+                boundLiterals.add(current.toString());
+                openNames.add(names[i]);
+                current.setLength(0);
+            }
+            current.append(literals[i + 1]);
+        }
+        boundLiterals.add(current.toString());
+        return new PromptTemplate(boundLiterals, openNames);
+    }
+
+    /**
+     * The text before the first placeholder, which every render starts with.
+     */
+    public String getLeadingText() {
+        return literals[0];
+    }
+
+    public Set<String> getPlaceholders() {
+        return new LinkedHashSet<>(List.of(names));
+    }
+
+    private static boolean isName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+package io.kneo.broadcaster.util;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counting semaphore: callers that cannot get a permit are queued instead of
+ * parking a thread, and resume when a permit is released.
+ */
+public class AsyncSemaphore {
+    private final int permits;
+    private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private int available;
+
+    public AsyncSemaphore(int permits) {
+        this.permits = permits;
+        this.available = permits;
+    }
+
+    public <T> Uni<T> withPermit(Supplier<Uni<T>> action) {
+        return Uni.createFrom().deferred(() -> {
+            CompletableFuture<Void> ticket = acquire();
+            return Uni.createFrom().completionStage(ticket)
+                    .onCancellation().invoke(() -> abandon(ticket))
+                    // deferred turns an action that throws before returning its Uni into a failure,
+                    // so the permit is released on that path too
+                    .chain(() -> Uni.createFrom().deferred(action::get).onTermination().invoke(this::release));
+        });
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public synchronized int getAvailable() {
+        return available;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    private synchronized CompletableFuture<Void> acquire() {
+        if (available > 0) {
+            available--;
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> ticket = new CompletableFuture<>();
+        waiters.add(ticket);
+        return ticket;
+    }
+
+    private void release() {
+        while (true) {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = waiters.poll();
+                if (next == null) {
+                    available++;
+                    return;
+                }
+            }
+            if (next.complete(null)) {
+                return;
+            }
+        }
+    }
+
+    private void abandon(CompletableFuture<Void> ticket) {
+        synchronized (this) {
+            waiters.remove(ticket);
+        }
+        // cancel() only fails when the permit was already handed over
+        if (!ticket.cancel(false)) {
+            release();
+        }
+    }
+}
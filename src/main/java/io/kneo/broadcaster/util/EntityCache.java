@@ -0,0 +1,195 @@
+package io.kneo.broadcaster.util;
+
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded read-through cache for slowly changing rows. Entries expire after a fixed TTL and the
+ * least recently used entry is dropped once the cache is full. Concurrent misses for the same key
+ * share one load, and a failed load is not cached. A cache built with a weigher is also bounded by
+ * the total weight of its loaded values, e.g. the bytes they hold.
+ */
+public class EntityCache<K, V> {
+    private final String name;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong loadTimeNanos = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public EntityCache(String name, int maxEntries, Duration ttl) {
+        this(name, maxEntries, Long.MAX_VALUE, ttl, value -> 0);
+    }
+
+    /**
+     * A value that alone weighs more than {@code maxWeight} is handed to its callers but not kept.
+     */
+    public EntityCache(String name, int maxEntries, long maxWeight, Duration ttl, ToLongFunction<V> weigher) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Uni<V> get(K key, Function<K, Uni<V>> loader) {
+        long now = System.currentTimeMillis();
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+                entry = new Entry<>(now + ttlMillis);
+                entry.value = load(key, loader, entry);
+                forget(entries.put(key, entry));
+                while (entries.size() > maxEntries) {
+                    evictEldest();
+                }
+            }
+        }
+        return entry.value;
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            Entry<V> removed = entries.remove(key);
+            if (removed != null) {
+                forget(removed);
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public void invalidateIf(Predicate<K> predicate) {
+        synchronized (entries) {
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Entry<V>> next = it.next();
+                if (predicate.test(next.getKey())) {
+                    forget(next.getValue());
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    public Stats getStats() {
+        int size;
+        long currentWeight;
+        synchronized (entries) {
+            size = entries.size();
+            currentWeight = weight;
+        }
+        return new Stats(name, size, maxEntries, ttlMillis / 1000, hits.get(), misses.get(), loads.get(),
+                loadFailures.get(), loads.get() == 0 ? 0 : loadTimeNanos.get() / loads.get() / 1_000_000.0,
+                evictions.get(), invalidations.get(), currentWeight, maxWeight);
+    }
+
+    private Uni<V> load(K key, Function<K, Uni<V>> loader, Entry<V> entry) {
+        return Uni.createFrom().deferred(() -> {
+                    long start = System.nanoTime();
+                    return loader.apply(key)
+                            .onItemOrFailure().invoke((item, failure) -> {
+                                loads.incrementAndGet();
+                                loadTimeNanos.addAndGet(System.nanoTime() - start);
+                                if (failure != null) {
+                                    loadFailures.incrementAndGet();
+                                    synchronized (entries) {
+                                        if (entries.remove(key, entry)) {
+                                            forget(entry);
+                                        }
+                                    }
+                                } else {
+                                    weigh(key, entry, item);
+                                }
+                            });
+                })
+                .memoize().indefinitely();
+    }
+
+    private void weigh(K key, Entry<V> entry, V item) {
+        long itemWeight = weigher.applyAsLong(item);
+        if (itemWeight == 0) {
+            return;
+        }
+        synchronized (entries) {
+            if (entries.get(key) != entry) {
+                return;
+            }
+            entry.weight = itemWeight;
+            weight += itemWeight;
+            while (weight > maxWeight && !entries.isEmpty()) {
+                evictEldest();
+            }
+        }
+    }
+
+    private void evictEldest() {
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        forget(eldest.next());
+        eldest.remove();
+        evictions.incrementAndGet();
+    }
+
+    private void forget(Entry<V> entry) {
+        if (entry != null) {
+            weight -= entry.weight;
+            entry.weight = 0;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final long expiresAt;
+        private Uni<V> value;
+        private long weight;
+
+        private Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * {@code weight} and {@code maxWeight} are 0 and {@link Long#MAX_VALUE} for caches without a
+     * weigher.
+     */
+    public record Stats(String name, int size, int maxEntries, long ttlSeconds, long hits, long misses, long loads,
+                        long loadFailures, double avgLoadMs, long evictions, long invalidations,
+                        long weight, long maxWeight) {
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+}
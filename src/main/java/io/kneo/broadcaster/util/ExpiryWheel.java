@@ -0,0 +1,65 @@
+package io.kneo.broadcaster.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Timing wheel of deadlines. Keys are filed under the slot of their deadline, and advancing the
+ * clock only visits the slots that have come due, so expiring costs roughly the number of expired
+ * keys instead of a scan over everything. Deadlines further away than one revolution stay in their
+ * slot until the wheel comes round to them again. Removal is lazy: callers check that a returned
+ * key still carries the deadline it was scheduled with.
+ */
+public class ExpiryWheel<K> {
+    private final long tickMillis;
+    private final List<List<Scheduled<K>>> slots;
+    private long currentTick;
+    private int size;
+
+    public ExpiryWheel(Duration tick, int slotCount, long nowMillis) {
+        this.tickMillis = tick.toMillis();
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = nowMillis / tickMillis - 1;
+    }
+
+    public synchronized void schedule(K key, long deadlineMillis) {
+        long tick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        slots.get((int) (tick % slots.size())).add(new Scheduled<>(key, deadlineMillis));
+        size++;
+    }
+
+    /**
+     * Moves the clock to {@code nowMillis} and returns the keys whose deadline has passed.
+     */
+    public synchronized List<Scheduled<K>> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<Scheduled<K>> expired = new ArrayList<>();
+        long steps = Math.min(targetTick - currentTick, slots.size());
+        for (long i = 1; i <= steps; i++) {
+            Iterator<Scheduled<K>> it = slots.get((int) ((currentTick + i) % slots.size())).iterator();
+            while (it.hasNext()) {
+                Scheduled<K> entry = it.next();
+                if (entry.deadlineMillis() <= nowMillis) {
+                    expired.add(entry);
+                    it.remove();
+                    size--;
+                }
+            }
+        }
+        // the slot of the running tick can still receive deadlines that are not due yet
+        currentTick = Math.max(currentTick, targetTick - 1);
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public record Scheduled<K>(K key, long deadlineMillis) {
+    }
+}
@@ -0,0 +1,96 @@
+package io.kneo.broadcaster.util;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A single {@code Range: bytes=...} request. Either {@code start} is set (with an optional
+ * {@code end}, inclusive), or only {@code suffixLength} is set for "last N bytes". Multi-range
+ * requests are not supported and parse to {@code null}, so the caller serves the whole file.
+ * {@code ifRange} is the request's {@code If-Range} validator, if any; see {@link #appliesTo}.
+ */
+public record HttpRange(long start, long end, long suffixLength, String ifRange) {
+    private static final String PREFIX = "bytes=";
+    private static final long UNSET = -1;
+
+    public static HttpRange parse(String header) {
+        return parse(header, null);
+    }
+
+    public static HttpRange parse(String header, String ifRange) {
+        if (header == null || !header.startsWith(PREFIX) || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring(PREFIX.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                return suffix > 0 ? new HttpRange(UNSET, UNSET, suffix, ifRange) : null;
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? UNSET : Long.parseLong(last);
+            if (start < 0 || (end != UNSET && end < start)) {
+                return null;
+            }
+            return new HttpRange(start, end, UNSET, ifRange);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether the range should be honoured for a representation last modified at
+     * {@code lastModifiedMillis}. With an {@code If-Range} date that does not match, the client
+     * holds a stale copy and must get the whole file instead of a piece of the new one. Entity
+     * tags are never issued for files, so an {@code If-Range} tag never matches.
+     */
+    public boolean appliesTo(long lastModifiedMillis) {
+        return ifRange == null || ifRange.equals(httpDate(lastModifiedMillis));
+    }
+
+    public boolean isSatisfiable(long size) {
+        return size > 0 && (suffixLength != UNSET || start < size);
+    }
+
+    public long firstByte(long size) {
+        return suffixLength != UNSET ? Math.max(0, size - suffixLength) : start;
+    }
+
+    public long lastByte(long size) {
+        return suffixLength != UNSET || end == UNSET ? size - 1 : Math.min(end, size - 1);
+    }
+
+    public long length(long size) {
+        return lastByte(size) - firstByte(size) + 1;
+    }
+
+    public String contentRange(long size) {
+        return "bytes " + firstByte(size) + "-" + lastByte(size) + "/" + size;
+    }
+
+    /**
+     * The range resolved against an object of {@code size} bytes, for forwarding to a store that
+     * would reject an end past the object.
+     */
+    public String toHeaderValue(long size) {
+        return PREFIX + firstByte(size) + "-" + lastByte(size);
+    }
+
+    public String toHeaderValue() {
+        if (suffixLength != UNSET) {
+            return PREFIX + "-" + suffixLength;
+        }
+        return PREFIX + start + "-" + (end != UNSET ? end : "");
+    }
+
+    public static String httpDate(long epochMillis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC));
+    }
+}
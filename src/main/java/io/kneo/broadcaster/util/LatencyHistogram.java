@@ -0,0 +1,64 @@
+package io.kneo.broadcaster.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+    private static final long[] BOUNDS_MS = {100, 250, 500, 1_000, 2_000, 5_000, 10_000, 30_000, 60_000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMs = new AtomicLong();
+    private final AtomicLong maxMs = new AtomicLong();
+
+    public void record(long millis) {
+        int i = 0;
+        while (i < BOUNDS_MS.length && millis > BOUNDS_MS[i]) {
+            i++;
+        }
+        buckets.incrementAndGet(i);
+        count.incrementAndGet();
+        totalMs.addAndGet(millis);
+        maxMs.accumulateAndGet(millis, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getAverageMs() {
+        long n = count.get();
+        return n == 0 ? 0 : totalMs.get() / n;
+    }
+
+    public long getMaxMs() {
+        return maxMs.get();
+    }
+
+    public long getPercentileMs(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * n);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return BOUNDS_MS[i];
+            }
+        }
+        return maxMs.get();
+    }
+
+    public Map<String, Long> getBuckets() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            result.put("le_" + BOUNDS_MS[i] + "ms", buckets.get(i));
+        }
+        result.put("gt_" + BOUNDS_MS[BOUNDS_MS.length - 1] + "ms", buckets.get(BOUNDS_MS.length));
+        return result;
+    }
+}
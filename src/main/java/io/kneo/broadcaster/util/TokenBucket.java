@@ -0,0 +1,79 @@
+package io.kneo.broadcaster.util;
+
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiter that never parks a thread. Each {@link #acquire()} reserves a token;
+ * when the bucket is empty the reservation is taken on credit and the caller is resumed once the
+ * bucket has refilled enough to cover it, so waiting callers are released in order at the
+ * configured rate. {@link #pause} holds every reservation back, e.g. after the provider answered
+ * with 429.
+ */
+public class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private final LongSupplier clock;
+    private double tokens;
+    private long refilledAt;
+    private long pausedUntil;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+
+    public TokenBucket(double ratePerSecond, int burst, LongSupplier clock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate and burst must be positive");
+        }
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.capacity = burst;
+        this.clock = clock;
+        this.tokens = burst;
+        this.refilledAt = clock.getAsLong();
+        this.pausedUntil = refilledAt;
+    }
+
+    public Uni<Void> acquire() {
+        return Uni.createFrom().deferred(() -> {
+            long waitNanos = reserve();
+            if (waitNanos <= 0) {
+                return Uni.createFrom().voidItem();
+            }
+            return Uni.createFrom().voidItem().onItem().delayIt().by(Duration.ofNanos(waitNanos));
+        });
+    }
+
+    /**
+     * Takes a token and returns how long the caller has to wait before using it.
+     */
+    public synchronized long reserve() {
+        long now = clock.getAsLong();
+        refill(now);
+        tokens -= 1;
+        long deficit = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        return Math.max(0, pausedUntil - now) + deficit;
+    }
+
+    public synchronized void pause(Duration duration) {
+        long now = clock.getAsLong();
+        refill(now);
+        pausedUntil = Math.max(pausedUntil, now + duration.toNanos());
+        tokens = Math.min(tokens, 0);
+    }
+
+    public synchronized double getAvailable() {
+        refill(clock.getAsLong());
+        return tokens;
+    }
+
+    private void refill(long now) {
+        long from = Math.max(refilledAt, pausedUntil);
+        if (now > from) {
+            tokens = Math.min(capacity, tokens + (now - from) * tokensPerNano);
+        }
+        refilledAt = Math.max(refilledAt, now);
+    }
+}
@@ -0,0 +1,175 @@
+package io.kneo.broadcaster.agent;
+
+import com.anthropic.client.okhttp.AnthropicOkHttpClient;
+import com.anthropic.models.messages.ContentBlock;
+import com.anthropic.models.messages.Message;
+import com.anthropic.models.messages.MessageCreateParams;
+import com.anthropic.models.messages.Model;
+import com.sun.net.httpserver.HttpServer;
+import io.kneo.broadcaster.dto.dashboard.LlmStatsDTO;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LlmGatewayTest {
+
+    private static final String RESPONSE = """
+            {"id":"msg_test","type":"message","role":"assistant","model":"claude-haiku-4-5-20251001",
+             "content":[{"type":"text","text":"hello from mock","citations":null}],
+             "stop_reason":"end_turn","stop_sequence":null,
+             "usage":{"input_tokens":12,"output_tokens":5,"cache_creation_input_tokens":null,
+                      "cache_read_input_tokens":null,"cache_creation":null,"server_tool_use":null,"service_tier":null}}
+            """;
+
+    /**
+     * A response recorded from a chat turn whose tools and system prompt were served from the
+     * prompt cache.
+     */
+    private static final String CACHED_RESPONSE = """
+            {"id":"msg_cached","type":"message","role":"assistant","model":"claude-haiku-4-5-20251001",
+             "content":[{"type":"text","text":"spinning it next","citations":null}],
+             "stop_reason":"end_turn","stop_sequence":null,
+             "usage":{"input_tokens":38,"output_tokens":9,"cache_creation_input_tokens":212,
+                      "cache_read_input_tokens":4630,"cache_creation":null,"server_tool_use":null,"service_tier":"standard"}}
+            """;
+
+    private HttpServer server;
+    private volatile String response = RESPONSE;
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+    @BeforeEach
+    void startMockServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/messages", exchange -> {
+            received.incrementAndGet();
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(150);
+                byte[] body = response.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopMockServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void identicalPromptsWithinWindowShareOneRequest() {
+        LlmGateway gateway = newGateway(8, 8, Duration.ofSeconds(5));
+
+        List<Uni<Message>> calls = IntStream.range(0, 5)
+                .mapToObj(i -> gateway.createMessage("lumisonic", params("same prompt")))
+                .toList();
+        List<Message> responses = Uni.join().all(calls).andFailFast().await().atMost(Duration.ofSeconds(10));
+
+        assertEquals(5, responses.size());
+        assertEquals("hello from mock", responses.get(0).content().stream()
+                .filter(ContentBlock::isText).findFirst().orElseThrow().asText().text());
+        assertEquals(1, received.get());
+        assertEquals(4, gateway.getStats().getCoalesced());
+    }
+
+    @Test
+    void perBrandLimitCapsConcurrentRequests() {
+        LlmGateway gateway = newGateway(8, 2, Duration.ZERO);
+
+        List<Uni<Message>> calls = IntStream.range(0, 6)
+                .mapToObj(i -> gateway.createMessage("lumisonic", params("prompt " + i)))
+                .toList();
+        Uni.join().all(calls).andFailFast().await().atMost(Duration.ofSeconds(10));
+
+        assertEquals(6, received.get());
+        assertTrue(maxConcurrent.get() <= 2, "max concurrent was " + maxConcurrent.get());
+    }
+
+    @Test
+    void globalLimitAppliesAcrossBrands() {
+        LlmGateway gateway = newGateway(3, 4, Duration.ZERO);
+
+        List<Uni<Message>> calls = IntStream.range(0, 9)
+                .mapToObj(i -> gateway.createMessage("brand-" + (i % 3), params("prompt " + i)))
+                .toList();
+        Uni.join().all(calls).andFailFast().await().atMost(Duration.ofSeconds(10));
+
+        assertTrue(maxConcurrent.get() <= 3, "max concurrent was " + maxConcurrent.get());
+    }
+
+    @Test
+    void tokenUsageAndLatencyAreRecorded() {
+        LlmGateway gateway = newGateway(4, 4, Duration.ZERO);
+
+        gateway.createMessage("lumisonic", params("one")).await().atMost(Duration.ofSeconds(10));
+        gateway.createMessage("sunonation", params("two")).await().atMost(Duration.ofSeconds(10));
+
+        LlmStatsDTO stats = gateway.getStats();
+        assertEquals(2, stats.getRequests());
+        assertEquals(24, stats.getInputTokens());
+        assertEquals(10, stats.getOutputTokens());
+        assertEquals(5, stats.getTokensByBrand().get("lumisonic").getOutputTokens());
+        assertTrue(stats.getAvgLatencyMs() >= 100);
+    }
+
+    @Test
+    void promptCacheUsageIsRecordedPerBrand() {
+        LlmGateway gateway = newGateway(4, 4, Duration.ZERO);
+
+        gateway.createMessage("sunonation", params("uncached")).await().atMost(Duration.ofSeconds(10));
+        response = CACHED_RESPONSE;
+        gateway.createMessage("lumisonic", params("cached")).await().atMost(Duration.ofSeconds(10));
+
+        LlmStatsDTO stats = gateway.getStats();
+        assertEquals(4630, stats.getTokensByBrand().get("lumisonic").getCacheReadTokens());
+        assertEquals(212, stats.getTokensByBrand().get("lumisonic").getCacheWriteTokens());
+        assertEquals(0, stats.getTokensByBrand().get("sunonation").getCacheReadTokens());
+        assertEquals(4630, stats.getCacheReadTokens());
+        assertEquals(212, stats.getCacheWriteTokens());
+    }
+
+    private LlmGateway newGateway(int globalLimit, int perBrandLimit, Duration coalesceWindow) {
+        return new LlmGateway(
+                AnthropicOkHttpClient.builder()
+                        .apiKey("test-key")
+                        .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                        .maxRetries(0)
+                        .build(),
+                globalLimit, perBrandLimit, coalesceWindow);
+    }
+
+    private static MessageCreateParams params(String prompt) {
+        return MessageCreateParams.builder()
+                .model(Model.CLAUDE_HAIKU_4_5_20251001)
+                .maxTokens(64)
+                .addUserMessage(prompt)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package io.kneo.broadcaster.agent;
+
+import com.anthropic.core.JsonValue;
+import com.anthropic.models.messages.ContentBlockParam;
+import com.anthropic.models.messages.MessageCreateParams;
+import com.anthropic.models.messages.MessageParam;
+import com.anthropic.models.messages.Model;
+import com.anthropic.models.messages.TextBlockParam;
+import com.anthropic.models.messages.Tool;
+import com.anthropic.models.messages.ToolUnion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromptCachePlannerTest {
+
+    @Test
+    void conversationGetsToolSystemAndTailBreakpoints() {
+        MessageCreateParams params = chat(List.of(
+                MessageParam.builder().role(MessageParam.Role.USER).content("play something calm").build(),
+                MessageParam.builder().role(MessageParam.Role.ASSISTANT).content("How about Bonobo?").build(),
+                MessageParam.builder().role(MessageParam.Role.USER).content("yes please").build()));
+
+        MessageCreateParams planned = PromptCachePlanner.plan(params, PromptCachePlanner.Mode.CONVERSATION);
+
+        List<ToolUnion> tools = planned.tools().orElseThrow();
+        assertFalse(tools.get(0).asTool().cacheControl().isPresent());
+        assertTrue(tools.get(1).asTool().cacheControl().isPresent());
+
+        List<TextBlockParam> system = planned.system().orElseThrow().asTextBlockParams();
+        assertTrue(system.get(0).cacheControl().isPresent());
+        assertTrue(system.get(1).cacheControl().isPresent());
+
+        List<MessageParam> messages = planned.messages();
+        assertTrue(messages.get(0).content().isString());
+        ContentBlockParam tail = messages.get(2).content().asBlockParams().get(0);
+        assertEquals("yes please", tail.asText().text());
+        assertTrue(tail.asText().cacheControl().isPresent());
+        assertEquals(PromptCachePlanner.MAX_BREAKPOINTS, PromptCachePlanner.countBreakpoints(planned));
+    }
+
+    @Test
+    void oneShotLeavesVariableInputUncached() {
+        MessageCreateParams params = MessageCreateParams.builder()
+                .model(Model.CLAUDE_HAIKU_4_5_20251001)
+                .maxTokens(256)
+                .system("You write short radio news bulletins.")
+                .addUserMessageOfBlockParams(List.of(
+                        PromptCachePlanner.stable("Write a 30 second bulletin from the draft."),
+                        ContentBlockParam.ofText(TextBlockParam.builder().text("Draft input: rain in Lisbon").build())))
+                .build();
+
+        MessageCreateParams planned = PromptCachePlanner.plan(params, PromptCachePlanner.Mode.ONE_SHOT);
+
+        assertTrue(planned.system().orElseThrow().asTextBlockParams().get(0).cacheControl().isPresent());
+        List<ContentBlockParam> blocks = planned.messages().get(0).content().asBlockParams();
+        assertTrue(blocks.get(0).asText().cacheControl().isPresent());
+        assertFalse(blocks.get(1).asText().cacheControl().isPresent());
+        assertEquals(2, PromptCachePlanner.countBreakpoints(planned));
+    }
+
+    @Test
+    void existingBreakpointsCountAgainstTheLimit() {
+        MessageCreateParams params = chat(List.of(
+                MessageParam.builder().role(MessageParam.Role.USER).contentOfBlockParams(List.of(
+                        PromptCachePlanner.stable("first"),
+                        PromptCachePlanner.stable("second"),
+                        PromptCachePlanner.stable("third"))).build(),
+                MessageParam.builder().role(MessageParam.Role.USER).content("latest").build()));
+
+        MessageCreateParams planned = PromptCachePlanner.plan(params, PromptCachePlanner.Mode.CONVERSATION);
+
+        assertEquals(PromptCachePlanner.MAX_BREAKPOINTS, PromptCachePlanner.countBreakpoints(planned));
+        assertTrue(planned.tools().orElseThrow().get(1).asTool().cacheControl().isPresent());
+        assertTrue(planned.messages().get(1).content().isString());
+    }
+
+    @Test
+    void planningTwiceAddsNothing() {
+        MessageCreateParams planned = PromptCachePlanner.plan(
+                chat(List.of(MessageParam.builder().role(MessageParam.Role.USER).content("hi").build())),
+                PromptCachePlanner.Mode.CONVERSATION);
+
+        MessageCreateParams again = PromptCachePlanner.plan(planned, PromptCachePlanner.Mode.CONVERSATION);
+
+        assertEquals(planned, again);
+    }
+
+    private static MessageCreateParams chat(List<MessageParam> messages) {
+        return MessageCreateParams.builder()
+                .model(Model.CLAUDE_HAIKU_4_5_20251001)
+                .maxTokens(1024)
+                .systemOfTextBlockParams(PromptCachePlanner.system("You are DJ Veenuo on Lumisonic.", "Current user: kate"))
+                .messages(messages)
+                .addTool(tool("get_stations"))
+                .addTool(tool("add_to_queue"))
+                .build();
+    }
+
+    private static Tool tool(String name) {
+        return Tool.builder()
+                .name(name)
+                .description(name)
+                .inputSchema(Tool.InputSchema.builder()
+                        .properties(JsonValue.from(Map.of()))
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package io.kneo.broadcaster.agent;
+
+import io.kneo.broadcaster.dto.dashboard.TtsCacheStatsDTO;
+import io.kneo.broadcaster.model.aiagent.TTSEngineType;
+import io.kneo.broadcaster.model.cnst.LanguageTag;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TtsAudioCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void repeatedTextIsServedFromCache() {
+        StubEngine engine = new StubEngine(Duration.ZERO);
+        TextToSpeechClient client = newCache().decorate(TTSEngineType.ELEVENLABS, engine);
+
+        byte[] first = client.textToSpeech("Station ID:  Lumisonic", "voice-1", "model", LanguageTag.EN_US).await().indefinitely();
+        byte[] second = client.textToSpeech(" Station ID: Lumisonic ", "voice-1", "model", LanguageTag.EN_US).await().indefinitely();
+
+        assertArrayEquals(first, second);
+        assertEquals(1, engine.calls.get());
+    }
+
+    @Test
+    void differentVoiceIsSeparateEntry() {
+        StubEngine engine = new StubEngine(Duration.ZERO);
+        TextToSpeechClient client = newCache().decorate(TTSEngineType.ELEVENLABS, engine);
+
+        client.textToSpeech("Good morning", "voice-1", "model", LanguageTag.EN_US).await().indefinitely();
+        client.textToSpeech("Good morning", "voice-2", "model", LanguageTag.EN_US).await().indefinitely();
+
+        assertEquals(2, engine.calls.get());
+    }
+
+    @Test
+    void concurrentIdenticalRequestsShareOneEngineCall() {
+        StubEngine engine = new StubEngine(Duration.ofMillis(200));
+        TtsAudioCache cache = newCache();
+        TextToSpeechClient client = cache.decorate(TTSEngineType.GOOGLE, engine);
+
+        List<Uni<byte[]>> requests = IntStream.range(0, 10)
+                .mapToObj(i -> client.textToSpeech("Waiting for the next song", "voice", null, LanguageTag.EN_US))
+                .toList();
+        List<byte[]> results = Uni.join().all(requests).andFailFast().await().atMost(Duration.ofSeconds(5));
+
+        assertEquals(10, results.size());
+        assertEquals(1, engine.calls.get());
+        assertEquals(9, cache.getStats().getEngines().get("google").getCoalesced());
+    }
+
+    @Test
+    void diskTierSurvivesRestart() {
+        StubEngine engine = new StubEngine(Duration.ZERO);
+        newCache().decorate(TTSEngineType.MODELSLAB, engine)
+                .textToSpeech("News intro", "voice", null, LanguageTag.EN_US).await().indefinitely();
+
+        TtsAudioCache restarted = newCache();
+        byte[] audio = restarted.decorate(TTSEngineType.MODELSLAB, engine)
+                .textToSpeech("News intro", "voice", null, LanguageTag.EN_US).await().indefinitely();
+
+        assertEquals("audio:News intro", new String(audio, StandardCharsets.UTF_8));
+        assertEquals(1, engine.calls.get());
+        TtsCacheStatsDTO stats = restarted.getStats();
+        assertEquals(1, stats.getEngines().get("modelslab").getDiskHits());
+        assertTrue(stats.getSpendAvoided() > 0);
+    }
+
+    private TtsAudioCache newCache() {
+        return new TtsAudioCache(cacheDir, 1024 * 1024, 10 * 1024 * 1024, Duration.ofDays(1),
+                Map.of(TTSEngineType.ELEVENLABS, 0.3, TTSEngineType.GOOGLE, 0.016, TTSEngineType.MODELSLAB, 0.01));
+    }
+
+    private static class StubEngine implements TextToSpeechClient {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final Duration latency;
+
+        StubEngine(Duration latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public Uni<byte[]> textToSpeech(String text, String voiceId, String modelId, LanguageTag languageTag) {
+            calls.incrementAndGet();
+            Uni<byte[]> audio = Uni.createFrom().item(("audio:" + text.strip()).getBytes(StandardCharsets.UTF_8));
+            return latency.isZero() ? audio : audio.onItem().delayIt().by(latency);
+        }
+    }
+}
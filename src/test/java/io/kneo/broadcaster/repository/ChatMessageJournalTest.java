@@ -0,0 +1,177 @@
+package io.kneo.broadcaster.repository;
+
+import io.kneo.broadcaster.model.cnst.ChatType;
+import io.kneo.broadcaster.model.cnst.MessageType;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.VertxException;
+import io.vertx.pgclient.PgException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChatMessageJournalTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void fullBatchesAreWrittenInOrderWithoutExplicitFlush() {
+        ChatTable table = new ChatTable();
+        ChatMessageJournal journal = new ChatMessageJournal(100, 3, table);
+        List<ChatMessageJournal.Entry> sent = entries(7);
+
+        sent.forEach(entry -> journal.append(entry).await().atMost(TIMEOUT));
+
+        assertEquals(2, table.inserts.get());
+        assertEquals(1, journal.getPending());
+        journal.flush().await().atMost(TIMEOUT);
+        assertEquals(ids(sent), table.ids());
+    }
+
+    @Test
+    void failedBatchIsRetriedBeforeLaterMessages() {
+        ChatTable table = new ChatTable();
+        table.failNext(1, true);
+        ChatMessageJournal journal = new ChatMessageJournal(100, 2, table);
+        List<ChatMessageJournal.Entry> sent = entries(5);
+
+        sent.forEach(entry -> journal.append(entry).await().atMost(TIMEOUT));
+        journal.drain(TIMEOUT);
+
+        assertEquals(ids(sent), table.ids());
+        assertEquals(1, journal.getFailedFlushes());
+        assertEquals(5, journal.getWritten());
+        assertEquals(0, journal.getPending());
+    }
+
+    @Test
+    void fullQueueWaitsForOneFlush() {
+        ChatTable table = new ChatTable();
+        ChatMessageJournal journal = new ChatMessageJournal(2, 10, table);
+        List<ChatMessageJournal.Entry> sent = entries(3);
+
+        sent.forEach(entry -> journal.append(entry).await().atMost(TIMEOUT));
+        journal.drain(TIMEOUT);
+
+        assertEquals(ids(sent), table.ids());
+    }
+
+    @Test
+    void fullQueueRejectsWhenDatabaseIsDown() {
+        ChatTable table = new ChatTable();
+        table.failNext(Integer.MAX_VALUE, false);
+        ChatMessageJournal journal = new ChatMessageJournal(2, 10, table);
+        List<ChatMessageJournal.Entry> sent = entries(5);
+
+        for (int i = 0; i < 4; i++) {
+            journal.append(sent.get(i)).await().atMost(TIMEOUT);
+        }
+        assertThrows(IllegalStateException.class, () -> journal.append(sent.get(4)).await().atMost(TIMEOUT));
+
+        assertEquals(1, journal.getRejected());
+        assertEquals(4, journal.getPending());
+    }
+
+    @Test
+    void refusedRowIsSetAsideWithoutStallingOthers() {
+        ChatTable table = new ChatTable();
+        ChatMessageJournal journal = new ChatMessageJournal(100, 3, table);
+        List<ChatMessageJournal.Entry> sent = entries(7);
+        table.refuse(sent.get(1).id());
+
+        sent.forEach(entry -> journal.append(entry).onFailure().recoverWithNull().await().atMost(TIMEOUT));
+        journal.drain(TIMEOUT);
+
+        List<UUID> expected = new ArrayList<>(ids(sent));
+        expected.remove(sent.get(1).id());
+        assertEquals(expected, table.ids());
+        assertEquals(1, journal.getDropped());
+        assertEquals(0, journal.getPending());
+    }
+
+    @Test
+    void flushAllWritesMoreThanOneBatch() {
+        ChatTable table = new ChatTable();
+        table.failNext(4, false);
+        ChatMessageJournal journal = new ChatMessageJournal(100, 3, table);
+        List<ChatMessageJournal.Entry> sent = entries(8);
+        sent.forEach(entry -> journal.append(entry).await().atMost(TIMEOUT));
+        assertEquals(8, journal.getPending());
+
+        journal.flushAll().await().atMost(TIMEOUT);
+
+        assertEquals(0, journal.getPending());
+        assertEquals(ids(sent), table.ids());
+    }
+
+    private static List<ChatMessageJournal.Entry> entries(int count) {
+        List<ChatMessageJournal.Entry> entries = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 12, 0);
+        for (int i = 0; i < count; i++) {
+            entries.add(new ChatMessageJournal.Entry(UUID.randomUUID(), 42, "lumisonic", ChatType.PUBLIC,
+                    i % 2 == 0 ? MessageType.USER : MessageType.BOT, "listener", "message " + i, "conn-1",
+                    start.plusSeconds(i)));
+        }
+        return entries;
+    }
+
+    private static List<UUID> ids(List<ChatMessageJournal.Entry> entries) {
+        return entries.stream().map(ChatMessageJournal.Entry::id).toList();
+    }
+
+    /**
+     * Stand-in for the chat_messages table: a batch commits atomically, rows keep insertion
+     * order and an id that already exists is skipped, like INSERT ... ON CONFLICT DO NOTHING.
+     * A failure can be injected before the batch commits or after it, as when the
+     * acknowledgement is lost.
+     */
+    private static class ChatTable implements ChatMessageJournal.Sink {
+        private final Map<UUID, ChatMessageJournal.Entry> rows = new LinkedHashMap<>();
+        private final AtomicInteger inserts = new AtomicInteger();
+        private final Set<UUID> refused = new HashSet<>();
+        private int failuresLeft;
+        private boolean commitBeforeFailing;
+
+        void refuse(UUID id) {
+            refused.add(id);
+        }
+
+        void failNext(int times, boolean commitBeforeFailing) {
+            this.failuresLeft = times;
+            this.commitBeforeFailing = commitBeforeFailing;
+        }
+
+        synchronized List<UUID> ids() {
+            return new ArrayList<>(rows.keySet());
+        }
+
+        @Override
+        public synchronized Uni<Void> insert(List<ChatMessageJournal.Entry> batch) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                if (commitBeforeFailing) {
+                    batch.forEach(entry -> rows.putIfAbsent(entry.id(), entry));
+                }
+                return Uni.createFrom().failure(new VertxException("connection reset"));
+            }
+            if (batch.stream().anyMatch(entry -> refused.contains(entry.id()))) {
+                return Uni.createFrom().failure(new PgException("value too long for type character varying(255)",
+                        "ERROR", "22001", null));
+            }
+            batch.forEach(entry -> rows.putIfAbsent(entry.id(), entry));
+            inserts.incrementAndGet();
+            return Uni.createFrom().voidItem();
+        }
+    }
+}
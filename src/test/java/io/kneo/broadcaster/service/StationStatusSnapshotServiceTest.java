@@ -0,0 +1,79 @@
+package io.kneo.broadcaster.service;
+
+import io.kneo.broadcaster.dto.status.StatusMixplaDTO;
+import io.kneo.broadcaster.model.cnst.StreamStatus;
+import io.kneo.broadcaster.model.stream.IStream;
+import io.kneo.broadcaster.service.stream.RadioStationPool;
+import io.kneo.core.localization.LanguageCode;
+import io.kneo.officeframe.cnst.CountryCode;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StationStatusSnapshotServiceTest {
+
+    private final StationStatusSnapshotService service = new StationStatusSnapshotService();
+    private final IStream stream = mock(IStream.class);
+
+    @BeforeEach
+    void setUp() {
+        service.radioService = mock(RadioService.class);
+        service.radioStationPool = mock(RadioStationPool.class);
+        when(service.radioStationPool.getStation("jazz")).thenReturn(stream);
+        when(stream.getSlugName()).thenReturn("jazz");
+        when(stream.getCountry()).thenReturn(CountryCode.PT);
+        when(stream.getLocalizedName()).thenReturn(new EnumMap<>(LanguageCode.class));
+        when(stream.getStatus()).thenReturn(StreamStatus.ON_LINE);
+        when(service.radioService.toRadioStatusDTO(any(), any())).thenAnswer(invocation -> {
+            StatusMixplaDTO dto = new StatusMixplaDTO();
+            dto.setSlugName("jazz");
+            dto.setCurrentStatus(stream.getStatus().name());
+            return Uni.createFrom().item(dto);
+        });
+    }
+
+    @Test
+    void unchangedStationIsServedFromSnapshot() {
+        StationStatusSnapshotService.View first = service.getStatus("jazz").await().indefinitely();
+        StationStatusSnapshotService.View second = service.getStatus("jazz").await().indefinitely();
+
+        assertEquals(first.etag(), second.etag());
+        assertTrue(first.etag().startsWith("\""));
+        assertEquals(1, service.getRebuilds());
+        assertEquals(1, service.getHits());
+        verify(service.radioService, times(1)).toRadioStatusDTO(any(), any());
+    }
+
+    @Test
+    void reportedStatusChangeRebuildsSnapshot() {
+        StationStatusSnapshotService.View online = service.getStatus("jazz").await().indefinitely();
+        when(stream.getStatus()).thenReturn(StreamStatus.QUEUE_SATURATED);
+        service.onStreamChanged(stream);
+        StationStatusSnapshotService.View saturated = service.getStatus("jazz").await().indefinitely();
+
+        assertNotEquals(online.etag(), saturated.etag());
+        assertTrue(saturated.body().toString().contains("QUEUE_SATURATED"));
+        assertEquals(2, service.getRebuilds());
+    }
+
+    @Test
+    void requestsBetweenReportsDoNotInspectTheStream() {
+        service.getStatus("jazz").await().indefinitely();
+        when(stream.getStatus()).thenReturn(StreamStatus.QUEUE_SATURATED);
+        StationStatusSnapshotService.View cached = service.getStatus("jazz").await().indefinitely();
+
+        assertTrue(cached.body().toString().contains("ON_LINE"));
+        assertEquals(1, service.getRebuilds());
+    }
+}
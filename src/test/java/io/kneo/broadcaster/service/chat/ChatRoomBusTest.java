@@ -0,0 +1,181 @@
+package io.kneo.broadcaster.service.chat;
+
+import io.netty.util.ReferenceCountUtil;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.WebSocket;
+import io.vertx.core.http.WebSocketFrame;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatRoomBusTest {
+
+    @Test
+    void messageIsEncodedOnceAndReachesOnlyItsRoom() {
+        ChatRoomBus bus = new ChatRoomBus(8);
+        FakeSocket a = new FakeSocket();
+        FakeSocket b = new FakeSocket();
+        FakeSocket other = new FakeSocket();
+        bus.connect("a", a).join("lumisonic");
+        bus.connect("b", b).join("lumisonic");
+        bus.connect("c", other).join("bratan");
+
+        assertEquals(2, bus.publish("lumisonic", "{\"type\":\"message\"}"));
+
+        assertEquals(List.of("{\"type\":\"message\"}"), a.texts());
+        assertSame(a.written.get(0), b.written.get(0));
+        assertTrue(other.written.isEmpty());
+    }
+
+    @Test
+    void joiningAnotherRoomLeavesThePreviousOne() {
+        ChatRoomBus bus = new ChatRoomBus(8);
+        ChatRoomBus.Member member = bus.connect("a", new FakeSocket());
+        member.join("lumisonic");
+        member.join("bratan");
+
+        assertEquals(0, bus.getRoomSize("lumisonic"));
+        assertEquals(1, bus.getRoomSize("bratan"));
+
+        bus.disconnect("a");
+        assertEquals(0, bus.getRoomSize("bratan"));
+        assertEquals(0, bus.getConnectionCount());
+    }
+
+    @Test
+    void backedUpSocketIsQueuedAndDrainedInOrder() {
+        ChatRoomBus bus = new ChatRoomBus(8);
+        FakeSocket socket = new FakeSocket();
+        ChatRoomBus.Member member = bus.connect("a", socket);
+        member.join("lumisonic");
+
+        socket.full = true;
+        bus.publish("lumisonic", "1");
+        member.send("2");
+        bus.publish("lumisonic", "3");
+        assertEquals(3, member.getPending());
+        assertTrue(socket.written.isEmpty());
+
+        socket.full = false;
+        socket.drainHandler.run();
+        assertEquals(List.of("1", "2", "3"), socket.texts());
+        assertEquals(0, member.getPending());
+    }
+
+    @Test
+    void slowConsumerIsEvictedWithoutHoldingUpTheRoom() {
+        ChatRoomBus bus = new ChatRoomBus(2);
+        FakeSocket slow = new FakeSocket();
+        FakeSocket fast = new FakeSocket();
+        bus.connect("slow", slow).join("lumisonic");
+        bus.connect("fast", fast).join("lumisonic");
+
+        slow.full = true;
+        for (int i = 0; i < 4; i++) {
+            bus.publish("lumisonic", "m" + i);
+        }
+
+        assertEquals(List.of("m0", "m1", "m2", "m3"), fast.texts());
+        assertEquals(1008, slow.closeCode);
+        assertEquals(1, bus.getEvictions());
+        assertEquals(1, bus.getRoomSize("lumisonic"));
+        assertEquals(1, bus.getConnectionCount());
+    }
+
+    @Test
+    void sharedPayloadSurvivesTheReleaseOfEveryWrittenFrame() {
+        Buffer payload = Buffer.buffer("{\"type\":\"message\"}");
+
+        for (int i = 0; i < 3; i++) {
+            List<WebSocketFrame> frames = ChatRoomBus.textMessage(payload);
+            assertTrue(frames.get(0).isText() && !frames.get(0).isFinal());
+            assertTrue(frames.get(1).isContinuation() && frames.get(1).isFinal());
+            assertEquals("{\"type\":\"message\"}", frames.get(0).textData() + frames.get(1).binaryData());
+            // what Netty does with a frame's data once it has been written to one socket
+            frames.forEach(ReferenceCountUtil::release);
+        }
+
+        assertEquals("{\"type\":\"message\"}", payload.toString());
+    }
+
+    @Test
+    void socketsReceiveOneTextMessagePerPublish() throws Exception {
+        Vertx vertx = Vertx.vertx();
+        try {
+            ChatRoomBus bus = new ChatRoomBus(8);
+            AtomicInteger connections = new AtomicInteger();
+            CountDownLatch joined = new CountDownLatch(2);
+            HttpServer server = vertx.createHttpServer()
+                    .webSocketHandler(socket -> {
+                        bus.connect("c" + connections.incrementAndGet(), ChatRoomBus.Outlet.of(socket)).join("lumisonic");
+                        joined.countDown();
+                    })
+                    .listen(0, "127.0.0.1")
+                    .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            List<String> received = new CopyOnWriteArrayList<>();
+            CountDownLatch delivered = new CountDownLatch(4);
+            for (int i = 0; i < 2; i++) {
+                WebSocket client = vertx.createWebSocketClient()
+                        .connect(server.actualPort(), "127.0.0.1", "/")
+                        .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+                client.binaryMessageHandler(data -> received.add("binary"));
+                client.textMessageHandler(text -> {
+                    received.add(text);
+                    delivered.countDown();
+                });
+            }
+            assertTrue(joined.await(5, TimeUnit.SECONDS));
+
+            assertEquals(2, bus.publish("lumisonic", "{\"n\":1}"));
+            assertEquals(2, bus.publish("lumisonic", "\u00f1 {\"n\":2}"));
+
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("{\"n\":1}", "{\"n\":1}", "\u00f1 {\"n\":2}", "\u00f1 {\"n\":2}"),
+                    received.stream().sorted().toList());
+        } finally {
+            vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static class FakeSocket implements ChatRoomBus.Outlet {
+        private final List<Buffer> written = new ArrayList<>();
+        private boolean full;
+        private Runnable drainHandler;
+        private int closeCode;
+
+        List<String> texts() {
+            return written.stream().map(Buffer::toString).toList();
+        }
+
+        @Override
+        public boolean writeQueueFull() {
+            return full;
+        }
+
+        @Override
+        public void write(Buffer payload) {
+            written.add(payload);
+        }
+
+        @Override
+        public void onDrain(Runnable handler) {
+            this.drainHandler = handler;
+        }
+
+        @Override
+        public void close(short code, String reason) {
+            this.closeCode = code;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.kneo.broadcaster.service.chat;
+
+import com.anthropic.client.okhttp.AnthropicOkHttpClient;
+import com.anthropic.core.JsonValue;
+import com.anthropic.models.messages.MessageCreateParams;
+import com.anthropic.models.messages.Model;
+import com.anthropic.models.messages.ToolUseBlock;
+import io.kneo.broadcaster.agent.LlmGateway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatTurnStreamerTest {
+
+    private FakeAnthropicSseServer server;
+    private LlmGateway gateway;
+    private ChatTurnStreamer streamer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeAnthropicSseServer();
+        gateway = new LlmGateway(
+                AnthropicOkHttpClient.builder()
+                        .apiKey("test-key")
+                        .baseUrl(server.baseUrl())
+                        .maxRetries(0)
+                        .build(),
+                4, 4, Duration.ZERO);
+        streamer = new ChatTurnStreamer(gateway);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void textTurnIsForwardedFromOneStreamingRequest() {
+        server.enqueueText("Hel", "lo ", "there");
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        ChatTurnStreamer.Turn turn = streamer.stream("lumisonic", params(), chunks::add)
+                .await().atMost(Duration.ofSeconds(10));
+
+        assertEquals(List.of("Hel", "lo ", "there"), chunks);
+        assertEquals("Hello there", turn.text());
+        assertTrue(turn.toolUse().isEmpty());
+        assertEquals(1, server.getRequestBodies().size());
+        assertTrue(server.getRequestBodies().get(0).contains("\"stream\":true"));
+        assertEquals(7, gateway.getStats().getOutputTokens());
+    }
+
+    @Test
+    void toolUseBlockSwitchesTurnToDispatch() {
+        server.enqueueToolUse("Let me look.", "toolu_1", "get_stations", "{\"coun", "try\": \"EE\"}");
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        ChatTurnStreamer.Turn turn = streamer.stream("lumisonic", params(), chunks::add)
+                .await().atMost(Duration.ofSeconds(10));
+
+        assertEquals(List.of("Let me look."), chunks);
+        ToolUseBlock toolUse = turn.toolUse().orElseThrow();
+        assertEquals("toolu_1", toolUse.id());
+        assertEquals("get_stations", toolUse.name());
+        Map<String, JsonValue> input = toolUse._input().asObject().orElseThrow();
+        assertEquals("EE", input.get("country").asString().orElseThrow());
+        assertEquals(1, server.getRequestBodies().size());
+    }
+
+    @Test
+    void failedStreamFailsTheTurn() {
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        assertThrows(RuntimeException.class, () -> streamer.stream("lumisonic", params(), chunks::add)
+                .await().atMost(Duration.ofSeconds(10)));
+        assertTrue(chunks.isEmpty());
+    }
+
+    private static MessageCreateParams params() {
+        return MessageCreateParams.builder()
+                .model(Model.CLAUDE_HAIKU_4_5_20251001)
+                .maxTokens(64)
+                .addUserMessage("hi")
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package io.kneo.broadcaster.service.chat;
+
+import com.anthropic.core.JsonValue;
+import com.anthropic.models.messages.ContentBlockParam;
+import com.anthropic.models.messages.MessageParam;
+import com.anthropic.models.messages.ToolResultBlockParam;
+import com.anthropic.models.messages.ToolUseBlockParam;
+import io.kneo.broadcaster.model.cnst.ChatType;
+import io.kneo.broadcaster.repository.ChatRepository;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConversationHistoryStoreTest {
+
+    private static final String BRAND = "lumisonic";
+    private static final String SENTENCE = "Could you play something mellow for the late evening drive home? ";
+
+    private final ChatRepository chatRepository = mock(ChatRepository.class);
+    private final ChatSummaryService summaryService = mock(ChatSummaryService.class);
+
+    @Test
+    void oldMessagesAreDroppedWithoutSplittingToolCalls() {
+        ConversationHistoryStore store = new ConversationHistoryStore(10, 120, 10, chatRepository, summaryService);
+        store.append(1, ChatType.PUBLIC, text(MessageParam.Role.USER, SENTENCE.repeat(3)));
+        store.append(1, ChatType.PUBLIC, toolUse());
+        store.append(1, ChatType.PUBLIC, toolResult());
+        store.append(1, ChatType.PUBLIC, text(MessageParam.Role.ASSISTANT, SENTENCE));
+        store.append(1, ChatType.PUBLIC, text(MessageParam.Role.USER, SENTENCE));
+        store.append(1, ChatType.PUBLIC, text(MessageParam.Role.ASSISTANT, SENTENCE));
+
+        List<MessageParam> history = store.get(1, ChatType.PUBLIC);
+
+        assertEquals(MessageParam.Role.USER, history.get(0).role());
+        assertTrue(history.get(0).content().isString());
+        assertEquals(2, history.size());
+        assertTrue(store.getTokenCount() <= 120);
+    }
+
+    @Test
+    void summaryPrecedesWindowOnceHistoryWasCompacted() {
+        when(chatRepository.getRecentChatMessages(anyLong(), anyString(), eq(ChatType.PUBLIC), anyInt()))
+                .thenReturn(Uni.createFrom().item(List.of()));
+        when(summaryService.getLatestUserSummary(1, BRAND, ChatType.PUBLIC))
+                .thenReturn(Uni.createFrom().item("Listener likes jazz."));
+        ConversationHistoryStore store = new ConversationHistoryStore(10, 60, 10, chatRepository, summaryService);
+        for (int i = 0; i < 6; i++) {
+            store.append(1, ChatType.PUBLIC, text(i % 2 == 0 ? MessageParam.Role.USER : MessageParam.Role.ASSISTANT, SENTENCE));
+        }
+
+        List<MessageParam> window = store.window(1, BRAND, ChatType.PUBLIC).await().atMost(Duration.ofSeconds(5));
+
+        assertTrue(window.get(0).content().asString().contains("Listener likes jazz."));
+        assertTrue(window.size() < 7);
+    }
+
+    @Test
+    void missingConversationIsReloadedOnce() {
+        long past = System.currentTimeMillis() - 60_000;
+        when(chatRepository.getRecentChatMessages(7, BRAND, ChatType.OWNER, 10))
+                .thenReturn(Uni.createFrom().item(List.of(
+                        row("BOT", "orphaned answer", past - 2),
+                        row("USER", "what is playing?", past - 1),
+                        row("BOT", "Some jazz.", past)
+                )));
+        when(summaryService.getLatestUserSummary(7, BRAND, ChatType.OWNER)).thenReturn(Uni.createFrom().nullItem());
+        ConversationHistoryStore store = new ConversationHistoryStore(10, 1000, 10, chatRepository, summaryService);
+        store.append(7, ChatType.OWNER, text(MessageParam.Role.USER, "and next?"));
+
+        List<MessageParam> window = store.window(7, BRAND, ChatType.OWNER).await().atMost(Duration.ofSeconds(5));
+        store.window(7, BRAND, ChatType.OWNER).await().atMost(Duration.ofSeconds(5));
+
+        assertEquals(3, window.size());
+        assertEquals("what is playing?", window.get(0).content().asString());
+        assertEquals("and next?", window.get(2).content().asString());
+        assertEquals(1, store.getReloads());
+        verify(chatRepository, times(1)).getRecentChatMessages(7, BRAND, ChatType.OWNER, 10);
+    }
+
+    @Test
+    void fiftyThousandChattingUsersStayWithinHeapBound() {
+        int users = 50_000;
+        int maxConversations = 2_000;
+        int tokenBudget = 400;
+        ConversationHistoryStore store = new ConversationHistoryStore(maxConversations, tokenBudget, 10, chatRepository, summaryService);
+        String content = SENTENCE.repeat(2);
+        int messageTokens = ConversationHistoryStore.estimateTokens(text(MessageParam.Role.USER, content + "0 0"));
+        long before = retainedHeap();
+
+        for (int turn = 0; turn < 10; turn++) {
+            for (long user = 0; user < users; user++) {
+                MessageParam.Role role = turn % 2 == 0 ? MessageParam.Role.USER : MessageParam.Role.ASSISTANT;
+                store.append(user, ChatType.PUBLIC, text(role, content + user + " " + turn));
+            }
+        }
+
+        long growth = retainedHeap() - before;
+        assertEquals(maxConversations, store.getConversationCount());
+        assertTrue(store.getTokenCount() <= (long) maxConversations * tokenBudget);
+        assertTrue(store.getMessageCount() <= (long) maxConversations * (tokenBudget / messageTokens));
+        assertTrue(store.getEvictions() >= (long) (users - maxConversations) * 10);
+        assertTrue(growth < 64L * 1024 * 1024, "retained heap grew by " + growth / 1024 / 1024 + " MB");
+    }
+
+    private static long retainedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            memory.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static MessageParam text(MessageParam.Role role, String content) {
+        return MessageParam.builder().role(role).content(MessageParam.Content.ofString(content)).build();
+    }
+
+    private static MessageParam toolUse() {
+        return MessageParam.builder()
+                .role(MessageParam.Role.ASSISTANT)
+                .content(MessageParam.Content.ofBlockParams(List.of(ContentBlockParam.ofToolUse(
+                        ToolUseBlockParam.builder()
+                                .id("toolu_1")
+                                .name("get_stations")
+                                .input(JsonValue.from(Map.of("country", "EE")))
+                                .build()))))
+                .build();
+    }
+
+    private static MessageParam toolResult() {
+        return MessageParam.builder()
+                .role(MessageParam.Role.USER)
+                .content(MessageParam.Content.ofBlockParams(List.of(ContentBlockParam.ofToolResult(
+                        ToolResultBlockParam.builder()
+                                .toolUseId("toolu_1")
+                                .content("[]")
+                                .build()))))
+                .build();
+    }
+
+    private static JsonObject row(String type, String content, long timestamp) {
+        return new JsonObject()
+                .put("type", "message")
+                .put("data", new JsonObject()
+                        .put("type", type)
+                        .put("content", content)
+                        .put("timestamp", timestamp));
+    }
+}
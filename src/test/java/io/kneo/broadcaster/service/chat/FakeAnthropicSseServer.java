@@ -0,0 +1,131 @@
+package io.kneo.broadcaster.service.chat;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stand-in for the Anthropic messages endpoint that answers each request with the next
+ * scripted server-sent event stream, so streaming chat turns can be exercised offline.
+ */
+class FakeAnthropicSseServer implements AutoCloseable {
+
+    private static final String USAGE = "\"cache_creation_input_tokens\":null,\"cache_read_input_tokens\":null,"
+            + "\"cache_creation\":null,\"server_tool_use\":null";
+
+    private final HttpServer server;
+    private final Queue<List<String>> scripts = new ConcurrentLinkedQueue<>();
+    private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+
+    FakeAnthropicSseServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/messages", exchange -> {
+            requestBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            List<String> events = scripts.poll();
+            if (events == null) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream os = exchange.getResponseBody()) {
+                for (String event : events) {
+                    os.write(event.getBytes(StandardCharsets.UTF_8));
+                    os.flush();
+                }
+            }
+        });
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    List<String> getRequestBodies() {
+        return requestBodies;
+    }
+
+    /**
+     * A plain answer streamed as the given text deltas.
+     */
+    void enqueueText(String... chunks) {
+        List<String> events = new ArrayList<>();
+        events.add(messageStart());
+        events.addAll(textBlock(0, chunks));
+        events.addAll(messageEnd("end_turn"));
+        scripts.add(events);
+    }
+
+    /**
+     * An optional text preamble followed by a tool call whose input arrives in the given JSON
+     * fragments.
+     */
+    void enqueueToolUse(String preamble, String id, String name, String... inputJsonParts) {
+        List<String> events = new ArrayList<>();
+        events.add(messageStart());
+        int index = 0;
+        if (preamble != null) {
+            events.addAll(textBlock(index++, preamble));
+        }
+        events.add(event("content_block_start", "{\"type\":\"content_block_start\",\"index\":" + index
+                + ",\"content_block\":{\"type\":\"tool_use\",\"id\":\"" + id + "\",\"name\":\"" + name + "\",\"input\":{}}}"));
+        for (String part : inputJsonParts) {
+            events.add(event("content_block_delta", "{\"type\":\"content_block_delta\",\"index\":" + index
+                    + ",\"delta\":{\"type\":\"input_json_delta\",\"partial_json\":" + quote(part) + "}}"));
+        }
+        events.add(event("content_block_stop", "{\"type\":\"content_block_stop\",\"index\":" + index + "}"));
+        events.addAll(messageEnd("tool_use"));
+        scripts.add(events);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static String messageStart() {
+        return event("message_start", "{\"type\":\"message_start\",\"message\":{\"id\":\"msg_fake\",\"type\":\"message\","
+                + "\"role\":\"assistant\",\"model\":\"claude-haiku-4-5-20251001\",\"content\":[],\"stop_reason\":null,"
+                + "\"stop_sequence\":null,\"usage\":{\"input_tokens\":12,\"output_tokens\":1," + USAGE + ",\"service_tier\":null}}}");
+    }
+
+    private static List<String> textBlock(int index, String... chunks) {
+        List<String> events = new ArrayList<>();
+        events.add(event("content_block_start", "{\"type\":\"content_block_start\",\"index\":" + index
+                + ",\"content_block\":{\"type\":\"text\",\"text\":\"\",\"citations\":null}}"));
+        for (String chunk : chunks) {
+            events.add(event("content_block_delta", "{\"type\":\"content_block_delta\",\"index\":" + index
+                    + ",\"delta\":{\"type\":\"text_delta\",\"text\":" + quote(chunk) + "}}"));
+        }
+        events.add(event("content_block_stop", "{\"type\":\"content_block_stop\",\"index\":" + index + "}"));
+        return events;
+    }
+
+    private static List<String> messageEnd(String stopReason) {
+        return List.of(
+                event("message_delta", "{\"type\":\"message_delta\",\"delta\":{\"stop_reason\":\"" + stopReason
+                        + "\",\"stop_sequence\":null},\"usage\":{\"input_tokens\":null,\"output_tokens\":7," + USAGE + "}}"),
+                event("message_stop", "{\"type\":\"message_stop\"}")
+        );
+    }
+
+    private static String event(String type, String data) {
+        return "event: " + type + "\ndata: " + data + "\n\n";
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,171 @@
+package io.kneo.broadcaster.service.chat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublicChatSessionStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sessionsSurviveReopen() throws Exception {
+        Path file = dir.resolve("sessions.bin");
+        Instant expiry = Instant.now().plusSeconds(3600);
+        try (PublicChatSessionStore store = new PublicChatSessionStore(file, 4096)) {
+            store.put("t1", new PublicChatSession("a@example.com", expiry));
+            store.put("t2", new PublicChatSession("b@example.com", expiry));
+            store.remove("t2");
+        }
+
+        try (PublicChatSessionStore store = new PublicChatSessionStore(file, 4096)) {
+            assertEquals(1, store.size());
+            assertEquals("a@example.com", store.get("t1").email());
+            assertEquals(expiry.toEpochMilli(), store.get("t1").expiresAt().toEpochMilli());
+            assertNull(store.get("t2"));
+        }
+    }
+
+    @Test
+    void newSessionForEmailReplacesOldOne() throws Exception {
+        try (PublicChatSessionStore store = new PublicChatSessionStore(dir.resolve("sessions.bin"), 4096)) {
+            Instant expiry = Instant.now().plusSeconds(3600);
+            store.put("old", new PublicChatSession("a@example.com", expiry));
+            store.put("other", new PublicChatSession("b@example.com", expiry));
+
+            store.removeByEmail("a@example.com");
+            store.put("new", new PublicChatSession("a@example.com", expiry));
+
+            assertNull(store.get("old"));
+            assertEquals("a@example.com", store.get("new").email());
+            assertEquals("b@example.com", store.get("other").email());
+        }
+    }
+
+    @Test
+    void expireDropsOnlyDueSessions() throws Exception {
+        try (PublicChatSessionStore store = new PublicChatSessionStore(dir.resolve("sessions.bin"), 4096)) {
+            long now = System.currentTimeMillis();
+            store.put("due", new PublicChatSession("a@example.com", Instant.ofEpochMilli(now + 1_000)));
+            store.put("later", new PublicChatSession("b@example.com", Instant.ofEpochMilli(now + 600_000)));
+
+            assertEquals(1, store.expire(now + 120_000));
+
+            assertEquals(1, store.size());
+            assertEquals("b@example.com", store.get("later").email());
+        }
+    }
+
+    @Test
+    void logIsCompactedAndGrownWhenFull() throws Exception {
+        Path file = dir.resolve("sessions.bin");
+        Instant expiry = Instant.now().plusSeconds(3600);
+        try (PublicChatSessionStore store = new PublicChatSessionStore(file, 1024)) {
+            // rewriting the same token fills the log with dead records that compaction drops
+            for (int i = 0; i < 500; i++) {
+                store.put("same", new PublicChatSession("a@example.com", expiry));
+            }
+            assertEquals(1024, Files.size(file));
+
+            // live sessions alone no longer fit, so the mapping has to grow
+            for (int i = 0; i < 200; i++) {
+                store.put("token-" + i, new PublicChatSession("user" + i + "@example.com", expiry));
+            }
+            assertTrue(Files.size(file) > 1024);
+        }
+
+        try (PublicChatSessionStore store = new PublicChatSessionStore(file, 1024)) {
+            assertEquals(201, store.size());
+            assertEquals("user199@example.com", store.get("token-199").email());
+        }
+    }
+
+    @Test
+    void replayStopsAtARecordThatOnlyPartlyReachedTheDisk() throws Exception {
+        Path file = dir.resolve("sessions.bin");
+        Instant expiry = Instant.now().plusSeconds(3600);
+        try (PublicChatSessionStore store = new PublicChatSessionStore(file, 4096)) {
+            store.put("t1", new PublicChatSession("a@example.com", expiry));
+            store.put("t2", new PublicChatSession("b@example.com", expiry));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer log = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            log.position(log.getInt(Integer.BYTES));
+            PublicChatSessionCodec.read(log);
+            int second = log.position();
+            log.put(second + 3, (byte) (log.get(second + 3) ^ 0x55));
+            log.force();
+        }
+
+        try (PublicChatSessionStore store = new PublicChatSessionStore(file, 4096)) {
+            assertEquals(1, store.size());
+            assertEquals("a@example.com", store.get("t1").email());
+        }
+    }
+
+    @Test
+    void compactionThatDidNotReachTheHeaderIsIgnored() throws Exception {
+        Path file = dir.resolve("sessions.bin");
+        Instant expiry = Instant.now().plusSeconds(3600);
+        try (PublicChatSessionStore store = new PublicChatSessionStore(file, 4096)) {
+            store.put("t1", new PublicChatSession("a@example.com", expiry));
+        }
+        // a compacted copy written behind the log whose start offset was never switched over
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer log = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            log.position(log.getInt(Integer.BYTES));
+            PublicChatSessionCodec.read(log);
+            log.position(log.position() + 1);
+            PublicChatSessionCodec.writePut(log, "ghost", new PublicChatSession("g@example.com", expiry));
+            log.force();
+        }
+
+        try (PublicChatSessionStore store = new PublicChatSessionStore(file, 4096)) {
+            assertEquals(1, store.size());
+            assertEquals("a@example.com", store.get("t1").email());
+            assertNull(store.get("ghost"));
+        }
+    }
+
+    @Test
+    void recordsLeftBehindTheLogAreWipedOnOpen() throws Exception {
+        Path file = dir.resolve("sessions.bin");
+        Instant expiry = Instant.now().plusSeconds(3600);
+        PublicChatSession first = new PublicChatSession("a@example.com", expiry);
+        PublicChatSession second = new PublicChatSession("b@example.com", expiry);
+        try (PublicChatSessionStore store = new PublicChatSessionStore(file, 4096)) {
+            store.put("t1", first);
+        }
+        // a stale record exactly where the log will end after the reopen compacts t1 behind the
+        // current records and t2 is appended, as a crash before the zeroing could leave it
+        int t1 = PublicChatSessionCodec.putSize("t1", first);
+        int ghostAt = 2 * Integer.BYTES + t1 + 1 + t1 + PublicChatSessionCodec.putSize("t2", second);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer log = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            log.position(ghostAt);
+            PublicChatSessionCodec.writePut(log, "ghost", new PublicChatSession("g@example.com", expiry));
+            log.force();
+        }
+
+        try (PublicChatSessionStore store = new PublicChatSessionStore(file, 4096)) {
+            assertNull(store.get("ghost"));
+            store.put("t2", second);
+        }
+        try (PublicChatSessionStore store = new PublicChatSessionStore(file, 4096)) {
+            assertEquals(2, store.size());
+            assertEquals("b@example.com", store.get("t2").email());
+            assertNull(store.get("ghost"));
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package io.kneo.broadcaster.service.cluster;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.config.HlsPlaylistConfig;
+import io.kneo.broadcaster.controller.ClusterController;
+import io.kneo.broadcaster.model.live.LiveSoundFragment;
+import io.kneo.broadcaster.model.live.SongMetadata;
+import io.kneo.broadcaster.model.stream.RadioStream;
+import io.kneo.broadcaster.service.RadioService;
+import io.kneo.broadcaster.service.playlist.PlaylistManager;
+import io.kneo.broadcaster.service.stream.HlsCachePolicy;
+import io.kneo.broadcaster.service.stream.HlsSegment;
+import io.kneo.broadcaster.service.stream.RadioStationPool;
+import io.kneo.broadcaster.service.stream.StationCheckpointService;
+import io.kneo.broadcaster.service.stream.StreamManager;
+import io.kneo.broadcaster.util.ConsistentHashRing;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.ext.web.Router;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.ext.web.client.HttpResponse;
+import io.vertx.mutiny.ext.web.client.WebClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two cluster nodes in one process: each has its own membership, relay, rebalancer and HTTP
+ * server with the cluster routes, and they gossip over {@link FakeNotifyTransport} instead of
+ * Postgres.
+ */
+class ClusterNodesTest {
+
+    private static final String SECRET = "cluster-secret";
+    private static final int VIRTUAL_NODES = 64;
+    private static final long HI = 128_000L;
+    private static final long LO = 64_000L;
+
+    private Vertx vertx;
+    private WebClient client;
+    private FakeNotifyTransport notify;
+    private final List<TestNode> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+        client = WebClient.create(vertx);
+        notify = new FakeNotifyTransport();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(TestNode::close);
+        client.close();
+        vertx.closeAndAwait();
+    }
+
+    @Test
+    void nodesJoinAndLeaveTheRing() throws Exception {
+        TestNode a = start("node-a");
+        TestNode b = start("node-b");
+        String slug = slugOwnedBy("node-b", "node-a", "node-b");
+
+        assertEquals(Set.of("node-a", "node-b"), memberIds(a));
+        assertEquals(Set.of("node-a", "node-b"), memberIds(b));
+        assertEquals(b.url, a.membership.urlOf("node-b"));
+        assertEquals(a.url, b.membership.urlOf("node-a"));
+        assertEquals("node-b", a.membership.ownerOf(slug));
+        assertTrue(b.membership.isLocal(slug));
+        assertFalse(a.membership.isLocal(slug));
+
+        b.membership.leave();
+
+        assertEquals(Set.of("node-a"), memberIds(a));
+        assertTrue(a.membership.isLocal(slug));
+        assertEquals("node-b", a.membership.previousOwnerOf(slug));
+        assertTrue(notify.getPublished().contains("leave|node-b|" + b.url));
+    }
+
+    @Test
+    void relayFetchesSegmentsFromTheOwnerAndCachesThem() throws Exception {
+        TestNode a = start("node-a");
+        TestNode b = start("node-b");
+        String slug = slugOwnedBy("node-a", "node-a", "node-b");
+        HlsSegment segment = segment(41, HI, 1);
+        String segmentPath = "/" + slug + "/radio/segments/" + slug + "_" + HI + "_41." + segment.getContentHash() + ".ts";
+        AtomicInteger segmentHits = new AtomicInteger();
+        AtomicInteger playlistHits = new AtomicInteger();
+        a.router.route(HttpMethod.GET, "/:brand/radio/segments/:segment").handler(rc -> {
+            segmentHits.incrementAndGet();
+            a.hlsCachePolicy.applySegmentHeaders(rc.response(), segment, true);
+            rc.response().end(Buffer.buffer(segment.getData()));
+        });
+        a.router.route(HttpMethod.GET, "/:brand/radio/stream.m3u8").handler(rc -> {
+            playlistHits.incrementAndGet();
+            rc.response()
+                    .putHeader("Content-Type", "application/vnd.apple.mpegurl")
+                    .end("#EXTM3U\n#EXT-X-MEDIA-SEQUENCE:41\n");
+        });
+
+        HttpResponse<io.vertx.mutiny.core.buffer.Buffer> first = get(b.url + segmentPath);
+        HttpResponse<io.vertx.mutiny.core.buffer.Buffer> second = get(b.url + segmentPath);
+
+        assertEquals(200, first.statusCode());
+        assertEquals(200, second.statusCode());
+        assertArrayEquals(segment.getData(), first.bodyAsBuffer().getBytes());
+        assertArrayEquals(segment.getData(), second.bodyAsBuffer().getBytes());
+        assertTrue(second.getHeader("Cache-Control").contains("immutable"));
+        assertEquals(a.hlsCachePolicy.etag(segment), second.getHeader("ETag"));
+        assertEquals(1, segmentHits.get());
+        assertEquals(1, b.relay.getSegmentCacheStats().hits());
+
+        get(b.url + "/" + slug + "/radio/stream.m3u8");
+        HttpResponse<io.vertx.mutiny.core.buffer.Buffer> playlist = get(b.url + "/" + slug + "/radio/stream.m3u8");
+
+        assertEquals(200, playlist.statusCode());
+        assertTrue(playlist.bodyAsString().contains("#EXT-X-MEDIA-SEQUENCE:41"));
+        assertEquals(2, playlistHits.get());
+    }
+
+    @Test
+    void rebalancerHandsStationOverThroughTheCheckpointFormat() throws Exception {
+        String slug = slugOwnedBy("node-b", "node-a", "node-b");
+        TestNode a = start("node-a");
+
+        StreamManager oldManager = mock(StreamManager.class);
+        PlaylistManager oldPlaylist = mock(PlaylistManager.class);
+        RadioStream oldStream = radioStream(slug, oldManager);
+        StreamManager.LiveState live = new StreamManager.LiveState(44,
+                List.of(slot(41, 1), slot(42, 2)),
+                List.of(slot(43, 3)));
+        UUID queuedId = UUID.randomUUID();
+        when(oldManager.captureLiveState()).thenReturn(live);
+        when(oldManager.getPlaylistManager()).thenReturn(oldPlaylist);
+        when(oldPlaylist.snapshotQueued()).thenReturn(List.of(new PlaylistManager.QueuedEntry(queuedId, 15, false, queued(queuedId))));
+        when(a.pool.getOnlineStationsSnapshot()).thenReturn(List.of(oldStream));
+        when(a.pool.getStation(slug)).thenReturn(oldStream);
+        when(a.pool.stopAndRemove(slug)).thenReturn(Uni.createFrom().item(oldStream));
+
+        TestNode b = start("node-b");
+        StreamManager newManager = mock(StreamManager.class);
+        PlaylistManager newPlaylist = mock(PlaylistManager.class);
+        RadioStream newStream = radioStream(slug, newManager);
+        when(newManager.getPlaylistManager()).thenReturn(newPlaylist);
+        when(newPlaylist.restoreQueued(any())).thenReturn(Uni.createFrom().item(1));
+        when(b.pool.restoreRadio(eq(slug), any())).thenReturn(Uni.createFrom().item(newStream));
+
+        await(a.membership::isSettled);
+        a.rebalancer.rebalance();
+
+        ArgumentCaptor<StreamManager.LiveState> restored = ArgumentCaptor.forClass(StreamManager.LiveState.class);
+        verify(newManager, timeout(10_000)).restoreLiveState(restored.capture());
+        verify(a.pool, timeout(10_000)).stopAndRemove(slug);
+        await(() -> a.rebalancer.getHandovers().isEmpty());
+
+        StreamManager.LiveState adopted = restored.getValue();
+        assertEquals(live.nextSequence(), adopted.nextSequence());
+        assertSameSlots(live.live(), adopted.live());
+        assertSameSlots(live.pending(), adopted.pending());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PlaylistManager.QueuedEntry>> queued = ArgumentCaptor.forClass(List.class);
+        verify(newPlaylist, timeout(10_000)).restoreQueued(queued.capture());
+        PlaylistManager.QueuedEntry entry = queued.getValue().getFirst();
+        assertEquals(queuedId, entry.soundFragmentId());
+        assertEquals(15, entry.priority());
+        assertNotNull(entry.fragment());
+        assertArrayEquals(new byte[]{7, 7, 7}, entry.fragment().getSegments().get(HI).peek().getData());
+    }
+
+    /**
+     * Listeners that fetched the playlist from the old owner keep requesting
+     * {@code <slug>_<bitrate>_<sequence>.<hash>.ts}, so each slot must come back under its
+     * sequence number with the same bytes.
+     */
+    private static void assertSameSlots(List<Map<Long, HlsSegment>> expected, List<Map<Long, HlsSegment>> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).keySet(), actual.get(i).keySet());
+            for (Map.Entry<Long, HlsSegment> bitrate : expected.get(i).entrySet()) {
+                HlsSegment before = bitrate.getValue();
+                HlsSegment after = actual.get(i).get(bitrate.getKey());
+                assertEquals(before.getSequence(), after.getSequence());
+                assertEquals(before.getContentHash(), after.getContentHash());
+                assertArrayEquals(before.getData(), after.getData());
+            }
+        }
+    }
+
+    private TestNode start(String id) throws Exception {
+        TestNode node = new TestNode(id);
+        nodes.add(node);
+        return node;
+    }
+
+    private HttpResponse<io.vertx.mutiny.core.buffer.Buffer> get(String url) {
+        return client.getAbs(url).send().await().atMost(Duration.ofSeconds(10));
+    }
+
+    private static Set<String> memberIds(TestNode node) {
+        return node.membership.getMembers().stream().map(ClusterMembership.Node::id).collect(Collectors.toSet());
+    }
+
+    private static String slugOwnedBy(String owner, String... members) {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(members), VIRTUAL_NODES);
+        for (int i = 0; i < 1000; i++) {
+            String slug = "station-" + i;
+            if (owner.equals(ring.owner(slug))) {
+                return slug;
+            }
+        }
+        throw new IllegalStateException("No station hashes to " + owner);
+    }
+
+    private static RadioStream radioStream(String slug, StreamManager streamManager) {
+        RadioStream stream = new RadioStream();
+        stream.setSlugName(slug);
+        stream.setStreamManager(streamManager);
+        return stream;
+    }
+
+    private static Map<Long, HlsSegment> slot(long sequence, int fill) {
+        LiveSoundFragment fragment = new LiveSoundFragment();
+        fragment.setSoundFragmentId(UUID.randomUUID());
+        Map<Long, HlsSegment> slot = new HashMap<>();
+        for (long bitrate : new long[]{HI, LO}) {
+            HlsSegment segment = segment(sequence, bitrate, fill);
+            segment.setLiveSoundFragment(fragment);
+            slot.put(bitrate, segment);
+        }
+        return slot;
+    }
+
+    private static HlsSegment segment(long sequence, long bitrate, int fill) {
+        byte[] data = new byte[(int) (bitrate / 1000)];
+        Arrays.fill(data, (byte) fill);
+        data[0] = (byte) sequence;
+        return new HlsSegment(sequence, data, 6, new SongMetadata("Blue Monday", "New Order"), 1_000L * sequence);
+    }
+
+    private static LiveSoundFragment queued(UUID id) {
+        LiveSoundFragment fragment = new LiveSoundFragment();
+        fragment.setSoundFragmentId(id);
+        fragment.setMetadata(new SongMetadata("Ceremony", "New Order"));
+        ConcurrentLinkedQueue<HlsSegment> segments = new ConcurrentLinkedQueue<>();
+        segments.add(new HlsSegment(0, new byte[]{7, 7, 7}, 6, fragment.getMetadata(), 500L));
+        Map<Long, ConcurrentLinkedQueue<HlsSegment>> byBitrate = new HashMap<>();
+        byBitrate.put(HI, segments);
+        fragment.setSegments(byBitrate);
+        return fragment;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within 10s");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private final class TestNode {
+        final BroadcasterConfig config = mock(BroadcasterConfig.class);
+        final RadioStationPool pool = mock(RadioStationPool.class);
+        final HlsCachePolicy hlsCachePolicy;
+        final ClusterMembership membership = new ClusterMembership();
+        final StationRelay relay = new StationRelay();
+        final StationRebalancer rebalancer = new StationRebalancer();
+        final Router router = Router.router(vertx.getDelegate());
+        final HttpServer server;
+        final String url;
+
+        TestNode(String id) throws Exception {
+            when(config.getClusterSecret()).thenReturn(Optional.of(SECRET));
+            when(config.getClusterVirtualNodes()).thenReturn(VIRTUAL_NODES);
+            when(config.getClusterHeartbeatSeconds()).thenReturn(0);
+            when(config.getClusterNodeTimeoutSeconds()).thenReturn(20);
+            when(config.getClusterHandoverGraceSeconds()).thenReturn(0);
+            when(config.getClusterRelayCacheMaxMb()).thenReturn(16);
+            HlsPlaylistConfig hlsConfig = mock(HlsPlaylistConfig.class);
+            when(hlsConfig.getSegmentDuration()).thenReturn(6);
+            when(hlsConfig.getSegmentMaxAge()).thenReturn(86_400);
+            hlsCachePolicy = new HlsCachePolicy(hlsConfig);
+
+            server = vertx.getDelegate().createHttpServer().requestHandler(router);
+            server.listen(0, "127.0.0.1").toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+            url = "http://127.0.0.1:" + server.actualPort();
+
+            membership.config = config;
+            membership.init(id, url);
+
+            relay.vertx = vertx;
+            relay.config = config;
+            relay.membership = membership;
+            relay.radioStationPool = pool;
+            relay.hlsCachePolicy = hlsCachePolicy;
+            relay.init();
+
+            rebalancer.membership = membership;
+            rebalancer.relay = relay;
+            rebalancer.radioStationPool = pool;
+            rebalancer.config = config;
+
+            new ClusterController(config, membership, relay, mock(RadioService.class), new StationCheckpointService(pool, config))
+                    .setupRoutes(router);
+            // same hand-off as RadioController: stations this node does not run go to their owner
+            router.route(HttpMethod.GET, "/:brand/radio/*").handler(rc -> {
+                String node = relay.targetFor(rc.pathParam("brand").toLowerCase(), rc.request());
+                if (node == null) {
+                    rc.next();
+                } else {
+                    relay.relay(rc, node);
+                }
+            });
+
+            membership.join(notify.connect()).await().atMost(Duration.ofSeconds(10));
+        }
+
+        void close() {
+            membership.leave();
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.kneo.broadcaster.service.cluster;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-memory stand-in for the Postgres {@code NOTIFY} channel shared by nodes running in one
+ * process. As with Postgres, a payload reaches every listening connection, the publisher's own
+ * included; delivery happens before {@code publish} completes, so tests need not wait for gossip.
+ */
+class FakeNotifyTransport {
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private final List<String> published = new CopyOnWriteArrayList<>();
+
+    ClusterTransport connect() {
+        return new ClusterTransport() {
+            private Consumer<String> handler;
+
+            @Override
+            public Uni<Void> listen(Consumer<String> handler) {
+                this.handler = handler;
+                listeners.add(handler);
+                return Uni.createFrom().voidItem();
+            }
+
+            @Override
+            public Uni<Void> publish(String payload) {
+                published.add(payload);
+                listeners.forEach(listener -> listener.accept(payload));
+                return Uni.createFrom().voidItem();
+            }
+
+            @Override
+            public void close() {
+                listeners.remove(handler);
+            }
+        };
+    }
+
+    List<String> getPublished() {
+        return published;
+    }
+}
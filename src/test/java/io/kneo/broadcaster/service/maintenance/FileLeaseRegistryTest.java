@@ -0,0 +1,85 @@
+package io.kneo.broadcaster.service.maintenance;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileLeaseRegistryTest {
+
+    @TempDir
+    Path root;
+
+    private FileLeaseRegistry registry() {
+        BroadcasterConfig config = mock(BroadcasterConfig.class);
+        when(config.getSegmentationOutputDir()).thenReturn(root.resolve("segmented").toString());
+        when(config.getPathForMerged()).thenReturn(root.resolve("merged").toString());
+        when(config.getPathUploads()).thenReturn(root.resolve("uploads").toString());
+        return new FileLeaseRegistry(config);
+    }
+
+    private static void awaitDeleted(Path path) throws InterruptedException {
+        for (int i = 0; i < 100 && Files.exists(path); i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void fileIsDeletedWhenLastHolderReleases() throws Exception {
+        FileLeaseRegistry registry = registry();
+        Path file = Files.writeString(root.resolve("song.wav"), "pcm");
+
+        FileLease first = registry.acquire("slice", file);
+        FileLease second = registry.acquire("mix", file);
+        first.release();
+        first.release();
+        Thread.sleep(100);
+        assertTrue(Files.exists(file));
+        assertTrue(registry.isLeased(file));
+
+        second.release();
+        awaitDeleted(file);
+        assertFalse(Files.exists(file));
+        assertFalse(registry.isLeased(file));
+    }
+
+    @Test
+    void retainedFileOutlivesAcquirerButIsNotDeletedOnItsOwn() throws Exception {
+        FileLeaseRegistry registry = registry();
+        Path kept = Files.writeString(root.resolve("kept.mp3"), "data");
+        Path shared = Files.writeString(root.resolve("shared.mp3"), "data");
+
+        registry.retain("analysis", kept).release();
+        FileLease ingest = registry.acquire("ingest", shared);
+        FileLease analysis = registry.retain("analysis", shared);
+        ingest.release();
+        Thread.sleep(100);
+        assertTrue(Files.exists(shared));
+
+        analysis.release();
+        awaitDeleted(shared);
+        assertFalse(Files.exists(shared));
+        assertTrue(Files.exists(kept));
+    }
+
+    @Test
+    void leasedDirectoryCoversItsFilesAndIsRemovedWithThem() throws Exception {
+        FileLeaseRegistry registry = registry();
+        Path dir = Files.createDirectories(root.resolve("segmented/song_128k"));
+        Path segment = Files.writeString(dir.resolve("a_000.ts"), "ts");
+
+        FileLease lease = registry.acquire("slice", dir);
+        assertTrue(registry.isLeased(segment));
+
+        lease.release();
+        awaitDeleted(dir);
+        assertFalse(Files.exists(dir));
+    }
+}
@@ -0,0 +1,140 @@
+package io.kneo.broadcaster.service.stream;
+
+import io.kneo.broadcaster.model.PlaylistRequest;
+import io.kneo.broadcaster.model.Scene;
+import io.kneo.broadcaster.model.Script;
+import io.kneo.broadcaster.model.brand.Brand;
+import io.kneo.broadcaster.model.cnst.PlaylistItemType;
+import io.kneo.broadcaster.model.cnst.WayOfSourcing;
+import io.kneo.broadcaster.model.soundfragment.SoundFragment;
+import io.kneo.broadcaster.model.stream.AgendaCatalog;
+import io.kneo.broadcaster.model.stream.LiveScene;
+import io.kneo.broadcaster.model.stream.PendingSongEntry;
+import io.kneo.broadcaster.model.stream.StreamAgenda;
+import io.kneo.broadcaster.repository.soundfragment.SoundFragmentRepository;
+import io.kneo.broadcaster.service.EntityCaches;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AgendaDataLoaderTest {
+    private static final UUID ROCK = UUID.randomUUID();
+    private static final UUID JAZZ = UUID.randomUUID();
+
+    @Test
+    void wholeDayAgendasReuseTheCachedBrandCatalog() {
+        List<SoundFragment> brandSongs = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            brandSongs.add(fragment("artist " + i, i % 2 == 0 ? ROCK : JAZZ, PlaylistItemType.SONG));
+        }
+        brandSongs.add(fragment("jingle", JAZZ, PlaylistItemType.JINGLE));
+        List<SoundFragment> listed = List.of(
+                fragment("guest a", ROCK, PlaylistItemType.SONG),
+                fragment("guest b", ROCK, PlaylistItemType.SONG),
+                fragment("guest c", ROCK, PlaylistItemType.SONG));
+        List<UUID> listedIds = listed.stream().map(SoundFragment::getId).toList();
+
+        SoundFragmentRepository repository = mock(SoundFragmentRepository.class);
+        when(repository.findAgendaFragments(any(UUID.class))).thenReturn(Uni.createFrom().item(brandSongs));
+        when(repository.findAgendaFragments(anyList())).thenReturn(Uni.createFrom().item(listed));
+        AgendaDataLoader loader = new AgendaDataLoader(repository, new EntityCaches());
+
+        Script script = new Script();
+        for (int i = 0; i < 48; i++) {
+            Scene scene = new Scene();
+            scene.setId(UUID.randomUUID());
+            scene.setSeqNum(i);
+            scene.setTitle("scene " + i);
+            scene.setStartTime(List.of(LocalTime.of(i / 2, (i % 2) * 30)));
+            scene.setTalkativity(0);
+            scene.setPlaylistRequest(request(i % 4, listedIds));
+            script.getScenes().add(scene);
+        }
+        Brand brand = new Brand();
+        brand.setId(UUID.randomUUID());
+
+        StreamAgendaService service = new StreamAgendaService();
+        service.buildAgenda(script, brand, loader).await().atMost(Duration.ofSeconds(5));
+        StreamAgenda agenda = service.buildAgenda(script, brand, loader).await().atMost(Duration.ofSeconds(5));
+
+        verify(repository, times(1)).findAgendaFragments(brand.getId());
+        verify(repository, times(2)).findAgendaFragments(listedIds);
+        assertEquals(48, agenda.getTotalScenes());
+        for (LiveScene scene : agenda.getLiveScenes()) {
+            List<SoundFragment> songs = scene.getSongs().stream().map(PendingSongEntry::getSoundFragment).toList();
+            if (scene.getSourcing() == WayOfSourcing.GENERATED) {
+                assertTrue(songs.isEmpty());
+                continue;
+            }
+            assertFalse(songs.isEmpty(), scene.getSceneTitle());
+            if (scene.getSourcing() == WayOfSourcing.STATIC_LIST) {
+                assertTrue(listed.containsAll(songs));
+            } else if (scene.getSourcing() == WayOfSourcing.QUERY) {
+                songs.forEach(s -> assertEquals(List.of(JAZZ), s.getGenres()));
+                songs.forEach(s -> assertEquals(PlaylistItemType.SONG, s.getType()));
+            } else {
+                assertTrue(brandSongs.containsAll(songs));
+                songs.forEach(s -> assertEquals(PlaylistItemType.SONG, s.getType()));
+            }
+        }
+    }
+
+    @Test
+    void generatedOnlyScriptSkipsTheQuery() {
+        SoundFragmentRepository repository = mock(SoundFragmentRepository.class);
+        Scene scene = new Scene();
+        scene.setPlaylistRequest(request(3, List.of()));
+
+        AgendaCatalog catalog = new AgendaDataLoader(repository, new EntityCaches()).load(UUID.randomUUID(), List.of(scene))
+                .await().atMost(Duration.ofSeconds(5));
+
+        assertEquals(0, catalog.size());
+        verify(repository, times(0)).findAgendaFragments(any(UUID.class));
+        verify(repository, times(0)).findAgendaFragments(anyList());
+    }
+
+    private static PlaylistRequest request(int kind, List<UUID> listedIds) {
+        PlaylistRequest request = new PlaylistRequest();
+        switch (kind) {
+            case 0 -> {
+                request.setSourcing(WayOfSourcing.QUERY);
+                request.setGenres(List.of(JAZZ));
+                request.setType(List.of(PlaylistItemType.SONG));
+            }
+            case 1 -> {
+                request.setSourcing(WayOfSourcing.STATIC_LIST);
+                request.setSoundFragments(listedIds);
+            }
+            case 2 -> request.setSourcing(WayOfSourcing.RANDOM);
+            default -> request.setSourcing(WayOfSourcing.GENERATED);
+        }
+        return request;
+    }
+
+    private static SoundFragment fragment(String artist, UUID genre, PlaylistItemType type) {
+        SoundFragment fragment = new SoundFragment();
+        fragment.setId(UUID.randomUUID());
+        fragment.setArtist(artist);
+        fragment.setTitle(artist + " track");
+        fragment.setType(type);
+        fragment.setGenres(List.of(genre));
+        fragment.setLabels(List.of());
+        fragment.setLength(Duration.ofSeconds(150 + (artist.hashCode() & 0xff)));
+        return fragment;
+    }
+}
@@ -0,0 +1,87 @@
+package io.kneo.broadcaster.service.stream;
+
+import io.kneo.broadcaster.model.soundfragment.SoundFragment;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScenePackingPlannerTest {
+    private static final int INTRO = 30;
+
+    @Test
+    void hourLongSceneIsFilledWithinSeconds() {
+        Random random = new Random(7);
+        List<UUID> genres = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        for (int round = 0; round < 50; round++) {
+            List<SoundFragment> pool = new ArrayList<>();
+            for (int i = 0; i < ScenePackingPlanner.candidatePoolSize(3600); i++) {
+                pool.add(song("artist " + random.nextInt(40), 150 + random.nextInt(240), genres.get(random.nextInt(genres.size()))));
+            }
+
+            ScenePackingPlanner.Plan plan = ScenePackingPlanner.plan(pool, 3600, INTRO);
+
+            assertTrue(Math.abs(plan.getError()) <= 5, "error was " + plan.getError() + "s");
+            Set<String> artists = new HashSet<>();
+            plan.songs().forEach(s -> assertTrue(artists.add(s.getArtist()), "artist repeated: " + s.getArtist()));
+        }
+    }
+
+    @Test
+    void neighboursDifferInGenreWhenPossible() {
+        UUID rock = UUID.randomUUID();
+        UUID jazz = UUID.randomUUID();
+        List<SoundFragment> pool = List.of(
+                song("a", 200, rock), song("b", 200, rock), song("c", 200, rock),
+                song("d", 200, jazz), song("e", 200, jazz), song("f", 200, jazz));
+
+        ScenePackingPlanner.Plan plan = ScenePackingPlanner.plan(pool, 6 * (200 + INTRO), INTRO);
+
+        assertEquals(6, plan.songs().size());
+        for (int i = 1; i < plan.songs().size(); i++) {
+            assertNotEquals(plan.songs().get(i - 1).getGenres(), plan.songs().get(i).getGenres());
+        }
+    }
+
+    @Test
+    void singleArtistPoolStillFillsTheScene() {
+        UUID genre = UUID.randomUUID();
+        List<SoundFragment> pool = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pool.add(song("only artist", 170 + i * 10, genre));
+        }
+
+        ScenePackingPlanner.Plan plan = ScenePackingPlanner.plan(pool, 900, INTRO);
+
+        assertEquals(0, plan.getError());
+    }
+
+    @Test
+    void sceneShorterThanEverySongGetsTheShortest() {
+        SoundFragment shortest = song("a", 200, UUID.randomUUID());
+        List<SoundFragment> pool = List.of(song("b", 400, UUID.randomUUID()), shortest, song("c", 300, UUID.randomUUID()));
+
+        ScenePackingPlanner.Plan plan = ScenePackingPlanner.plan(pool, 60, INTRO);
+
+        assertEquals(List.of(shortest), plan.songs());
+    }
+
+    private static SoundFragment song(String artist, int seconds, UUID genre) {
+        SoundFragment song = new SoundFragment();
+        song.setId(UUID.randomUUID());
+        song.setArtist(artist);
+        song.setTitle(artist + " " + seconds);
+        song.setLength(Duration.ofSeconds(seconds));
+        song.setGenres(List.of(genre));
+        return song;
+    }
+}
@@ -0,0 +1,96 @@
+package io.kneo.broadcaster.service.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StationCheckpointTest {
+
+    @Test
+    void roundTripKeepsQueuedSegmentsAndAgenda() throws IOException {
+        UUID sceneId = UUID.randomUUID();
+        UUID songId = UUID.randomUUID();
+        UUID queuedId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.of(2026, 10, 18, 6, 0);
+        StationCheckpoint.Agenda agenda = new StationCheckpoint.Agenda(
+                UUID.randomUUID(),
+                start,
+                List.of(new StationCheckpoint.AgendaScene(sceneId, start, 3600, LocalTime.of(6, 0), LocalTime.of(7, 0),
+                        start.plusMinutes(1), null, "PENDING", null,
+                        List.of(new StationCheckpoint.AgendaSong(UUID.randomUUID(), songId, start, 180))))
+        );
+        StationCheckpoint checkpoint = new StationCheckpoint(
+                "lumisonic",
+                1_000L,
+                42L,
+                List.of(new StationCheckpoint.Slot(41L, true, songId, "Blue Monday", "New Order", true,
+                        List.of(new StationCheckpoint.SegmentRef(128_000L, 6, 100L)))),
+                List.of(new StationCheckpoint.QueuedFragment(queuedId, 15, false, "Ceremony", "New Order", "SONG",
+                        List.of(new StationCheckpoint.QueuedSegmentRef(128_000L, 0, 6, 200L),
+                                new StationCheckpoint.QueuedSegmentRef(64_000L, 0, 6, 200L)))),
+                Map.of(sceneId, Set.of(songId)),
+                agenda
+        );
+
+        assertEquals(checkpoint, roundTrip(checkpoint));
+    }
+
+    @Test
+    void roundTripWithoutAgenda() throws IOException {
+        StationCheckpoint checkpoint = new StationCheckpoint("lumisonic", 1_000L, 7L, List.of(),
+                List.of(new StationCheckpoint.QueuedFragment(UUID.randomUUID(), 100, true, null, null, null, List.of())),
+                Map.of(), null);
+
+        assertEquals(checkpoint, roundTrip(checkpoint));
+    }
+
+    @Test
+    void readsVersionOneCheckpoints() throws IOException {
+        UUID queuedId = UUID.randomUUID();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0x4B424350);
+            out.writeInt(1);
+            out.writeUTF("lumisonic");
+            out.writeLong(1_000L);
+            out.writeLong(7L);
+            out.writeInt(0);
+            out.writeInt(1);
+            out.writeBoolean(true);
+            out.writeLong(queuedId.getMostSignificantBits());
+            out.writeLong(queuedId.getLeastSignificantBits());
+            out.writeInt(15);
+            out.writeBoolean(true);
+            out.writeInt(0);
+        }
+
+        StationCheckpoint checkpoint = StationCheckpoint.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(7L, checkpoint.nextSequence());
+        assertEquals(queuedId, checkpoint.queuedFragments().getFirst().soundFragmentId());
+        assertTrue(checkpoint.queuedFragments().getFirst().segments().isEmpty());
+        assertNull(checkpoint.agenda());
+    }
+
+    private static StationCheckpoint roundTrip(StationCheckpoint checkpoint) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            checkpoint.writeTo(out);
+        }
+        return StationCheckpoint.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
@@ -0,0 +1,98 @@
+package io.kneo.broadcaster.service.translation;
+
+import io.kneo.broadcaster.dto.agentrest.TranslateReqDTO;
+import io.kneo.broadcaster.dto.cnst.TranslationType;
+import io.kneo.officeframe.cnst.CountryCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranslationCheckpointStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void interruptedJobResumesWithItsProcessedItems() throws IOException {
+        TranslationCheckpointStore store = new TranslationCheckpointStore(dir);
+        List<TranslateReqDTO> items = List.of(item("pt-PT"), item("uk-UA"), item("bg-BG"));
+        store.create("job-1", "drafts", 42L, items);
+        store.record("job-1", TranslationCheckpointStore.itemKey(items.get(0)), true);
+        store.record("job-1", TranslationCheckpointStore.itemKey(items.get(1)), false);
+        appendToJournal("+" + TranslationCheckpointStore.itemKey(items.get(2)));
+
+        List<TranslationCheckpointStore.Checkpoint> loaded = new TranslationCheckpointStore(dir).load();
+
+        assertEquals(1, loaded.size());
+        TranslationCheckpointStore.Checkpoint checkpoint = loaded.get(0);
+        assertEquals("job-1", checkpoint.jobId());
+        assertEquals("drafts", checkpoint.kind());
+        assertEquals(42L, checkpoint.userId());
+        assertEquals(3, checkpoint.items().size());
+        assertEquals(items.get(2).getMasterId(), checkpoint.items().get(2).getMasterId());
+        assertEquals(Set.of(TranslationCheckpointStore.itemKey(items.get(0)),
+                TranslationCheckpointStore.itemKey(items.get(1))), checkpoint.processed());
+        assertEquals(1, checkpoint.succeeded());
+    }
+
+    @Test
+    void finishedJobLeavesNothingBehind() throws IOException {
+        TranslationCheckpointStore store = new TranslationCheckpointStore(dir);
+        TranslateReqDTO item = item("pt-PT");
+        store.create("job-2", "prompts", 7L, List.of(item));
+        store.record("job-2", TranslationCheckpointStore.itemKey(item), true);
+
+        store.remove("job-2");
+
+        assertTrue(store.load().isEmpty());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void recordedItemsAreWrittenByTheWorkerInOneAppend() {
+        List<Runnable> worker = new ArrayList<>();
+        TranslationCheckpointStore store = new TranslationCheckpointStore(dir, worker::add);
+        List<TranslateReqDTO> items = List.of(item("pt-PT"), item("uk-UA"), item("bg-BG"));
+        store.create("job-3", "drafts", 42L, items);
+        items.forEach(dto -> store.record("job-3", TranslationCheckpointStore.itemKey(dto), true));
+
+        assertTrue(store.load().get(0).processed().isEmpty());
+        assertEquals(1, worker.size());
+        worker.forEach(Runnable::run);
+
+        assertEquals(3, store.load().get(0).succeeded());
+    }
+
+    private void appendToJournal(String tornLine) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            Path journal = files.filter(f -> f.toString().endsWith(".log")).findFirst().orElseThrow();
+            Files.writeString(journal, tornLine, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        }
+    }
+
+    private static TranslateReqDTO item(String languageTag) {
+        TranslateReqDTO dto = new TranslateReqDTO();
+        dto.setMasterId(UUID.randomUUID());
+        dto.setLanguageTag(languageTag);
+        dto.setToTranslate("Good evening, this is the late show");
+        dto.setTranslationType(TranslationType.CODE);
+        dto.setCountryCode(CountryCode.PT);
+        dto.setVersion(1.0);
+        return dto;
+    }
+}
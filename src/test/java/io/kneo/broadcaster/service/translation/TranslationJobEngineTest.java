@@ -0,0 +1,142 @@
+package io.kneo.broadcaster.service.translation;
+
+import com.sun.net.httpserver.HttpServer;
+import io.kneo.broadcaster.service.exceptions.RateLimitedException;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the engine against a local stand-in for the translation endpoint that answers after a
+ * fixed latency and can be told to reject every n-th request with 429.
+ */
+class TranslationJobEngineTest {
+    private static final long LATENCY_MS = 100;
+
+    private HttpServer server;
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+    private volatile int rejectEvery;
+
+    @BeforeEach
+    void startFakeProvider() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/translate", exchange -> {
+            int n = received.incrementAndGet();
+            try {
+                String source = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                if (rejectEvery > 0 && n % rejectEvery == 0) {
+                    rejected.incrementAndGet();
+                    exchange.sendResponseHeaders(429, -1);
+                    return;
+                }
+                Thread.sleep(LATENCY_MS);
+                byte[] body = ("translated " + source).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopFakeProvider() {
+        server.stop(0);
+    }
+
+    @Test
+    void throughputScalesWithConcurrencyUpToTheRateLimit() {
+        double one = throughput(new TranslationJobEngine(1, 1000, 100, 0, Duration.ZERO), 16);
+        double two = throughput(new TranslationJobEngine(2, 1000, 100, 0, Duration.ZERO), 16);
+        double four = throughput(new TranslationJobEngine(4, 1000, 100, 0, Duration.ZERO), 16);
+        assertTrue(two >= one * 1.6, "1 -> 2 workers: " + one + " -> " + two + " items/s");
+        assertTrue(four >= one * 3.0, "1 -> 4 workers: " + one + " -> " + four + " items/s");
+
+        // 16 workers could do ~160 items/s against this endpoint; the bucket holds them to 20/s
+        double limited = throughput(new TranslationJobEngine(16, 20, 1, 0, Duration.ZERO), 20);
+        assertTrue(limited <= 22, "rate limited throughput was " + limited + " items/s");
+        assertTrue(limited >= 12, "rate limited throughput was " + limited + " items/s");
+    }
+
+    @Test
+    void rateLimitedCallsAreRetriedUntilTheyGoThrough() {
+        rejectEvery = 3;
+        TranslationJobEngine engine = new TranslationJobEngine(4, 1000, 100, 5, Duration.ofMillis(20));
+        TranslationJobEngine.Batch<String> batch = engine.batch("fake");
+
+        List<String> results = run(batch, IntStream.range(0, 12).mapToObj(i -> "line " + i).toList());
+
+        assertEquals(12, results.size());
+        assertTrue(results.contains("translated line 7"));
+        assertTrue(rejected.get() > 0);
+        assertEquals(rejected.get(), engine.getRateLimited());
+        assertEquals(12 + rejected.get(), received.get());
+    }
+
+    @Test
+    void identicalSourceStringsShareOneCall() {
+        TranslationJobEngine engine = new TranslationJobEngine(4, 1000, 100, 0, Duration.ZERO);
+        TranslationJobEngine.Batch<String> batch = engine.batch("fake");
+
+        List<String> results = run(batch, IntStream.range(0, 10).mapToObj(i -> "jingle " + (i % 3)).toList());
+
+        assertEquals(10, results.size());
+        assertEquals(3, received.get());
+        assertEquals(7, engine.getDeduplicated());
+    }
+
+    private double throughput(TranslationJobEngine engine, int items) {
+        TranslationJobEngine.Batch<String> batch = engine.batch("fake");
+        List<String> sources = IntStream.range(0, items).mapToObj(i -> "item " + i).toList();
+        long start = System.nanoTime();
+        run(batch, sources);
+        return items / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private List<String> run(TranslationJobEngine.Batch<String> batch, List<String> sources) {
+        return Multi.createFrom().iterable(sources)
+                .onItem().transformToUniAndMerge(source -> batch.submit(source, () -> call(source)))
+                .collect().asList()
+                .await().atMost(Duration.ofSeconds(30));
+    }
+
+    private Uni<String> call(String source) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/translate"))
+                .POST(HttpRequest.BodyPublishers.ofString(source))
+                .build();
+        return Uni.createFrom().completionStage(() -> http.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                .map(response -> {
+                    if (response.statusCode() == 429) {
+                        throw new RateLimitedException("HTTP 429", null);
+                    }
+                    return response.body();
+                });
+    }
+}
@@ -0,0 +1,121 @@
+package io.kneo.broadcaster.service.util;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BlockingExecutorTest {
+
+    private final BlockingExecutor executor = new BlockingExecutor(config());
+
+    private static BroadcasterConfig config() {
+        BroadcasterConfig config = mock(BroadcasterConfig.class);
+        when(config.getBlockingFfmpegConcurrency()).thenReturn(2);
+        when(config.getBlockingProbeConcurrency()).thenReturn(1);
+        when(config.getBlockingStorageConcurrency()).thenReturn(1);
+        when(config.getBlockingFileConcurrency()).thenReturn(1);
+        when(config.getBlockingScriptConcurrency()).thenReturn(1);
+        when(config.getBlockingLlmConcurrency()).thenReturn(1);
+        return config;
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.onStop(null);
+    }
+
+    @Test
+    void laneNeverRunsMoreThanItsPermits() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            executor.executor(BlockingExecutor.Category.FFMPEG).execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ignored) {
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, peak.get());
+    }
+
+    @Test
+    void scopeRunsTasksOneAtATimeInOrder() throws Exception {
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        try (StationScope scope = executor.openScope("test")) {
+            for (int i = 0; i < 50; i++) {
+                int n = i;
+                scope.execute(() -> order.add(n));
+            }
+            scope.submit(() -> null).get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(50, order.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void closedScopeStopsTimersAndRejectsWork() throws Exception {
+        StationScope scope = executor.openScope("test");
+        AtomicInteger ticks = new AtomicInteger();
+        CountDownLatch firstTick = new CountDownLatch(1);
+        scope.scheduleAtFixedRate(() -> {
+            ticks.incrementAndGet();
+            firstTick.countDown();
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        assertTrue(firstTick.await(5, TimeUnit.SECONDS));
+
+        scope.close();
+        Thread.sleep(30);
+        int afterClose = ticks.get();
+        Thread.sleep(50);
+
+        assertEquals(afterClose, ticks.get());
+        assertTrue(scope.isClosed());
+        assertThrows(RejectedExecutionException.class, () -> scope.execute(() -> { }));
+    }
+
+    @Test
+    void closeCancelsQueuedFutures() throws Exception {
+        StationScope scope = executor.openScope("test");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scope.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> queued = scope.submit(() -> "never");
+
+        scope.close();
+
+        assertTrue(queued.isCancelled());
+        assertThrows(CancellationException.class, () -> queued.get(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,89 @@
+package io.kneo.broadcaster.service.util;
+
+import io.kneo.broadcaster.config.BroadcasterConfig;
+import io.kneo.broadcaster.dto.UploadFileDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UploadProgressStoreTest {
+
+    private static UploadProgressStore store(int maxBatches, int ttlMinutes) {
+        BroadcasterConfig config = mock(BroadcasterConfig.class);
+        when(config.getUploadProgressMaxBatches()).thenReturn(maxBatches);
+        when(config.getUploadProgressTtlMinutes()).thenReturn(ttlMinutes);
+        return new UploadProgressStore(config);
+    }
+
+    private static UploadFileDTO file(String id, String status) {
+        return UploadFileDTO.builder().id(id).status(status).percentage(100).build();
+    }
+
+    @Test
+    void oldestBatchIsDroppedWhenFull() {
+        UploadProgressStore store = store(2, 30);
+        store.put("a", file("1", "processing"));
+        store.put("b", file("1", "processing"));
+        store.put("c", file("1", "processing"));
+
+        assertEquals(2, store.getBatchCount());
+        assertTrue(store.getFiles("a").isEmpty());
+        assertEquals(1, store.getFiles("c").size());
+    }
+
+    @Test
+    void singleUploadsDoNotEvictBatches() {
+        UploadProgressStore store = store(2, 30);
+        store.put("bulk", file("1", "processing"));
+        for (int i = 0; i < 5; i++) {
+            String uploadId = "single-" + i;
+            store.updateSingle(uploadId, current -> file(uploadId, "extract_metadata"));
+        }
+
+        assertEquals(1, store.getBatchCount());
+        assertEquals(1, store.getFiles("bulk").size());
+        assertEquals("extract_metadata", store.getSingle("single-4").getStatus());
+    }
+
+    @Test
+    void idleBatchesExpire() {
+        UploadProgressStore store = store(10, 0);
+        store.put("a", file("1", "processing"));
+
+        store.expire();
+
+        assertEquals(0, store.getBatchCount());
+    }
+
+    @Test
+    void finishedFilesAreCountedOnce() {
+        UploadProgressStore store = store(10, 30);
+        store.put("a", file("1", "processing"));
+        store.put("a", file("1", "finished"));
+        store.put("a", file("1", "finished"));
+        store.put("a", file("2", "duplicate"));
+
+        assertEquals(1.0 / 5, store.getFilesPerMinute(), 1e-9);
+        assertTrue(store.getBatchFilesPerMinute("a") > 0);
+    }
+
+    @Test
+    void brandIdGoesWithItsBatch() {
+        UploadProgressStore store = store(1, 30);
+        UUID brandId = UUID.randomUUID();
+        store.setBrandId("a", brandId);
+        store.put("a", file("1", "processing"));
+
+        assertEquals(brandId, store.getBrandId("a"));
+
+        store.put("b", file("1", "processing"));
+
+        assertNull(store.getBrandId("a"));
+    }
+}
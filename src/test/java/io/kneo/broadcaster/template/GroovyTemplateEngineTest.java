@@ -0,0 +1,102 @@
+package io.kneo.broadcaster.template;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GroovyTemplateEngineTest {
+
+    private final ExecutorService renderPool = Executors.newSingleThreadExecutor();
+    private final GroovyTemplateEngine engine = new GroovyTemplateEngine(8, renderPool, 2, Duration.ofSeconds(1));
+
+    @BeforeAll
+    static void warmUpGroovy() {
+        // the first compile in a fresh JVM loads the Groovy runtime and can take longer than the
+        // one-second timeout the tests below use
+        ExecutorService warmUpPool = Executors.newSingleThreadExecutor();
+        GroovyTemplateEngine warmUp = new GroovyTemplateEngine(1, warmUpPool, 1, Duration.ofSeconds(30));
+        warmUp.render("Thread.sleep(0); 'warm'", Map.of(), "warm").await().indefinitely();
+        warmUp.shutdown();
+        warmUpPool.shutdownNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+        renderPool.shutdownNow();
+    }
+
+    @Test
+    void rendersWithContext() {
+        String text = engine.render("\"${djName} on ${stationBrand}\"", Map.of("djName", "Veenuo", "stationBrand", "Lumisonic"), "intro")
+                .await().indefinitely();
+
+        assertEquals("Veenuo on Lumisonic", text);
+    }
+
+    @Test
+    void runawayScriptIsStoppedAndFreesThePool() {
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> engine.render("long n = 0; while (true) { n++ }", Map.of(), "spin").await().indefinitely());
+
+        assertTrue(error.getMessage().contains("did not finish"));
+        // the only pool thread is free again once the interrupted script gave up
+        assertEquals("ok", engine.render("'ok'", Map.of(), "next").await().atMost(Duration.ofSeconds(5)));
+        assertEquals(1, engine.getStats().timeouts());
+    }
+
+    @Test
+    void compileErrorIsReportedAsEvaluationFailure() {
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> engine.render("def x = ", Map.of(), "broken").await().indefinitely());
+
+        assertTrue(error.getMessage().startsWith("Failed to evaluate Groovy script 'broken'"));
+    }
+
+    @Test
+    void timeoutStartsWhenTheRenderGetsItsThread() throws Exception {
+        String script = "Thread.sleep(pause); name";
+        // compiled up front so only the sleeps count against the timeout
+        engine.render(script, Map.of("pause", 0, "name", "warm"), "warm").await().indefinitely();
+
+        CompletableFuture<String> first = engine.render(script, Map.of("pause", 700, "name", "first"), "first")
+                .subscribeAsCompletionStage();
+        // waits about 700ms for the only pool thread and then runs for 500ms, longer than the
+        // timeout in total but well within it once started
+        CompletableFuture<String> second = engine.render(script, Map.of("pause", 500, "name", "second"), "second")
+                .subscribeAsCompletionStage();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        assertEquals(0, engine.getStats().timeouts());
+    }
+
+    @Test
+    void rendersBeyondTheQueueCapacityAreRejected() throws Exception {
+        CompletableFuture<String> first = engine.render("Thread.sleep(300); 'a'", Map.of(), "a").subscribeAsCompletionStage();
+        while (engine.getStats().activeRenders() == 0) {
+            Thread.onSpinWait();
+        }
+        CompletableFuture<String> second = engine.render("'b'", Map.of(), "b").subscribeAsCompletionStage();
+        CompletableFuture<String> third = engine.render("'c'", Map.of(), "c").subscribeAsCompletionStage();
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> engine.render("'d'", Map.of(), "d").await().indefinitely());
+
+        assertTrue(error.getMessage().contains("queue is full"));
+        assertEquals("a", first.get(5, TimeUnit.SECONDS));
+        assertEquals("b", second.get(5, TimeUnit.SECONDS));
+        assertEquals("c", third.get(5, TimeUnit.SECONDS));
+        assertEquals(1, engine.getStats().rejections());
+    }
+}
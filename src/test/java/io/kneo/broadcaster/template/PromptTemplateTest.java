@@ -0,0 +1,40 @@
+package io.kneo.broadcaster.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PromptTemplateTest {
+
+    @Test
+    void rendersLikeTheReplaceChain() {
+        String text = "You are {{djName}} on {{radioStationName}}. Greet {{userName}}; {{djName}} says hi. {{unknown}} {x} {{ spaced }}";
+        Map<String, String> values = Map.of("djName", "Veenuo", "radioStationName", "Lumisonic", "userName", "kate");
+
+        String expected = text.replace("{{djName}}", "Veenuo")
+                .replace("{{radioStationName}}", "Lumisonic")
+                .replace("{{userName}}", "kate");
+
+        assertEquals(expected, PromptTemplate.compile(text).render(values));
+    }
+
+    @Test
+    void boundTemplateKeepsOnlyOpenPlaceholders() {
+        PromptTemplate template = PromptTemplate.compile("{{djName}} at {{radioStationName}} talks to {{userName}}.");
+
+        PromptTemplate bound = template.bind(Map.of("djName", "Veenuo", "radioStationName", "Lumisonic"));
+
+        assertEquals(Set.of("userName"), bound.getPlaceholders());
+        assertEquals("Veenuo at Lumisonic talks to kate.", bound.render(Map.of("userName", "kate")));
+    }
+
+    @Test
+    void sameTextIsCompiledOnce() {
+        String text = "Hello {{userName}}";
+        assertSame(PromptTemplate.of(text), PromptTemplate.of(new String(text)));
+    }
+}
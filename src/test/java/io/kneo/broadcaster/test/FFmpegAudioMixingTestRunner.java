@@ -2,6 +2,7 @@ package io.kneo.broadcaster.test;
 
 import io.kneo.broadcaster.config.BroadcasterConfig;
 import io.kneo.broadcaster.service.exceptions.AudioMergeException;
+import io.kneo.broadcaster.service.maintenance.FileLeaseRegistry;
 import io.kneo.broadcaster.service.manipulation.FFmpegProvider;
 import io.kneo.broadcaster.service.manipulation.mixing.handler.AudioMixingHandler;
 import io.kneo.broadcaster.service.manipulation.mixing.handler.FadeCurve;
@@ -212,6 +213,6 @@ public class FFmpegAudioMixingTestRunner {
             }
         };
 
-        return new AudioMixingHandler(config, null, null,null, null, ffmpegProvider);
+        return new AudioMixingHandler(config, null, null, null, null, ffmpegProvider, new FileLeaseRegistry(config));
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package io.kneo.broadcaster.test;
+
+import io.kneo.broadcaster.template.GroovyTemplateEngine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class GroovyTemplateEngineBenchmark {
+
+    private static final int TEMPLATES = 40;
+    private static final int RENDERS = 20_000;
+    private static final int CALLERS = 8;
+
+    public static void main(String[] args) throws Exception {
+        List<String> templates = new ArrayList<>();
+        for (int i = 0; i < TEMPLATES; i++) {
+            templates.add("""
+                    def intro = "Template %d: ${djName} on ${stationBrand}"
+                    def parts = [intro]
+                    if (songTitle) { parts << "next up ${songTitle} by ${songArtist}" }
+                    parts.join(', ')
+                    """.formatted(i));
+        }
+
+        ExecutorService renderPool = Executors.newFixedThreadPool(CALLERS);
+        GroovyTemplateEngine engine = new GroovyTemplateEngine(64, renderPool, 1024, Duration.ofSeconds(10));
+        Map<String, Object> context = Map.of(
+                "djName", "Veenuo",
+                "stationBrand", "Lumisonic",
+                "songTitle", "Blue Monday",
+                "songArtist", "New Order"
+        );
+
+        System.out.println("Warming up...");
+        for (String template : templates) {
+            engine.render(template, context, "warmup").await().indefinitely();
+        }
+
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < CALLERS; c++) {
+            int offset = c;
+            futures.add(callers.submit(() -> {
+                for (int i = offset; i < RENDERS; i += CALLERS) {
+                    engine.render(templates.get(i % TEMPLATES), context, "bench-" + (i % TEMPLATES)).await().indefinitely();
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        callers.shutdown();
+        callers.awaitTermination(10, TimeUnit.SECONDS);
+        renderPool.shutdown();
+
+        GroovyTemplateEngine.RenderStats stats = engine.getStats();
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("Renders: %d in %.2fs -> %.0f renders/sec%n", RENDERS, seconds, RENDERS / seconds);
+        System.out.printf("Cache hit rate: %.2f%% (hits=%d, misses=%d, evictions=%d)%n",
+                stats.getHitRate() * 100, stats.cacheHits(), stats.cacheMisses(), stats.evictions());
+        System.out.printf("Script CPU time: %.1fms total, %.1fus per render%n",
+                stats.cpuTimeNanos() / 1_000_000.0, stats.cpuTimeNanos() / 1_000.0 / stats.renders());
+        System.out.printf("Render wall time: %.1fms total, %.1fus per render%n",
+                stats.renderTimeNanos() / 1_000_000.0, stats.renderTimeNanos() / 1_000.0 / stats.renders());
+    }
+}
@@ -0,0 +1,79 @@
+package io.kneo.broadcaster.test;
+
+import io.kneo.broadcaster.template.PromptTemplate;
+import io.kneo.broadcaster.util.ResourceUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Renders the chat system prompt the way ChatService used to, with a chain of
+ * {@link String#replace} calls per message, against the compiled template and against a template
+ * with the station values bound ahead of time, which is what a chat turn does now.
+ */
+public class PromptTemplateBenchmark {
+
+    private static final int WARMUP = 20_000;
+    private static final int RENDERS = 200_000;
+
+    public static void main(String[] args) {
+        String text = ResourceUtil.loadResourceAsString("/prompts/mainPrompt.hbs");
+        Map<String, String> station = new HashMap<>();
+        station.put("djName", "Veenuo");
+        station.put("radioStationName", "Lumisonic");
+        station.put("radioStationSlug", "lumisonic");
+        station.put("radioStationCountry", "Portugal");
+        station.put("radioStationBitRate", "128000");
+        station.put("radioStationStatus", "unknown");
+        station.put("radioStationTimeZone", "Europe/Lisbon");
+        station.put("radioStationDescription", "Downtempo, dub and late night electronica");
+        station.put("radioStationHlsUrl", "https://radio.example.com/lumisonic/radio/stream.m3u8");
+        station.put("radioStationMixplaUrl", "https://player.mixpla.io/?radio=lumisonic");
+        station.put("djLanguages", "en,pt");
+        station.put("djCopilotName", "");
+        Map<String, String> all = new HashMap<>(station);
+        all.put("userName", "listener");
+
+        PromptTemplate compiled = PromptTemplate.compile(text);
+        PromptTemplate bound = compiled.bind(station);
+        if (!replaceChain(text, all).equals(compiled.render(all)) || !compiled.render(all).equals(bound.render(Map.of("userName", "listener")))) {
+            throw new IllegalStateException("Renderers disagree");
+        }
+
+        System.out.printf("Prompt: %d chars, %d placeholders%n", text.length(), compiled.getPlaceholders().size());
+        run("replace chain", () -> replaceChain(text, all));
+        run("compiled template", () -> compiled.render(all));
+        run("station-bound template", () -> bound.render(Map.of("userName", "listener")));
+    }
+
+    private static void run(String label, Supplier<String> render) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += render.get().length();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RENDERS; i++) {
+            sink += render.get().length();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        System.out.printf("%-24s %8.0f ns/render (%d)%n", label, (double) elapsedNanos / RENDERS, sink % 10);
+    }
+
+    private static String replaceChain(String text, Map<String, String> values) {
+        return text
+                .replace("{{djName}}", values.get("djName"))
+                .replace("{{radioStationName}}", values.get("radioStationName"))
+                .replace("{{radioStationSlug}}", values.get("radioStationSlug"))
+                .replace("{{radioStationCountry}}", values.get("radioStationCountry"))
+                .replace("{{radioStationBitRate}}", values.get("radioStationBitRate"))
+                .replace("{{radioStationStatus}}", values.get("radioStationStatus"))
+                .replace("{{radioStationTimeZone}}", values.get("radioStationTimeZone"))
+                .replace("{{radioStationDescription}}", values.get("radioStationDescription"))
+                .replace("{{radioStationHlsUrl}}", values.get("radioStationHlsUrl"))
+                .replace("{{radioStationMixplaUrl}}", values.get("radioStationMixplaUrl"))
+                .replace("{{djLanguages}}", values.get("djLanguages"))
+                .replace("{{djCopilotName}}", values.get("djCopilotName"))
+                .replace("{{userName}}", values.get("userName"));
+    }
+}
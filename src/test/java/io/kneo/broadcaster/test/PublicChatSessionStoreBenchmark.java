@@ -0,0 +1,120 @@
+package io.kneo.broadcaster.test;
+
+import io.kneo.broadcaster.service.chat.PublicChatSession;
+import io.kneo.broadcaster.service.chat.PublicChatSessionStore;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares the binary session store with the MapDB setup it replaced: create, validate and
+ * sweep over the same set of sessions, plus the size each leaves on disk.
+ */
+public class PublicChatSessionStoreBenchmark {
+
+    private static final int SESSIONS = 50_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("session-bench");
+        List<String> tokens = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            tokens.add(UUID.randomUUID().toString());
+        }
+        long now = System.currentTimeMillis();
+
+        try {
+            Path storeFile = dir.resolve("chat-sessions.bin");
+            try (PublicChatSessionStore store = new PublicChatSessionStore(storeFile, 4 * 1024 * 1024)) {
+                long start = System.nanoTime();
+                for (int i = 0; i < SESSIONS; i++) {
+                    store.put(tokens.get(i), session(i, now));
+                }
+                store.force();
+                report("store put", SESSIONS, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                int found = 0;
+                for (int i = 0; i < LOOKUPS; i++) {
+                    if (store.get(tokens.get(i % SESSIONS)) != null) {
+                        found++;
+                    }
+                }
+                report("store get", LOOKUPS, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                int expired = store.expire(now + TimeUnit.HOURS.toMillis(12));
+                store.force();
+                report("store expire (" + expired + " due)", SESSIONS, System.nanoTime() - start);
+                System.out.printf("store found=%d, file=%d bytes%n", found, Files.size(storeFile));
+            }
+
+            Path mapDbFile = dir.resolve("chat-sessions.db");
+            DB db = DBMaker.fileDB(mapDbFile.toFile()).transactionEnable().make();
+            try {
+                @SuppressWarnings("unchecked")
+                HTreeMap<String, LegacySession> sessions = (HTreeMap<String, LegacySession>) db
+                        .hashMap("sessions", Serializer.STRING, Serializer.JAVA)
+                        .createOrOpen();
+                long start = System.nanoTime();
+                for (int i = 0; i < SESSIONS; i++) {
+                    PublicChatSession session = session(i, now);
+                    sessions.put(tokens.get(i), new LegacySession(session.email(), session.expiresAt()));
+                }
+                db.commit();
+                report("mapdb put", SESSIONS, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                int found = 0;
+                for (int i = 0; i < LOOKUPS; i++) {
+                    if (sessions.get(tokens.get(i % SESSIONS)) != null) {
+                        found++;
+                    }
+                }
+                report("mapdb get", LOOKUPS, System.nanoTime() - start);
+
+                long cutoff = now + TimeUnit.HOURS.toMillis(12);
+                start = System.nanoTime();
+                sessions.entrySet().removeIf(entry -> entry.getValue().expiresAt().toEpochMilli() <= cutoff);
+                db.commit();
+                report("mapdb expire (full scan)", SESSIONS, System.nanoTime() - start);
+                System.out.printf("mapdb found=%d, file=%d bytes%n", found, Files.size(mapDbFile));
+            } finally {
+                db.close();
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static PublicChatSession session(int i, long now) {
+        // half of the sessions fall due in the sweep
+        long ttl = TimeUnit.HOURS.toMillis(i % 2 == 0 ? 6 : 24);
+        return new PublicChatSession("listener" + i + "@example.com", Instant.ofEpochMilli(now + ttl));
+    }
+
+    /**
+     * The session record as it was stored through MapDB's Java serializer.
+     */
+    private record LegacySession(String email, Instant expiresAt) implements Serializable {
+    }
+
+    private static void report(String label, int operations, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%-28s %8d ops in %7.3fs -> %,.0f ops/sec%n", label, operations, seconds, operations / seconds);
+    }
+}
@@ -0,0 +1,173 @@
+package io.kneo.broadcaster.test;
+
+import io.kneo.broadcaster.model.soundfragment.SoundFragment;
+import io.kneo.broadcaster.service.stream.ScenePackingPlanner;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * Builds 24h agendas for many synthetic stations and compares how far each scene's music
+ * (song lengths plus one 30s DJ intro per song) lands from its target with the greedy fills
+ * StreamAgendaService used before and with {@link ScenePackingPlanner}. Each fill draws its pool
+ * the way it is fetched: the greedy fills from the old, smaller random pool, the planner from
+ * {@link ScenePackingPlanner#candidatePoolSize}.
+ */
+public class ScenePackingBenchmark {
+
+    private static final int STATIONS = 300;
+    private static final int INTRO = 30;
+    private static final long SEED = 20261018L;
+
+    public static void main(String[] args) {
+        Random random = new Random(SEED);
+        List<Integer> greedyGapErrors = new ArrayList<>();
+        List<Integer> greedyAgendaErrors = new ArrayList<>();
+        List<Integer> plannerErrors = new ArrayList<>();
+        long plannerNanos = 0;
+        int scenes = 0;
+
+        for (int station = 0; station < STATIONS; station++) {
+            List<SoundFragment> catalog = catalog(random, 300 + random.nextInt(2700));
+            for (int durationSeconds : agenda(random)) {
+                double talkativity = random.nextDouble() * 0.6;
+                int musicSeconds = (int) (durationSeconds * (1 - talkativity * 0.3));
+                scenes++;
+
+                int gapPool = (int) Math.ceil(durationSeconds / 120.0 * 1.5) + 2;
+                greedyGapErrors.add(planned(greedyWithGap(sample(random, catalog, gapPool), durationSeconds)) - durationSeconds);
+
+                int agendaPool = durationSeconds / 120 + 2;
+                greedyAgendaErrors.add(planned(greedyAgenda(sample(random, catalog, agendaPool), musicSeconds)) - musicSeconds);
+
+                List<SoundFragment> pool = sample(random, catalog, ScenePackingPlanner.candidatePoolSize(durationSeconds));
+                long start = System.nanoTime();
+                ScenePackingPlanner.Plan plan = ScenePackingPlanner.plan(pool, musicSeconds, INTRO);
+                plannerNanos += System.nanoTime() - start;
+                plannerErrors.add(plan.getError());
+            }
+        }
+
+        System.out.printf("%d stations, %d scenes (24h agendas)%n%n", STATIONS, scenes);
+        System.out.printf("%-28s %8s %8s %8s %8s %8s %9s %9s%n",
+                "fill error (s)", "mean|e|", "p50|e|", "p90|e|", "p99|e|", "max|e|", "<=5s", "overrun");
+        report("greedy, gap > 60 (build)", greedyGapErrors);
+        report("greedy (buildAgenda)", greedyAgendaErrors);
+        report("packing planner", plannerErrors);
+        System.out.printf("%nplanner: %.1f us/scene%n", plannerNanos / 1000.0 / scenes);
+    }
+
+    private static void report(String label, List<Integer> errors) {
+        int[] abs = errors.stream().mapToInt(Math::abs).sorted().toArray();
+        long within = Arrays.stream(abs).filter(e -> e <= 5).count();
+        long over = errors.stream().filter(e -> e > 0).count();
+        System.out.printf("%-28s %8.1f %8d %8d %8d %8d %8.1f%% %8.1f%%%n", label,
+                Arrays.stream(abs).average().orElse(0),
+                percentile(abs, 0.50), percentile(abs, 0.90), percentile(abs, 0.99), abs[abs.length - 1],
+                100.0 * within / abs.length, 100.0 * over / abs.length);
+    }
+
+    private static int percentile(int[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    /**
+     * Scene lengths of a 24h script: start times spread over the day, each scene running until
+     * the next one starts.
+     */
+    private static List<Integer> agenda(Random random) {
+        TreeSet<Integer> starts = new TreeSet<>();
+        int sceneCount = 8 + random.nextInt(41);
+        while (starts.size() < sceneCount) {
+            starts.add(LocalTime.of(random.nextInt(24), random.nextInt(4) * 15).toSecondOfDay());
+        }
+        List<Integer> durations = new ArrayList<>();
+        Integer[] ordered = starts.toArray(Integer[]::new);
+        for (int i = 0; i < ordered.length; i++) {
+            int next = i + 1 < ordered.length ? ordered[i + 1] : ordered[0] + 86400;
+            durations.add(next - ordered[i]);
+        }
+        return durations;
+    }
+
+    private static List<SoundFragment> catalog(Random random, int size) {
+        List<UUID> genres = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            genres.add(UUID.randomUUID());
+        }
+        int artists = Math.max(10, size / 8);
+        List<SoundFragment> songs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            SoundFragment song = new SoundFragment();
+            song.setId(UUID.randomUUID());
+            // a few artists and genres dominate, as in real catalogs
+            song.setArtist("artist " + (int) (artists * Math.pow(random.nextDouble(), 2)));
+            song.setGenres(List.of(genres.get((int) (genres.size() * Math.pow(random.nextDouble(), 2)))));
+            song.setLength(Duration.ofSeconds((long) Math.max(90, Math.min(600, 225 + random.nextGaussian() * 60))));
+            songs.add(song);
+        }
+        return songs;
+    }
+
+    private static List<SoundFragment> sample(Random random, List<SoundFragment> catalog, int quantity) {
+        List<SoundFragment> shuffled = new ArrayList<>(catalog);
+        Collections.shuffle(shuffled, random);
+        return shuffled.subList(0, Math.min(quantity, shuffled.size()));
+    }
+
+    private static int planned(List<SoundFragment> songs) {
+        ToIntFunction<SoundFragment> cost = song -> (int) song.getLength().toSeconds() + INTRO;
+        return songs.stream().mapToInt(cost).sum();
+    }
+
+    /**
+     * StreamAgendaService.selectSongsToFitDuration before the planner.
+     */
+    private static List<SoundFragment> greedyWithGap(List<SoundFragment> songsPool, int sceneDurationSeconds) {
+        List<SoundFragment> selectedSongs = new ArrayList<>();
+        int totalTimeUsed = 0;
+        for (SoundFragment song : songsPool) {
+            int timeWithIntro = (int) song.getLength().toSeconds() + INTRO;
+            if (totalTimeUsed + timeWithIntro <= sceneDurationSeconds) {
+                selectedSongs.add(song);
+                totalTimeUsed += timeWithIntro;
+            } else if (selectedSongs.isEmpty()) {
+                selectedSongs.add(song);
+                break;
+            } else if (sceneDurationSeconds - totalTimeUsed > 60) {
+                selectedSongs.add(song);
+                totalTimeUsed += timeWithIntro;
+            }
+        }
+        return selectedSongs;
+    }
+
+    /**
+     * StreamAgendaService.selectSongsToFitDurationWithTalkativity before the planner.
+     */
+    private static List<SoundFragment> greedyAgenda(List<SoundFragment> songsPool, int effectiveMusicTime) {
+        List<SoundFragment> selectedSongs = new ArrayList<>();
+        int totalTimeUsed = 0;
+        for (SoundFragment song : songsPool) {
+            int timeWithIntro = (int) song.getLength().toSeconds() + INTRO;
+            if (totalTimeUsed + timeWithIntro <= effectiveMusicTime) {
+                selectedSongs.add(song);
+                totalTimeUsed += timeWithIntro;
+            } else {
+                if (selectedSongs.isEmpty()) {
+                    selectedSongs.add(song);
+                }
+                break;
+            }
+        }
+        return selectedSongs;
+    }
+}
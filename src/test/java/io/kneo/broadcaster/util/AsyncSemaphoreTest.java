@@ -0,0 +1,32 @@
+package io.kneo.broadcaster.util;
+
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsyncSemaphoreTest {
+
+    @Test
+    void permitIsReleasedWhenActionThrowsBeforeReturningUni() {
+        AsyncSemaphore semaphore = new AsyncSemaphore(1);
+
+        assertThrows(IllegalStateException.class, () -> semaphore.<String>withPermit(() -> {
+            throw new IllegalStateException("no client");
+        }).await().indefinitely());
+
+        assertEquals(1, semaphore.getAvailable());
+        assertEquals("ok", semaphore.withPermit(() -> Uni.createFrom().item("ok")).await().indefinitely());
+    }
+
+    @Test
+    void permitIsReleasedWhenActionFails() {
+        AsyncSemaphore semaphore = new AsyncSemaphore(1);
+
+        assertThrows(IllegalStateException.class, () -> semaphore.<String>withPermit(
+                () -> Uni.createFrom().failure(new IllegalStateException("down"))).await().indefinitely());
+
+        assertEquals(1, semaphore.getAvailable());
+    }
+}
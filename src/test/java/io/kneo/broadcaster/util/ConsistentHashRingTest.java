@@ -0,0 +1,57 @@
+package io.kneo.broadcaster.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 10_000;
+
+    @Test
+    void keysSpreadAcrossNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.owner("station-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > KEYS / 5, "unbalanced: " + counts));
+    }
+
+    @Test
+    void joiningNodeOnlyTakesKeysFromOthers() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b", "c", "d"), 128);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "station-" + i;
+            String oldOwner = before.owner(key);
+            String newOwner = after.owner(key);
+            if (!oldOwner.equals(newOwner)) {
+                assertEquals("d", newOwner);
+                moved++;
+            }
+        }
+
+        assertTrue(moved > KEYS / 8 && moved < KEYS / 3, "moved " + moved);
+    }
+
+    @Test
+    void ownerDoesNotDependOnNodeOrder() {
+        ConsistentHashRing first = new ConsistentHashRing(List.of("a", "b"), 64);
+        ConsistentHashRing second = new ConsistentHashRing(List.of("b", "a"), 64);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.owner("s" + i), second.owner("s" + i));
+        }
+        assertNull(new ConsistentHashRing(List.of(), 64).owner("s"));
+    }
+}
@@ -0,0 +1,98 @@
+package io.kneo.broadcaster.util;
+
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EntityCacheTest {
+
+    @Test
+    void repeatedLookupsHitTheCache() {
+        EntityCache<String, String> cache = new EntityCache<>("test", 10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            String value = cache.get("a", key -> {
+                loads.incrementAndGet();
+                return Uni.createFrom().item(key.toUpperCase());
+            }).await().indefinitely();
+            assertEquals("A", value);
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.getStats().hits());
+        assertEquals(1, cache.getStats().misses());
+    }
+
+    @Test
+    void invalidationForcesReload() {
+        EntityCache<String, Integer> cache = new EntityCache<>("test", 10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", key -> Uni.createFrom().item(loads.incrementAndGet())).await().indefinitely();
+        cache.invalidate("a");
+        int value = cache.get("a", key -> Uni.createFrom().item(loads.incrementAndGet())).await().indefinitely();
+
+        assertEquals(2, value);
+        assertEquals(1, cache.getStats().invalidations());
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        EntityCache<String, String> cache = new EntityCache<>("test", 10, Duration.ofMinutes(1));
+
+        assertThrows(IllegalStateException.class, () -> cache.get("a",
+                key -> Uni.createFrom().<String>failure(new IllegalStateException("db down"))).await().indefinitely());
+        String value = cache.get("a", key -> Uni.createFrom().item("ok")).await().indefinitely();
+
+        assertEquals("ok", value);
+        assertEquals(1, cache.getStats().loadFailures());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        EntityCache<String, String> cache = new EntityCache<>("test", 2, Duration.ofMinutes(1));
+
+        cache.get("a", key -> Uni.createFrom().item(key)).await().indefinitely();
+        cache.get("b", key -> Uni.createFrom().item(key)).await().indefinitely();
+        cache.get("a", key -> Uni.createFrom().item(key)).await().indefinitely();
+        cache.get("c", key -> Uni.createFrom().item(key)).await().indefinitely();
+
+        assertEquals(1, cache.getStats().evictions());
+        AtomicInteger reloads = new AtomicInteger();
+        cache.get("a", key -> {
+            reloads.incrementAndGet();
+            return Uni.createFrom().item(key);
+        }).await().indefinitely();
+        assertEquals(0, reloads.get());
+    }
+
+    @Test
+    void totalWeightIsBounded() {
+        EntityCache<String, String> cache = new EntityCache<>("test", 10, 10, Duration.ofMinutes(1), String::length);
+
+        cache.get("a", key -> Uni.createFrom().item("aaaa")).await().indefinitely();
+        cache.get("b", key -> Uni.createFrom().item("bbbb")).await().indefinitely();
+        cache.get("c", key -> Uni.createFrom().item("cccc")).await().indefinitely();
+
+        assertEquals(2, cache.getStats().size());
+        assertEquals(8, cache.getStats().weight());
+        assertEquals(1, cache.getStats().evictions());
+    }
+
+    @Test
+    void valueHeavierThanTheBudgetIsReturnedButNotKept() {
+        EntityCache<String, String> cache = new EntityCache<>("test", 10, 10, Duration.ofMinutes(1), String::length);
+
+        String value = cache.get("big", key -> Uni.createFrom().item("x".repeat(11))).await().indefinitely();
+
+        assertEquals(11, value.length());
+        assertEquals(0, cache.getStats().size());
+        assertEquals(0, cache.getStats().weight());
+    }
+}
@@ -0,0 +1,54 @@
+package io.kneo.broadcaster.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpiryWheelTest {
+
+    private static final long TICK = 1_000;
+
+    @Test
+    void onlyDueKeysAreReturned() {
+        long now = 100 * TICK;
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(Duration.ofMillis(TICK), 16, now);
+        wheel.schedule("soon", now + 1_500);
+        wheel.schedule("later", now + 5_200);
+
+        assertTrue(wheel.advance(now + 1_000).isEmpty());
+        assertEquals(List.of("soon"), keys(wheel.advance(now + 2_000)));
+        assertEquals(List.of("later"), keys(wheel.advance(now + 6_000)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void keyInRunningTickIsNotSkipped() {
+        long now = 100 * TICK;
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(Duration.ofMillis(TICK), 16, now);
+        wheel.advance(now + 200);
+        wheel.schedule("same-tick", now + 800);
+
+        assertTrue(wheel.advance(now + 500).isEmpty());
+        assertEquals(List.of("same-tick"), keys(wheel.advance(now + 900)));
+    }
+
+    @Test
+    void deadlinesBeyondOneRevolutionWaitForTheirTurn() {
+        long now = 100 * TICK;
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(Duration.ofMillis(TICK), 4, now);
+        wheel.schedule("far", now + 10 * TICK);
+
+        for (int i = 1; i < 10; i++) {
+            assertTrue(wheel.advance(now + i * TICK).isEmpty());
+        }
+        assertEquals(List.of("far"), keys(wheel.advance(now + 10 * TICK)));
+    }
+
+    private static List<String> keys(List<ExpiryWheel.Scheduled<String>> due) {
+        return due.stream().map(ExpiryWheel.Scheduled::key).toList();
+    }
+}
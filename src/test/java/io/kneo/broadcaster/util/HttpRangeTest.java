@@ -0,0 +1,61 @@
+package io.kneo.broadcaster.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpRangeTest {
+
+    @Test
+    void closedRangeIsClampedToSize() {
+        HttpRange range = HttpRange.parse("bytes=100-2000");
+
+        assertEquals(100, range.firstByte(1000));
+        assertEquals(999, range.lastByte(1000));
+        assertEquals(900, range.length(1000));
+        assertEquals("bytes 100-999/1000", range.contentRange(1000));
+    }
+
+    @Test
+    void openAndSuffixRanges() {
+        assertEquals(500, HttpRange.parse("bytes=500-").length(1000));
+        HttpRange suffix = HttpRange.parse("bytes=-200");
+        assertEquals(800, suffix.firstByte(1000));
+        assertEquals(200, suffix.length(1000));
+        assertEquals("bytes=-200", suffix.toHeaderValue());
+    }
+
+    @Test
+    void unsupportedOrInvalidHeadersAreIgnored() {
+        assertNull(HttpRange.parse(null));
+        assertNull(HttpRange.parse("bytes=0-10,20-30"));
+        assertNull(HttpRange.parse("bytes=10-5"));
+        assertNull(HttpRange.parse("items=0-10"));
+        assertNull(HttpRange.parse("bytes=abc-"));
+    }
+
+    @Test
+    void rangeStartingPastTheEndIsUnsatisfiable() {
+        assertFalse(HttpRange.parse("bytes=1000-").isSatisfiable(1000));
+    }
+
+    @Test
+    void rangeIsResolvedAgainstSizeBeforeForwarding() {
+        assertEquals("bytes=100-999", HttpRange.parse("bytes=100-2000").toHeaderValue(1000));
+        assertEquals("bytes=800-999", HttpRange.parse("bytes=-200").toHeaderValue(1000));
+    }
+
+    @Test
+    void ifRangeMustMatchLastModified() {
+        long lastModified = 1_700_000_000_000L;
+        String date = HttpRange.httpDate(lastModified);
+
+        assertTrue(HttpRange.parse("bytes=0-10").appliesTo(lastModified));
+        assertTrue(HttpRange.parse("bytes=0-10", date).appliesTo(lastModified));
+        assertFalse(HttpRange.parse("bytes=0-10", date).appliesTo(lastModified + 60_000));
+        assertFalse(HttpRange.parse("bytes=0-10", "\"abc\"").appliesTo(lastModified));
+    }
+}